@@ -18,14 +18,15 @@
  */
 package org.mythtv.client;
 
-import java.util.logging.Level;
-
 import org.mythtv.client.ui.preferences.LocationProfile;
 import org.mythtv.client.ui.preferences.PlaybackProfile;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
 import org.mythtv.db.preferences.PlaybackProfileDaoHelper;
+import org.mythtv.service.dvr.cache.ArtworkLruMemoryCache;
+import org.mythtv.service.guide.cache.ProgramGuideLruMemoryCache;
+import org.mythtv.service.util.BackendReachabilityMonitor;
+import org.mythtv.service.util.MythServicesClientRegistry;
 import org.mythtv.services.api.MythServices;
-import org.mythtv.services.connect.MythServicesServiceProvider;
 
 import android.app.ActivityManager;
 import android.app.Application;
@@ -53,12 +54,15 @@ public class MainApplication extends Application {
 	private LocationProfileDaoHelper mLocationProfileDaoHelper;
 	private PlaybackProfileDaoHelper mPlaybackProfileDaoHelper;
 	
-	private MythServicesServiceProvider provider;
+	private MythServicesClientRegistry mClientRegistry;
 	
     private String clockType = "12h";
     private String dateFormat = "yyyy-MM-dd";
 
 	protected ObjectMapper mObjectMapper;
+	
+	private ProgramGuideLruMemoryCache mProgramGuideCache;
+	private ArtworkLruMemoryCache mArtworkCache;
 
 	//***************************************
     // Application methods
@@ -76,6 +80,9 @@ public class MainApplication extends Application {
 		
 		mLocationProfileDaoHelper = new LocationProfileDaoHelper( this );
 		mPlaybackProfileDaoHelper = new PlaybackProfileDaoHelper( this );
+		mClientRegistry = MythServicesClientRegistry.newInstance();
+		
+		BackendReachabilityMonitor.getInstance( this ).start();
 		
 		String systemClock = Settings.System.getString( getApplicationContext().getContentResolver(), Settings.System.TIME_12_24 );
         if( null != systemClock ) {
@@ -102,10 +109,49 @@ public class MainApplication extends Application {
 		Log.v( TAG, "onCreate : exit" );
 	}
 
+	/* (non-Javadoc)
+	 * @see android.app.Application#onLowMemory()
+	 */
+	@Override
+	public void onLowMemory() {
+		Log.v( TAG, "onLowMemory : enter" );
+		super.onLowMemory();
+		
+		trimCaches( TRIM_MEMORY_COMPLETE );
+		
+		Log.v( TAG, "onLowMemory : exit" );
+	}
+
+	/* (non-Javadoc)
+	 * @see android.app.Application#onTrimMemory(int)
+	 */
+	@Override
+	public void onTrimMemory( int level ) {
+		Log.v( TAG, "onTrimMemory : enter" );
+		super.onTrimMemory( level );
+		
+		if( level >= TRIM_MEMORY_RUNNING_LOW ) {
+			trimCaches( level );
+		}
+		
+		Log.v( TAG, "onTrimMemory : exit" );
+	}
+
 	
 	//***************************************
     // Private methods
     //***************************************
+	private synchronized void trimCaches( int level ) {
+		
+		if( null != mProgramGuideCache ) {
+			mProgramGuideCache.trimMemory( level );
+		}
+		
+		if( null != mArtworkCache ) {
+			mArtworkCache.trimMemory( level );
+		}
+		
+	}
 
 	
 	//***************************************
@@ -114,19 +160,26 @@ public class MainApplication extends Application {
 	public MythServices getMythServicesApi() {
 		Log.v( TAG, "getMythServicesApi : enter" );
 		
-		provider = new MythServicesServiceProvider( getMasterBackend(), Level.FINE );
+		MythServices api = mClientRegistry.getConnected( getMasterBackend() );
 		
 		Log.v( TAG, "getMythServicesApi : exit" );
-		return provider.getApi();
+		return api;
 	}
 
 	public MythServices getMythServicesApi( LocationProfile profile ) {
 		Log.v( TAG, "getMythServicesApi : enter" );
 		
-		MythServicesServiceProvider provider = new MythServicesServiceProvider( profile.getUrl() );
+		MythServices api = mClientRegistry.get( profile.getUrl() );
 		
 		Log.v( TAG, "getMythServicesApi : exit" );
-		return provider.getApi();
+		return api;
+	}
+
+	/**
+	 * @return the registry holding the pooled services clients, for its connection statistics
+	 */
+	public MythServicesClientRegistry getMythServicesClientRegistry() {
+		return mClientRegistry;
 	}
 
 	public static void initImageLoader( Context context ) {
@@ -155,6 +208,36 @@ public class MainApplication extends Application {
 		ImageLoader.getInstance().init( config );
 	}
 	
+	/**
+	 * The guide cache is shared by every guide screen, so it survives rotations and new activities.
+	 * 
+	 * @return the program guide cache
+	 */
+	public synchronized ProgramGuideLruMemoryCache getProgramGuideCache() {
+		
+		if( null == mProgramGuideCache ) {
+			int memoryClass = ( (ActivityManager) getSystemService( Context.ACTIVITY_SERVICE ) ).getMemoryClass();
+			
+			mProgramGuideCache = new ProgramGuideLruMemoryCache( this, ( memoryClass / 16 ) * 1024 * 1024 );
+		}
+		
+		return mProgramGuideCache;
+	}
+	
+	/**
+	 * @return the banner and cover art cache shared by the recordings screens
+	 */
+	public synchronized ArtworkLruMemoryCache getArtworkCache() {
+		
+		if( null == mArtworkCache ) {
+			int memoryClass = ( (ActivityManager) getSystemService( Context.ACTIVITY_SERVICE ) ).getMemoryClass();
+			
+			mArtworkCache = new ArtworkLruMemoryCache( this, ( memoryClass / 16 ) * 1024 * 1024 );
+		}
+		
+		return mArtworkCache;
+	}
+	
 	/**
 	 * @return the mObjectMapper
 	 */
@@ -23,10 +23,13 @@ import java.io.FilenameFilter;
 
 import org.mythtv.client.ui.preferences.LocationProfile;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
+import org.mythtv.service.SyncScheduler;
+import org.mythtv.service.SyncScheduler.Dataset;
+import org.mythtv.service.SyncScheduler.Priority;
 import org.mythtv.service.channel.ChannelDownloadService;
 import org.mythtv.service.guide.ProgramGuideCleanupService;
-import org.mythtv.service.guide.ProgramGuideDownloadService;
 import org.mythtv.service.guide.ProgramGuideDownloadServiceNew;
+import org.mythtv.service.guide.cache.ProgramGuideBinaryFormat;
 import org.mythtv.service.util.FileHelper;
 import org.mythtv.service.util.RunningServiceHelper;
 
@@ -54,7 +57,6 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 	
 	private ChannelDownloadReceiver channelDownloadReceiver = new ChannelDownloadReceiver();
 	private ProgramGuideDownloadReceiver programGuideDownloadReceiver = new ProgramGuideDownloadReceiver();
-	private ProgramGuideDownloadReceiverNew programGuideDownloadReceiverNew = new ProgramGuideDownloadReceiverNew();
 	private ProgramGuideCleanupReceiver programGuideCleanupReceiver = new ProgramGuideCleanupReceiver();
 	
 	// ***************************************
@@ -98,15 +100,10 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 	    registerReceiver( programGuideCleanupReceiver, programGuideCleanupFilter );
 	    
 		IntentFilter programGuideDownloadFilter = new IntentFilter();
-		programGuideDownloadFilter.addAction( ProgramGuideDownloadService.ACTION_PROGRESS );
-		programGuideDownloadFilter.addAction( ProgramGuideDownloadService.ACTION_COMPLETE );
+		programGuideDownloadFilter.addAction( ProgramGuideDownloadServiceNew.ACTION_PROGRESS );
+		programGuideDownloadFilter.addAction( ProgramGuideDownloadServiceNew.ACTION_COMPLETE );
 	    registerReceiver( programGuideDownloadReceiver, programGuideDownloadFilter );
 	    
-		IntentFilter programGuideDownloadFilterNew = new IntentFilter();
-		programGuideDownloadFilterNew.addAction( ProgramGuideDownloadServiceNew.ACTION_PROGRESS );
-		programGuideDownloadFilterNew.addAction( ProgramGuideDownloadServiceNew.ACTION_COMPLETE );
-	    registerReceiver( programGuideDownloadReceiverNew, programGuideDownloadFilterNew );
-	    
 	    Log.v( TAG, "onStart : exit" );
 	}
 
@@ -118,8 +115,9 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 		Log.v( TAG, "onResume : enter" );
 		super.onResume();
 
-		startService( new Intent( ChannelDownloadService.ACTION_DOWNLOAD ) );
-		startService( new Intent( ProgramGuideCleanupService.ACTION_CLEANUP ) );
+		SyncScheduler scheduler = SyncScheduler.getInstance( this );
+		scheduler.request( Dataset.CHANNELS, Priority.BACKGROUND );
+		scheduler.request( Dataset.GUIDE_CLEANUP, Priority.BACKGROUND );
 
 		Log.v( TAG, "onResume : exit" );
 	}
@@ -160,15 +158,6 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 			}
 		}
 
-		if( null != programGuideDownloadReceiverNew ) {
-			try {
-				unregisterReceiver( programGuideDownloadReceiverNew );
-				//programGuideDownloadReceiver = null;
-			} catch( IllegalArgumentException e ) {
-				Log.e( TAG, "onStop : error", e );
-			}
-		}
-
 	}
 
 	/*
@@ -201,18 +190,14 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 		public void onReceive( Context context, Intent intent ) {
 			
 	        if ( intent.getAction().equals( ChannelDownloadService.ACTION_PROGRESS ) ) {
-	        	Log.i( TAG, "ProgramGuideDownloadReceiver.onReceive : progress=" + intent.getStringExtra( ProgramGuideDownloadService.EXTRA_PROGRESS ) );
+	        	Log.i( TAG, "ChannelDownloadReceiver.onReceive : progress=" + intent.getStringExtra( ChannelDownloadService.EXTRA_PROGRESS ) );
 	        }
 	        
 	        if ( intent.getAction().equals( ChannelDownloadService.ACTION_COMPLETE ) ) {
-	        	Log.i( TAG, "ProgramGuideDownloadReceiver.onReceive : " + intent.getStringExtra( ProgramGuideDownloadService.EXTRA_COMPLETE ) );
+	        	Log.i( TAG, "ChannelDownloadReceiver.onReceive : " + intent.getStringExtra( ChannelDownloadService.EXTRA_COMPLETE ) );
 	        	
- //       		Toast.makeText( AbstractLocationAwareFragmentActivity.this, "Channels Loaded!", Toast.LENGTH_SHORT ).show();
-
-//	        	if( !mRunningServiceHelper.isServiceRunning( "org.mythtv.service.guide.ProgramGuideDownloadServiceNew" ) ) {
-//	    			startService( new Intent( ProgramGuideDownloadServiceNew.ACTION_DOWNLOAD ) );
-//	    		}
-
+	        	// the guide is requested by channel, refresh it once the channels are stored
+	        	SyncScheduler.getInstance( AbstractLocationAwareFragmentActivity.this ).request( Dataset.GUIDE, Priority.BACKGROUND );
 	        }
 
 		}
@@ -224,37 +209,12 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 		@Override
 		public void onReceive( Context context, Intent intent ) {
 			
-	        if ( intent.getAction().equals( ProgramGuideDownloadService.ACTION_PROGRESS ) ) {
-	        	Log.i( TAG, "ProgramGuideDownloadReceiver.onReceive : progress=" + intent.getStringExtra( ProgramGuideDownloadService.EXTRA_PROGRESS ) );
-	        }
-	        
-	        if ( intent.getAction().equals( ProgramGuideDownloadService.ACTION_COMPLETE ) ) {
-	        	Log.i( TAG, "ProgramGuideDownloadReceiver.onReceive : " + intent.getStringExtra( ProgramGuideDownloadService.EXTRA_COMPLETE ) );
-	        	
-	        	if( intent.getBooleanExtra( ProgramGuideDownloadService.EXTRA_COMPLETE_DOWNLOADED, Boolean.FALSE ) ) {
-	        		Toast.makeText( AbstractLocationAwareFragmentActivity.this, "Program Guide updated!", Toast.LENGTH_SHORT ).show();
-	        	}
-
-	        	if( intent.getExtras().containsKey( ProgramGuideDownloadService.EXTRA_COMPLETE_OFFLINE ) ) {
-	        		Toast.makeText( AbstractLocationAwareFragmentActivity.this, "Program Guide Update failed because Master Backend is not connected!", Toast.LENGTH_SHORT ).show();
-	        	}
-	        }
-
-		}
-		
-	}
-
-	private class ProgramGuideDownloadReceiverNew extends BroadcastReceiver {
-
-		@Override
-		public void onReceive( Context context, Intent intent ) {
-			
 	        if ( intent.getAction().equals( ProgramGuideDownloadServiceNew.ACTION_PROGRESS ) ) {
-	        	Log.i( TAG, "ProgramGuideDownloadReceiverNew.onReceive : progress=" + intent.getStringExtra( ProgramGuideDownloadServiceNew.EXTRA_PROGRESS ) );
+	        	Log.i( TAG, "ProgramGuideDownloadReceiver.onReceive : progress=" + intent.getStringExtra( ProgramGuideDownloadServiceNew.EXTRA_PROGRESS ) );
 	        }
 	        
 	        if ( intent.getAction().equals( ProgramGuideDownloadServiceNew.ACTION_COMPLETE ) ) {
-	        	Log.i( TAG, "ProgramGuideDownloadReceiverNew.onReceive : " + intent.getStringExtra( ProgramGuideDownloadServiceNew.EXTRA_COMPLETE ) );
+	        	Log.i( TAG, "ProgramGuideDownloadReceiver.onReceive : " + intent.getStringExtra( ProgramGuideDownloadServiceNew.EXTRA_COMPLETE ) );
 	        	
 	        	if( intent.getBooleanExtra( ProgramGuideDownloadServiceNew.EXTRA_COMPLETE_DOWNLOADED, Boolean.FALSE ) ) {
 	        		Toast.makeText( AbstractLocationAwareFragmentActivity.this, "Program Guide updated!", Toast.LENGTH_SHORT ).show();
@@ -282,7 +242,7 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 	    		    
 	    			public boolean accept( File directory, String fileName ) {
 	    	            return fileName.startsWith( mLocationProfile.getHostname() + "_" ) &&
-	    	            		fileName.endsWith( ProgramGuideDownloadService.FILENAME_EXT );
+	    	            		fileName.endsWith( ProgramGuideBinaryFormat.FILENAME_EXT );
 	    	        }
 	    			
 	    	    };
@@ -291,10 +251,8 @@ public abstract class AbstractLocationAwareFragmentActivity extends AbstractMyth
 	    		if( null != programGuideCache && programGuideCache.exists() ) {
 		        	Log.i( TAG, "ProgramGuideCleanupReceiver.onReceive : programGuide count=" + programGuideCache.list( filter ).length );
 	    			
-	    			if( programGuideCache.list( filter ).length < ProgramGuideDownloadService.MAX_HOURS ) {
-	    				if( !mRunningServiceHelper.isServiceRunning( "org.mythtv.service.guide.ProgramGuideDownloadService" ) ) {
-		    				startService( new Intent( ProgramGuideDownloadService.ACTION_DOWNLOAD ) );
-	    				}
+	    			if( programGuideCache.list( filter ).length < ProgramGuideDownloadServiceNew.MAX_HOURS ) {
+	    				SyncScheduler.getInstance( AbstractLocationAwareFragmentActivity.this ).request( Dataset.GUIDE, Priority.BACKGROUND );
 	    			}
 	    			
 	    		}
@@ -32,10 +32,14 @@ import org.mythtv.db.dvr.RecordedDaoHelper;
 import org.mythtv.db.dvr.programGroup.ProgramGroup;
 import org.mythtv.db.dvr.programGroup.ProgramGroupDaoHelper;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
+import org.mythtv.service.content.LiveStreamMonitor;
+import org.mythtv.service.content.LiveStreamMonitor.LiveStreamListener;
+import org.mythtv.service.dvr.ArtworkDownloadService.ArtworkType;
+import org.mythtv.service.dvr.cache.ArtworkLruMemoryCache;
+import org.mythtv.service.dvr.cache.ArtworkLruMemoryCache.ArtworkListener;
 import org.mythtv.service.util.DateUtils;
 import org.mythtv.service.util.NetworkHelper;
 import org.mythtv.services.api.Bool;
-import org.mythtv.services.api.ETagInfo;
 import org.mythtv.services.api.content.LiveStreamInfo;
 import org.mythtv.services.api.content.LiveStreamInfoWrapper;
 import org.mythtv.services.api.dvr.Program;
@@ -48,10 +52,12 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.os.AsyncTask;
 import android.os.AsyncTask.Status;
 import android.os.Bundle;
 import android.support.v4.app.FragmentActivity;
+import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -93,9 +99,11 @@ public class EpisodeFragment extends AbstractMythFragment {
 	private MenuItem addHlsMenuItem = null, clearHlsMenuItem;
 	
 	private CreateStreamTask createStreamTask = null;
-	private UpdateStreamInfoTask updateStreamInfoTask = null;
+	private LiveStreamMonitor mLiveStreamMonitor;
+	private int watchedLiveStreamId = -1;
 	
 	private ImageLoader imageLoader = ImageLoader.getInstance();
+	private ArtworkLruMemoryCache mArtworkCache;
 	private DisplayImageOptions options;
 
 	private SharedPreferences preferences = null;
@@ -132,6 +140,7 @@ public class EpisodeFragment extends AbstractMythFragment {
 			.build();
 
 		mLiveStreamDaoHelper = ( (AbstractDvrActivity) getActivity() ).getLiveStreamDaoHelper();
+		mLiveStreamMonitor = LiveStreamMonitor.getInstance( getActivity() );
 		mLocationProfileDaoHelper = ( (AbstractDvrActivity) getActivity() ).getLocationProfileDaoHelper();
 		mMenuHelper = ( (AbstractDvrActivity) getActivity() ).getMenuHelper();
 		mNetworkHelper = ( (AbstractDvrActivity) getActivity() ).getNetworkHelper();
@@ -180,11 +189,7 @@ public class EpisodeFragment extends AbstractMythFragment {
 			createStreamTask.cancel( true );
 		}
 		
-		if( null != updateStreamInfoTask && Status.FINISHED != updateStreamInfoTask.getStatus() ) {
-			Log.d( TAG, "onDestroy : cancelling update stream task" );
-
-			updateStreamInfoTask.cancel( true );
-		}
+		unwatchLiveStream();
 
 		Log.v( TAG, "onDestroy : exit" );
 	}
@@ -388,11 +393,7 @@ public class EpisodeFragment extends AbstractMythFragment {
 								createStreamTask.cancel( true );
 							}
 							
-							if( null != updateStreamInfoTask && Status.FINISHED != updateStreamInfoTask.getStatus() ) {
-								Log.d( TAG, "onClick : cancelling update stream task" );
-
-								updateStreamInfoTask.cancel( true );
-							}
+							unwatchLiveStream();
 
 							new RemoveStreamTask().execute();
 							
@@ -430,11 +431,7 @@ public class EpisodeFragment extends AbstractMythFragment {
 								createStreamTask.cancel( true );
 							}
 							
-							if( null != updateStreamInfoTask && Status.FINISHED != updateStreamInfoTask.getStatus() ) {
-								Log.d( TAG, "onClick : cancelling update stream task" );
-
-								updateStreamInfoTask.cancel( true );
-							}
+							unwatchLiveStream();
 							
 							if( null != liveStreamInfo ) {
 								new RemoveStreamTask().execute();
@@ -467,11 +464,7 @@ public class EpisodeFragment extends AbstractMythFragment {
 			createStreamTask.cancel( true );
 		}
 		
-		if( null != updateStreamInfoTask && Status.FINISHED != updateStreamInfoTask.getStatus() ) {
-			Log.d( TAG, "loadEpisode : cancelling update stream task" );
-
-			updateStreamInfoTask.cancel( true );
-		}
+		unwatchLiveStream();
 
 		program = null;
 		liveStreamInfo = null;
@@ -480,6 +473,10 @@ public class EpisodeFragment extends AbstractMythFragment {
 			mLiveStreamDaoHelper = ( (AbstractDvrActivity) getActivity() ).getLiveStreamDaoHelper();
 		}
 		
+		if( null == mLiveStreamMonitor ) {
+			mLiveStreamMonitor = LiveStreamMonitor.getInstance( getActivity() );
+		}
+		
 		if( null == mLocationProfileDaoHelper ) {
 			mLocationProfileDaoHelper = ( (AbstractDvrActivity) getActivity() ).getLocationProfileDaoHelper();
 		}
@@ -505,23 +502,29 @@ public class EpisodeFragment extends AbstractMythFragment {
 			
 			if( null != program.getInetref() && !"".equals( program.getInetref() ) ) {
 
-				String imageUri = mLocationProfileDaoHelper.findConnectedProfile().getUrl() + "Content/GetRecordingArtwork?Type=Coverart&Inetref=" + program.getInetref();
-				imageLoader.displayImage( imageUri, iView, options, new SimpleImageLoadingListener() {
-
-					/* (non-Javadoc)
-					 * @see com.nostra13.universalimageloader.core.assist.SimpleImageLoadingListener#onLoadingComplete(android.graphics.Bitmap)
-					 */
-					@Override
-					public void onLoadingComplete( Bitmap loadedImage ) {
-				        iView.setVisibility( View.VISIBLE );
-					}
+				// the cover art fetched by the artwork sync is read from disk, otherwise it is requested from the backend
+				final Program shown = program;
+				final String imageUri = mLocationProfileDaoHelper.findConnectedProfile().getUrl() + "Content/GetRecordingArtwork?Type=Coverart&Inetref=" + program.getInetref();
+				getArtworkCache().loadArtwork( ArtworkType.COVERART, program.getTitle(), new ArtworkListener() {
 
 					/* (non-Javadoc)
-					 * @see com.nostra13.universalimageloader.core.assist.SimpleImageLoadingListener#onLoadingFailed(com.nostra13.universalimageloader.core.assist.FailReason)
+					 * @see org.mythtv.service.dvr.cache.ArtworkLruMemoryCache.ArtworkListener#onArtwork(android.graphics.drawable.BitmapDrawable)
 					 */
 					@Override
-					public void onLoadingFailed( FailReason failReason ) {
-				        iView.setVisibility( View.GONE );
+					public void onArtwork( BitmapDrawable artwork ) {
+						
+						// another episode was loaded in the meantime
+						if( shown != program ) {
+							return;
+						}
+						
+						if( null != artwork ) {
+							iView.setImageDrawable( artwork );
+					        iView.setVisibility( View.VISIBLE );
+						} else {
+							displayCoverart( iView, imageUri );
+						}
+						
 					}
 					
 				});
@@ -569,6 +572,43 @@ public class EpisodeFragment extends AbstractMythFragment {
 
 	// internal helpers
 	
+	private ArtworkLruMemoryCache getArtworkCache() {
+		
+		if( null == mArtworkCache ) {
+			DisplayMetrics metrics = getResources().getDisplayMetrics();
+			
+			// the cover art takes up to half of the screen in either orientation
+			mArtworkCache = getMainApplication().getArtworkCache();
+			mArtworkCache.setTargetSize( ArtworkType.COVERART, metrics.widthPixels / 2, metrics.heightPixels / 2 );
+		}
+		
+		return mArtworkCache;
+	}
+	
+	private void displayCoverart( final ImageView iView, String imageUri ) {
+		
+		imageLoader.displayImage( imageUri, iView, options, new SimpleImageLoadingListener() {
+
+			/* (non-Javadoc)
+			 * @see com.nostra13.universalimageloader.core.assist.SimpleImageLoadingListener#onLoadingComplete(android.graphics.Bitmap)
+			 */
+			@Override
+			public void onLoadingComplete( Bitmap loadedImage ) {
+		        iView.setVisibility( View.VISIBLE );
+			}
+
+			/* (non-Javadoc)
+			 * @see com.nostra13.universalimageloader.core.assist.SimpleImageLoadingListener#onLoadingFailed(com.nostra13.universalimageloader.core.assist.FailReason)
+			 */
+			@Override
+			public void onLoadingFailed( FailReason failReason ) {
+		        iView.setVisibility( View.GONE );
+			}
+			
+		});
+		
+	}
+	
 	private void setDismissAddPreference( boolean isChecked ) {
 		
 		SharedPreferences.Editor editor = preferences.edit();
@@ -589,7 +629,7 @@ public class EpisodeFragment extends AbstractMythFragment {
         	} else if( liveStreamInfo.getPercentComplete() >= 0 ) {
         		hlsView.setText( "Processing " + liveStreamInfo.getPercentComplete() + "%" );
         		
-        		new UpdateStreamInfoTask().execute();
+        		watchLiveStream();
         	} else {
         		hlsView.setText( "" );
         	}
@@ -654,11 +694,63 @@ public class EpisodeFragment extends AbstractMythFragment {
 				.show();
 	}
 
+	private void watchLiveStream() {
+		
+		if( null == liveStreamInfo || null == program ) {
+			return;
+		}
+		
+		if( watchedLiveStreamId != liveStreamInfo.getId() ) {
+			unwatchLiveStream();
+		}
+		
+		watchedLiveStreamId = liveStreamInfo.getId();
+		mLiveStreamMonitor.watch( liveStreamInfo, program, liveStreamListener );
+		
+	}
+	
+	private void unwatchLiveStream() {
+		
+		if( watchedLiveStreamId != -1 ) {
+			mLiveStreamMonitor.unwatch( watchedLiveStreamId, liveStreamListener );
+			
+			watchedLiveStreamId = -1;
+		}
+		
+	}
+	
+	private final LiveStreamListener liveStreamListener = new LiveStreamListener() {
+
+		@Override
+		public void liveStreamUpdated( LiveStreamInfo updated ) {
+			Log.v( TAG, "liveStreamUpdated : enter" );
+			
+			if( null == getActivity() || null == liveStreamInfo || liveStreamInfo.getId() != updated.getId() ) {
+				Log.v( TAG, "liveStreamUpdated : exit, no longer showing this stream" );
+				
+				return;
+			}
+			
+			liveStreamInfo = updated;
+			
+			updateHlsDetails();
+			updateHlsMenuButtons();
+			
+			Log.v( TAG, "liveStreamUpdated : exit" );
+		}
+
+		@Override
+		public void liveStreamError( LiveStreamInfo liveStreamInfo, Exception e ) {
+			Log.e( TAG, "error updating live stream", e );
+		}
+		
+	};
+	
 	public void checkLiveStreamInfo( ResponseEntity<LiveStreamInfoWrapper> info ){
 		Log.v( TAG, "checkLiveStreamInfo : enter" );
 
-		if( info.getBody().getLiveStreamInfo().getStatusInt() < 2 || info.getBody().getLiveStreamInfo().getCurrentSegment() <= 2 ) {
-			new UpdateStreamInfoTask().execute();
+		if( !LiveStreamMonitor.isReady( info.getBody().getLiveStreamInfo() ) ) {
+			watchLiveStream();
 		}
 
 		Log.v( TAG, "checkLiveStreamInfo : exit" );
@@ -808,7 +900,7 @@ public class EpisodeFragment extends AbstractMythFragment {
 						liveStreamInfo = result.getBody().getLiveStreamInfo();
 						mLiveStreamDaoHelper.save( liveStreamInfo, program );
 						
-						new UpdateStreamInfoTask().execute();
+						watchLiveStream();
 						
 						updateHlsDetails();
 						updateHlsMenuButtons();
@@ -833,85 +925,6 @@ public class EpisodeFragment extends AbstractMythFragment {
 		}
 	}
 
-	private class UpdateStreamInfoTask extends AsyncTask<Void, Void, ResponseEntity<LiveStreamInfoWrapper>> {
-
-		private Exception e = null;
-
-		@Override
-		protected ResponseEntity<LiveStreamInfoWrapper> doInBackground( Void... params ) {
-			Log.v( TAG, "UpdateStreamInfoTask : enter" );
-
-			if( !mNetworkHelper.isNetworkConnected() ) {
-				Log.v( TAG, "UpdateStreamInfoTask : exit, not connected" );
-				
-				return null;
-			}
-
-			if( null == liveStreamInfo ) {
-				Log.v( TAG, "UpdateStreamInfoTask : exit, live stream info is null" );
-				
-				return null;
-			}
-			
-			try {
-				Log.v( TAG, "UpdateStreamInfoTask : api" );
-				
-				if( null != liveStreamInfo ) {
-					if( liveStreamInfo.getPercentComplete() <= 100 ) {
-						Thread.sleep( 10000 );
-						ETagInfo eTag = ETagInfo.createEmptyETag();
-					
-						if( null != getMainApplication() ) {
-							Log.v( TAG, "UpdateStreamInfoTask : exit" );
-							
-							return getMainApplication().getMythServicesApi().contentOperations().getLiveStream( liveStreamInfo.getId(), eTag );
-						}
-					}
-				}
-			} catch( Exception e ) {
-				Log.v( TAG, "UpdateStreamInfoTask : error" );
-
-				this.e = e;
-			}
-
-			Log.v( TAG, "UpdateStreamInfoTask : exit, task in error or was cancelled by user" );
-			return null;
-		}
-
-		@Override
-		protected void onPostExecute( ResponseEntity<LiveStreamInfoWrapper> result ) {
-			Log.v( TAG, "UpdateStreamInfoTask onPostExecute : enter" );
-
-			if( null == e ) {
-				Log.v( TAG, "UpdateStreamInfoTask onPostExecute : no exception occurred" );
-				
-				if( null != result ) {
-					Log.v( TAG, "UpdateStreamInfoTask onPostExecute : result returned from web service" );
-					
-					if( result.getStatusCode().equals( HttpStatus.OK ) ) {
-
-						// save updated live stream info to database
-						liveStreamInfo = result.getBody().getLiveStreamInfo();
-						mLiveStreamDaoHelper.save( liveStreamInfo, program );
-						
-						if( liveStreamInfo.getPercentComplete() < 100 ) {
-							new UpdateStreamInfoTask().execute();
-						}
-						
-						// update display 
-						updateHlsDetails();
-						updateHlsMenuButtons();
-					}
-				}
-			} else {
-				Log.e( TAG, "error updating live stream", e );
-				//exceptionDialolg( e );
-			}
-
-			Log.v( TAG, "UpdateStreamInfoTask onPostExecute : exit" );
-		}
-	}
-
 	private class RemoveStreamTask extends AsyncTask<Void, Void, ResponseEntity<Bool>> {
 
 		private Exception e = null;
@@ -28,10 +28,10 @@ import org.mythtv.client.MainApplication;
 import org.mythtv.client.ui.AbstractMythFragment;
 import org.mythtv.client.ui.preferences.LocationProfile;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
-import org.mythtv.service.guide.ProgramGuideDownloadService;
+import org.mythtv.service.guide.ProgramGuideDownloadServiceNew;
+import org.mythtv.service.guide.cache.ProgramGuideBinaryReader;
 import org.mythtv.service.guide.cache.ProgramGuideLruMemoryCache;
 import org.mythtv.service.util.DateUtils;
-import org.mythtv.services.api.guide.ProgramGuide;
 
 import android.content.BroadcastReceiver;
 import android.content.Context;
@@ -82,7 +82,7 @@ public class GuideFragment extends AbstractMythFragment implements OnClickListen
 		super.onStart();
 
 		IntentFilter programGuideDownloadFilter = new IntentFilter();
-		programGuideDownloadFilter.addAction( ProgramGuideDownloadService.ACTION_PROGRESS );
+		programGuideDownloadFilter.addAction( ProgramGuideDownloadServiceNew.ACTION_PROGRESS );
 	    getActivity().registerReceiver( programGuideDownloaderReceiver, programGuideDownloadFilter );
 	    
 		Log.v( TAG, "onStart : exit" );
@@ -142,7 +142,7 @@ public class GuideFragment extends AbstractMythFragment implements OnClickListen
         mLocationProfileDaoHelper = new LocationProfileDaoHelper( getActivity() );        
         mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
         
-		cache = new ProgramGuideLruMemoryCache( getActivity() );
+		cache = mainApplication.getProgramGuideCache();
 
 		date = DateUtils.getEndOfDay( new DateTime() );
 		updateDateHeader();
@@ -205,6 +205,19 @@ public class GuideFragment extends AbstractMythFragment implements OnClickListen
 		MythtvGuidePagerAdapter mAdapter = new MythtvGuidePagerAdapter( getActivity().getSupportFragmentManager() );
 		ViewPager mPager = (ViewPager) getActivity().findViewById( R.id.guide_pager );
 		mPager.setAdapter( mAdapter );
+		mPager.setOnPageChangeListener( new ViewPager.SimpleOnPageChangeListener() {
+
+			/* (non-Javadoc)
+			 * @see android.support.v4.view.ViewPager.SimpleOnPageChangeListener#onPageSelected(int)
+			 */
+			@Override
+			public void onPageSelected( int position ) {
+				
+				cache.prefetch( mLocationProfile.getHostname(), date.withTime( position, 0, 0, 0 ) );
+				
+			}
+			
+		});
 		mPager.setCurrentItem( now.getHourOfDay() );
 
 		Log.v( TAG, "updateDateHeader : exit" );
@@ -288,8 +301,9 @@ public class GuideFragment extends AbstractMythFragment implements OnClickListen
 //			Log.v( TAG, "getItem : enter" );
 			
 			DateTime programGuideDate = date.withTime( Integer.parseInt( fragmentHeadings.get( position ) ), 0, 0, 0 );
-			ProgramGuide programGuide = cache.get( mLocationProfile.getHostname() + "_" + DateUtils.fileDateTimeFormatter.print( programGuideDate ) );
-            Log.v( TAG, "ProgramGuide for " + mLocationProfile.getHostname() + "_" + DateUtils.fileDateTimeFormatter.print( programGuideDate ) + " loaded" );
+			String key = ProgramGuideLruMemoryCache.getKey( mLocationProfile.getHostname(), programGuideDate );
+			ProgramGuideBinaryReader programGuide = cache.getProgramGuide( key );
+            Log.v( TAG, "ProgramGuide for " + key + " loaded, " + cache.getStats() );
 
 //			Log.v( TAG, "getItem : exit" );
 			return GuidePagerFragment.newInstance( startDate, fragmentHeadings.get( position ), programGuide );
@@ -317,17 +331,17 @@ public class GuideFragment extends AbstractMythFragment implements OnClickListen
 		@Override
 		public void onReceive( Context context, Intent intent ) {
 			
-	        if ( intent.getAction().equals( ProgramGuideDownloadService.ACTION_PROGRESS ) ) {
+	        if ( intent.getAction().equals( ProgramGuideDownloadServiceNew.ACTION_PROGRESS ) ) {
 
-	        	if( intent.hasExtra( ProgramGuideDownloadService.EXTRA_PROGRESS ) ) {
-		        	Log.d( TAG, "ProgramGuideDownloadReceiver.onReceive : progress=" + intent.getStringExtra( ProgramGuideDownloadService.EXTRA_PROGRESS ) );
+	        	if( intent.hasExtra( ProgramGuideDownloadServiceNew.EXTRA_PROGRESS ) ) {
+		        	Log.d( TAG, "ProgramGuideDownloadReceiver.onReceive : progress=" + intent.getStringExtra( ProgramGuideDownloadServiceNew.EXTRA_PROGRESS ) );
 		        	
-		        	DateTime updated = new DateTime( intent.getStringExtra( ProgramGuideDownloadService.EXTRA_PROGRESS_DATE ) );
-		        	cache.remove( mLocationProfile.getHostname() + "_" + DateUtils.fileDateTimeFormatter.print( updated ) );
+		        	DateTime updated = new DateTime( intent.getStringExtra( ProgramGuideDownloadServiceNew.EXTRA_PROGRESS_DATE ) );
+		        	cache.remove( ProgramGuideLruMemoryCache.getKey( mLocationProfile.getHostname(), updated ) );
 	        	}
 	        	
-	        	if( intent.hasExtra( ProgramGuideDownloadService.EXTRA_PROGRESS_ERROR ) ) {
-		        	Log.e( TAG, "ProgramGuideDownloadReceiver.onReceive : progress error=" + intent.getStringExtra( ProgramGuideDownloadService.EXTRA_PROGRESS_ERROR ) );
+	        	if( intent.hasExtra( ProgramGuideDownloadServiceNew.EXTRA_PROGRESS_ERROR ) ) {
+		        	Log.e( TAG, "ProgramGuideDownloadReceiver.onReceive : progress error=" + intent.getStringExtra( ProgramGuideDownloadServiceNew.EXTRA_PROGRESS_ERROR ) );
 	        	}
 	        	
 	        }
@@ -0,0 +1,368 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.client.ui.dvr;
+
+import java.util.List;
+
+import org.joda.time.DateTimeZone;
+import org.mythtv.R;
+import org.mythtv.client.ui.util.ProgramHelper;
+import org.mythtv.service.guide.cache.ProgramGuideBinaryFormat;
+import org.mythtv.service.guide.cache.ProgramGuideBinaryReader;
+import org.mythtv.services.api.channel.ChannelInfo;
+import org.mythtv.services.api.dvr.Program;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Draws a channel's row of the program guide in a single pass. The position of each timeslot is worked out once when
+ * the row is bound, the arrays holding the timeslots are kept and reused when the row is recycled. Rows bound from a
+ * {@link ProgramGuideBinaryReader} read the fields of the records directly and format the times into a reused buffer,
+ * so binding allocates nothing.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class GuideRowView extends View {
+
+	private static final float CHANNEL_WIDTH_DIP = 50.0f;
+	private static final float TITLE_TEXT_SIZE_DIP = 12.0f;
+	private static final float DETAIL_TEXT_SIZE_DIP = 10.0f;
+	
+	private static final int CATEGORY_WIDTH = 10;
+	private static final int STATUS_PADDING = 4;
+	private static final int TEXT_PADDING = 8;
+	private static final int TITLE_PADDING_TOP = 4;
+	private static final int TITLE_PADDING_BOTTOM = 1;
+	private static final int DETAIL_PADDING_TOP = 2;
+	private static final int DETAIL_PADDING_BOTTOM = 4;
+	
+	private static final int INITIAL_CAPACITY = 8;
+	
+	// "hh:mm - hh:mm"
+	private static final int TIME_LENGTH = 13;
+	private static final int MINUTES_PER_DAY = 24 * 60;
+	
+	private final ProgramHelper mProgramHelper;
+	private final DateTimeZone mZone;
+	private final boolean mUse24HourClock;
+	
+	private final Paint mChannelPaint = new Paint( Paint.ANTI_ALIAS_FLAG );
+	private final Paint mTitlePaint = new Paint( Paint.ANTI_ALIAS_FLAG );
+	private final Paint mDetailPaint = new Paint( Paint.ANTI_ALIAS_FLAG );
+	private final Paint mFillPaint = new Paint();
+	
+	private final float mChannelWidth;
+	private final int mDetailsColor;
+	private final int mRowHeight;
+	
+	private String mChannelNumber;
+	
+	private int mSlotCount;
+	private float[] mSlotStarts = new float[ INITIAL_CAPACITY ];
+	private float[] mSlotEnds = new float[ INITIAL_CAPACITY ];
+	private int[] mCategoryColors = new int[ INITIAL_CAPACITY ];
+	private int[] mStatusColors = new int[ INITIAL_CAPACITY ];
+	private String[] mTitles = new String[ INITIAL_CAPACITY ];
+	private char[] mTimes = new char[ INITIAL_CAPACITY * TIME_LENGTH ];
+	private String[] mSubTitles = new String[ INITIAL_CAPACITY ];
+	
+	/**
+	 * @param context
+	 * @param programHelper
+	 * @param zone the program times are shown in
+	 * @param use24HourClock
+	 */
+	public GuideRowView( Context context, ProgramHelper programHelper, DateTimeZone zone, boolean use24HourClock ) {
+		super( context );
+		
+		mProgramHelper = programHelper;
+		mZone = zone;
+		mUse24HourClock = use24HourClock;
+		
+		int textColor = getResources().getColor( R.color.body_text_1 );
+		mDetailsColor = getResources().getColor( R.color.background_1 );
+		
+		mChannelWidth = TypedValue.applyDimension( TypedValue.COMPLEX_UNIT_DIP, CHANNEL_WIDTH_DIP, getResources().getDisplayMetrics() );
+		
+		mChannelPaint.setColor( textColor );
+		mChannelPaint.setTextSize( TypedValue.applyDimension( TypedValue.COMPLEX_UNIT_DIP, TITLE_TEXT_SIZE_DIP, getResources().getDisplayMetrics() ) );
+		
+		mTitlePaint.setColor( textColor );
+		mTitlePaint.setTypeface( Typeface.DEFAULT_BOLD );
+		mTitlePaint.setTextSize( TypedValue.applyDimension( TypedValue.COMPLEX_UNIT_DIP, TITLE_TEXT_SIZE_DIP, getResources().getDisplayMetrics() ) );
+
+		mDetailPaint.setColor( textColor );
+		mDetailPaint.setTypeface( Typeface.DEFAULT_BOLD );
+		mDetailPaint.setTextSize( TypedValue.applyDimension( TypedValue.COMPLEX_UNIT_DIP, DETAIL_TEXT_SIZE_DIP, getResources().getDisplayMetrics() ) );
+		
+		mRowHeight = (int) Math.ceil( STATUS_PADDING * 2
+				+ TITLE_PADDING_TOP + mTitlePaint.getFontSpacing() + TITLE_PADDING_BOTTOM
+				+ ( DETAIL_PADDING_TOP + mDetailPaint.getFontSpacing() + DETAIL_PADDING_BOTTOM ) * 2 );
+	}
+
+	/**
+	 * Lays out the programs of the channel at the position across the timeslot.
+	 * 
+	 * @param reader
+	 * @param position
+	 * @param startTime the start of the timeslot
+	 * @param endTime the end of the timeslot
+	 */
+	public void bind( ProgramGuideBinaryReader reader, int position, long startTime, long endTime ) {
+		
+		mSlotCount = 0;
+		mChannelNumber = null;
+
+		int count = reader.getChannelProgramCount( position );
+		if( count > 0 ) {
+			mChannelNumber = reader.getChannelNumber( position );
+			
+			ensureCapacity( count );
+
+			int first = reader.getFirstProgram( position );
+			for( int i = first; i < first + count; i++ ) {
+				addSlot( reader.getProgramStart( i ), reader.getProgramEnd( i ), reader.getProgramTitle( i ), reader.getProgramSubTitle( i ),
+						reader.getProgramCategory( i ), reader.getProgramRecordingStatus( i ), startTime, endTime );
+			}
+			
+		}
+		
+		bound();
+	}
+	
+	/**
+	 * Lays out the channel's programs across the timeslot.
+	 * 
+	 * @param channel
+	 * @param startTime the start of the timeslot
+	 * @param endTime the end of the timeslot
+	 */
+	public void bind( ChannelInfo channel, long startTime, long endTime ) {
+		
+		mSlotCount = 0;
+		mChannelNumber = null;
+
+		List<Program> programs = null != channel ? channel.getPrograms() : null;
+		if( null != programs && !programs.isEmpty() ) {
+			mChannelNumber = channel.getChannelNumber();
+			
+			ensureCapacity( programs.size() );
+
+			for( int i = 0; i < programs.size(); i++ ) {
+				Program program = programs.get( i );
+				
+				int status = null != program.getRecording() ? program.getRecording().getStatus() : ProgramGuideBinaryFormat.NO_RECORDING;
+				addSlot( program.getStartTime().getMillis(), program.getEndTime().getMillis(), program.getTitle(), program.getSubTitle(),
+						program.getCategory(), status, startTime, endTime );
+			}
+			
+		}
+		
+		bound();
+	}
+	
+	/* (non-Javadoc)
+	 * @see android.view.View#onMeasure(int, int)
+	 */
+	@Override
+	protected void onMeasure( int widthMeasureSpec, int heightMeasureSpec ) {
+		setMeasuredDimension( getDefaultSize( getSuggestedMinimumWidth(), widthMeasureSpec ), mRowHeight );
+	}
+
+	/* (non-Javadoc)
+	 * @see android.view.View#onDraw(android.graphics.Canvas)
+	 */
+	@Override
+	protected void onDraw( Canvas canvas ) {
+		super.onDraw( canvas );
+		
+		if( mSlotCount == 0 ) {
+			return;
+		}
+		
+		int height = getHeight();
+		float slotsWidth = getWidth() - mChannelWidth;
+		
+		drawText( canvas, mChannelNumber, mChannelPaint, 0, TITLE_PADDING_TOP - mChannelPaint.ascent(), mChannelWidth );
+		
+		float titleBaseline = STATUS_PADDING + TITLE_PADDING_TOP - mTitlePaint.ascent();
+		float timeBaseline = STATUS_PADDING + TITLE_PADDING_TOP + mTitlePaint.getFontSpacing() + TITLE_PADDING_BOTTOM + DETAIL_PADDING_TOP - mDetailPaint.ascent();
+		float subTitleBaseline = timeBaseline + DETAIL_PADDING_BOTTOM + mDetailPaint.getFontSpacing() + DETAIL_PADDING_TOP;
+		
+		for( int i = 0; i < mSlotCount; i++ ) {
+			float left = mChannelWidth + mSlotStarts[ i ] * slotsWidth;
+			float right = mChannelWidth + mSlotEnds[ i ] * slotsWidth;
+			
+			mFillPaint.setColor( mCategoryColors[ i ] );
+			canvas.drawRect( left, 0, left + CATEGORY_WIDTH, height, mFillPaint );
+			
+			left += CATEGORY_WIDTH;
+			if( right <= left ) {
+				continue;
+			}
+			
+			if( mStatusColors[ i ] != Color.TRANSPARENT ) {
+				mFillPaint.setColor( mStatusColors[ i ] );
+				canvas.drawRect( left, 0, right, height, mFillPaint );
+			}
+			
+			mFillPaint.setColor( mDetailsColor );
+			canvas.drawRect( left + STATUS_PADDING, STATUS_PADDING, right - STATUS_PADDING, height - STATUS_PADDING, mFillPaint );
+			
+			float textLeft = left + STATUS_PADDING + TEXT_PADDING;
+			float textWidth = right - STATUS_PADDING - TEXT_PADDING - textLeft;
+			
+			drawText( canvas, mTitles[ i ], mTitlePaint, textLeft, titleBaseline, textWidth );
+			drawText( canvas, mTimes, i * TIME_LENGTH, TIME_LENGTH, mDetailPaint, textLeft, timeBaseline, textWidth );
+			drawText( canvas, mSubTitles[ i ], mDetailPaint, textLeft, subTitleBaseline, textWidth );
+		}
+		
+	}
+
+	// internal helpers
+	
+	private void ensureCapacity( int capacity ) {
+		
+		if( mSlotStarts.length >= capacity ) {
+			return;
+		}
+		
+		mSlotStarts = new float[ capacity ];
+		mSlotEnds = new float[ capacity ];
+		mCategoryColors = new int[ capacity ];
+		mStatusColors = new int[ capacity ];
+		mTitles = new String[ capacity ];
+		mTimes = new char[ capacity * TIME_LENGTH ];
+		mSubTitles = new String[ capacity ];
+	}
+	
+	private void addSlot( long programStart, long programEnd, String title, String subTitle, String category, int status, long slotStart, long slotEnd ) {
+		
+		long slotLength = slotEnd - slotStart;
+		
+		// only the part of the program inside the timeslot is shown
+		long start = Math.max( programStart, slotStart );
+		long end = Math.min( programEnd, slotEnd );
+		
+		mSlotStarts[ mSlotCount ] = slotLength > 0 ? (float) ( start - slotStart ) / slotLength : 0;
+		mSlotEnds[ mSlotCount ] = slotLength > 0 ? (float) ( end - slotStart ) / slotLength : 0;
+		mCategoryColors[ mSlotCount ] = mProgramHelper.getCategoryColor( category );
+		mStatusColors[ mSlotCount ] = getStatusColor( status );
+		mTitles[ mSlotCount ] = title;
+		mSubTitles[ mSlotCount ] = subTitle;
+		
+		int offset = mSlotCount * TIME_LENGTH;
+		formatTime( programStart, offset );
+		mTimes[ offset + 5 ] = ' ';
+		mTimes[ offset + 6 ] = '-';
+		mTimes[ offset + 7 ] = ' ';
+		formatTime( programEnd, offset + 8 );
+		
+		mSlotCount++;
+	}
+	
+	private void bound() {
+		
+		setContentDescription( mSlotCount > 0 ? mTitles[ 0 ] : null );
+		
+		invalidate();
+	}
+	
+	/*
+	 * Writes the local time as hh:mm or HH:mm.
+	 */
+	private void formatTime( long instant, int offset ) {
+		
+		long local = instant + mZone.getOffset( instant );
+		
+		int minutes = (int) ( ( local / 60000 ) % MINUTES_PER_DAY );
+		if( minutes < 0 ) {
+			minutes += MINUTES_PER_DAY;
+		}
+		
+		int hour = minutes / 60;
+		int minute = minutes % 60;
+		
+		if( !mUse24HourClock ) {
+			hour = hour % 12;
+			
+			if( hour == 0 ) {
+				hour = 12;
+			}
+			
+		}
+		
+		mTimes[ offset ] = (char) ( '0' + hour / 10 );
+		mTimes[ offset + 1 ] = (char) ( '0' + hour % 10 );
+		mTimes[ offset + 2 ] = ':';
+		mTimes[ offset + 3 ] = (char) ( '0' + minute / 10 );
+		mTimes[ offset + 4 ] = (char) ( '0' + minute % 10 );
+	}
+	
+	private int getStatusColor( int status ) {
+		
+		switch( status ) {
+			case 4 :
+				return Color.BLUE;
+			case -1 :
+				return Color.GREEN;
+			case -2 :
+				return Color.RED;
+		}
+		
+		return Color.TRANSPARENT;
+	}
+	
+	/*
+	 * Draws as much of the text as fits in the width, without allocating a truncated copy.
+	 */
+	private void drawText( Canvas canvas, String text, Paint paint, float x, float y, float width ) {
+		
+		if( null == text || width <= 0 ) {
+			return;
+		}
+		
+		int count = paint.breakText( text, true, width, null );
+		if( count > 0 ) {
+			canvas.drawText( text, 0, count, x, y, paint );
+		}
+		
+	}
+	
+	private void drawText( Canvas canvas, char[] text, int index, int length, Paint paint, float x, float y, float width ) {
+		
+		if( width <= 0 ) {
+			return;
+		}
+		
+		int count = paint.breakText( text, index, length, width, null );
+		if( count > 0 ) {
+			canvas.drawText( text, index, count, x, y, paint );
+		}
+		
+	}
+	
+}
@@ -18,7 +18,6 @@
  */
 package org.mythtv.client.ui.dvr;
 
-import org.joda.time.DateTime;
 import org.mythtv.R;
 import org.mythtv.client.ui.preferences.LocationProfile;
 import org.mythtv.client.ui.util.MenuHelper;
@@ -29,10 +28,14 @@ import org.mythtv.db.dvr.programGroup.ProgramGroup;
 import org.mythtv.db.dvr.programGroup.ProgramGroupConstants;
 import org.mythtv.db.dvr.programGroup.ProgramGroupDaoHelper;
 import org.mythtv.db.http.EtagConstants;
-import org.mythtv.db.http.EtagDaoHelper;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
+import org.mythtv.service.SyncScheduler;
+import org.mythtv.service.SyncScheduler.Dataset;
+import org.mythtv.service.SyncScheduler.Priority;
+import org.mythtv.service.dvr.ArtworkDownloadService.ArtworkType;
 import org.mythtv.service.dvr.RecordedDownloadService;
-import org.mythtv.service.util.RunningServiceHelper;
+import org.mythtv.service.dvr.cache.ArtworkLruMemoryCache;
+import org.mythtv.service.dvr.cache.ArtworkLruMemoryCache.ArtworkListener;
 import org.mythtv.services.api.dvr.impl.DvrTemplate.Endpoint;
 
 import android.annotation.TargetApi;
@@ -43,12 +46,14 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.database.Cursor;
 import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.net.Uri;
 import android.os.Bundle;
 import android.support.v4.app.LoaderManager;
 import android.support.v4.content.CursorLoader;
 import android.support.v4.content.Loader;
 import android.support.v4.widget.CursorAdapter;
+import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -76,20 +81,24 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 
 	private static final String TAG = RecordingsFragment.class.getSimpleName();
 	
+	// the aspect ratio of the banners served by the backend
+	private static final int BANNER_WIDTH = 758;
+	private static final int BANNER_HEIGHT = 140;
+	
 	private OnProgramGroupListener listener = null;
 	private ProgramGroupCursorAdapter adapter;
 	
 	private RecordedDownloadReceiver recordedDownloadReceiver = new RecordedDownloadReceiver();
 
 	private static ProgramHelper mProgramHelper;
-	private EtagDaoHelper mEtagDaoHelper;
 	private LocationProfileDaoHelper mLocationProfileDaoHelper;
 	private MenuHelper mMenuHelper;
 	private ProgramGroupDaoHelper mProgramGroupDaoHelper;
-	private RunningServiceHelper mRunningServiceHelper;
 
 	private ImageLoader imageLoader = ImageLoader.getInstance();
 	private DisplayImageOptions options;
+	
+	private ArtworkLruMemoryCache mArtworkCache;
 
 	/* (non-Javadoc)
 	 * @see android.support.v4.app.LoaderManager.LoaderCallbacks#onCreateLoader(int, android.os.Bundle)
@@ -158,12 +167,14 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 		
 		mProgramHelper = ProgramHelper.createInstance( getActivity().getApplicationContext() );
 
-		mEtagDaoHelper = new EtagDaoHelper( getActivity() );
-	
+		// banners are shown across the row, the downloaded ones are decoded no larger than that
+		DisplayMetrics metrics = getResources().getDisplayMetrics();
+		mArtworkCache = getMainApplication().getArtworkCache();
+		mArtworkCache.setTargetSize( ArtworkType.BANNER, metrics.widthPixels, metrics.widthPixels * BANNER_HEIGHT / BANNER_WIDTH );
+
 		mProgramGroupDaoHelper = ( (AbstractDvrActivity) getActivity() ).getProgramGroupDaoHelper();
 
 		mMenuHelper = ( (AbstractDvrActivity) getActivity() ).getMenuHelper();
-		mRunningServiceHelper = ( (AbstractDvrActivity) getActivity() ).getRunningServiceHelper();
 
 		setHasOptionsMenu( true );
 		setRetainInstance( true );
@@ -203,21 +214,7 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 		Log.v( TAG, "onResume : enter" );
 		super.onStart();
 	    
-		DateTime etag = mEtagDaoHelper.findDateByEndpointAndDataId( Endpoint.GET_RECORDED_LIST.name(), "" );
-		if( null != etag ) {
-			
-			DateTime now = new DateTime();
-			if( now.getMillis() - etag.getMillis() > 3600000 ) {
-				if( !mRunningServiceHelper.isServiceRunning( "org.mythtv.service.dvr.RecordedDownloadService" ) ) {
-					getActivity().startService( new Intent( RecordedDownloadService.ACTION_DOWNLOAD ) );
-				}
-			}
-			
-		} else {
-			if( !mRunningServiceHelper.isServiceRunning( "org.mythtv.service.dvr.RecordedDownloadService" ) ) {
-				getActivity().startService( new Intent( RecordedDownloadService.ACTION_DOWNLOAD ) );
-			}
-		}
+		SyncScheduler.getInstance( getActivity() ).request( Dataset.RECORDED, Priority.VISIBLE );
 
         Log.v( TAG, "onResume : exit" );
 	}
@@ -275,9 +272,7 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 			}
 			cursor.close();
 
-			if( !mRunningServiceHelper.isServiceRunning( "org.mythtv.service.dvr.RecordedDownloadService" ) ) {
-				getActivity().startService( new Intent( RecordedDownloadService.ACTION_DOWNLOAD ) );
-			}
+			SyncScheduler.getInstance( getActivity() ).request( Dataset.RECORDED, Priority.REFRESH );
 		    
 	        return true;
 		}
@@ -333,6 +328,9 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 	private class ProgramGroupCursorAdapter extends CursorAdapter {
 
 		private LayoutInflater mInflater;
+		
+		// bound rows are not kept, so every row is read into the same instance
+		private ProgramGroup mProgramGroup;
 
 		public ProgramGroupCursorAdapter( Context context ) {
 			super( context, null, false );
@@ -354,6 +352,7 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 			refHolder.category = (View) view.findViewById( R.id.program_group_category );
 			refHolder.programGroup = (TextView) view.findViewById( R.id.program_group_row );
 			refHolder.programGroupBanner = (ImageView) view.findViewById( R.id.program_group_row_banner );
+			refHolder.episodes = (TextView) view.findViewById( R.id.program_group_episodes );
 			
 			view.setTag( refHolder );
 			
@@ -367,14 +366,50 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 		@Override
 		public void bindView( View view, Context context, Cursor cursor ) {
 
-			ProgramGroup programGroup = mProgramGroupDaoHelper.convertCursorToProgramGroup( cursor );
+			ProgramGroup programGroup = mProgramGroup = mProgramGroupDaoHelper.convertCursorToProgramGroup( cursor, mProgramGroup );
 
 	        final ViewHolder mHolder = (ViewHolder) view.getTag();
 			
 			mHolder.programGroup.setText( programGroup.getTitle() );
 			mHolder.category.setBackgroundColor( mProgramHelper.getCategoryColor( programGroup.getCategory() ) );
+			mHolder.episodes.setText( getResources().getQuantityString( R.plurals.program_group_episodes, programGroup.getEpisodeCount(), programGroup.getEpisodeCount() ) );
 
-			String imageUri = mLocationProfileDaoHelper.findConnectedProfile().getUrl() + "Content/GetRecordingArtwork?Type=Banner&Inetref=" + programGroup.getInetref();
+			// the banners fetched by the artwork sync are read from disk, the others are requested from the backend
+			final String title = programGroup.getTitle();
+			final String imageUri = mLocationProfileDaoHelper.findConnectedProfile().getUrl() + "Content/GetRecordingArtwork?Type=Banner&Inetref=" + programGroup.getInetref();
+			
+			mHolder.title = title;
+			mArtworkCache.loadArtwork( ArtworkType.BANNER, title, new ArtworkListener() {
+
+				/* (non-Javadoc)
+				 * @see org.mythtv.service.dvr.cache.ArtworkLruMemoryCache.ArtworkListener#onArtwork(android.graphics.drawable.BitmapDrawable)
+				 */
+				@Override
+				public void onArtwork( BitmapDrawable artwork ) {
+					
+					// the row was bound to another program group in the meantime
+					if( !title.equals( mHolder.title ) ) {
+						return;
+					}
+					
+					if( null != artwork ) {
+						imageLoader.cancelDisplayTask( mHolder.programGroupBanner );
+						
+						mHolder.programGroupBanner.setImageDrawable( artwork );
+				        mHolder.programGroup.setVisibility( View.GONE );
+				        mHolder.programGroupBanner.setVisibility( View.VISIBLE );
+					} else {
+						displayBanner( mHolder, imageUri );
+					}
+					
+				}
+				
+			});
+			
+		}
+
+		private void displayBanner( final ViewHolder mHolder, String imageUri ) {
+			
 			imageLoader.displayImage( imageUri, mHolder.programGroupBanner, options, new SimpleImageLoadingListener() {
 
 				/* (non-Javadoc)
@@ -407,6 +442,10 @@ public class RecordingsFragment extends MythtvListFragment implements LoaderMana
 		View category;
 		TextView programGroup;
 		ImageView programGroupBanner;
+		TextView episodes;
+		
+		// the program group the row is bound to
+		String title;
 		
 		ViewHolder() { }
 
@@ -26,12 +26,12 @@ import org.mythtv.R;
 import org.mythtv.client.ui.preferences.LocationProfile;
 import org.mythtv.client.ui.util.MenuHelper;
 import org.mythtv.db.dvr.UpcomingDaoHelper;
-import org.mythtv.db.http.EtagDaoHelper;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
+import org.mythtv.service.SyncScheduler;
+import org.mythtv.service.SyncScheduler.Dataset;
+import org.mythtv.service.SyncScheduler.Priority;
 import org.mythtv.service.dvr.UpcomingDownloadService;
 import org.mythtv.service.util.DateUtils;
-import org.mythtv.service.util.RunningServiceHelper;
-import org.mythtv.services.api.dvr.impl.DvrTemplate.Endpoint;
 
 import android.annotation.TargetApi;
 import android.content.BroadcastReceiver;
@@ -56,11 +56,8 @@ public class UpcomingActivity extends AbstractDvrActivity {
 
 	private static final String TAG = UpcomingActivity.class.getSimpleName();
 
-	private RunningServiceHelper mRunningServiceHelper;
-
 	private UpcomingDownloadReceiver upcomingDownloadReceiver = new UpcomingDownloadReceiver();
 
-	private EtagDaoHelper mEtagDaoHelper;
 	private LocationProfileDaoHelper mLocationProfileDaoHelper; 
 	private UpcomingDaoHelper mUpcomingDaoHelper;
 			
@@ -74,9 +71,7 @@ public class UpcomingActivity extends AbstractDvrActivity {
 		Log.v( TAG, "onCreate : enter" );
 		super.onCreate( savedInstanceState );
 
-		mEtagDaoHelper = new EtagDaoHelper( this );
 		mLocationProfileDaoHelper = new LocationProfileDaoHelper( this );
-		mRunningServiceHelper = RunningServiceHelper.newInstance( this );
 		mUpcomingDaoHelper = new UpcomingDaoHelper( this );
 		
 		setContentView( R.layout.activity_dvr_upcoming );
@@ -115,16 +110,7 @@ public class UpcomingActivity extends AbstractDvrActivity {
 		Log.v( TAG, "onResume : enter" );
 		super.onResume();
 
-		DateTime etag = mEtagDaoHelper.findDateByEndpointAndDataId( Endpoint.GET_UPCOMING_LIST.name(), "" );
-		if( null != etag ) {
-			
-			DateTime now = new DateTime();
-			if( now.getMillis() - etag.getMillis() > ( 2 * 3600000 ) ) {
-				loadData();
-			}
-		} else {
-			loadData();
-		}
+		loadData( Priority.VISIBLE );
 
 		Log.v( TAG, "onResume : exit" );
 	}
@@ -174,7 +160,7 @@ public class UpcomingActivity extends AbstractDvrActivity {
 		case MenuHelper.REFRESH_ID:
 			Log.d( TAG, "onOptionsItemSelected : refresh selected" );
 
-			loadData();
+			loadData( Priority.REFRESH );
 		    
 	        return true;
 		}
@@ -192,12 +178,10 @@ public class UpcomingActivity extends AbstractDvrActivity {
 	
 	// internal helpers
 	
-	private void loadData() {
+	private void loadData( Priority priority ) {
 		Log.v( TAG, "loadData : enter" );
 		
-		if( !mRunningServiceHelper.isServiceRunning( "org.mythtv.service.dvr.UpcomingDownloadService" ) ) {
-			startService( new Intent( UpcomingDownloadService.ACTION_DOWNLOAD ) );
-		}
+		SyncScheduler.getInstance( this ).request( Dataset.UPCOMING, priority );
 		
 		Log.v( TAG, "loadData : exit" );
 	}
@@ -166,6 +166,9 @@ public class UpcomingFragment extends MythtvListFragment implements LoaderManage
 		private Context mContext;
 		private LayoutInflater mInflater;
 		
+		// bound rows are not kept, so every row is read into the same instance
+		private Program mProgram;
+		
 		public UpcomingCursorAdapter( Context context ) {
 			super( context, null, false );
 			
@@ -205,7 +208,7 @@ public class UpcomingFragment extends MythtvListFragment implements LoaderManage
 		public void bindView( View view, Context context, Cursor cursor ) {
 			//Log.v( TAG, "UpcomingCursorAdapter.bindView : enter" );
 
-			Program program = mUpcomingDaoHelper.convertCursorToProgram( cursor );
+			Program program = mProgram = mUpcomingDaoHelper.convertCursorToProgram( cursor, mProgram );
 			
 			ViewHolder mHolder = (ViewHolder) view.getTag();
 
@@ -22,13 +22,10 @@ import org.joda.time.DateTime;
 import org.mythtv.R;
 import org.mythtv.db.content.LiveStreamDaoHelper;
 import org.mythtv.db.dvr.RecordedDaoHelper;
-import org.mythtv.service.util.NetworkHelper;
-import org.mythtv.services.api.ETagInfo;
+import org.mythtv.service.content.LiveStreamMonitor;
+import org.mythtv.service.content.LiveStreamMonitor.LiveStreamListener;
 import org.mythtv.services.api.content.LiveStreamInfo;
-import org.mythtv.services.api.content.LiveStreamInfoWrapper;
 import org.mythtv.services.api.dvr.Program;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 
 import android.app.AlertDialog;
 import android.app.ProgressDialog;
@@ -36,7 +33,6 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -60,7 +56,6 @@ public class VideoActivity extends AbstractDvrActivity {
 	private ProgressDialog progressDialog;
 
 	private LiveStreamDaoHelper mLiveStreamDaoHelper;
-	private NetworkHelper mNetworkHelper;
 	private RecordedDaoHelper mRecordedDaoHelper;
 	
 	private Program program = null;
@@ -81,7 +76,6 @@ public class VideoActivity extends AbstractDvrActivity {
 		super.onCreate( savedInstanceState );
 
 		mLiveStreamDaoHelper = new LiveStreamDaoHelper( this );
-		mNetworkHelper = NetworkHelper.newInstance( this );
 		mRecordedDaoHelper = new RecordedDaoHelper( this );
 		
 	    setContentView( R.layout.activity_video );
@@ -173,6 +167,10 @@ public class VideoActivity extends AbstractDvrActivity {
 		}
 		progressDialog = null;
 		
+		if( null != liveStreamInfo ) {
+			LiveStreamMonitor.getInstance( this ).unwatch( liveStreamInfo.getId(), liveStreamListener );
+		}
+		
 		Log.v( TAG, "onDestroy : exit" );
 	}
 	
@@ -289,10 +287,10 @@ public class VideoActivity extends AbstractDvrActivity {
 	public void checkLiveStreamInfo() {
 		Log.v( TAG, "checkLiveStreamInfo : enter" );
 
-		if( liveStreamInfo.getStatusInt() < 2 || liveStreamInfo.getCurrentSegment() <= 2 ) {
+		if( !LiveStreamMonitor.isReady( liveStreamInfo ) ) {
 			Log.v( TAG, "checkLiveStreamInfo : stream not ready" );
 			
-			new UpdateStreamInfoTask().execute();
+			LiveStreamMonitor.getInstance( this ).watch( liveStreamInfo, program, liveStreamListener );
 		
 		} else {
 			Log.v( TAG, "checkLiveStreamInfo : starting video playback" );
@@ -305,75 +303,32 @@ public class VideoActivity extends AbstractDvrActivity {
 	}
 	
 	
-	private class UpdateStreamInfoTask extends AsyncTask<Void, Void, ResponseEntity<LiveStreamInfoWrapper>> {
-
-		private Exception e = null;
+	private final LiveStreamListener liveStreamListener = new LiveStreamListener() {
 
 		@Override
-		protected ResponseEntity<LiveStreamInfoWrapper> doInBackground( Void... params ) {
-			Log.v( TAG, "UpdateStreamInfoTask : enter" );
-
-			if( !mNetworkHelper.isNetworkConnected() ) {
-				Log.v( TAG, "UpdateStreamInfoTask : exit, not connected" );
-				
-				return null;
-			}
+		public void liveStreamUpdated( LiveStreamInfo updated ) {
+			Log.v( TAG, "liveStreamUpdated : enter" );
 
-			if( null == liveStreamInfo ) {
-				Log.v( TAG, "UpdateStreamInfoTask : exit, live stream info is null" );
-				
-				return null;
-			}
-
-			try {
-				Log.v( TAG, "UpdateStreamInfoTask : api" );
+			liveStreamInfo = updated;
+			
+			if( LiveStreamMonitor.isReady( liveStreamInfo ) ) {
+				LiveStreamMonitor.getInstance( VideoActivity.this ).unwatch( liveStreamInfo.getId(), this );
 				
-				if( liveStreamInfo.getStatusInt() < 2 || liveStreamInfo.getCurrentSegment() <= 2 ) {
-					Thread.sleep( 5000 );
-					
-					ETagInfo eTag = ETagInfo.createEmptyETag();
-
-					Log.v( TAG, "UpdateStreamInfoTask : exit" );
-					return getMainApplication().getMythServicesApi().contentOperations().getLiveStream( liveStreamInfo.getId(), eTag );
-				}
-			} catch( Exception e ) {
-				Log.v( TAG, "UpdateStreamInfoTask : error" );
-
-				this.e = e;
+				startVideo( false );
 			}
 
-			Log.v( TAG, "UpdateStreamInfoTask : exit, stream not updated" );
-			return null;
+			Log.v( TAG, "liveStreamUpdated : exit" );
 		}
 
 		@Override
-		protected void onPostExecute( ResponseEntity<LiveStreamInfoWrapper> result ) {
-			Log.v( TAG, "UpdateStreamInfoTask onPostExecute : enter" );
-
-			if( null == e ) {
-				if( null != result ) {
-					if( result.getStatusCode().equals( HttpStatus.OK ) ) {
-
-						// save updated live stream info to database
-						liveStreamInfo = result.getBody().getLiveStreamInfo();
-						mLiveStreamDaoHelper.save( liveStreamInfo, program );
-
-						if( liveStreamInfo.getStatusInt() < 2 || liveStreamInfo.getCurrentSegment() <= 2 ) {
-							new UpdateStreamInfoTask().execute();
-						} else {
-							startVideo( false );
-						}
-
-					}
-				}
-			} else {
-				Log.e( TAG, "error updating live stream", e );
-				exceptionDialolg( e );
-			}
-
-			Log.v( TAG, "UpdateStreamInfoTask onPostExecute : exit" );
+		public void liveStreamError( LiveStreamInfo liveStreamInfo, Exception e ) {
+			Log.e( TAG, "error updating live stream", e );
+			
+			LiveStreamMonitor.getInstance( VideoActivity.this ).unwatch( liveStreamInfo.getId(), this );
+			
+			exceptionDialolg( e );
 		}
 
-	}
+	};
 	
 }
@@ -22,6 +22,8 @@ import java.util.Timer;
 
 import org.mythtv.R;
 import org.mythtv.client.MainApplication;
+import org.mythtv.service.frontend.RemoteControlDispatcher;
+import org.mythtv.service.frontend.RemoteControlDispatcher.RemoteControlListener;
 import org.mythtv.services.api.ETagInfo;
 import org.mythtv.services.api.frontend.FrontendStatus;
 import org.springframework.http.HttpStatus;
@@ -78,10 +80,33 @@ public class AbstractFrontendFragment extends Fragment {
 		super.onCreate( savedInstanceState );
 	}
 	
+	private final RemoteControlListener mRemoteControlListener = new RemoteControlListener() {
+
+		@Override
+		public void actionFailed( String action, Exception e ) {
+			Log.e( TAG, e.getMessage() );
+			
+			if( null != getActivity() ) {
+				showAlertDialog( "Send Action Error", e.getMessage() );
+			}
+		}
+		
+	};
+	
 	public MainApplication getApplicationContext() {
 		return (MainApplication) getActivity().getApplicationContext();
 	}
 
+	/**
+	 * Sends the action through the remote control dispatcher of the frontend, keeping the order of the presses.
+	 * 
+	 * @param fe
+	 * @param action
+	 */
+	protected void sendAction( final Frontend fe, final String action ) {
+		RemoteControlDispatcher.getInstance( fe ).sendAction( action, mRemoteControlListener );
+	}
+
 	protected void showAlertDialog( final CharSequence title, final CharSequence message ) {
 		this.getActivity().runOnUiThread( new Runnable() {
 
@@ -156,28 +181,4 @@ public class AbstractFrontendFragment extends Fragment {
 
 	}
 
-	/**
-	 * When calling execute there must be 2 paramters. Frontend URL Command
-	 * 
-	 * @author pot8oe
-	 * 
-	 */
-	protected class SendActionTask extends AsyncTask<String, Void, Void> {
-
-		@Override
-		protected Void doInBackground( String... params ) {
-
-			try {
-				getApplicationContext().getMythServicesApi().frontendOperations()
-						.sendAction( params[ 0 ], params[ 1 ], null, 0, 0 );
-			} catch( Exception e ) {
-				Log.e( TAG, e.getMessage() );
-				showAlertDialog( "Send Action Error", e.getMessage() );
-			}
-
-			return null;
-		}
-
-	}
-
 }
@@ -18,24 +18,16 @@
  */
 package org.mythtv.client.ui.frontends;
 
-import java.io.IOException;
-import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.jmdns.JmDNS;
-import javax.jmdns.ServiceEvent;
-import javax.jmdns.ServiceListener;
-
 import org.mythtv.R;
+import org.mythtv.service.frontend.FrontendDiscovery;
+import org.mythtv.service.frontend.FrontendDiscovery.FrontendDiscoveryListener;
 
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.DialogInterface;
-import android.net.wifi.WifiInfo;
-import android.net.wifi.WifiManager;
-import android.net.wifi.WifiManager.MulticastLock;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.telephony.PhoneStateListener;
 import android.telephony.TelephonyManager;
@@ -53,7 +45,7 @@ import android.widget.TextView;
  * @author pot8oe
  *
  */
-public class FrontendsFragment extends AbstractFrontendFragment implements ServiceListener, OnItemSelectedListener {
+public class FrontendsFragment extends AbstractFrontendFragment implements FrontendDiscoveryListener, OnItemSelectedListener {
 
 	private final static String TAG = FrontendsFragment.class.getSimpleName();
 
@@ -67,12 +59,6 @@ public class FrontendsFragment extends AbstractFrontendFragment implements Servi
 	private static Frontend selectedFrontend;
 	private static TelephonyManager sTelManager;
 
-	private static JmDNS zeroConf = null;
-	private static MulticastLock mLock = null;
-
-	private static final String MYTHTV_FRONTEND_TYPE = "_mythfrontend._tcp.local.";
-	private static final String HOSTNAME = "mythandroid";
-
 	private Context mContext;
 	
 	// public FrontendsFragment() {
@@ -139,13 +125,23 @@ public class FrontendsFragment extends AbstractFrontendFragment implements Servi
 
 		super.onResume();
 
-		if (frontends.isEmpty()) {
-			scanForFrontends();
-		}
+		// remembered frontends are listed straight away, discovery keeps looking while we are showing
+		FrontendDiscovery.getInstance(getActivity()).start(this);
 
 		Log.v(TAG, "onResume : exit");
 	}
 
+	@Override
+	public void onPause() {
+		Log.v(TAG, "onPause : enter");
+
+		super.onPause();
+
+		FrontendDiscovery.getInstance(getActivity()).stop(this);
+
+		Log.v(TAG, "onPause : exit");
+	}
+
 	@Override
 	public void onActivityCreated( Bundle state ) {
 		Log.v( TAG, "onActivityCreated : enter" );
@@ -194,89 +190,69 @@ public class FrontendsFragment extends AbstractFrontendFragment implements Servi
 	
 
 	// ***************************************
-	// JMDNS ServiceListener methods
+	// FrontendDiscoveryListener methods
 	// ***************************************
 
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see javax.jmdns.ServiceListener#serviceAdded(javax.jmdns.ServiceEvent)
+	 * @see org.mythtv.service.frontend.FrontendDiscovery.FrontendDiscoveryListener#frontendFound(org.mythtv.client.ui.frontends.Frontend)
 	 */
-	@SuppressWarnings("deprecation")
-	public void serviceAdded(ServiceEvent event) {
-		Log.v(TAG, "serviceAdded : enter");
-
-		Log.v(TAG,
-				"serviceAdded : "
-						+ event.getDNS()
-								.getServiceInfo(event.getType(),
-										event.getName()).toString());
-
-		final String hostname = event.getDNS()
-				.getServiceInfo(event.getType(), event.getName())
-				.getInet4Address().getHostAddress();
-		final int port = event.getDNS()
-				.getServiceInfo(event.getType(), event.getName()).getPort();
-		Log.v(TAG, "serviceAdded : masterbackend="
-				+ ("http://" + hostname + ":" + port + "/"));
-
-		// Dont' do both adds
-		final Frontend fe = new Frontend(event.getName(), "http://" + hostname + ":"
-				+ port + "/");
-		
-		
-		this.getActivity().runOnUiThread(new Runnable(){
+	@Override
+	public void frontendFound(Frontend frontend) {
+		Log.v(TAG, "frontendFound : " + frontend.getUrl());
 
-			@Override
-			public void run() {
-				//frontends.add(fe);
-				adapter.add(fe);
-			}});
-		
-		Log.v(TAG, "serviceAdded : exit");
+		if (indexOf(frontend) < 0) {
+			adapter.add(frontend);
+		}
 	}
 
-
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see javax.jmdns.ServiceListener#serviceRemoved(javax.jmdns.ServiceEvent)
+	 * @see org.mythtv.service.frontend.FrontendDiscovery.FrontendDiscoveryListener#frontendLost(org.mythtv.client.ui.frontends.Frontend)
 	 */
-	public void serviceRemoved(ServiceEvent event) {
-		// Log.v( TAG, "serviceRemoved : enter" );
-		//
-		// Log.v( TAG, "serviceRemoved : event=" + event.toString() );
-		//
-		// Log.v( TAG, "serviceRemoved : exit" );
+	@Override
+	public void frontendLost(Frontend frontend) {
+		Log.v(TAG, "frontendLost : " + frontend.getUrl());
+
+		int index = indexOf(frontend);
+		if (index < 0) return;
+		
+		Frontend removed = frontends.get(index);
+		adapter.remove(removed);
+		
+		if (removed == selectedFrontend) {
+			selectedFrontend = frontends.isEmpty() ? null : frontends.get(0);
+		}
 	}
 
 	/*
 	 * (non-Javadoc)
 	 * 
-	 * @see
-	 * javax.jmdns.ServiceListener#serviceResolved(javax.jmdns.ServiceEvent)
+	 * @see org.mythtv.service.frontend.FrontendDiscovery.FrontendDiscoveryListener#discoveryFailed(java.lang.Exception)
 	 */
-	public void serviceResolved(ServiceEvent event) {
-		// Log.v( TAG, "serviceResolved : enter" );
-		//
-		// Log.v( TAG, "serviceResolved : event=" + event.toString() );
-		//
-		// Log.v( TAG, "serviceResolved : exit" );
-	}
+	@Override
+	public void discoveryFailed(Exception e) {
+		Log.e(TAG, "error discovering frontends", e);
 
-	// internal helpers
+		if (null == mContext) return;
+		
+		AlertDialog.Builder builder = new AlertDialog.Builder(mContext);
+		builder.setTitle(mContext.getString(R.string.frontends_scan_error_title));
+		builder.setNeutralButton(R.string.btn_ok, new DialogInterface.OnClickListener() {
 
-	/**
-	 * 
-	 */
-	public void scanForFrontends() {
-		Log.v(TAG, "scanForFrontends : enter");
+					public void onClick(DialogInterface dialog, int which) {
 
-		new ScanFrontendsTask().execute();
+					}
 
-		Log.v(TAG, "scanForFrontends : exit");
+				});
+		builder.setMessage(mContext.getString(R.string.frontends_scan_error_message));
+		builder.show();
 	}
-	
+
+	// internal helpers
+
 	/**
 	 * 
 	 * @return
@@ -285,104 +261,15 @@ public class FrontendsFragment extends AbstractFrontendFragment implements Servi
 		return selectedFrontend;
 	}
 
-	private class ScanFrontendsTask extends AsyncTask<Void, Void, Void> {
-
-		private Exception e = null;
-
-		@Override
-		protected Void doInBackground( Void... params ) {
-			Log.v( TAG, "doInBackground : enter" );
-
-			try {
-				Log.v(TAG, "doInBackground : startProbe" );
-
-				startProbe();
-			} catch( Exception e ) {
-				Log.v( TAG, "doInBackground : error" );
-
-				this.e = e;
-			}
-
-			Log.v( TAG, "doInBackground : exit" );
-			return null;
-		}
-
-		@Override
-		protected void onPostExecute( Void result ) {
-			Log.v( TAG, "onPostExecute : enter" );
-
-			if( null != e && null != mContext) {
-				Log.e( TAG, "error getting programs", e );
-				
-				AlertDialog.Builder builder = new AlertDialog.Builder( mContext );
-				if (null != builder) {
-					builder.setTitle(mContext.getString(R.string.frontends_scan_error_title));
-					builder.setNeutralButton(R.string.btn_ok, new DialogInterface.OnClickListener() {
-
-								public void onClick(DialogInterface dialog, int which) {
-
-								}
-
-							});
-					builder.setMessage(mContext.getString(R.string.frontends_scan_error_message));
-					builder.show();
-				}
+	private int indexOf(Frontend frontend) {
+		
+		for (int i = 0; i < frontends.size(); i++) {
+			if (frontends.get(i).getUrl().equals(frontend.getUrl())) {
+				return i;
 			}
-
-			Log.v(TAG, "onPostExecute : exit");
-		}
-	}
-
-	/**
-	 * @throws IOException
-	 */
-	private void startProbe() throws IOException {
-		Log.v(TAG, "startProbe : enter");
-
-		if (zeroConf != null) {
-			stopProbe();
 		}
-
-		// figure out our wifi address, otherwise bail
-		WifiManager wifi = (WifiManager) getActivity().getSystemService(
-				Context.WIFI_SERVICE);
-
-		WifiInfo wifiinfo = wifi.getConnectionInfo();
-		int intaddr = wifiinfo.getIpAddress();
-
-		byte[] byteaddr = new byte[] { 
-				(byte) (intaddr & 0xff),
-				(byte) (intaddr >> 8 & 0xff),
-				(byte) (intaddr >> 16 & 0xff),
-				(byte) (intaddr >> 24 & 0xff)};
-		InetAddress addr = InetAddress.getByAddress(byteaddr);
-		Log.d(TAG, "startProbe : wifi address=" + addr.toString());
-
-		// start multicast lock
-		mLock = wifi.createMulticastLock("mythtv_lock");
-		mLock.setReferenceCounted(true);
-		mLock.acquire();
-
-		zeroConf = JmDNS.create(addr, HOSTNAME);
-		zeroConf.addServiceListener(MYTHTV_FRONTEND_TYPE, this);
-
-		Log.v(TAG, "startProbe : exit");
-	}
-
-	/**
-	 * @throws IOException
-	 */
-	private void stopProbe() throws IOException {
-		Log.v(TAG, "stopProbe : enter");
-
-		zeroConf.removeServiceListener(MYTHTV_FRONTEND_TYPE, this);
-		zeroConf.close();
-		zeroConf = null;
-
-		mLock.release();
-		mLock = null;
-
-		Log.v(TAG, "stopProbe : exit");
+		
+		return -1;
 	}
 
 	private class FrontendAdapter extends ArrayAdapter<Frontend> {
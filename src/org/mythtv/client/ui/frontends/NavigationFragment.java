@@ -85,98 +85,98 @@ public class NavigationFragment extends AbstractFrontendFragment implements OnCl
 		
 		switch(v.getId()){
 		case R.id.imageButton_nav_info:
-			new SendActionTask().execute(fe.getUrl(), "INFO");
+			sendAction(fe, "INFO");
 			break;
 			
 		case R.id.imageButton_nav_up:
-			new SendActionTask().execute(fe.getUrl(), "UP");
+			sendAction(fe, "UP");
 			break;
 			
 		case R.id.imageButton_nav_tvguide:
-			new SendActionTask().execute(fe.getUrl(), "GUIDE");
+			sendAction(fe, "GUIDE");
 			break;
 			
 		case R.id.imageButton_nav_left:
-			new SendActionTask().execute(fe.getUrl(), "LEFT");
+			sendAction(fe, "LEFT");
 			break;
 			
 		case R.id.imageButton_nav_select:
-			new SendActionTask().execute(fe.getUrl(), "SELECT");
+			sendAction(fe, "SELECT");
 			break;
 			
 		case R.id.imageButton_nav_right:
-			new SendActionTask().execute(fe.getUrl(), "RIGHT");
+			sendAction(fe, "RIGHT");
 			break;
 			
 		case R.id.imageButton_nav_cancel:
-			new SendActionTask().execute(fe.getUrl(), "ESCAPE");
+			sendAction(fe, "ESCAPE");
 			break;
 			
 		case R.id.imageButton_nav_down:
-			new SendActionTask().execute(fe.getUrl(), "DOWN");
+			sendAction(fe, "DOWN");
 			break;
 			
 		case R.id.imageButton_nav_menu:
-			new SendActionTask().execute(fe.getUrl(), "MENU");
+			sendAction(fe, "MENU");
 			break;
 			
 			
 		case R.id.imageButton_ch_up:
-			new SendActionTask().execute(fe.getUrl(), "CHANNELUP");
+			sendAction(fe, "CHANNELUP");
 			break;
 			
 		case R.id.imageButton_ch_last:
-			new SendActionTask().execute(fe.getUrl(), "PREVCHAN");
+			sendAction(fe, "PREVCHAN");
 			break;
 			
 		case R.id.imageButton_ch_down:
-			new SendActionTask().execute(fe.getUrl(), "CHANNELDOWN");
+			sendAction(fe, "CHANNELDOWN");
 			break;
 			
 			
 		case R.id.imageButton_vol_up:
-			new SendActionTask().execute(fe.getUrl(), "VOLUMEUP");
+			sendAction(fe, "VOLUMEUP");
 			break;
 			
 		case R.id.imageButton_vol_mute:
-			new SendActionTask().execute(fe.getUrl(), "MUTE");
+			sendAction(fe, "MUTE");
 			break;
 			
 		case R.id.imageButton_vol_down:
-			new SendActionTask().execute(fe.getUrl(), "VOLUMEDOWN");
+			sendAction(fe, "VOLUMEDOWN");
 			break;
 			
 			
 		case R.id.imageButton_mediactrl_rec:
-			new SendActionTask().execute(fe.getUrl(), "TOGGLERECORD");
+			sendAction(fe, "TOGGLERECORD");
 			break;
 			
 		case R.id.imageButton_mediactrl_stop:
-			new SendActionTask().execute(fe.getUrl(), "STOPPLAYBACK");
+			sendAction(fe, "STOPPLAYBACK");
 			break;
 			
 		case R.id.imageButton_mediactrl_pause:
-			new SendActionTask().execute(fe.getUrl(), "PAUSE");
+			sendAction(fe, "PAUSE");
 			break;
 			
 		case R.id.imageButton_mediactrl_play:
-			new SendActionTask().execute(fe.getUrl(), "PLAYBACK");
+			sendAction(fe, "PLAYBACK");
 			break;
 			
 		case R.id.imageButton_mediactrl_prev:
-			new SendActionTask().execute(fe.getUrl(), "JUMPRWND");
+			sendAction(fe, "JUMPRWND");
 			break;
 			
 		case R.id.imageButton_mediactrl_rew:
-			new SendActionTask().execute(fe.getUrl(), "RWNDSTICKY");
+			sendAction(fe, "RWNDSTICKY");
 			break;
 			
 		case R.id.imageButton_mediactrl_ff:
-			new SendActionTask().execute(fe.getUrl(), "FFWDSTICKY");
+			sendAction(fe, "FFWDSTICKY");
 			break;
 			
 		case R.id.imageButton_mediactrl_next:
-			new SendActionTask().execute(fe.getUrl(), "JUMPFFWD");
+			sendAction(fe, "JUMPFFWD");
 			break;
 			
 		};
@@ -64,51 +64,51 @@ public class NumbersFragment extends AbstractFrontendFragment implements OnClick
 		
 		switch(v.getId()){
 		case R.id.numbers_button0:
-			new SendActionTask().execute(fe.getUrl(), "0");
+			sendAction(fe, "0");
 			break;
 			
 		case R.id.numbers_button1:
-			new SendActionTask().execute(fe.getUrl(), "1");
+			sendAction(fe, "1");
 			break;
 			
 		case R.id.numbers_button2:
-			new SendActionTask().execute(fe.getUrl(), "2");
+			sendAction(fe, "2");
 			break;
 			
 		case R.id.numbers_button3:
-			new SendActionTask().execute(fe.getUrl(), "3");
+			sendAction(fe, "3");
 			break;
 			
 		case R.id.numbers_button4:
-			new SendActionTask().execute(fe.getUrl(), "4");
+			sendAction(fe, "4");
 			break;
 			
 		case R.id.numbers_button5:
-			new SendActionTask().execute(fe.getUrl(), "5");
+			sendAction(fe, "5");
 			break;
 			
 		case R.id.numbers_button6:
-			new SendActionTask().execute(fe.getUrl(), "6");
+			sendAction(fe, "6");
 			break;
 			
 		case R.id.numbers_button7:
-			new SendActionTask().execute(fe.getUrl(), "7");
+			sendAction(fe, "7");
 			break;
 			
 		case R.id.numbers_button8:
-			new SendActionTask().execute(fe.getUrl(), "8");
+			sendAction(fe, "8");
 			break;
 			
 		case R.id.numbers_button9:
-			new SendActionTask().execute(fe.getUrl(), "9");
+			sendAction(fe, "9");
 			break;
 			
 		case R.id.numbers_button_backspace:
-			new SendActionTask().execute(fe.getUrl(), "BACKSPACE");
+			sendAction(fe, "BACKSPACE");
 			break;
 			
 		case R.id.numbers_button_enter:
-			new SendActionTask().execute(fe.getUrl(), "SELECT");
+			sendAction(fe, "SELECT");
 			break;
 		};
 		
@@ -30,6 +30,7 @@ import javax.jmdns.ServiceListener;
 import org.mythtv.R;
 import org.mythtv.client.ui.preferences.LocationProfile.LocationType;
 import org.mythtv.db.preferences.LocationProfileConstants;
+import org.mythtv.db.preferences.ConnectedProfileRegistry;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
 import org.mythtv.db.preferences.PlaybackProfileConstants;
 import org.mythtv.db.preferences.PlaybackProfileDaoHelper;
@@ -726,6 +727,7 @@ public class MythtvPreferenceActivity extends PreferenceActivity implements Serv
 					// save selected location
 					saveSelectedLocationProfile( context, ids[ which ], type );
 
+					ConnectedProfileRegistry.getInstance( context ).invalidate();
 					listener.defaultLocationProfileChanged();
 
 				}
@@ -854,6 +856,7 @@ public class MythtvPreferenceActivity extends PreferenceActivity implements Serv
 					// delete  location
 					mLocationProfileDaoHelper.delete( (long) ids[ which ] );
 					
+					ConnectedProfileRegistry.getInstance( context ).invalidate();
 					listener.defaultLocationProfileChanged();
 				}
 			});
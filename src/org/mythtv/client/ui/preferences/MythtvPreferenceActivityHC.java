@@ -31,6 +31,7 @@ import javax.jmdns.ServiceListener;
 import org.mythtv.R;
 import org.mythtv.client.ui.preferences.LocationProfile.LocationType;
 import org.mythtv.db.preferences.LocationProfileConstants;
+import org.mythtv.db.preferences.ConnectedProfileRegistry;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
 import org.mythtv.db.preferences.PlaybackProfileConstants;
 import org.mythtv.db.preferences.PlaybackProfileDaoHelper;
@@ -290,6 +291,7 @@ public class MythtvPreferenceActivityHC extends PreferenceActivity {
 					// save selected location
 					saveSelectedLocationProfile( context, ids[ which ], type );
 
+					ConnectedProfileRegistry.getInstance( context ).invalidate();
 					listener.defaultLocationProfileChanged();
 
 				}
@@ -418,6 +420,7 @@ public class MythtvPreferenceActivityHC extends PreferenceActivity {
 					// delete  location
 					mLocationProfileDaoHelper.delete( (long) ids[ which ] );
 					
+					ConnectedProfileRegistry.getInstance( context ).invalidate();
 					listener.defaultLocationProfileChanged();
 				}
 			});
@@ -71,6 +71,9 @@ public class ProgramHelper {
 		WAR( "War", mResources.getColor( R.color.program_category_War ) ),
 		WESTERN( "Western", mResources.getColor( R.color.program_category_Western ) );
 		
+		// values() copies the array on every call, the guide looks categories up for each program it binds
+		private static final Category[] VALUES = values();
+		
 		private String category;
 		private int color;
 		
@@ -99,7 +102,7 @@ public class ProgramHelper {
 		 */
 		public static Category fromString( String category ) {
 			if( null != category ) {
-				for( Category c : Category.values() ) {
+				for( Category c : VALUES ) {
 					if( category.equalsIgnoreCase( c.category ) ) {
 						return c;
 					}
@@ -35,4 +35,9 @@ public abstract class AbstractBaseConstants implements BaseColumns {
 	public static final String FIELD_HOSTNAME = "HOSTNAME";
 	public static final String FIELD_HOSTNAME_DATA_TYPE = "TEXT";
 
+	/**
+	 * Path appended to a table uri to insert with conflict resolution on the table's unique key, replacing any existing row
+	 */
+	public static final String UPSERT_PATH = "upsert";
+
 }
@@ -47,16 +47,39 @@ public abstract class AbstractDaoHelper {
 		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
 	}
 	
+	/**
+	 * Limits the selection to the connected backend, the hostname is bound by {@link #appendLocationHostnameArgs(String[])}
+	 * 
+	 * @param selection
+	 * @param table
+	 * @return
+	 */
 	protected String appendLocationHostname( String selection, String table ) {
 		
-		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
-
 		return ( !TextUtils.isEmpty( table ) ? ( table + "." ) : "" ) + AbstractBaseConstants.FIELD_HOSTNAME
-				+ " = '"
-				+ mLocationProfile.getHostname()
-				+ "'"
+				+ " = ?"
 				+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" );
 	}
 
+	/**
+	 * Prepends the connected backend's hostname to the arguments of a selection built by {@link #appendLocationHostname(String, String)}
+	 * 
+	 * @param selectionArgs
+	 * @return
+	 */
+	protected String[] appendLocationHostnameArgs( String[] selectionArgs ) {
+		
+		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
+
+		if( null == selectionArgs || selectionArgs.length == 0 ) {
+			return new String[] { mLocationProfile.getHostname() };
+		}
+		
+		String[] args = new String[ selectionArgs.length + 1 ];
+		args[ 0 ] = mLocationProfile.getHostname();
+		System.arraycopy( selectionArgs, 0, args, 1, selectionArgs.length );
+		
+		return args;
+	}
 
 }
@@ -0,0 +1,199 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db;
+
+import java.util.ArrayList;
+
+import org.mythtv.provider.MythtvProvider;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.Context;
+import android.content.OperationApplicationException;
+import android.os.RemoteException;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Writes provider operations in batches sized by how long their commits take.
+ * 
+ * Each batch is applied as its own transaction, so a reader waiting on the database gets it between
+ * batches. The batch size is adjusted after every commit to keep a transaction close to
+ * {@link #TARGET_COMMIT_MILLIS}, and is shared by every writer in the process so a sync starts from
+ * the size the last one settled on.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class BatchWriter {
+
+	private static final String TAG = BatchWriter.class.getSimpleName();
+	
+	public static final long TARGET_COMMIT_MILLIS = 100;
+	
+	static final int INITIAL_BATCH_SIZE = 100;
+	static final int MIN_BATCH_SIZE = 10;
+	static final int MAX_BATCH_SIZE = 1000;
+	
+	private static volatile int sBatchSize = INITIAL_BATCH_SIZE;
+	
+	private final Context mContext;
+	private final String name;
+	
+	private final ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
+	
+	private int applied = 0;
+	private int batches = 0;
+	private long commitMillis = 0;
+	private long maxCommitMillis = 0;
+	
+	public static BatchWriter newInstance( Context context, String name ) {
+		return new BatchWriter( context, name );
+	}
+	
+	private BatchWriter( Context context, String name ) {
+		this.mContext = context;
+		this.name = name;
+	}
+	
+	/**
+	 * Queues an operation, applying the pending batch once it reaches the current batch size.
+	 * 
+	 * @param operation
+	 * @throws RemoteException
+	 * @throws OperationApplicationException
+	 */
+	public void add( ContentProviderOperation operation ) throws RemoteException, OperationApplicationException {
+		
+		ops.add( operation );
+		
+		if( ops.size() >= sBatchSize ) {
+			flush();
+		}
+		
+	}
+	
+	/**
+	 * Applies any queued operations.
+	 * 
+	 * @return the number of operations applied by this call
+	 * @throws RemoteException
+	 * @throws OperationApplicationException
+	 */
+	public int flush() throws RemoteException, OperationApplicationException {
+		
+		if( ops.isEmpty() ) {
+			return 0;
+		}
+		
+		int size = ops.size();
+		
+		long start = SystemClock.elapsedRealtime();
+		ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
+		long elapsed = SystemClock.elapsedRealtime() - start;
+		
+		ops.clear();
+		
+		applied += results.length;
+		batches++;
+		commitMillis += elapsed;
+		maxCommitMillis = Math.max( maxCommitMillis, elapsed );
+		
+		// a short final batch says little about the cost of a full one
+		if( size * 2 >= sBatchSize ) {
+			sBatchSize = nextBatchSize( sBatchSize, size, elapsed );
+		}
+		
+		Log.v( TAG, "flush : " + name + " applied " + results.length + " operations in " + elapsed + "ms, next batch size " + sBatchSize );
+		return results.length;
+	}
+	
+	/**
+	 * Applies any queued operations and logs the throughput of this writer.
+	 * 
+	 * @return the number of operations applied by this writer
+	 * @throws RemoteException
+	 * @throws OperationApplicationException
+	 */
+	public int finish() throws RemoteException, OperationApplicationException {
+		
+		flush();
+		
+		if( batches > 0 ) {
+			Log.d( TAG, "finish : " + name + " applied " + applied + " operations in " + batches + " batches, " 
+					+ getOperationsPerSecond() + " ops/sec, commit avg " + ( commitMillis / batches ) + "ms, max " + maxCommitMillis + "ms" );
+		}
+		
+		return applied;
+	}
+	
+	/**
+	 * @return the number of operations applied so far
+	 */
+	public int getApplied() {
+		return applied;
+	}
+	
+	/**
+	 * @return the number of batches committed so far
+	 */
+	public int getBatches() {
+		return batches;
+	}
+	
+	/**
+	 * @return the total time spent committing batches, in milliseconds
+	 */
+	public long getCommitMillis() {
+		return commitMillis;
+	}
+	
+	/**
+	 * @return the longest single commit, in milliseconds
+	 */
+	public long getMaxCommitMillis() {
+		return maxCommitMillis;
+	}
+	
+	/**
+	 * @return the operations applied per second of commit time
+	 */
+	public long getOperationsPerSecond() {
+		
+		if( commitMillis == 0 ) {
+			return applied * 1000L;
+		}
+		
+		return applied * 1000L / commitMillis;
+	}
+	
+	// internal helpers
+	
+	/*
+	 * The size that would have hit the target at this batch's rate, averaged with the current size to damp outliers.
+	 */
+	static int nextBatchSize( int current, int size, long elapsed ) {
+		
+		long target = ( elapsed > 0 ) ? size * TARGET_COMMIT_MILLIS / elapsed : MAX_BATCH_SIZE;
+		long adjusted = ( current + target ) / 2;
+		
+		return (int) Math.max( MIN_BATCH_SIZE, Math.min( MAX_BATCH_SIZE, adjusted ) );
+	}
+	
+}
@@ -0,0 +1,83 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db;
+
+import java.lang.ref.WeakReference;
+
+import android.database.Cursor;
+
+/**
+ * Resolves a fixed list of column names against a cursor once, so rows can be read by position.
+ * 
+ * The indexes are kept until a different cursor is passed in. Positions in the returned array
+ * follow the order the columns were given in, a column missing from the cursor's projection
+ * resolves to -1.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class CursorColumnIndex {
+
+	private final String[] columns;
+	
+	private volatile Resolved resolved;
+	
+	public CursorColumnIndex( String... columns ) {
+		this.columns = columns;
+	}
+	
+	/**
+	 * @param cursor
+	 * @return the index of each column in the cursor, or -1 for columns it does not have
+	 */
+	public int[] resolve( Cursor cursor ) {
+		
+		Resolved current = resolved;
+		if( null != current && current.cursor.get() == cursor ) {
+			return current.indexes;
+		}
+		
+		int[] indexes = new int[ columns.length ];
+		for( int i = 0; i < columns.length; i++ ) {
+			indexes[ i ] = cursor.getColumnIndex( columns[ i ] );
+		}
+		
+		resolved = new Resolved( cursor, indexes );
+		
+		return indexes;
+	}
+	
+	// internal helpers
+	
+	/*
+	 * Holds the cursor weakly, a closed cursor must not be kept alive by the dao helper that read it.
+	 */
+	private static class Resolved {
+		
+		final WeakReference<Cursor> cursor;
+		final int[] indexes;
+		
+		Resolved( Cursor cursor, int[] indexes ) {
+			this.cursor = new WeakReference<Cursor>( cursor );
+			this.indexes = indexes;
+		}
+		
+	}
+	
+}
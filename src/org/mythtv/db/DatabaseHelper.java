@@ -20,22 +20,32 @@ package org.mythtv.db;
 
 import static android.provider.BaseColumns._ID;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.joda.time.DateTime;
 import org.mythtv.db.channel.ChannelConstants;
 import org.mythtv.db.content.LiveStreamConstants;
 import org.mythtv.db.dvr.ProgramConstants;
+import org.mythtv.db.dvr.ProgramGuideChunkConstants;
+import org.mythtv.db.dvr.ProgramSearchConstants;
 import org.mythtv.db.dvr.RecordingConstants;
 import org.mythtv.db.dvr.programGroup.ProgramGroupConstants;
+import org.mythtv.db.frontends.FrontendConstants;
 import org.mythtv.db.http.EtagConstants;
 import org.mythtv.db.preferences.LocationProfileConstants;
 import org.mythtv.db.preferences.PlaybackProfileConstants;
 import org.mythtv.db.status.StatusConstants;
 import org.mythtv.db.status.StatusConstants.StatusKey;
+import org.mythtv.services.utils.ArticleCleaner;
 
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
 import android.util.Log;
 
 /**
@@ -48,7 +58,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 	private static final String TAG = DatabaseHelper.class.getSimpleName();
 	
 	private static final String DATABASE_NAME = "mythtvdb";
-	private static final int DATABASE_VERSION = 106;
+	private static final int DATABASE_VERSION = 112;
 
 	public DatabaseHelper( Context context ) {
 		super( context, DATABASE_NAME, null, DATABASE_VERSION );
@@ -91,6 +101,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		dropProgramGroup( db );
 		createProgramGroup( db );
 		
+		dropProgramGuideChunk( db );
+		createProgramGuideChunk( db );
+		
 		dropRecording( db );
 		createRecording( db );
 
@@ -100,9 +113,29 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		dropCleanup( db );
 		createCleanup( db );
 		
+		dropProgramSearch( db );
+		createProgramSearch( db );
+		
+		dropFrontends( db );
+		createFrontends( db );
+		
 		Log.v( TAG, "onCreate : exit" );
 	}
 
+	/* (non-Javadoc)
+	 * @see android.database.sqlite.SQLiteOpenHelper#onOpen(android.database.sqlite.SQLiteDatabase)
+	 */
+	@Override
+	public void onOpen( SQLiteDatabase db ) {
+		super.onOpen( db );
+		
+		// rows replaced by an upsert only fire the delete triggers keeping the search index current with this on
+		if( !db.isReadOnly() ) {
+			db.execSQL( "PRAGMA recursive_triggers = ON;" );
+		}
+		
+	}
+
 	/* (non-Javadoc)
 	 * @see android.database.sqlite.SQLiteOpenHelper#onUpgrade(android.database.sqlite.SQLiteDatabase, int, int)
 	 */
@@ -115,6 +148,78 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 			onCreate( db );
 
+			Log.v( TAG, "onUpgrade : exit" );
+			return;
+		}
+
+		if( oldVersion < 107 ) {
+			Log.v( TAG, "onUpgrade : upgrading to db version 107" );
+
+			// program and etag tables gain unique natural keys, their contents are refreshed from the backend
+			dropEtag( db );
+			createEtag( db );
+			
+			dropProgram( db, ProgramConstants.TABLE_NAME_RECORDED );
+			createProgram( db, ProgramConstants.TABLE_NAME_RECORDED );
+			
+			dropProgram( db, ProgramConstants.TABLE_NAME_UPCOMING );
+			createProgram( db, ProgramConstants.TABLE_NAME_UPCOMING );
+
+			dropProgram( db, ProgramConstants.TABLE_NAME_PROGRAM );
+			createProgram( db, ProgramConstants.TABLE_NAME_PROGRAM );
+
+		}
+
+		if( oldVersion < 108 ) {
+			Log.v( TAG, "onUpgrade : upgrading to db version 108" );
+
+			createProgramIndexes( db, ProgramConstants.TABLE_NAME_RECORDED );
+			createProgramIndexes( db, ProgramConstants.TABLE_NAME_UPCOMING );
+			createProgramIndexes( db, ProgramConstants.TABLE_NAME_PROGRAM );
+			createProgramGroupIndexes( db );
+			createRecordingIndexes( db );
+			
+		}
+
+		if( oldVersion < 109 ) {
+			Log.v( TAG, "onUpgrade : upgrading to db version 109" );
+
+			dropProgramGuideChunk( db );
+			createProgramGuideChunk( db );
+			
+		}
+
+		if( oldVersion < 110 ) {
+			Log.v( TAG, "onUpgrade : upgrading to db version 110" );
+
+			dropProgramSearch( db );
+			createProgramSearch( db );
+			
+		}
+
+		if( oldVersion < 111 ) {
+			Log.v( TAG, "onUpgrade : upgrading to db version 111" );
+
+			// recordings carry their group key, the groups carry their episode counts, tables recreated by an earlier step already have them
+			for( String tableName : ProgramSearchConstants.SOURCE_TABLES ) {
+				if( !hasColumn( db, tableName, ProgramConstants.FIELD_PROGRAM_GROUP ) ) {
+					db.execSQL( "ALTER TABLE " + tableName + " ADD COLUMN " + ProgramConstants.FIELD_PROGRAM_GROUP + " " + ProgramConstants.FIELD_PROGRAM_GROUP_DATA_TYPE );
+				}
+				createProgramGroupIndex( db, tableName );
+			}
+			db.execSQL( "ALTER TABLE " + ProgramGroupConstants.TABLE_NAME + " ADD COLUMN " + ProgramGroupConstants.FIELD_EPISODE_COUNT + " " + ProgramGroupConstants.FIELD_EPISODE_COUNT_DATA_TYPE + " default " + ProgramGroupConstants.FIELD_EPISODE_COUNT_DEFAULT );
+			db.execSQL( "ALTER TABLE " + ProgramGroupConstants.TABLE_NAME + " ADD COLUMN " + ProgramGroupConstants.FIELD_LAST_RECORDED + " " + ProgramGroupConstants.FIELD_LAST_RECORDED_DATA_TYPE );
+			
+			populateProgramGroupKeys( db );
+			
+		}
+
+		if( oldVersion < 112 ) {
+			Log.v( TAG, "onUpgrade : upgrading to db version 112" );
+
+			dropFrontends( db );
+			createFrontends( db );
+			
 		}
 
 		Log.v( TAG, "onUpgrade : exit" );
@@ -204,7 +309,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		sqlBuilder.append( EtagConstants.FIELD_VALUE ).append( " " ).append( EtagConstants.FIELD_VALUE_DATA_TYPE ).append( ", " );
 		sqlBuilder.append( EtagConstants.FIELD_DATA_ID ).append( " " ).append( EtagConstants.FIELD_DATA_ID_DATA_TYPE ).append( " default" ).append( EtagConstants.FIELD_DATA_ID_DEFAULT ).append( ", " );
 		sqlBuilder.append( EtagConstants.FIELD_DATE ).append( " " ).append( EtagConstants.FIELD_DATE_DATA_TYPE ).append( ", " );
-		sqlBuilder.append( EtagConstants.FIELD_HOSTNAME ).append( " " ).append( EtagConstants.FIELD_HOSTNAME_DATA_TYPE );
+		sqlBuilder.append( EtagConstants.FIELD_HOSTNAME ).append( " " ).append( EtagConstants.FIELD_HOSTNAME_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( "UNIQUE(" ).append( EtagConstants.FIELD_ENDPOINT ).append( ", " ).append( EtagConstants.FIELD_DATA_ID ).append( ", " ).append( EtagConstants.FIELD_HOSTNAME ).append( ")" );
 		sqlBuilder.append( ");" );
 		String sql = sqlBuilder.toString();
 		if( Log.isLoggable( TAG, Log.VERBOSE ) ) {
@@ -215,6 +321,34 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		Log.v( TAG, "createEtag : exit" );
 	}
 	
+	private void dropFrontends( SQLiteDatabase db ) {
+		Log.v( TAG, "dropFrontends : enter" );
+		
+		db.execSQL( "DROP TABLE IF EXISTS " + FrontendConstants.TABLE_NAME );
+		
+		Log.v( TAG, "dropFrontends : exit" );
+	}
+
+	private void createFrontends( SQLiteDatabase db ) {
+		Log.v( TAG, "createFrontends : enter" );
+		
+		StringBuilder sqlBuilder = new StringBuilder();
+		sqlBuilder.append( "CREATE TABLE " + FrontendConstants.TABLE_NAME + " (" );
+		sqlBuilder.append( FrontendConstants._ID ).append( " " ).append( FrontendConstants.FIELD_ID_DATA_TYPE ).append( " " ).append( FrontendConstants.FIELD_ID_PRIMARY_KEY ).append( ", " );
+		sqlBuilder.append( FrontendConstants.FIELD_NAME ).append( " " ).append( FrontendConstants.FIELD_NAME_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( FrontendConstants.FIELD_URL ).append( " " ).append( FrontendConstants.FIELD_URL_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( FrontendConstants.FIELD_LAST_SEEN ).append( " " ).append( FrontendConstants.FIELD_LAST_SEEN_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( "UNIQUE(" ).append( FrontendConstants.FIELD_URL ).append( ")" );
+		sqlBuilder.append( ");" );
+		String sql = sqlBuilder.toString();
+		if( Log.isLoggable( TAG, Log.VERBOSE ) ) {
+			Log.v( TAG, "createFrontends : sql=" + sql );
+		}
+		db.execSQL( sql );
+
+		Log.v( TAG, "createFrontends : exit" );
+	}
+	
 	private void createLocationProfiles( SQLiteDatabase db ) {
 		Log.v( TAG, "createLocationProfiles : enter" );
 		
@@ -489,7 +623,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		sqlBuilder.append( ProgramConstants.FIELD_EPISODE ).append( " " ).append( ProgramConstants.FIELD_EPISODE_DATA_TYPE ).append( ", " );
 		sqlBuilder.append( ProgramConstants.FIELD_CHANNEL_ID ).append( " " ).append( ProgramConstants.FIELD_CHANNEL_ID_DATA_TYPE ).append( ", " );
 		sqlBuilder.append( ProgramConstants.FIELD_RECORD_ID ).append( " " ).append( ProgramConstants.FIELD_RECORD_ID_DATA_TYPE ).append( ", " );
-		sqlBuilder.append( ProgramConstants.FIELD_IN_ERROR ).append( " " ).append( ProgramConstants.FIELD_IN_ERROR_DATA_TYPE );
+		sqlBuilder.append( ProgramConstants.FIELD_IN_ERROR ).append( " " ).append( ProgramConstants.FIELD_IN_ERROR_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( ProgramConstants.FIELD_PROGRAM_GROUP ).append( " " ).append( ProgramConstants.FIELD_PROGRAM_GROUP_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( "UNIQUE(" ).append( ProgramConstants.FIELD_CHANNEL_ID ).append( ", " ).append( ProgramConstants.FIELD_START_TIME ).append( ", " ).append( ProgramConstants.FIELD_HOSTNAME ).append( ")" );
 		sqlBuilder.append( ");" );
 		String sql = sqlBuilder.toString();
 		if( Log.isLoggable( TAG, Log.VERBOSE ) ) {
@@ -497,11 +633,37 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		}
 		db.execSQL( sql );
 	
-//		db.execSQL( "CREATE INDEX program_group_idx ON " + tableName + " (" + ProgramConstants.FIELD_PROGRAM_GROUP + "," + ProgramConstants.FIELD_PROGRAM_TYPE + ")" );
+		createProgramIndexes( db, tableName );
+		createProgramGroupIndex( db, tableName );
 		
 		Log.v( TAG, "createProgram : exit" );
 	}
 	
+	/*
+	 * The channel, recording and live stream joins are served by the unique keys on those tables, these
+	 * cover the hostname scoped start time ranges, the title lookups and the guide expiry on END_TIME.
+	 */
+	private void createProgramIndexes( SQLiteDatabase db, String tableName ) {
+		Log.v( TAG, "createProgramIndexes : enter" );
+		
+		createIndex( db, tableName + "_hostname_start_time_idx", tableName, ProgramConstants.FIELD_HOSTNAME, ProgramConstants.FIELD_START_TIME );
+		createIndex( db, tableName + "_title_idx", tableName, ProgramConstants.FIELD_TITLE, ProgramConstants.FIELD_HOSTNAME, ProgramConstants.FIELD_IN_ERROR );
+		createIndex( db, tableName + "_end_time_idx", tableName, ProgramConstants.FIELD_END_TIME );
+		
+		Log.v( TAG, "createProgramIndexes : exit" );
+	}
+	
+	/*
+	 * Kept apart from the indexes above, the upgrade to 108 builds those before PROGRAM_GROUP exists.
+	 */
+	private void createProgramGroupIndex( SQLiteDatabase db, String tableName ) {
+		Log.v( TAG, "createProgramGroupIndex : enter" );
+		
+		createIndex( db, tableName + "_program_group_idx", tableName, ProgramConstants.FIELD_PROGRAM_GROUP, ProgramConstants.FIELD_HOSTNAME );
+		
+		Log.v( TAG, "createProgramGroupIndex : exit" );
+	}
+	
 	private void dropProgram( SQLiteDatabase db, String tableName ) {
 		Log.v( TAG, "dropProgram : enter" );
 		
@@ -510,6 +672,180 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		Log.v( TAG, "dropProgram : exit" );
 	}
 	
+	private void dropProgramSearch( SQLiteDatabase db ) {
+		Log.v( TAG, "dropProgramSearch : enter" );
+		
+		for( String tableName : ProgramSearchConstants.SOURCE_TABLES ) {
+			db.execSQL( "DROP TRIGGER IF EXISTS " + tableName + "_search_insert" );
+			db.execSQL( "DROP TRIGGER IF EXISTS " + tableName + "_search_update" );
+			db.execSQL( "DROP TRIGGER IF EXISTS " + tableName + "_search_delete" );
+		}
+		
+		db.execSQL( "DROP TABLE IF EXISTS " + ProgramSearchConstants.TABLE_NAME );
+		
+		Log.v( TAG, "dropProgramSearch : exit" );
+	}
+	
+	/*
+	 * FTS3 is the full text module available on every supported platform version. The index is filled
+	 * from the rows already present, the triggers keep it current from then on.
+	 */
+	private void createProgramSearch( SQLiteDatabase db ) {
+		Log.v( TAG, "createProgramSearch : enter" );
+		
+		String fields = TextUtils.join( ", ", ProgramSearchConstants.INDEXED_FIELDS );
+		
+		StringBuilder newFields = new StringBuilder();
+		StringBuilder updateFields = new StringBuilder();
+		for( String field : ProgramSearchConstants.INDEXED_FIELDS ) {
+			if( newFields.length() > 0 ) {
+				newFields.append( ", " );
+				updateFields.append( ", " );
+			}
+			newFields.append( "new." ).append( field );
+			updateFields.append( field ).append( " = new." ).append( field );
+		}
+		
+		String sql = "CREATE VIRTUAL TABLE " + ProgramSearchConstants.TABLE_NAME + " USING fts3( " + fields + " );";
+		if( Log.isLoggable( TAG, Log.VERBOSE ) ) {
+			Log.v( TAG, "createProgramSearch : sql=" + sql );
+		}
+		db.execSQL( sql );
+
+		for( String tableName : ProgramSearchConstants.SOURCE_TABLES ) {
+			String docid = " * " + ProgramSearchConstants.SOURCE_COUNT + " + " + ProgramSearchConstants.getSourceCode( tableName );
+			
+			db.execSQL( "INSERT INTO " + ProgramSearchConstants.TABLE_NAME + " ( docid, " + fields + " ) "
+					+ "SELECT " + _ID + docid + ", " + fields + " FROM " + tableName + ";" );
+			
+			db.execSQL( "CREATE TRIGGER " + tableName + "_search_insert AFTER INSERT ON " + tableName + " BEGIN "
+					+ "INSERT INTO " + ProgramSearchConstants.TABLE_NAME + " ( docid, " + fields + " ) VALUES ( new." + _ID + docid + ", " + newFields + " ); "
+					+ "END;" );
+			
+			db.execSQL( "CREATE TRIGGER " + tableName + "_search_update AFTER UPDATE OF " + fields + " ON " + tableName + " BEGIN "
+					+ "UPDATE " + ProgramSearchConstants.TABLE_NAME + " SET " + updateFields + " WHERE docid = old." + _ID + docid + "; "
+					+ "END;" );
+			
+			db.execSQL( "CREATE TRIGGER " + tableName + "_search_delete AFTER DELETE ON " + tableName + " BEGIN "
+					+ "DELETE FROM " + ProgramSearchConstants.TABLE_NAME + " WHERE docid = old." + _ID + docid + "; "
+					+ "END;" );
+		}
+		
+		Log.v( TAG, "createProgramSearch : exit" );
+	}
+	
+	/**
+	 * Rebuilds the program groups of a backend from its recordings, excluding Live TV.
+	 * 
+	 * Every group's count and latest recording are aggregated in one pass into a temporary table, existing
+	 * groups are then updated in place so they keep their _ID, missing ones inserted and empty ones removed.
+	 * Must be called inside a transaction.
+	 * 
+	 * @param db
+	 * @param hostname
+	 */
+	public static void refreshProgramGroups( SQLiteDatabase db, String hostname ) {
+		Log.v( TAG, "refreshProgramGroups : enter" );
+		
+		String recorded = ProgramConstants.TABLE_NAME_RECORDED;
+		String recording = RecordingConstants.TABLE_NAME;
+		String groups = ProgramGroupConstants.TABLE_NAME;
+		String refresh = groups + "_refresh";
+		
+		String groupFields = ProgramGroupConstants.FIELD_PROGRAM_GROUP + ", " + ProgramGroupConstants.FIELD_TITLE + ", " + ProgramGroupConstants.FIELD_CATEGORY + ", " 
+				+ ProgramGroupConstants.FIELD_INETREF + ", " + ProgramGroupConstants.FIELD_EPISODE_COUNT + ", " + ProgramGroupConstants.FIELD_LAST_RECORDED;
+		
+		db.execSQL( "CREATE TEMP TABLE IF NOT EXISTS " + refresh + " ( " 
+				+ ProgramGroupConstants.FIELD_PROGRAM_GROUP + " TEXT PRIMARY KEY, " + ProgramGroupConstants.FIELD_TITLE + " TEXT, " + ProgramGroupConstants.FIELD_CATEGORY + " TEXT, " 
+				+ ProgramGroupConstants.FIELD_INETREF + " TEXT, " + ProgramGroupConstants.FIELD_EPISODE_COUNT + " INTEGER, " + ProgramGroupConstants.FIELD_LAST_RECORDED + " INTEGER );" );
+		db.execSQL( "DELETE FROM " + refresh );
+		
+		// the title, category and inetref of a group come from its most recent recording
+		StringBuilder aggregate = new StringBuilder();
+		aggregate.append( "INSERT OR IGNORE INTO " ).append( refresh ).append( " ( " ).append( groupFields ).append( " ) " );
+		aggregate.append( "SELECT g." ).append( ProgramConstants.FIELD_PROGRAM_GROUP );
+		aggregate.append( ", r." ).append( ProgramConstants.FIELD_TITLE );
+		aggregate.append( ", r." ).append( ProgramConstants.FIELD_CATEGORY );
+		aggregate.append( ", r." ).append( ProgramConstants.FIELD_INETREF );
+		aggregate.append( ", g." ).append( ProgramGroupConstants.FIELD_EPISODE_COUNT );
+		aggregate.append( ", g." ).append( ProgramGroupConstants.FIELD_LAST_RECORDED );
+		aggregate.append( " FROM ( SELECT " );
+		aggregate.append( recorded ).append( "." ).append( ProgramConstants.FIELD_PROGRAM_GROUP ).append( " AS " ).append( ProgramConstants.FIELD_PROGRAM_GROUP ).append( ", " );
+		aggregate.append( "COUNT(*) AS " ).append( ProgramGroupConstants.FIELD_EPISODE_COUNT ).append( ", " );
+		aggregate.append( "MAX( " ).append( recorded ).append( "." ).append( ProgramConstants.FIELD_START_TIME ).append( " ) AS " ).append( ProgramGroupConstants.FIELD_LAST_RECORDED );
+		aggregate.append( " FROM " ).append( recorded ).append( " JOIN " ).append( recording ).append( " ON (" );
+		aggregate.append( recording ).append( "." ).append( RecordingConstants.FIELD_RECORD_ID ).append( " = " ).append( recorded ).append( "." ).append( ProgramConstants.FIELD_RECORD_ID );
+		aggregate.append( " AND " ).append( recording ).append( "." ).append( RecordingConstants.FIELD_START_TIME ).append( " = " ).append( recorded ).append( "." ).append( ProgramConstants.FIELD_START_TIME );
+		aggregate.append( " AND " ).append( recording ).append( "." ).append( RecordingConstants.FIELD_HOSTNAME ).append( " = " ).append( recorded ).append( "." ).append( ProgramConstants.FIELD_HOSTNAME );
+		aggregate.append( ") WHERE " ).append( recorded ).append( "." ).append( ProgramConstants.FIELD_HOSTNAME ).append( " = ?" );
+		aggregate.append( " AND " ).append( recording ).append( "." ).append( RecordingConstants.FIELD_REC_GROUP ).append( " IS NOT NULL" );
+		aggregate.append( " AND LOWER( " ).append( recording ).append( "." ).append( RecordingConstants.FIELD_REC_GROUP ).append( " ) <> 'livetv'" );
+		aggregate.append( " GROUP BY " ).append( recorded ).append( "." ).append( ProgramConstants.FIELD_PROGRAM_GROUP ).append( " ) g" );
+		aggregate.append( " JOIN " ).append( recorded ).append( " r ON (" );
+		aggregate.append( "r." ).append( ProgramConstants.FIELD_PROGRAM_GROUP ).append( " = g." ).append( ProgramConstants.FIELD_PROGRAM_GROUP );
+		aggregate.append( " AND r." ).append( ProgramConstants.FIELD_START_TIME ).append( " = g." ).append( ProgramGroupConstants.FIELD_LAST_RECORDED );
+		aggregate.append( " AND r." ).append( ProgramConstants.FIELD_HOSTNAME ).append( " = ?)" );
+		db.execSQL( aggregate.toString(), new Object[] { hostname, hostname } );
+		
+		db.execSQL( "DELETE FROM " + groups + " WHERE " + ProgramGroupConstants.FIELD_HOSTNAME + " = ? AND " 
+				+ ProgramGroupConstants.FIELD_PROGRAM_GROUP + " NOT IN ( SELECT " + ProgramGroupConstants.FIELD_PROGRAM_GROUP + " FROM " + refresh + " )", new Object[] { hostname } );
+		
+		StringBuilder update = new StringBuilder();
+		update.append( "UPDATE " ).append( groups ).append( " SET " );
+		String[] updated = new String[] { ProgramGroupConstants.FIELD_TITLE, ProgramGroupConstants.FIELD_CATEGORY, ProgramGroupConstants.FIELD_INETREF, ProgramGroupConstants.FIELD_EPISODE_COUNT, ProgramGroupConstants.FIELD_LAST_RECORDED };
+		for( int i = 0; i < updated.length; i++ ) {
+			if( i > 0 ) {
+				update.append( ", " );
+			}
+			update.append( updated[ i ] ).append( " = ( SELECT " ).append( updated[ i ] ).append( " FROM " ).append( refresh );
+			update.append( " WHERE " ).append( refresh ).append( "." ).append( ProgramGroupConstants.FIELD_PROGRAM_GROUP ).append( " = " ).append( groups ).append( "." ).append( ProgramGroupConstants.FIELD_PROGRAM_GROUP ).append( " )" );
+		}
+		update.append( " WHERE " ).append( ProgramGroupConstants.FIELD_HOSTNAME ).append( " = ?" );
+		db.execSQL( update.toString(), new Object[] { hostname } );
+		
+		db.execSQL( "INSERT INTO " + groups + " ( " + groupFields + ", " + ProgramGroupConstants.FIELD_HOSTNAME + " ) SELECT " + groupFields + ", ? FROM " + refresh 
+				+ " WHERE " + ProgramGroupConstants.FIELD_PROGRAM_GROUP + " NOT IN ( SELECT " + ProgramGroupConstants.FIELD_PROGRAM_GROUP + " FROM " + groups + " WHERE " + ProgramGroupConstants.FIELD_HOSTNAME + " = ? )", new Object[] { hostname, hostname } );
+		
+		db.execSQL( "DELETE FROM " + refresh );
+		
+		Log.v( TAG, "refreshProgramGroups : exit" );
+	}
+	
+	/*
+	 * Fills in the group key of the recordings stored before it existed and derives their groups, the
+	 * guide and upcoming rows get theirs when next synced.
+	 */
+	private void populateProgramGroupKeys( SQLiteDatabase db ) {
+		Log.v( TAG, "populateProgramGroupKeys : enter" );
+		
+		SQLiteStatement update = db.compileStatement( "UPDATE " + ProgramConstants.TABLE_NAME_RECORDED + " SET " + ProgramConstants.FIELD_PROGRAM_GROUP + " = ? WHERE " + ProgramConstants._ID + " = ?" );
+		
+		Set<String> hostnames = new HashSet<String>();
+		Cursor cursor = db.query( ProgramConstants.TABLE_NAME_RECORDED, new String[] { ProgramConstants._ID, ProgramConstants.FIELD_TITLE, ProgramConstants.FIELD_HOSTNAME }, null, null, null, null, null );
+		try {
+			while( cursor.moveToNext() ) {
+				String title = cursor.getString( 1 );
+				
+				update.bindString( 1, null != title ? ArticleCleaner.clean( title ) : "" );
+				update.bindLong( 2, cursor.getLong( 0 ) );
+				update.execute();
+				
+				if( !cursor.isNull( 2 ) ) {
+					hostnames.add( cursor.getString( 2 ) );
+				}
+			}
+		} finally {
+			cursor.close();
+			update.close();
+		}
+		
+		for( String hostname : hostnames ) {
+			refreshProgramGroups( db, hostname );
+		}
+		
+		Log.v( TAG, "populateProgramGroupKeys : exit" );
+	}
+	
 	private void createChannel( SQLiteDatabase db ) {
 		Log.v( TAG, "createChannel : enter" );
 		
@@ -572,6 +908,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		sqlBuilder.append( ProgramGroupConstants.FIELD_TITLE ).append( " " ).append( ProgramGroupConstants.FIELD_TITLE_DATA_TYPE ).append( ", " );
 		sqlBuilder.append( ProgramGroupConstants.FIELD_CATEGORY ).append( " " ).append( ProgramGroupConstants.FIELD_CATEGORY_DATA_TYPE ).append( ", " );
 		sqlBuilder.append( ProgramGroupConstants.FIELD_INETREF ).append( " " ).append( ProgramGroupConstants.FIELD_INETREF_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( ProgramGroupConstants.FIELD_EPISODE_COUNT ).append( " " ).append( ProgramGroupConstants.FIELD_EPISODE_COUNT_DATA_TYPE ).append( " default " ).append( ProgramGroupConstants.FIELD_EPISODE_COUNT_DEFAULT ).append( ", " );
+		sqlBuilder.append( ProgramGroupConstants.FIELD_LAST_RECORDED ).append( " " ).append( ProgramGroupConstants.FIELD_LAST_RECORDED_DATA_TYPE ).append( ", " );
 		sqlBuilder.append( ProgramGroupConstants.FIELD_HOSTNAME ).append( " " ).append( ProgramGroupConstants.FIELD_HOSTNAME_DATA_TYPE );
 		sqlBuilder.append( ");" );
 		String sql = sqlBuilder.toString();
@@ -580,9 +918,20 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		}
 		db.execSQL( sql );
 	
+		createProgramGroupIndexes( db );
+		
 		Log.v( TAG, "createProgramGroup : exit" );
 	}
 	
+	private void createProgramGroupIndexes( SQLiteDatabase db ) {
+		Log.v( TAG, "createProgramGroupIndexes : enter" );
+		
+		createIndex( db, ProgramGroupConstants.TABLE_NAME + "_program_group_idx", ProgramGroupConstants.TABLE_NAME, ProgramGroupConstants.FIELD_PROGRAM_GROUP, ProgramGroupConstants.FIELD_HOSTNAME );
+		createIndex( db, ProgramGroupConstants.TABLE_NAME + "_title_idx", ProgramGroupConstants.TABLE_NAME, ProgramGroupConstants.FIELD_TITLE, ProgramGroupConstants.FIELD_HOSTNAME );
+		
+		Log.v( TAG, "createProgramGroupIndexes : exit" );
+	}
+	
 	private void dropProgramGroup( SQLiteDatabase db ) {
 		Log.v( TAG, "dropProgramGroup : enter" );
 		
@@ -621,9 +970,51 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		}
 		db.execSQL( sql );
 	
+		createRecordingIndexes( db );
+		
 		Log.v( TAG, "createRecording : exit" );
 	}
 	
+	private void createRecordingIndexes( SQLiteDatabase db ) {
+		Log.v( TAG, "createRecordingIndexes : enter" );
+		
+		createIndex( db, RecordingConstants.TABLE_NAME + "_hostname_start_time_idx", RecordingConstants.TABLE_NAME, RecordingConstants.FIELD_HOSTNAME, RecordingConstants.FIELD_START_TIME );
+		
+		Log.v( TAG, "createRecordingIndexes : exit" );
+	}
+	
+	private void createProgramGuideChunk( SQLiteDatabase db ) {
+		Log.v( TAG, "createProgramGuideChunk : enter" );
+		
+		StringBuilder sqlBuilder = new StringBuilder();
+		sqlBuilder.append( "CREATE TABLE " + ProgramGuideChunkConstants.TABLE_NAME + " (" );
+		sqlBuilder.append( ProgramGuideChunkConstants._ID ).append( " " ).append( ProgramGuideChunkConstants.FIELD_ID_DATA_TYPE ).append( " " ).append( ProgramGuideChunkConstants.FIELD_ID_PRIMARY_KEY ).append( ", " );
+		sqlBuilder.append( ProgramGuideChunkConstants.FIELD_START_TIME ).append( " " ).append( ProgramGuideChunkConstants.FIELD_START_TIME_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( ProgramGuideChunkConstants.FIELD_END_TIME ).append( " " ).append( ProgramGuideChunkConstants.FIELD_END_TIME_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( ProgramGuideChunkConstants.FIELD_ETAG ).append( " " ).append( ProgramGuideChunkConstants.FIELD_ETAG_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( ProgramGuideChunkConstants.FIELD_PROGRAMS ).append( " " ).append( ProgramGuideChunkConstants.FIELD_PROGRAMS_DATA_TYPE ).append( " default " ).append( ProgramGuideChunkConstants.FIELD_PROGRAMS_DEFAULT ).append( ", " );
+		sqlBuilder.append( ProgramGuideChunkConstants.FIELD_BYTES ).append( " " ).append( ProgramGuideChunkConstants.FIELD_BYTES_DATA_TYPE ).append( " default " ).append( ProgramGuideChunkConstants.FIELD_BYTES_DEFAULT ).append( ", " );
+		sqlBuilder.append( ProgramGuideChunkConstants.FIELD_DATE ).append( " " ).append( ProgramGuideChunkConstants.FIELD_DATE_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( ProgramGuideChunkConstants.FIELD_HOSTNAME ).append( " " ).append( ProgramGuideChunkConstants.FIELD_HOSTNAME_DATA_TYPE ).append( ", " );
+		sqlBuilder.append( "UNIQUE(" ).append( ProgramGuideChunkConstants.FIELD_START_TIME ).append( ", " ).append( ProgramGuideChunkConstants.FIELD_HOSTNAME ).append( ")" );
+		sqlBuilder.append( ");" );
+		String sql = sqlBuilder.toString();
+		if( Log.isLoggable( TAG, Log.VERBOSE ) ) {
+			Log.v( TAG, "createProgramGuideChunk : sql=" + sql );
+		}
+		db.execSQL( sql );
+	
+		Log.v( TAG, "createProgramGuideChunk : exit" );
+	}
+	
+	private void dropProgramGuideChunk( SQLiteDatabase db ) {
+		Log.v( TAG, "dropProgramGuideChunk : enter" );
+		
+		db.execSQL( "DROP TABLE IF EXISTS " + ProgramGuideChunkConstants.TABLE_NAME );
+		
+		Log.v( TAG, "dropProgramGuideChunk : exit" );
+	}
+	
 	private void dropRecording( SQLiteDatabase db ) {
 		Log.v( TAG, "dropRecording : enter" );
 		
@@ -683,5 +1074,40 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		Log.v( TAG, "dropLiveStream : exit" );
 	}
 	
+	private boolean hasColumn( SQLiteDatabase db, String tableName, String column ) {
+		
+		Cursor cursor = db.rawQuery( "PRAGMA table_info(" + tableName + ")", null );
+		try {
+			int nameIndex = cursor.getColumnIndexOrThrow( "name" );
+			while( cursor.moveToNext() ) {
+				if( column.equalsIgnoreCase( cursor.getString( nameIndex ) ) ) {
+					return true;
+				}
+			}
+		} finally {
+			cursor.close();
+		}
+		
+		return false;
+	}
+	
+	private void createIndex( SQLiteDatabase db, String indexName, String tableName, String... columns ) {
+		
+		StringBuilder sqlBuilder = new StringBuilder();
+		sqlBuilder.append( "CREATE INDEX IF NOT EXISTS " ).append( indexName ).append( " ON " ).append( tableName ).append( " (" );
+		for( int i = 0; i < columns.length; i++ ) {
+			if( i > 0 ) {
+				sqlBuilder.append( ", " );
+			}
+			sqlBuilder.append( columns[ i ] );
+		}
+		sqlBuilder.append( ");" );
+		String sql = sqlBuilder.toString();
+		if( Log.isLoggable( TAG, Log.VERBOSE ) ) {
+			Log.v( TAG, "createIndex : sql=" + sql );
+		}
+		db.execSQL( sql );
 
+	}
+	
 }
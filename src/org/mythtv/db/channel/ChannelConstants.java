@@ -32,6 +32,7 @@ public class ChannelConstants extends AbstractBaseConstants {
 	public static final String TABLE_NAME = "channel";
 	
 	public static final Uri CONTENT_URI = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME );
+	public static final Uri CONTENT_URI_UPSERT = Uri.withAppendedPath( CONTENT_URI, UPSERT_PATH );
 
 	public static final String INSERT_ROW;
 	
@@ -122,11 +123,21 @@ public class ChannelConstants extends AbstractBaseConstants {
 		FIELD_FREQUENCY_TABLE, FIELD_FINE_TUNE, FIELD_SIS_STANDARD, FIELD_CHAN_FILTERS, FIELD_SOURCE_ID, FIELD_INPUT_ID, FIELD_SOURCE_ID,
 		FIELD_INPUT_ID, FIELD_COMM_FREE, FIELD_USE_EIT, FIELD_VISIBLE, FIELD_XMLTV_ID, FIELD_DEFAULT_AUTH
 	};
+
+	/**
+	 * Column order bound by INSERT_ROW
+	 */
+	public static final String[] ROW_COLUMNS = {
+		FIELD_CHAN_ID, FIELD_CHAN_NUM, FIELD_CALLSIGN, FIELD_ICON_URL, FIELD_CHANNEL_NAME, FIELD_MPLEX_ID, FIELD_TRANSPORT_ID, FIELD_SERVICE_ID,
+		FIELD_NETWORK_ID, FIELD_ATSC_MAJOR_CHAN, FIELD_ATSC_MINOR_CHAN, FIELD_FORMAT, FIELD_MODULATION, FIELD_FREQUENCY, FIELD_FREQUENCY_ID,
+		FIELD_FREQUENCY_TABLE, FIELD_FINE_TUNE, FIELD_SIS_STANDARD, FIELD_CHAN_FILTERS, FIELD_SOURCE_ID, FIELD_INPUT_ID, FIELD_COMM_FREE,
+		FIELD_USE_EIT, FIELD_VISIBLE, FIELD_XMLTV_ID, FIELD_DEFAULT_AUTH, FIELD_HOSTNAME
+	};
 	
 	static {
 		StringBuilder sb = new StringBuilder();
 		
-		sb.append( "INSERT INTO " ).append( TABLE_NAME ).append( " ( " );
+		sb.append( "INSERT OR REPLACE INTO " ).append( TABLE_NAME ).append( " ( " );
 		sb.append( FIELD_CHAN_ID ).append( "," );
 		sb.append( FIELD_CHAN_NUM ).append( "," );
 		sb.append( FIELD_CALLSIGN ).append( "," );
@@ -19,18 +19,16 @@
 package org.mythtv.db.channel;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
 
 import org.mythtv.db.AbstractDaoHelper;
-import org.mythtv.provider.MythtvProvider;
+import org.mythtv.db.BatchWriter;
+import org.mythtv.db.CursorColumnIndex;
 import org.mythtv.services.api.channel.ChannelInfo;
-import org.mythtv.services.api.channel.ChannelInfos;
 
 import android.content.ContentProviderOperation;
-import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
@@ -48,7 +46,65 @@ import android.util.Log;
 public class ChannelDaoHelper extends AbstractDaoHelper {
 
 	private static final String TAG = ChannelDaoHelper.class.getSimpleName();
-	private final static int BATCH_COUNT_LIMIT = 99;
+
+	private static final String[] CHANNEL_COLUMNS = new String[] {
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_NUM,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CALLSIGN,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ICON_URL,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHANNEL_NAME,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_MPLEX_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_TRANSPORT_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SERVICE_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_NETWORK_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ATSC_MAJOR_CHAN,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ATSC_MINOR_CHAN,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FORMAT,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_MODULATION,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY_TABLE,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FINE_TUNE,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SIS_STANDARD,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_FILTERS,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SOURCE_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_INPUT_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_COMM_FREE,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_USE_EIT,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_VISIBLE,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_XMLTV_ID,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_DEFAULT_AUTH,
+		ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_HOSTNAME
+	};
+	private static final int COLUMN_CHAN_ID = 0;
+	private static final int COLUMN_CHAN_NUM = 1;
+	private static final int COLUMN_CALLSIGN = 2;
+	private static final int COLUMN_ICON_URL = 3;
+	private static final int COLUMN_CHANNEL_NAME = 4;
+	private static final int COLUMN_MPLEX_ID = 5;
+	private static final int COLUMN_TRANSPORT_ID = 6;
+	private static final int COLUMN_SERVICE_ID = 7;
+	private static final int COLUMN_NETWORK_ID = 8;
+	private static final int COLUMN_ATSC_MAJOR_CHAN = 9;
+	private static final int COLUMN_ATSC_MINOR_CHAN = 10;
+	private static final int COLUMN_FORMAT = 11;
+	private static final int COLUMN_MODULATION = 12;
+	private static final int COLUMN_FREQUENCY = 13;
+	private static final int COLUMN_FREQUENCY_ID = 14;
+	private static final int COLUMN_FREQUENCY_TABLE = 15;
+	private static final int COLUMN_FINE_TUNE = 16;
+	private static final int COLUMN_SIS_STANDARD = 17;
+	private static final int COLUMN_CHAN_FILTERS = 18;
+	private static final int COLUMN_SOURCE_ID = 19;
+	private static final int COLUMN_INPUT_ID = 20;
+	private static final int COLUMN_COMM_FREE = 21;
+	private static final int COLUMN_USE_EIT = 22;
+	private static final int COLUMN_VISIBLE = 23;
+	private static final int COLUMN_XMLTV_ID = 24;
+	private static final int COLUMN_DEFAULT_AUTH = 25;
+	private static final int COLUMN_HOSTNAME = 26;
+
+	private final CursorColumnIndex mChannelInfoColumnIndex = new CursorColumnIndex( CHANNEL_COLUMNS );
 	
 	/**
 	 * @param context
@@ -70,6 +126,7 @@ public class ChannelDaoHelper extends AbstractDaoHelper {
 		List<ChannelInfo> channelInfos = new ArrayList<ChannelInfo>();
 		
 		selection = appendLocationHostname( selection, ChannelConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		Cursor cursor = mContext.getContentResolver().query( ChannelConstants.CONTENT_URI, projection, selection, selectionArgs, sortOrder );
 		while( cursor.moveToNext() ) {
@@ -114,6 +171,7 @@ public class ChannelDaoHelper extends AbstractDaoHelper {
 		}
 		
 		selection = appendLocationHostname( selection, ChannelConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		Cursor cursor = mContext.getContentResolver().query( uri, projection, selection, selectionArgs, sortOrder );
 		if( cursor.moveToFirst() ) {
@@ -170,29 +228,11 @@ public class ChannelDaoHelper extends AbstractDaoHelper {
 
 		ContentValues values = convertChannelInfoToContentValues( channelInfo );
 
-		String[] projection = new String[] { ChannelConstants._ID };
-		String selection = ChannelConstants.FIELD_CHAN_ID + " = ?";
-		String[] selectionArgs = new String[] { String.valueOf( channelInfo.getChannelId() ) };
-		
-		selection = appendLocationHostname( selection, ChannelConstants.TABLE_NAME );
-		
 		int updated = -1;
-		Cursor cursor = mContext.getContentResolver().query( ChannelConstants.CONTENT_URI, projection, selection, selectionArgs, null );
-		if( cursor.moveToFirst() ) {
-			Log.v( TAG, "save : updating existing channel info" );
-			long id = cursor.getLong( cursor.getColumnIndexOrThrow( ChannelConstants._ID ) );
-			
-			updated = mContext.getContentResolver().update( ContentUris.withAppendedId( ChannelConstants.CONTENT_URI, id ), values, null, null );
-		} else {
-			Log.v( TAG, "save : inserting new channel info" );
-			
-			Uri inserted = mContext.getContentResolver().insert( ChannelConstants.CONTENT_URI, values );
-			if( null != inserted ) {
-				updated = 1;
-			}
-			
+		Uri upserted = mContext.getContentResolver().insert( ChannelConstants.CONTENT_URI_UPSERT, values );
+		if( null != upserted ) {
+			updated = 1;
 		}
-		cursor.close();
 		Log.v( TAG, "save : updated=" + updated );
 
 		Log.d( TAG, "save : exit" );
@@ -237,6 +277,7 @@ public class ChannelDaoHelper extends AbstractDaoHelper {
 		String[] selectionArgs = new String[] { String.valueOf( channelInfo.getChannelId() ) };
 		
 		selection = appendLocationHostname( selection, ChannelConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		int deleted = mContext.getContentResolver().delete( ChannelConstants.CONTENT_URI, selection, selectionArgs );
 		Log.v( TAG, "delete : deleted=" + deleted );
@@ -245,154 +286,90 @@ public class ChannelDaoHelper extends AbstractDaoHelper {
 		return deleted;
 	}
 
-	public int load( List<ChannelInfos> allChannelsList ) throws RemoteException, OperationApplicationException {
+	public int load( List<ChannelInfo> allChannels ) throws RemoteException, OperationApplicationException {
 		Log.d( TAG, "load : enter" );
 		
-		Log.d( TAG, "load : loading existing channels" );
-		Map<Integer, ChannelInfo> existing = new HashMap<Integer, ChannelInfo>();
-		for( ChannelInfo channelInfo : findAll() ) {
-//			Log.v( TAG, "load : existing channel: " + channelInfo.getChannelId() );
-			existing.put( channelInfo.getChannelId(), channelInfo );
+		Set<Integer> channelIds = new HashSet<Integer>();
+		for( ChannelInfo channel : allChannels ) {
+			channelIds.add( channel.getChannelId() );
 		}
 		
-		int count = 0;
-		int deletecount = 0;
-		int processed = 0;
-		int totalUpdates = 0;
-		int totalInserts = 0;
-		int totalDeletes = 0;
-		
-		String[] channelProjection = new String[] { ChannelConstants.TABLE_NAME + "_" + ChannelConstants._ID };
-		String channelSelection = ChannelConstants.FIELD_CHAN_ID + " = ?";
+		int processed = upsert( allChannels );
+		processed += deleteAllExcept( channelIds );
 
-		channelSelection = appendLocationHostname( channelSelection, null );
-
-		ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
+		Log.d( TAG, "load : exit" );
+		return processed;
+	}
+	
+	/**
+	 * Writes a batch of channels, a channel listing can be loaded in several batches as it is parsed and closed with
+	 * {@link #deleteAllExcept(Set)}.
+	 * 
+	 * @param channels
+	 * @return
+	 */
+	public int upsert( List<ChannelInfo> channels ) {
+		Log.d( TAG, "upsert : enter" );
 		
-		for( ChannelInfos channelInfos : allChannelsList ) {
-			Log.v( TAG, "load : channelInfos iteration, channels in this source: " + channelInfos.getTotalAvailable() );
+		if( channels.isEmpty() ) {
+			Log.d( TAG, "upsert : exit, no channels" );
 			
-			for( ChannelInfo channel : channelInfos.getChannelInfos() ) {
-
-				ContentValues channelValues = convertChannelInfoToContentValues( channel );
-				Cursor channelCursor = mContext.getContentResolver().query( ChannelConstants.CONTENT_URI, channelProjection, channelSelection, new String[] { String.valueOf( channel.getChannelId() ) }, null );
-				if( channelCursor.moveToFirst() ) {
-					Log.v( TAG, "load : updating channel " + channel.getChannelId() );
-
-					Long id = channelCursor.getLong( channelCursor.getColumnIndexOrThrow( ChannelConstants.TABLE_NAME + "_" + ChannelConstants._ID ) );
-					ops.add( 
-						ContentProviderOperation.newUpdate( ContentUris.withAppendedId( ChannelConstants.CONTENT_URI, id ) )
-							.withValues( channelValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-					totalUpdates++;
-
-				} else {
-					Log.v( TAG, "load : adding channel " + channel.getChannelId() );
-
-					ops.add(  
-						ContentProviderOperation.newInsert( ChannelConstants.CONTENT_URI )
-							.withValues( channelValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-					totalInserts++;
-
-				}
-				channelCursor.close();
-				count++;
-
-				if( existing.containsKey( channel.getChannelId() ) ) {
-					existing.remove( channel.getChannelId() );
-				}
-				
-				if( count > BATCH_COUNT_LIMIT ) {
-					Log.v( TAG, "process : batch update/insert" );
-
-					if( !ops.isEmpty() ) {
-
-						ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-						processed += results.length;
-
-						if( results.length > 0 ) {
-							ops.clear();
-						}
-					}
-
-					count = 0;
-				}
-
-			}
-
-			if( !ops.isEmpty() ) {
-				Log.v( TAG, "process : final batch update|insert " + count );
-
-				ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-				processed += results.length;
-
-				if( results.length > 0 ) {
-					ops.clear();
-				}
-				count = 0;
-			}
-
+			return 0;
 		}
-
-		// Done with the updates/inserts, remove any 'stale' channels
-		if( !existing.isEmpty() ) {
-			Log.v( TAG, "load : deleting channels no longer present on mythtv backend" );
+		
+		ContentValues[] values = new ContentValues[ channels.size() ];
+		for( int i = 0; i < channels.size(); i++ ) {
+			values[ i ] = convertChannelInfoToContentValues( channels.get( i ) );
+		}
+		
+		// channels are unique on CHAN_ID + HOSTNAME, so every row is written in a single pass without looking up its _ID first
+		int upserted = mContext.getContentResolver().bulkInsert( ChannelConstants.CONTENT_URI_UPSERT, values );
+		Log.v( TAG, "upsert : upserted=" + upserted );
+		
+		Log.d( TAG, "upsert : exit" );
+		return upserted;
+	}
+	
+	/**
+	 * Removes the channels no longer present on the backend.
+	 * 
+	 * @param channelIds the channels of the complete listing
+	 * @return
+	 * @throws RemoteException
+	 * @throws OperationApplicationException
+	 */
+	public int deleteAllExcept( Set<Integer> channelIds ) throws RemoteException, OperationApplicationException {
+		Log.d( TAG, "deleteAllExcept : enter" );
+		
+		int totalDeletes = 0;
+		
+		BatchWriter writer = null;
+		for( ChannelInfo channelInfo : findAll() ) {
 			
-			for( Entry<Integer, ChannelInfo> entry : existing.entrySet() ) {
-				
-				ChannelInfo channelInfo = entry.getValue();
-				Log.v( TAG, "load : deleting channel " + channelInfo.getChannelId() );
-				ops.add(  
-					ContentProviderOperation.newDelete( ChannelConstants.CONTENT_URI )
-						.withSelection( ChannelConstants.FIELD_CHAN_ID + " = ?", new String[] { String.valueOf( channelInfo.getChannelId() ) } )
-						.withYieldAllowed( true )
-						.build()
-				);
-				count++;
-				totalDeletes++;
-				
-				if( deletecount > BATCH_COUNT_LIMIT ) {
-					Log.v( TAG, "process : batch delete" );
-						
-					if( !ops.isEmpty() ) {
-							
-						ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-						processed += results.length;
-							
-						if( results.length > 0 ) {
-							ops.clear();
-						}
-
-					}
-
-					count = 0;
-				}
-				
+			if( channelIds.contains( channelInfo.getChannelId() ) ) {
+				continue;
 			}
-
-		}	
-
-		if( !ops.isEmpty() ) {
-			Log.v( TAG, "process : final batch deletes " + count + "/" + deletecount);
-
-			ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-			processed += results.length;
-
-			if( results.length > 0 ) {
-				ops.clear();
+			
+			if( null == writer ) {
+				Log.v( TAG, "deleteAllExcept : deleting channels no longer present on mythtv backend" );
+				
+				writer = BatchWriter.newInstance( mContext, "channels" );
 			}
-		
+			
+			Log.v( TAG, "deleteAllExcept : deleting channel " + channelInfo.getChannelId() );
+			writer.add(  
+				ContentProviderOperation.newDelete( ChannelConstants.CONTENT_URI )
+					.withSelection( ChannelConstants.FIELD_CHAN_ID + " = ?", new String[] { String.valueOf( channelInfo.getChannelId() ) } )
+					.build()
+			);
+			totalDeletes++;
+			
 		}
 		
-		Log.d( TAG, "load : totalUpdates: " + totalUpdates );
-		Log.d( TAG, "load : totalInserts: " + totalInserts );
-		Log.d( TAG, "load : totalDeletes: " + totalDeletes );
-		Log.d( TAG, "load : exit" );
+		int processed = null != writer ? writer.finish() : 0;
+		
+		Log.d( TAG, "deleteAllExcept : totalDeletes: " + totalDeletes );
+		Log.d( TAG, "deleteAllExcept : exit" );
 		return processed;
 	}
 	
@@ -401,120 +378,133 @@ public class ChannelDaoHelper extends AbstractDaoHelper {
 	 * @return
 	 */
 	public ChannelInfo convertCursorToChannelInfo( Cursor cursor ) {
+		return convertCursorToChannelInfo( cursor, null );
+	}
+
+	/**
+	 * Reads the current row by the column positions resolved for this cursor.
+	 * 
+	 * @param cursor
+	 * @param recycled filled in and returned instead of a new instance, when not null
+	 * @return
+	 */
+	public ChannelInfo convertCursorToChannelInfo( Cursor cursor, ChannelInfo recycled ) {
 //		Log.v( TAG, "convertCursorToChannelInfo : enter" );
 
+		int[] index = mChannelInfoColumnIndex.resolve( cursor );
+
 		int  channelId = -1, multiplexId = -1, transportId = -1, serviceId = -1, networkId = -1, atscMajorChannel = -1, atscMinorChannel = -1, frequency = -1, fineTune = -1, sourceId = -1, inputId = -1, commercialFree = -1, useEit = -1, visible = -1;
 		String channelNumber = "", callsign = "", iconUrl = "", channelName = "", format = "", modulation = "", frequencyId = "", frequencyTable = "", sisStandard = "", channelFilters = "", xmltvId = "", defaultAuth = "";
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_ID ) != -1 ) {
-			channelId = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_ID ) );
+		if( index[ COLUMN_CHAN_ID ] != -1 ) {
+			channelId = cursor.getInt( index[ COLUMN_CHAN_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_NUM ) != -1 ) {
-			channelNumber = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_NUM ) );
+		if( index[ COLUMN_CHAN_NUM ] != -1 ) {
+			channelNumber = cursor.getString( index[ COLUMN_CHAN_NUM ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CALLSIGN ) != -1 ) {
-			callsign = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CALLSIGN ) );
+		if( index[ COLUMN_CALLSIGN ] != -1 ) {
+			callsign = cursor.getString( index[ COLUMN_CALLSIGN ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ICON_URL ) != -1 ) {
-			iconUrl = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ICON_URL ) );
+		if( index[ COLUMN_ICON_URL ] != -1 ) {
+			iconUrl = cursor.getString( index[ COLUMN_ICON_URL ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHANNEL_NAME ) != -1 ) {
-			channelName = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHANNEL_NAME ) );
+		if( index[ COLUMN_CHANNEL_NAME ] != -1 ) {
+			channelName = cursor.getString( index[ COLUMN_CHANNEL_NAME ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_MPLEX_ID ) != -1 ) {
-			multiplexId = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_MPLEX_ID ) );
+		if( index[ COLUMN_MPLEX_ID ] != -1 ) {
+			multiplexId = cursor.getInt( index[ COLUMN_MPLEX_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_TRANSPORT_ID ) != -1 ) {
-			transportId = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_TRANSPORT_ID ) );
+		if( index[ COLUMN_TRANSPORT_ID ] != -1 ) {
+			transportId = cursor.getInt( index[ COLUMN_TRANSPORT_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SERVICE_ID ) != -1 ) {
-			serviceId = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SERVICE_ID ) );
+		if( index[ COLUMN_SERVICE_ID ] != -1 ) {
+			serviceId = cursor.getInt( index[ COLUMN_SERVICE_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_NETWORK_ID ) != -1 ) {
-			networkId = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_NETWORK_ID ) );
+		if( index[ COLUMN_NETWORK_ID ] != -1 ) {
+			networkId = cursor.getInt( index[ COLUMN_NETWORK_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ATSC_MAJOR_CHAN ) != -1 ) {
-			atscMajorChannel = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ATSC_MAJOR_CHAN ) );
+		if( index[ COLUMN_ATSC_MAJOR_CHAN ] != -1 ) {
+			atscMajorChannel = cursor.getInt( index[ COLUMN_ATSC_MAJOR_CHAN ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ATSC_MINOR_CHAN ) != -1 ) {
-			atscMinorChannel = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_ATSC_MINOR_CHAN ) );
+		if( index[ COLUMN_ATSC_MINOR_CHAN ] != -1 ) {
+			atscMinorChannel = cursor.getInt( index[ COLUMN_ATSC_MINOR_CHAN ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FORMAT ) != -1 ) {
-			format = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FORMAT ) );
+		if( index[ COLUMN_FORMAT ] != -1 ) {
+			format = cursor.getString( index[ COLUMN_FORMAT ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_MODULATION ) != -1 ) {
-			modulation = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_MODULATION ) );
+		if( index[ COLUMN_MODULATION ] != -1 ) {
+			modulation = cursor.getString( index[ COLUMN_MODULATION ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY ) != -1 ) {
-			frequency = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY ) );
+		if( index[ COLUMN_FREQUENCY ] != -1 ) {
+			frequency = cursor.getInt( index[ COLUMN_FREQUENCY ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY_ID ) != -1 ) {
-			frequencyId = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY_ID ) );
+		if( index[ COLUMN_FREQUENCY_ID ] != -1 ) {
+			frequencyId = cursor.getString( index[ COLUMN_FREQUENCY_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY_TABLE ) != -1 ) {
-			frequencyTable = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FREQUENCY_TABLE ) );
+		if( index[ COLUMN_FREQUENCY_TABLE ] != -1 ) {
+			frequencyTable = cursor.getString( index[ COLUMN_FREQUENCY_TABLE ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FINE_TUNE ) != -1 ) {
-			fineTune = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_FINE_TUNE ) );
+		if( index[ COLUMN_FINE_TUNE ] != -1 ) {
+			fineTune = cursor.getInt( index[ COLUMN_FINE_TUNE ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SIS_STANDARD ) != -1 ) {
-			sisStandard = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SIS_STANDARD ) );
+		if( index[ COLUMN_SIS_STANDARD ] != -1 ) {
+			sisStandard = cursor.getString( index[ COLUMN_SIS_STANDARD ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_FILTERS ) != -1 ) {
-			channelFilters = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_CHAN_FILTERS ) );
+		if( index[ COLUMN_CHAN_FILTERS ] != -1 ) {
+			channelFilters = cursor.getString( index[ COLUMN_CHAN_FILTERS ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SOURCE_ID ) != -1 ) {
-			sourceId = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_SOURCE_ID ) );
+		if( index[ COLUMN_SOURCE_ID ] != -1 ) {
+			sourceId = cursor.getInt( index[ COLUMN_SOURCE_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_INPUT_ID ) != -1 ) {
-			inputId = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_INPUT_ID ) );
+		if( index[ COLUMN_INPUT_ID ] != -1 ) {
+			inputId = cursor.getInt( index[ COLUMN_INPUT_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_COMM_FREE ) != -1 ) {
-			commercialFree = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_COMM_FREE ) );
+		if( index[ COLUMN_COMM_FREE ] != -1 ) {
+			commercialFree = cursor.getInt( index[ COLUMN_COMM_FREE ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_USE_EIT ) != -1 ) {
-			useEit = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_USE_EIT ) );
+		if( index[ COLUMN_USE_EIT ] != -1 ) {
+			useEit = cursor.getInt( index[ COLUMN_USE_EIT ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_VISIBLE ) != -1 ) {
-			visible = cursor.getInt( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_VISIBLE ) );
+		if( index[ COLUMN_VISIBLE ] != -1 ) {
+			visible = cursor.getInt( index[ COLUMN_VISIBLE ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_XMLTV_ID ) != -1 ) {
-			xmltvId = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_XMLTV_ID ) );
+		if( index[ COLUMN_XMLTV_ID ] != -1 ) {
+			xmltvId = cursor.getString( index[ COLUMN_XMLTV_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_DEFAULT_AUTH ) != -1 ) {
-			defaultAuth = cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_DEFAULT_AUTH ) );
+		if( index[ COLUMN_DEFAULT_AUTH ] != -1 ) {
+			defaultAuth = cursor.getString( index[ COLUMN_DEFAULT_AUTH ] );
 		}
 
-		if( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_HOSTNAME ) != -1 ) {
-			Log.v( TAG, "convertCursorToChannelInfo : hostname" + cursor.getString( cursor.getColumnIndex( ChannelConstants.TABLE_NAME + "_" + ChannelConstants.FIELD_HOSTNAME ) ) );
+		if( index[ COLUMN_HOSTNAME ] != -1 ) {
+			Log.v( TAG, "convertCursorToChannelInfo : hostname" + cursor.getString( index[ COLUMN_HOSTNAME ] ) );
 		}
 
-		ChannelInfo channelInfo = new ChannelInfo();
+		ChannelInfo channelInfo = null != recycled ? recycled : new ChannelInfo();
 		channelInfo.setChannelId( channelId );
 		channelInfo.setChannelNumber( channelNumber );
 		channelInfo.setCallSign( callsign );
@@ -26,6 +26,7 @@ import java.util.List;
 
 import org.joda.time.DateTime;
 import org.mythtv.db.AbstractDaoHelper;
+import org.mythtv.db.CursorColumnIndex;
 import org.mythtv.services.api.channel.ChannelInfo;
 import org.mythtv.services.api.content.LiveStreamInfo;
 import org.mythtv.services.api.dvr.Program;
@@ -45,6 +46,63 @@ public class LiveStreamDaoHelper extends AbstractDaoHelper {
 
 	protected static final String TAG = LiveStreamDaoHelper.class.getSimpleName();
 
+	private static final String[] LIVE_STREAM_COLUMNS = new String[] {
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_ID,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_WIDTH,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_HEIGHT,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_BITRATE,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_AUDIO_BITRATE,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SEGMENT_SIZE,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_MAX_SEGMENTS,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_START_SEGMENT,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CURRENT_SEGMENT,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SEGMENT_COUNT,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_PERCENT_COMPLETE,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CREATED,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_LAST_MODIFIED,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_RELATIVE_URL,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_FULL_URL,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_STR,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_INT,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_MESSAGE,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_FILE,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_HOST,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_WIDTH,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_HEIGHT,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_AUDIO_ONLY_BITRATE,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CHAN_ID,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_START_TIME,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_HOSTNAME
+	};
+	private static final int COLUMN_ID = 0;
+	private static final int COLUMN_WIDTH = 1;
+	private static final int COLUMN_HEIGHT = 2;
+	private static final int COLUMN_BITRATE = 3;
+	private static final int COLUMN_AUDIO_BITRATE = 4;
+	private static final int COLUMN_SEGMENT_SIZE = 5;
+	private static final int COLUMN_MAX_SEGMENTS = 6;
+	private static final int COLUMN_START_SEGMENT = 7;
+	private static final int COLUMN_CURRENT_SEGMENT = 8;
+	private static final int COLUMN_SEGMENT_COUNT = 9;
+	private static final int COLUMN_PERCENT_COMPLETE = 10;
+	private static final int COLUMN_CREATED = 11;
+	private static final int COLUMN_LAST_MODIFIED = 12;
+	private static final int COLUMN_RELATIVE_URL = 13;
+	private static final int COLUMN_FULL_URL = 14;
+	private static final int COLUMN_STATUS_STR = 15;
+	private static final int COLUMN_STATUS_INT = 16;
+	private static final int COLUMN_STATUS_MESSAGE = 17;
+	private static final int COLUMN_SOURCE_FILE = 18;
+	private static final int COLUMN_SOURCE_HOST = 19;
+	private static final int COLUMN_SOURCE_WIDTH = 20;
+	private static final int COLUMN_SOURCE_HEIGHT = 21;
+	private static final int COLUMN_AUDIO_ONLY_BITRATE = 22;
+	private static final int COLUMN_CHAN_ID = 23;
+	private static final int COLUMN_START_TIME = 24;
+	private static final int COLUMN_HOSTNAME = 25;
+
+	private final CursorColumnIndex mLiveStreamInfoColumnIndex = new CursorColumnIndex( LIVE_STREAM_COLUMNS );
+
 	public LiveStreamDaoHelper( Context context ) {
 		super( context );
 	}
@@ -62,6 +120,7 @@ public class LiveStreamDaoHelper extends AbstractDaoHelper {
 		List<LiveStreamInfo> liveStreamInfos = new ArrayList<LiveStreamInfo>();
 		
 		selection = appendLocationHostname( selection, LiveStreamConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		Cursor cursor = mContext.getContentResolver().query( LiveStreamConstants.CONTENT_URI, projection, selection, selectionArgs, sortOrder );
 		while( cursor.moveToNext() ) {
@@ -106,6 +165,7 @@ public class LiveStreamDaoHelper extends AbstractDaoHelper {
 		}
 		
 		selection = appendLocationHostname( selection, LiveStreamConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		Cursor cursor = mContext.getContentResolver().query( uri, projection, selection, selectionArgs, sortOrder );
 		if( cursor.moveToFirst() ) {
@@ -181,6 +241,7 @@ public class LiveStreamDaoHelper extends AbstractDaoHelper {
 		String[] selectionArgs = new String[] { String.valueOf( liveStreamInfo.getId() ) };
 		
 		selection = appendLocationHostname( selection, LiveStreamConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		int updated = -1;
 		Cursor cursor = mContext.getContentResolver().query( LiveStreamConstants.CONTENT_URI, projection, selection, selectionArgs, null );
@@ -241,6 +302,7 @@ public class LiveStreamDaoHelper extends AbstractDaoHelper {
 		String[] selectionArgs = new String[] { String.valueOf( liveStreamInfo.getId() ) };
 		
 		selection = appendLocationHostname( selection, LiveStreamConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		int deleted = mContext.getContentResolver().delete( LiveStreamConstants.CONTENT_URI, selection, selectionArgs );
 		Log.v( TAG, "delete : deleted=" + deleted );
@@ -272,117 +334,130 @@ public class LiveStreamDaoHelper extends AbstractDaoHelper {
 	 * @return
 	 */
 	public LiveStreamInfo convertCursorToLiveStreamInfo( Cursor cursor ) {
+		return convertCursorToLiveStreamInfo( cursor, null );
+	}
+
+	/**
+	 * Reads the current row by the column positions resolved for this cursor.
+	 * 
+	 * @param cursor
+	 * @param recycled filled in and returned instead of a new instance, when not null
+	 * @return
+	 */
+	public LiveStreamInfo convertCursorToLiveStreamInfo( Cursor cursor, LiveStreamInfo recycled ) {
 //		Log.v( TAG, "convertCursorToLiveStreamInfo : enter" );
 
+		int[] index = mLiveStreamInfoColumnIndex.resolve( cursor );
+
 		int  id = -1, width = -1, height = -1, bitrate = -1, audioBitrate = -1, segmentSize = -1, maxSegments = -1, startSegment = -1, currentSegment = -1, segmentCount = -1, percentComplete = -1, statusInt = -1, sourceWidth = -1, sourceHeight = -1, audioOnlyBitrate = -1;
 		String relativeUrl = "", fullUrl = "", statusStr = "", statusMessage = "", sourceFile = "", sourceHost = "";
 		DateTime created = null, lastModified = null;
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_ID ) != -1 ) {
-			id = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_ID ) );
+		if( index[ COLUMN_ID ] != -1 ) {
+			id = cursor.getInt( index[ COLUMN_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_WIDTH ) != -1 ) {
-			width = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_WIDTH ) );
+		if( index[ COLUMN_WIDTH ] != -1 ) {
+			width = cursor.getInt( index[ COLUMN_WIDTH ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_HEIGHT ) != -1 ) {
-			height = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_HEIGHT ) );
+		if( index[ COLUMN_HEIGHT ] != -1 ) {
+			height = cursor.getInt( index[ COLUMN_HEIGHT ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_BITRATE ) != -1 ) {
-			bitrate = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_BITRATE ) );
+		if( index[ COLUMN_BITRATE ] != -1 ) {
+			bitrate = cursor.getInt( index[ COLUMN_BITRATE ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_AUDIO_BITRATE ) != -1 ) {
-			audioBitrate = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_AUDIO_BITRATE ) );
+		if( index[ COLUMN_AUDIO_BITRATE ] != -1 ) {
+			audioBitrate = cursor.getInt( index[ COLUMN_AUDIO_BITRATE ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SEGMENT_SIZE ) != -1 ) {
-			segmentSize = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SEGMENT_SIZE ) );
+		if( index[ COLUMN_SEGMENT_SIZE ] != -1 ) {
+			segmentSize = cursor.getInt( index[ COLUMN_SEGMENT_SIZE ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_MAX_SEGMENTS ) != -1 ) {
-			maxSegments = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_MAX_SEGMENTS ) );
+		if( index[ COLUMN_MAX_SEGMENTS ] != -1 ) {
+			maxSegments = cursor.getInt( index[ COLUMN_MAX_SEGMENTS ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_START_SEGMENT ) != -1 ) {
-			startSegment = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_START_SEGMENT ) );
+		if( index[ COLUMN_START_SEGMENT ] != -1 ) {
+			startSegment = cursor.getInt( index[ COLUMN_START_SEGMENT ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CURRENT_SEGMENT ) != -1 ) {
-			currentSegment = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CURRENT_SEGMENT ) );
+		if( index[ COLUMN_CURRENT_SEGMENT ] != -1 ) {
+			currentSegment = cursor.getInt( index[ COLUMN_CURRENT_SEGMENT ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SEGMENT_COUNT ) != -1 ) {
-			segmentCount = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SEGMENT_COUNT ) );
+		if( index[ COLUMN_SEGMENT_COUNT ] != -1 ) {
+			segmentCount = cursor.getInt( index[ COLUMN_SEGMENT_COUNT ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_PERCENT_COMPLETE ) != -1 ) {
-			percentComplete = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_PERCENT_COMPLETE ) );
+		if( index[ COLUMN_PERCENT_COMPLETE ] != -1 ) {
+			percentComplete = cursor.getInt( index[ COLUMN_PERCENT_COMPLETE ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CREATED ) != -1 ) {
-			created = new DateTime( cursor.getLong( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CREATED ) ) );
+		if( index[ COLUMN_CREATED ] != -1 ) {
+			created = new DateTime( cursor.getLong( index[ COLUMN_CREATED ] ) );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_LAST_MODIFIED ) != -1 ) {
-			lastModified = new DateTime( cursor.getLong( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_LAST_MODIFIED ) ) );
+		if( index[ COLUMN_LAST_MODIFIED ] != -1 ) {
+			lastModified = new DateTime( cursor.getLong( index[ COLUMN_LAST_MODIFIED ] ) );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_RELATIVE_URL ) != -1 ) {
-			relativeUrl = cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_RELATIVE_URL ) );
+		if( index[ COLUMN_RELATIVE_URL ] != -1 ) {
+			relativeUrl = cursor.getString( index[ COLUMN_RELATIVE_URL ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_FULL_URL ) != -1 ) {
-			fullUrl = cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_FULL_URL ) );
+		if( index[ COLUMN_FULL_URL ] != -1 ) {
+			fullUrl = cursor.getString( index[ COLUMN_FULL_URL ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_STR ) != -1 ) {
-			statusStr = cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_STR ) );
+		if( index[ COLUMN_STATUS_STR ] != -1 ) {
+			statusStr = cursor.getString( index[ COLUMN_STATUS_STR ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_INT ) != -1 ) {
-			statusInt = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_INT ) );
+		if( index[ COLUMN_STATUS_INT ] != -1 ) {
+			statusInt = cursor.getInt( index[ COLUMN_STATUS_INT ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_MESSAGE ) != -1 ) {
-			statusMessage = cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_STATUS_MESSAGE ) );
+		if( index[ COLUMN_STATUS_MESSAGE ] != -1 ) {
+			statusMessage = cursor.getString( index[ COLUMN_STATUS_MESSAGE ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_FILE ) != -1 ) {
-			sourceFile = cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_FILE ) );
+		if( index[ COLUMN_SOURCE_FILE ] != -1 ) {
+			sourceFile = cursor.getString( index[ COLUMN_SOURCE_FILE ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_HOST ) != -1 ) {
-			sourceHost = cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_HOST ) );
+		if( index[ COLUMN_SOURCE_HOST ] != -1 ) {
+			sourceHost = cursor.getString( index[ COLUMN_SOURCE_HOST ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_WIDTH ) != -1 ) {
-			sourceWidth = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_WIDTH ) );
+		if( index[ COLUMN_SOURCE_WIDTH ] != -1 ) {
+			sourceWidth = cursor.getInt( index[ COLUMN_SOURCE_WIDTH ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_HEIGHT ) != -1 ) {
-			sourceHeight = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_SOURCE_HEIGHT ) );
+		if( index[ COLUMN_SOURCE_HEIGHT ] != -1 ) {
+			sourceHeight = cursor.getInt( index[ COLUMN_SOURCE_HEIGHT ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_AUDIO_ONLY_BITRATE ) != -1 ) {
-			audioOnlyBitrate = cursor.getInt( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_AUDIO_ONLY_BITRATE ) );
+		if( index[ COLUMN_AUDIO_ONLY_BITRATE ] != -1 ) {
+			audioOnlyBitrate = cursor.getInt( index[ COLUMN_AUDIO_ONLY_BITRATE ] );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CHAN_ID ) != -1 ) {
-			Log.v( TAG, "convertCursorToLiveStreamInfo : chanId=" + cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CHAN_ID ) ) );
+		if( index[ COLUMN_CHAN_ID ] != -1 ) {
+			Log.v( TAG, "convertCursorToLiveStreamInfo : chanId=" + cursor.getString( index[ COLUMN_CHAN_ID ] ) );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_START_TIME ) != -1 ) {
-			Log.v( TAG, "convertCursorToLiveStreamInfo : startTime=" + new DateTime( cursor.getLong( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_START_TIME ) ) ) );
+		if( index[ COLUMN_START_TIME ] != -1 ) {
+			Log.v( TAG, "convertCursorToLiveStreamInfo : startTime=" + new DateTime( cursor.getLong( index[ COLUMN_START_TIME ] ) ) );
 		}
 
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_HOSTNAME ) != -1 ) {
-			Log.v( TAG, "convertCursorToLiveStreamInfo : hostname=" + cursor.getString( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_HOSTNAME ) ) );
+		if( index[ COLUMN_HOSTNAME ] != -1 ) {
+			Log.v( TAG, "convertCursorToLiveStreamInfo : hostname=" + cursor.getString( index[ COLUMN_HOSTNAME ] ) );
 		}
 
-		LiveStreamInfo liveStreamInfo = new LiveStreamInfo();
+		LiveStreamInfo liveStreamInfo = null != recycled ? recycled : new LiveStreamInfo();
 		liveStreamInfo.setId( id );
 		liveStreamInfo.setWidth( width );
 		liveStreamInfo.setHeight( height );
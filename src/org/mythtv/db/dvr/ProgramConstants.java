@@ -37,6 +37,19 @@ public class ProgramConstants extends AbstractBaseConstants {
 	public static final Uri CONTENT_URI_RECORDED = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME_RECORDED );
 	public static final Uri CONTENT_URI_UPCOMING = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME_UPCOMING );
 
+	// bulk reconciliation, see MythtvProvider#bulkInsert
+	public static final String SYNC_PATH = "sync";
+
+	public static final String PARAMETER_HOSTNAME = "hostname";
+	public static final String PARAMETER_PRUNE = "prune";
+	public static final String PARAMETER_WINDOW_START = "windowStart";
+	public static final String PARAMETER_WINDOW_END = "windowEnd";
+	public static final String PARAMETER_INCREMENTAL = "incremental";
+	public static final String PARAMETER_KEYS_ONLY = "keysOnly";
+	
+	// rows whose LAST_MODIFIED and FILE_SIZE are unchanged are skipped by an incremental sync
+	public static final String FINGERPRINT_EXPRESSION = "LAST_MODIFIED || '|' || FILE_SIZE";
+
 	public static final String INSERT_PROGRAM_ROW, UPDATE_PROGRAM_ROW, INSERT_RECORDED_ROW, UPDATE_RECORDED_ROW, INSERT_UPCOMING_ROW, UPDATE_UPCOMING_ROW;
 	
 	// db fields
@@ -116,11 +129,25 @@ public class ProgramConstants extends AbstractBaseConstants {
 	public static final String FIELD_IN_ERROR = "IN_ERROR";
 	public static final String FIELD_IN_ERROR_DATA_TYPE = "INTEGER";
 
+	// the title with leading articles removed, recordings sharing it form a program group
+	public static final String FIELD_PROGRAM_GROUP = "PROGRAM_GROUP";
+	public static final String FIELD_PROGRAM_GROUP_DATA_TYPE = "TEXT";
+
 	public static final String[] COLUMN_MAP = { _ID,
 		FIELD_START_TIME, FIELD_END_TIME, FIELD_TITLE, FIELD_SUB_TITLE, FIELD_CATEGORY, FIELD_CATEGORY_TYPE, FIELD_REPEAT,
 		FIELD_VIDEO_PROPS, FIELD_AUDIO_PROPS, FIELD_SUB_PROPS, FIELD_SERIES_ID, FIELD_PROGRAM_ID, FIELD_STARS, FIELD_FILE_SIZE,
 		FIELD_LAST_MODIFIED, FIELD_PROGRAM_FLAGS, FIELD_HOSTNAME, FIELD_FILENAME, FIELD_AIR_DATE, FIELD_DESCRIPTION,
-		FIELD_INETREF, FIELD_SEASON, FIELD_EPISODE, FIELD_CHANNEL_ID, FIELD_RECORD_ID, FIELD_IN_ERROR
+		FIELD_INETREF, FIELD_SEASON, FIELD_EPISODE, FIELD_CHANNEL_ID, FIELD_RECORD_ID, FIELD_IN_ERROR, FIELD_PROGRAM_GROUP
+	};
+	
+	/**
+	 * Column order bound by INSERT_*_ROW and UPDATE_*_ROW, the update statement takes the row _ID as its final argument
+	 */
+	public static final String[] ROW_COLUMNS = {
+		FIELD_START_TIME, FIELD_END_TIME, FIELD_TITLE, FIELD_SUB_TITLE, FIELD_CATEGORY, FIELD_CATEGORY_TYPE, FIELD_REPEAT,
+		FIELD_VIDEO_PROPS, FIELD_AUDIO_PROPS, FIELD_SUB_PROPS, FIELD_SERIES_ID, FIELD_PROGRAM_ID, FIELD_STARS, FIELD_FILE_SIZE,
+		FIELD_LAST_MODIFIED, FIELD_PROGRAM_FLAGS, FIELD_HOSTNAME, FIELD_FILENAME, FIELD_AIR_DATE, FIELD_DESCRIPTION,
+		FIELD_INETREF, FIELD_SEASON, FIELD_EPISODE, FIELD_CHANNEL_ID, FIELD_RECORD_ID, FIELD_IN_ERROR, FIELD_PROGRAM_GROUP
 	};
 	
 	static {
@@ -150,31 +177,33 @@ public class ProgramConstants extends AbstractBaseConstants {
 		insert.append( FIELD_EPISODE ).append( "," );
 		insert.append( FIELD_CHANNEL_ID ).append( ", " );
 		insert.append( FIELD_RECORD_ID ).append( ", " );
-		insert.append( FIELD_IN_ERROR );
+		insert.append( FIELD_IN_ERROR ).append( ", " );
+		insert.append( FIELD_PROGRAM_GROUP );
 		
 		StringBuilder values = new StringBuilder();
 		values.append( " ) " );
-		values.append( "VALUES( ?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,? )" );
+		values.append( "VALUES( ?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,? )" );
 		
 		StringBuilder insertProgram = new StringBuilder();
-		insertProgram.append( "INSERT INTO " ).append( TABLE_NAME_PROGRAM ).append( " ( " );
+		insertProgram.append( "INSERT OR REPLACE INTO " ).append( TABLE_NAME_PROGRAM ).append( " ( " );
 		insertProgram.append( insert.toString() );
 		insertProgram.append( values.toString() );
 		INSERT_PROGRAM_ROW = insertProgram.toString();
 		
 		StringBuilder insertRecorded = new StringBuilder();
-		insertRecorded.append( "INSERT INTO " ).append( TABLE_NAME_RECORDED ).append( " ( " );
+		insertRecorded.append( "INSERT OR REPLACE INTO " ).append( TABLE_NAME_RECORDED ).append( " ( " );
 		insertRecorded.append( insert.toString() );
 		insertRecorded.append( values.toString() );
 		INSERT_RECORDED_ROW = insertRecorded.toString();
 		
 		StringBuilder insertUpcoming = new StringBuilder();
-		insertUpcoming.append( "INSERT INTO " ).append( TABLE_NAME_UPCOMING ).append( " ( " );
+		insertUpcoming.append( "INSERT OR REPLACE INTO " ).append( TABLE_NAME_UPCOMING ).append( " ( " );
 		insertUpcoming.append( insert.toString() );
 		insertUpcoming.append( values.toString() );
 		INSERT_UPCOMING_ROW = insertUpcoming.toString();
 		
 		StringBuilder update = new StringBuilder();
+		update.append( FIELD_START_TIME ).append( " = ?, " );
 		update.append( FIELD_END_TIME ).append( " = ?, " );
 		update.append( FIELD_TITLE ).append( " = ?, " );
 		update.append( FIELD_SUB_TITLE ).append( " = ?, " );
@@ -185,10 +214,12 @@ public class ProgramConstants extends AbstractBaseConstants {
 		update.append( FIELD_AUDIO_PROPS ).append( " = ?, " );
 		update.append( FIELD_SUB_PROPS ).append( " = ?, " );
 		update.append( FIELD_SERIES_ID ).append( " = ?, " );
+		update.append( FIELD_PROGRAM_ID ).append( " = ?, " );
 		update.append( FIELD_STARS ).append( " = ?, " );
 		update.append( FIELD_FILE_SIZE ).append( " = ?, " );
 		update.append( FIELD_LAST_MODIFIED ).append( " = ?, " );
 		update.append( FIELD_PROGRAM_FLAGS ).append( " = ?, " );
+		update.append( FIELD_HOSTNAME ).append( " = ?, " );
 		update.append( FIELD_FILENAME ).append( " = ?, " );
 		update.append( FIELD_AIR_DATE ).append( " = ?, " );
 		update.append( FIELD_DESCRIPTION ).append( " = ?, " );
@@ -197,11 +228,10 @@ public class ProgramConstants extends AbstractBaseConstants {
 		update.append( FIELD_EPISODE ).append( " = ?, " );
 		update.append( FIELD_CHANNEL_ID ).append( " = ?, " );
 		update.append( FIELD_RECORD_ID ).append( " = ?, " );
-		update.append( FIELD_HOSTNAME ).append( "= ?" );
-		update.append( FIELD_IN_ERROR ).append( "= ?" );
+		update.append( FIELD_IN_ERROR ).append( " = ?, " );
+		update.append( FIELD_PROGRAM_GROUP ).append( " = ?" );
 		update.append( " WHERE " );
-		update.append( FIELD_CHANNEL_ID ).append( " = ? AND " );
-		update.append( FIELD_START_TIME ).append( " = ?" );
+		update.append( _ID ).append( " = ?" );
 		
 		StringBuilder updateProgram = new StringBuilder();
 		updateProgram.append( "UPDATE " ).append( TABLE_NAME_PROGRAM );
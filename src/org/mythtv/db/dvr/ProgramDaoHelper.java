@@ -19,28 +19,26 @@
 package org.mythtv.db.dvr;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 import org.joda.time.DateTime;
 import org.mythtv.client.MainApplication;
 import org.mythtv.db.AbstractDaoHelper;
+import org.mythtv.db.CursorColumnIndex;
 import org.mythtv.db.channel.ChannelDaoHelper;
 import org.mythtv.db.content.LiveStreamConstants;
 import org.mythtv.db.content.LiveStreamDaoHelper;
-import org.mythtv.provider.MythtvProvider;
 import org.mythtv.service.util.DateUtils;
 import org.mythtv.services.api.Bool;
 import org.mythtv.services.api.channel.ChannelInfo;
 import org.mythtv.services.api.content.LiveStreamInfo;
 import org.mythtv.services.api.dvr.Program;
 import org.mythtv.services.api.dvr.Recording;
+import org.mythtv.services.utils.ArticleCleaner;
 import org.springframework.http.ResponseEntity;
 
-import android.content.ContentProviderOperation;
-import android.content.ContentProviderResult;
-import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.OperationApplicationException;
@@ -57,6 +55,63 @@ import android.util.Log;
 public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 
 	protected static final String TAG = ProgramDaoHelper.class.getSimpleName();
+
+	private static final String[] PROGRAM_COLUMNS = new String[] {
+		ProgramConstants.FIELD_START_TIME,
+		ProgramConstants.FIELD_END_TIME,
+		ProgramConstants.FIELD_TITLE,
+		ProgramConstants.FIELD_SUB_TITLE,
+		ProgramConstants.FIELD_CATEGORY,
+		ProgramConstants.FIELD_CATEGORY_TYPE,
+		ProgramConstants.FIELD_REPEAT,
+		ProgramConstants.FIELD_VIDEO_PROPS,
+		ProgramConstants.FIELD_AUDIO_PROPS,
+		ProgramConstants.FIELD_SUB_PROPS,
+		ProgramConstants.FIELD_SERIES_ID,
+		ProgramConstants.FIELD_PROGRAM_ID,
+		ProgramConstants.FIELD_STARS,
+		ProgramConstants.FIELD_FILE_SIZE,
+		ProgramConstants.FIELD_LAST_MODIFIED,
+		ProgramConstants.FIELD_PROGRAM_FLAGS,
+		ProgramConstants.FIELD_HOSTNAME,
+		ProgramConstants.FIELD_FILENAME,
+		ProgramConstants.FIELD_AIR_DATE,
+		ProgramConstants.FIELD_DESCRIPTION,
+		ProgramConstants.FIELD_INETREF,
+		ProgramConstants.FIELD_SEASON,
+		ProgramConstants.FIELD_EPISODE,
+		ProgramConstants.FIELD_CHANNEL_ID,
+		ProgramConstants.FIELD_RECORD_ID,
+		LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_ID
+	};
+	private static final int COLUMN_START_TIME = 0;
+	private static final int COLUMN_END_TIME = 1;
+	private static final int COLUMN_TITLE = 2;
+	private static final int COLUMN_SUB_TITLE = 3;
+	private static final int COLUMN_CATEGORY = 4;
+	private static final int COLUMN_CATEGORY_TYPE = 5;
+	private static final int COLUMN_REPEAT = 6;
+	private static final int COLUMN_VIDEO_PROPS = 7;
+	private static final int COLUMN_AUDIO_PROPS = 8;
+	private static final int COLUMN_SUB_PROPS = 9;
+	private static final int COLUMN_SERIES_ID = 10;
+	private static final int COLUMN_PROGRAM_ID = 11;
+	private static final int COLUMN_STARS = 12;
+	private static final int COLUMN_FILE_SIZE = 13;
+	private static final int COLUMN_LAST_MODIFIED = 14;
+	private static final int COLUMN_PROGRAM_FLAGS = 15;
+	private static final int COLUMN_HOSTNAME = 16;
+	private static final int COLUMN_FILENAME = 17;
+	private static final int COLUMN_AIR_DATE = 18;
+	private static final int COLUMN_DESCRIPTION = 19;
+	private static final int COLUMN_INETREF = 20;
+	private static final int COLUMN_SEASON = 21;
+	private static final int COLUMN_EPISODE = 22;
+	private static final int COLUMN_CHANNEL_ID = 23;
+	private static final int COLUMN_RECORD_ID = 24;
+	private static final int COLUMN_LIVE_STREAM_ID = 25;
+
+	private final CursorColumnIndex mProgramColumnIndex = new CursorColumnIndex( PROGRAM_COLUMNS );
 	
 	protected MainApplication mMainApplication;
 	
@@ -64,6 +119,10 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 	protected LiveStreamDaoHelper mLiveStreamDaoHelper;
 	protected RecordingDaoHelper mRecordingDaoHelper;
 	
+	// natural keys and known channels of a sync streamed in batches, see loadBatch
+	private Set<String> mSyncKeys;
+	private Set<Integer> mSyncChannelIds;
+	
 	protected ProgramDaoHelper( Context context ) {
 		super( context );
 		
@@ -151,27 +210,11 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 
 		ContentValues values = convertProgramToContentValues( program );
 
-		String[] projection = new String[] { ProgramConstants._ID };
-		String selection = ProgramConstants.FIELD_CHANNEL_ID + " = ? AND " + ProgramConstants.FIELD_START_TIME + " = ?";
-		String[] selectionArgs = new String[] { String.valueOf( program.getChannelInfo().getChannelId() ), String.valueOf( program.getStartTime().getMillis() ) };
-		
-		selection = appendLocationHostname( selection, null );
-
 		int updated = -1;
-		Cursor cursor = mContext.getContentResolver().query( uri, projection, selection, selectionArgs, null );
-		if( cursor.moveToFirst() ) {
-			Log.v( TAG, "save : updating existing program" );
-
-			Long id = cursor.getLong( cursor.getColumnIndexOrThrow( ProgramConstants._ID ) );
-			
-			updated = mContext.getContentResolver().update( ContentUris.withAppendedId( uri, id ), values, null, null );
-		} else {
-			Uri inserted = mContext.getContentResolver().insert( uri, values );
-			if( null != inserted ) {
-				updated = 1;
-			}
+		Uri upserted = mContext.getContentResolver().insert( Uri.withAppendedPath( uri, ProgramConstants.UPSERT_PATH ), values );
+		if( null != upserted ) {
+			updated = 1;
 		}
-		cursor.close();
 		Log.v( TAG, "save : updated=" + updated );
 
 		Log.v( TAG, "save : exit" );
@@ -214,6 +257,7 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 		String[] selectionArgs = new String[] { String.valueOf( program.getChannelInfo().getChannelId() ), String.valueOf( program.getStartTime().getMillis() ) };
 
 		selection = appendLocationHostname( selection, null );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 
 		int deleted = mContext.getContentResolver().delete( uri, selection, selectionArgs );
 		Log.v( TAG, "delete : deleted=" + deleted );
@@ -239,207 +283,103 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 	protected int load( Uri uri, List<Program> programs, String table ) throws RemoteException, OperationApplicationException {
 		Log.v( TAG, "load : enter" );
 		
-		Log.v( TAG, "load : find all existing recordings, table=" + table );
-		String recordedSelection = "";
-		
-		recordedSelection = appendLocationHostname( recordedSelection, table );
-		Log.v( TAG, "load : recordedSelection=" + recordedSelection );
+		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
 		
-		Map<String, Program> recorded = new HashMap<String, Program>();
-		for( Program program : findAll( uri, null, recordedSelection, null, null ) ) {
-			recorded.put( program.getFilename(), program );
+		if( ProgramConstants.TABLE_NAME_RECORDED.equals( table ) ) {
+			Log.v( TAG, "load : remove live streams of deleted recordings" );
+			
+			Set<String> keys = new HashSet<String>();
+			for( Program program : programs ) {
+				addKey( keys, program );
+			}
+			
+			removeStaleLiveStreams( keys );
 		}
 		
-		int loaded = -1;
-		int count = 0;
+		ContentValues[] contentValuesArray = convertPrograms( programs, findChannelIds() );
 		
-		ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
+		int loaded = mContext.getContentResolver().bulkInsert( buildSyncUri( uri, true, isIncremental( table ), null, null ), contentValuesArray );
+		Log.v( TAG, "load : loaded=" + loaded );
 		
-		String[] programProjection = new String[] { ProgramConstants._ID };
-		String programSelection = table + "." + ProgramConstants.FIELD_CHANNEL_ID + " = ? AND " + table + "." + ProgramConstants.FIELD_START_TIME + " = ?";
-
-		programSelection = appendLocationHostname( programSelection, table );
+		Log.v( TAG, "load : exit" );
+		return loaded;
+	}
+	
+	/**
+	 * Writes one batch of a sync that is streamed in several parts, as the response is parsed. Nothing is pruned
+	 * until {@link #finishSync(Uri, String)} closes the sync, only the natural keys of the batch are kept.
+	 * 
+	 * @param uri
+	 * @param programs
+	 * @param table
+	 * @return the number of rows inserted or updated
+	 */
+	protected int loadBatch( Uri uri, List<Program> programs, String table ) {
+		Log.v( TAG, "loadBatch : enter" );
 		
-		boolean inError;
+		if( null == mSyncKeys ) {
+			beginSync();
+		}
 		
 		for( Program program : programs ) {
-
-			if( null == program.getStartTime() || null == program.getEndTime() ) {
-				Log.w(TAG, "convertProgramToContentValues : null starttime and or endtime" );
-			
-				inError = true;
-			} else {
-				inError = false;
-			}
-
-			DateTime startTime = new DateTime( program.getStartTime() );
-			
-			ContentValues programValues = convertProgramToContentValues( program );
-			Cursor programCursor = mContext.getContentResolver().query( uri, programProjection, programSelection, new String[] { String.valueOf( program.getChannelInfo().getChannelId() ), String.valueOf( startTime.getMillis() ) }, null );
-			if( programCursor.moveToFirst() ) {
-				//Log.v( TAG, "load : UPDATE PROGRAM channel=" + program.getChannelInfo().getChannelNumber() + ", startTime=" + DateUtils.dateTimeFormatterPretty.print( startTime ) + "(" + startTime + ")" );
-
-				Long id = programCursor.getLong( programCursor.getColumnIndexOrThrow( ProgramConstants._ID ) );
-				ops.add( 
-						ContentProviderOperation.newUpdate( ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_PROGRAM, id ) )
-							.withValues( programValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-				
-			} else {
-				//Log.v( TAG, "load : INSERT PROGRAM channel=" + program.getChannelInfo().getChannelNumber() + ", startTime=" + DateUtils.dateTimeFormatterPretty.print( startTime ) + "(" + startTime + ")" );
-
-				ops.add(  
-						ContentProviderOperation.newInsert( uri )
-							.withValues( programValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-			}
-			programCursor.close();
-			count++;
-			
-			if( null != program.getChannelInfo() ) {
-				
-				if( null == mChannelDaoHelper.findByChannelId( (long) program.getChannelInfo().getChannelId() ) ) {
-					Log.v( TAG, "load : adding non-existent channel" );
-
-					mChannelDaoHelper.save( program.getChannelInfo() );
-				}
-				
-			}
-			
-			if( !inError && null != program.getRecording() ) {
-				
-				String[] recordingProjection = new String[] { RecordingConstants.TABLE_NAME + "_" + RecordingConstants._ID };
-				String recordingSelection = RecordingConstants.FIELD_RECORD_ID + " = ? AND " + RecordingConstants.FIELD_START_TIME + " = ? AND " + RecordingConstants.FIELD_HOSTNAME + " = ?";
-				String[] recordingSelectionArgs = new String[] { String.valueOf( program.getRecording().getRecordId() ), String.valueOf( program.getStartTime().getMillis() ), mLocationProfile.getHostname() };
-				
-				Log.v( TAG, "load : recording=" + program.getRecording().toString() );
-				
-				ContentValues recordingValues = mRecordingDaoHelper.convertRecordingToContentValues( program.getRecording(), program.getStartTime() );
-				Cursor recordingCursor = mContext.getContentResolver().query( RecordingConstants.CONTENT_URI, recordingProjection, recordingSelection, recordingSelectionArgs, null );
-				if( recordingCursor.moveToFirst() ) {
-					Log.v( TAG, "load : UPDATE RECORDING program=" + program.getTitle() + ", recording=" + program.getRecording().getRecordId() );
-
-					Long id = recordingCursor.getLong( recordingCursor.getColumnIndexOrThrow( RecordingConstants.TABLE_NAME + "_" + RecordingConstants._ID ) );					
-					ops.add( 
-						ContentProviderOperation.newUpdate( ContentUris.withAppendedId( RecordingConstants.CONTENT_URI, id ) )
-						.withValues( recordingValues )
-						.withYieldAllowed( true )
-						.build()
-					);
-				} else {
-					Log.v( TAG, "load : INSERT RECORDING program=" + program.getTitle() + ", recording=" + program.getRecording().getRecordId() );
-
-					ops.add(  
-						ContentProviderOperation.newInsert( RecordingConstants.CONTENT_URI )
-						.withValues( recordingValues )
-						.withYieldAllowed( true )
-						.build()
-					);
-				}
-				recordingCursor.close();
-				count++;
-			}
-			
-			if( recorded.containsKey( program.getFilename() ) ) {
-				recorded.remove( program.getFilename() );
-			}
-
-			if( count > 100 ) {
-				Log.v( TAG, "process : applying batch for '" + count + "' transactions" );
-				
-				if( !ops.isEmpty() ) {
-					//Log.v( TAG, "process : applying batch '" + channel.getCallSign() + "'" );
-					
-					ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-					loaded += results.length;
-					
-					if( results.length > 0 ) {
-						ops.clear();
-					}
-				}
-
-				count = -1;
-			}
-			
+			addKey( mSyncKeys, program );
 		}
-
-		if( !ops.isEmpty() ) {
-			Log.v( TAG, "process : applying final batch for '" + count + "' transactions" );
-
-			ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-			loaded += results.length;
-
-			if( results.length > 0 ) {
-				ops.clear();
-			}
+		
+		ContentValues[] contentValuesArray = convertPrograms( programs, mSyncChannelIds );
+		
+		int loaded = mContext.getContentResolver().bulkInsert( buildSyncUri( uri, false, isIncremental( table ), null, null ), contentValuesArray );
+		Log.v( TAG, "loadBatch : loaded=" + loaded );
+		
+		Log.v( TAG, "loadBatch : exit" );
+		return loaded;
+	}
+	
+	/**
+	 * Closes a sync written with {@link #loadBatch(Uri, List, String)}, the rows that were not part of any batch are
+	 * deleted. A sync without batches removes every row for the connected profile.
+	 * 
+	 * @param uri
+	 * @param table
+	 * @return the number of rows deleted
+	 */
+	protected int finishSync( Uri uri, String table ) {
+		Log.v( TAG, "finishSync : enter" );
+		
+		if( null == mSyncKeys ) {
+			beginSync();
 		}
-
-		Log.v( TAG, "load : remove deleted recordings" );
-		for( Program program : recorded.values() ) {
-			Log.v( TAG, "load : remove deleted recording - " + program.getTitle() + " [" + program.getSubTitle() + "]" );
-			
-			// Delete any live stream details
-			LiveStreamInfo liveStreamInfo = mLiveStreamDaoHelper.findByProgram( program );
-			if( null != liveStreamInfo ) {
-				Log.v( TAG, "load : remove live stream" );
-				
-				new RemoveStreamTask().execute( liveStreamInfo );
-				
-				mLiveStreamDaoHelper.delete( liveStreamInfo );
-			}
-			
-			if( null != program.getRecording() ) {
-				Log.v( TAG, "load : remove recording" );
-				
-				ops.add(  
-					ContentProviderOperation.newDelete( RecordingConstants.CONTENT_URI )
-					.withSelection( RecordingConstants.FIELD_RECORD_ID + " = ? AND " + RecordingConstants.FIELD_START_TIME + " = ? AND " + RecordingConstants.FIELD_HOSTNAME + " = ?", new String[] { String.valueOf( program.getRecording().getRecordId() ), String.valueOf( program.getStartTime().getMillis() ), mLocationProfile.getHostname() } )
-					.withYieldAllowed( true )
-					.build()
-				);
-
-			}
+		
+		if( ProgramConstants.TABLE_NAME_RECORDED.equals( table ) ) {
+			Log.v( TAG, "finishSync : remove live streams of deleted recordings" );
 			
-			Log.v( TAG, "load : remove program" );
-			ops.add(  
-				ContentProviderOperation.newDelete( uri )
-				.withSelection( ProgramConstants.FIELD_FILENAME + " = ?", new String[] { program.getFilename() } )
-				.withYieldAllowed( true )
-				.build()
-			);
-
-			if( count > 100 ) {
-				Log.v( TAG, "process : applying batch for '" + count + "' transactions" );
-				
-				if( !ops.isEmpty() ) {
-					
-					ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-					loaded += results.length;
-					
-					if( results.length > 0 ) {
-						ops.clear();
-					}
-
-				}
-
-				count = -1;
-			}
-
+			removeStaleLiveStreams( mSyncKeys );
 		}
 		
-		if( !ops.isEmpty() ) {
-			Log.v( TAG, "process : applying final batch for '" + count + "' transactions" );
+		ContentValues[] keys = new ContentValues[ mSyncKeys.size() ];
+		
+		int i = 0;
+		for( String key : mSyncKeys ) {
+			int separator = key.indexOf( ':' );
+			
+			ContentValues values = new ContentValues();
+			values.put( ProgramConstants.FIELD_CHANNEL_ID, Integer.parseInt( key.substring( 0, separator ) ) );
+			values.put( ProgramConstants.FIELD_START_TIME, Long.parseLong( key.substring( separator + 1 ) ) );
 			
-			ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-			loaded += results.length;
+			keys[ i++ ] = values;
 		}
-
-		Log.v( TAG, "load : exit" );
-		return loaded;
+		
+		Uri syncUri = buildSyncUri( uri, true, false, null, null ).buildUpon()
+				.appendQueryParameter( ProgramConstants.PARAMETER_KEYS_ONLY, String.valueOf( true ) )
+				.build();
+		
+		int deleted = mContext.getContentResolver().bulkInsert( syncUri, keys );
+		Log.v( TAG, "finishSync : deleted=" + deleted );
+		
+		mSyncKeys = null;
+		mSyncChannelIds = null;
+		
+		Log.v( TAG, "finishSync : exit" );
+		return deleted;
 	}
 	
 	/**
@@ -453,8 +393,21 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 	 * @return
 	 */
 	public Program convertCursorToProgram( Cursor cursor ) {
+		return convertCursorToProgram( cursor, null );
+	}
+
+	/**
+	 * Reads the current row by the column positions resolved for this cursor.
+	 * 
+	 * @param cursor
+	 * @param recycled filled in and returned instead of a new instance, when not null
+	 * @return
+	 */
+	public Program convertCursorToProgram( Cursor cursor, Program recycled ) {
 //		Log.v( TAG, "convertCursorToProgram : enter" );
 
+		int[] index = mProgramColumnIndex.resolve( cursor );
+
 //		Long id = null;
 		DateTime startTime = null, endTime = null, lastModified = null, airDate = null;
 		String title = "", subTitle = "", category = "", categoryType = "", seriesId = "", programId = "", fileSize = "", programFlags = "", hostname = "", filename = "", description = "", inetref = "", season = "", episode = "";
@@ -469,107 +422,107 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 //			id = cursor.getLong( cursor.getColumnIndex( ProgramConstants._ID ) );
 //		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_START_TIME ) != -1 ) {
-			startTime = new DateTime( cursor.getLong( cursor.getColumnIndex( ProgramConstants.FIELD_START_TIME ) ) );
+		if( index[ COLUMN_START_TIME ] != -1 ) {
+			startTime = new DateTime( cursor.getLong( index[ COLUMN_START_TIME ] ) );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_END_TIME ) != -1 ) {
-			endTime = new DateTime( cursor.getLong( cursor.getColumnIndex( ProgramConstants.FIELD_END_TIME ) ) );
+		if( index[ COLUMN_END_TIME ] != -1 ) {
+			endTime = new DateTime( cursor.getLong( index[ COLUMN_END_TIME ] ) );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_TITLE ) != -1 ) {
-			title = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_TITLE ) );
+		if( index[ COLUMN_TITLE ] != -1 ) {
+			title = cursor.getString( index[ COLUMN_TITLE ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_SUB_TITLE ) != -1 ) {
-			subTitle = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_SUB_TITLE ) );
+		if( index[ COLUMN_SUB_TITLE ] != -1 ) {
+			subTitle = cursor.getString( index[ COLUMN_SUB_TITLE ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_CATEGORY ) != -1 ) {
-			category = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_CATEGORY ) );
+		if( index[ COLUMN_CATEGORY ] != -1 ) {
+			category = cursor.getString( index[ COLUMN_CATEGORY ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_CATEGORY_TYPE ) != -1 ) {
-			categoryType = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_CATEGORY_TYPE ) );
+		if( index[ COLUMN_CATEGORY_TYPE ] != -1 ) {
+			categoryType = cursor.getString( index[ COLUMN_CATEGORY_TYPE ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_REPEAT ) != -1 ) {
-			repeat = cursor.getInt( cursor.getColumnIndex( ProgramConstants.FIELD_REPEAT ) );
+		if( index[ COLUMN_REPEAT ] != -1 ) {
+			repeat = cursor.getInt( index[ COLUMN_REPEAT ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_VIDEO_PROPS ) != -1 ) {
-			videoProps = cursor.getInt( cursor.getColumnIndex( ProgramConstants.FIELD_VIDEO_PROPS ) );
+		if( index[ COLUMN_VIDEO_PROPS ] != -1 ) {
+			videoProps = cursor.getInt( index[ COLUMN_VIDEO_PROPS ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_AUDIO_PROPS ) != -1 ) {
-			audioProps = cursor.getInt( cursor.getColumnIndex( ProgramConstants.FIELD_AUDIO_PROPS ) );
+		if( index[ COLUMN_AUDIO_PROPS ] != -1 ) {
+			audioProps = cursor.getInt( index[ COLUMN_AUDIO_PROPS ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_SUB_PROPS ) != -1 ) {
-			subProps = cursor.getInt( cursor.getColumnIndex( ProgramConstants.FIELD_SUB_PROPS ) );
+		if( index[ COLUMN_SUB_PROPS ] != -1 ) {
+			subProps = cursor.getInt( index[ COLUMN_SUB_PROPS ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_SERIES_ID ) != -1 ) {
-			seriesId = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_SERIES_ID ) );
+		if( index[ COLUMN_SERIES_ID ] != -1 ) {
+			seriesId = cursor.getString( index[ COLUMN_SERIES_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_PROGRAM_ID ) != -1 ) {
-			programId = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_PROGRAM_ID ) );
+		if( index[ COLUMN_PROGRAM_ID ] != -1 ) {
+			programId = cursor.getString( index[ COLUMN_PROGRAM_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_STARS ) != -1 ) {
-			stars = cursor.getFloat( cursor.getColumnIndex( ProgramConstants.FIELD_STARS ) );
+		if( index[ COLUMN_STARS ] != -1 ) {
+			stars = cursor.getFloat( index[ COLUMN_STARS ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_FILE_SIZE ) != -1 ) {
-			fileSize = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_FILE_SIZE ) );
+		if( index[ COLUMN_FILE_SIZE ] != -1 ) {
+			fileSize = cursor.getString( index[ COLUMN_FILE_SIZE ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_LAST_MODIFIED ) != -1 ) {
-			lastModified = new DateTime( cursor.getLong( cursor.getColumnIndex( ProgramConstants.FIELD_LAST_MODIFIED ) ) );
+		if( index[ COLUMN_LAST_MODIFIED ] != -1 ) {
+			lastModified = new DateTime( cursor.getLong( index[ COLUMN_LAST_MODIFIED ] ) );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_PROGRAM_FLAGS ) != -1 ) {
-			programFlags = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_PROGRAM_FLAGS ) );
+		if( index[ COLUMN_PROGRAM_FLAGS ] != -1 ) {
+			programFlags = cursor.getString( index[ COLUMN_PROGRAM_FLAGS ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_HOSTNAME ) != -1 ) {
-			hostname = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_HOSTNAME ) );
+		if( index[ COLUMN_HOSTNAME ] != -1 ) {
+			hostname = cursor.getString( index[ COLUMN_HOSTNAME ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_FILENAME ) != -1 ) {
-			filename = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_FILENAME ) );
+		if( index[ COLUMN_FILENAME ] != -1 ) {
+			filename = cursor.getString( index[ COLUMN_FILENAME ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_AIR_DATE ) != -1 ) {
-			airDate = new DateTime( cursor.getLong( cursor.getColumnIndex( ProgramConstants.FIELD_AIR_DATE ) ) );
+		if( index[ COLUMN_AIR_DATE ] != -1 ) {
+			airDate = new DateTime( cursor.getLong( index[ COLUMN_AIR_DATE ] ) );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_DESCRIPTION ) != -1 ) {
-			description = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_DESCRIPTION ) );
+		if( index[ COLUMN_DESCRIPTION ] != -1 ) {
+			description = cursor.getString( index[ COLUMN_DESCRIPTION ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_INETREF ) != -1 ) {
-			inetref = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_INETREF ) );
+		if( index[ COLUMN_INETREF ] != -1 ) {
+			inetref = cursor.getString( index[ COLUMN_INETREF ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_SEASON ) != -1 ) {
-			season = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_SEASON ) );
+		if( index[ COLUMN_SEASON ] != -1 ) {
+			season = cursor.getString( index[ COLUMN_SEASON ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_EPISODE ) != -1 ) {
-			episode = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_EPISODE ) );
+		if( index[ COLUMN_EPISODE ] != -1 ) {
+			episode = cursor.getString( index[ COLUMN_EPISODE ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_CHANNEL_ID ) != -1 ) {
-			channelInfo = mChannelDaoHelper.convertCursorToChannelInfo( cursor );
+		if( index[ COLUMN_CHANNEL_ID ] != -1 ) {
+			channelInfo = mChannelDaoHelper.convertCursorToChannelInfo( cursor, null != recycled ? recycled.getChannelInfo() : null );
 		}
 		
-		if( cursor.getColumnIndex( ProgramConstants.FIELD_RECORD_ID ) != -1 ) {
-			recording = mRecordingDaoHelper.convertCursorToRecording( cursor );
+		if( index[ COLUMN_RECORD_ID ] != -1 ) {
+			recording = mRecordingDaoHelper.convertCursorToRecording( cursor, null != recycled ? recycled.getRecording() : null );
 		}
 		
-		if( cursor.getColumnIndex( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_ID ) != -1 ) {
+		if( index[ COLUMN_LIVE_STREAM_ID ] != -1 ) {
 			liveStreamInfo = mLiveStreamDaoHelper.convertCursorToLiveStreamInfo( cursor );
 		}
 		
@@ -577,7 +530,7 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 //			defaultAuth = cursor.getString( cursor.getColumnIndex( ProgramConstants.FIELD_ ) );
 //		}
 
-		Program program = new Program();
+		Program program = null != recycled ? recycled : new Program();
 		program.setStartTime( startTime );
 		program.setEndTime( endTime );
 		program.setTitle( title );
@@ -685,10 +638,138 @@ public abstract class ProgramDaoHelper extends AbstractDaoHelper {
 		values.put( ProgramConstants.FIELD_CHANNEL_ID, null != program.getChannelInfo() ? program.getChannelInfo().getChannelId() : -1 );
 		values.put( ProgramConstants.FIELD_RECORD_ID, null != program.getRecording() ? program.getRecording().getRecordId() : -1 );
 		values.put( ProgramConstants.FIELD_IN_ERROR, inError ? 1 : 0 );
+		values.put( ProgramConstants.FIELD_PROGRAM_GROUP, null != program.getTitle() ? ArticleCleaner.clean( program.getTitle() ) : "" );
 		
 		return values;
 	}
 
+	/**
+	 * @param uri the program, recorded or upcoming content uri
+	 * @param prune delete rows in scope that are not part of the sync
+	 * @param windowStart optional, limits the sync scope to programs starting at or after
+	 * @param windowEnd optional, limits the sync scope to programs starting at or before
+	 * @return
+	 */
+	protected Uri buildSyncUri( Uri uri, boolean prune, DateTime windowStart, DateTime windowEnd ) {
+		return buildSyncUri( uri, prune, false, windowStart, windowEnd );
+	}
+	
+	/**
+	 * @param uri the program, recorded or upcoming content uri
+	 * @param prune delete rows in scope that are not part of the sync
+	 * @param incremental skip rows whose LAST_MODIFIED and FILE_SIZE are unchanged
+	 * @param windowStart optional, limits the sync scope to programs starting at or after
+	 * @param windowEnd optional, limits the sync scope to programs starting at or before
+	 * @return
+	 */
+	protected Uri buildSyncUri( Uri uri, boolean prune, boolean incremental, DateTime windowStart, DateTime windowEnd ) {
+		
+		Uri.Builder builder = uri.buildUpon()
+				.appendPath( ProgramConstants.SYNC_PATH )
+				.appendQueryParameter( ProgramConstants.PARAMETER_HOSTNAME, mLocationProfile.getHostname() )
+				.appendQueryParameter( ProgramConstants.PARAMETER_PRUNE, String.valueOf( prune ) )
+				.appendQueryParameter( ProgramConstants.PARAMETER_INCREMENTAL, String.valueOf( incremental ) );
+		
+		if( null != windowStart ) {
+			builder.appendQueryParameter( ProgramConstants.PARAMETER_WINDOW_START, String.valueOf( windowStart.getMillis() ) );
+		}
+		
+		if( null != windowEnd ) {
+			builder.appendQueryParameter( ProgramConstants.PARAMETER_WINDOW_END, String.valueOf( windowEnd.getMillis() ) );
+		}
+		
+		return builder.build();
+	}
+	
+	// internal helpers
+	
+	private void beginSync() {
+		
+		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
+		
+		mSyncKeys = new HashSet<String>();
+		mSyncChannelIds = findChannelIds();
+		
+	}
+	
+	private Set<Integer> findChannelIds() {
+		Log.v( TAG, "findChannelIds : find all existing channels" );
+		
+		Set<Integer> channelIds = new HashSet<Integer>();
+		for( ChannelInfo channelInfo : mChannelDaoHelper.findAll() ) {
+			channelIds.add( channelInfo.getChannelId() );
+		}
+		
+		return channelIds;
+	}
+	
+	private ContentValues[] convertPrograms( List<Program> programs, Set<Integer> channelIds ) {
+		
+		String recordingPrefix = RecordingConstants.TABLE_NAME + "_";
+		
+		ContentValues[] contentValuesArray = new ContentValues[ programs.size() ];
+		for( int i = 0; i < programs.size(); i++ ) {
+			Program program = programs.get( i );
+			
+			ContentValues programValues = convertProgramToContentValues( program );
+			
+			if( null != program.getChannelInfo() && !channelIds.contains( program.getChannelInfo().getChannelId() ) ) {
+				Log.v( TAG, "convertPrograms : adding non-existent channel" );
+
+				mChannelDaoHelper.save( program.getChannelInfo() );
+				channelIds.add( program.getChannelInfo().getChannelId() );
+			}
+			
+			if( null != program.getStartTime() && null != program.getEndTime() && null != program.getRecording() ) {
+				mRecordingDaoHelper.convertRecordingToContentValues( program.getRecording(), program.getStartTime(), programValues, recordingPrefix );
+			}
+			
+			contentValuesArray[ i ] = programValues;
+		}
+		
+		return contentValuesArray;
+	}
+	
+	private static void addKey( Set<String> keys, Program program ) {
+		
+		// keyed the way convertProgramToContentValues stores CHANNEL_ID and START_TIME
+		long startTime = null != program.getStartTime() && null != program.getEndTime() ? program.getStartTime().getMillis() : 0;
+		
+		keys.add( ( null != program.getChannelInfo() ? program.getChannelInfo().getChannelId() : -1 ) + ":" + startTime );
+		
+	}
+	
+	// recordings carry LAST_MODIFIED and FILE_SIZE, so only the ones that changed need to be written
+	private static boolean isIncremental( String table ) {
+		return ProgramConstants.TABLE_NAME_RECORDED.equals( table );
+	}
+	
+	private void removeStaleLiveStreams( Set<String> current ) {
+		
+		String selection = appendLocationHostname( "", LiveStreamConstants.TABLE_NAME );
+		
+		List<LiveStreamInfo> stale = new ArrayList<LiveStreamInfo>();
+		Cursor cursor = mContext.getContentResolver().query( LiveStreamConstants.CONTENT_URI, null, selection, appendLocationHostnameArgs( null ), null );
+		while( cursor.moveToNext() ) {
+			int channelId = cursor.getInt( cursor.getColumnIndexOrThrow( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_CHAN_ID ) );
+			long startTime = cursor.getLong( cursor.getColumnIndexOrThrow( LiveStreamConstants.TABLE_NAME + "_" + LiveStreamConstants.FIELD_START_TIME ) );
+			
+			if( !current.contains( channelId + ":" + startTime ) ) {
+				stale.add( mLiveStreamDaoHelper.convertCursorToLiveStreamInfo( cursor ) );
+			}
+		}
+		cursor.close();
+		
+		for( LiveStreamInfo liveStreamInfo : stale ) {
+			Log.v( TAG, "removeStaleLiveStreams : remove live stream " + liveStreamInfo.getId() );
+			
+			new RemoveStreamTask().execute( liveStreamInfo );
+			
+			mLiveStreamDaoHelper.delete( liveStreamInfo );
+		}
+		
+	}
+	
 	private class RemoveStreamTask extends AsyncTask<LiveStreamInfo, Void, ResponseEntity<Bool>> {
 
 		private Exception e = null;
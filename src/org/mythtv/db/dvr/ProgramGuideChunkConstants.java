@@ -0,0 +1,62 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db.dvr;
+
+import org.mythtv.db.AbstractBaseConstants;
+import org.mythtv.provider.MythtvProvider;
+
+import android.net.Uri;
+
+/**
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideChunkConstants extends AbstractBaseConstants {
+
+	public static final String TABLE_NAME = "program_guide_chunk";
+
+	public static final Uri CONTENT_URI = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME );
+	public static final Uri CONTENT_URI_UPSERT = Uri.withAppendedPath( CONTENT_URI, UPSERT_PATH );
+
+	// db fields
+	public static final String FIELD_START_TIME = "START_TIME";
+	public static final String FIELD_START_TIME_DATA_TYPE = "INTEGER NOT NULL";
+
+	public static final String FIELD_END_TIME = "END_TIME";
+	public static final String FIELD_END_TIME_DATA_TYPE = "INTEGER NOT NULL";
+
+	public static final String FIELD_ETAG = "ETAG";
+	public static final String FIELD_ETAG_DATA_TYPE = "TEXT";
+
+	public static final String FIELD_PROGRAMS = "PROGRAMS";
+	public static final String FIELD_PROGRAMS_DATA_TYPE = "INTEGER";
+	public static final String FIELD_PROGRAMS_DEFAULT = "-1";
+
+	public static final String FIELD_BYTES = "BYTES";
+	public static final String FIELD_BYTES_DATA_TYPE = "INTEGER";
+	public static final String FIELD_BYTES_DEFAULT = "-1";
+
+	public static final String FIELD_DATE = "DATE";
+	public static final String FIELD_DATE_DATA_TYPE = "INTEGER";
+
+	public static final String[] COLUMN_MAP = { _ID,
+		FIELD_START_TIME, FIELD_END_TIME, FIELD_ETAG, FIELD_PROGRAMS, FIELD_BYTES, FIELD_DATE, FIELD_HOSTNAME
+	};
+
+}
@@ -0,0 +1,174 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db.dvr;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.mythtv.db.AbstractDaoHelper;
+import org.mythtv.service.guide.ProgramGuideChunk;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.util.Log;
+
+/**
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideChunkDaoHelper extends AbstractDaoHelper {
+
+	private static final String TAG = ProgramGuideChunkDaoHelper.class.getSimpleName();
+	
+	/**
+	 * @param context
+	 */
+	public ProgramGuideChunkDaoHelper( Context context ) {
+		super( context );
+	}
+
+	/**
+	 * @param start
+	 * @param end
+	 * @return the chunks recorded inside the window, ordered by start time
+	 */
+	public List<ProgramGuideChunk> findAll( DateTime start, DateTime end ) {
+		Log.d( TAG, "findAll : enter" );
+		
+		List<ProgramGuideChunk> chunks = new ArrayList<ProgramGuideChunk>();
+		
+		String selection = ProgramGuideChunkConstants.FIELD_START_TIME + " >= ? AND " + ProgramGuideChunkConstants.FIELD_END_TIME + " <= ?";
+		String[] selectionArgs = new String[] { String.valueOf( start.getMillis() ), String.valueOf( end.getMillis() ) };
+		
+		selection = appendLocationHostname( selection, ProgramGuideChunkConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
+		
+		Cursor cursor = mContext.getContentResolver().query( ProgramGuideChunkConstants.CONTENT_URI, null, selection, selectionArgs, ProgramGuideChunkConstants.FIELD_START_TIME );
+		while( cursor.moveToNext() ) {
+			chunks.add( convertCursorToProgramGuideChunk( cursor ) );
+		}
+		cursor.close();
+		
+		Log.d( TAG, "findAll : exit" );
+		return chunks;
+	}
+	
+	/**
+	 * Records the chunk, replacing any chunks that start inside its range.
+	 * 
+	 * @param chunk
+	 * @return
+	 */
+	public int save( ProgramGuideChunk chunk ) {
+		Log.d( TAG, "save : enter" );
+		
+		ContentValues values = convertProgramGuideChunkToContentValues( chunk );
+
+		String selection = ProgramGuideChunkConstants.FIELD_START_TIME + " >= ? AND " + ProgramGuideChunkConstants.FIELD_START_TIME + " < ?";
+		String[] selectionArgs = new String[] { String.valueOf( chunk.getStartTime().getMillis() ), String.valueOf( chunk.getEndTime().getMillis() ) };
+		
+		selection = appendLocationHostname( selection, ProgramGuideChunkConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
+
+		mContext.getContentResolver().delete( ProgramGuideChunkConstants.CONTENT_URI, selection, selectionArgs );
+		
+		int updated = -1;
+		Uri upserted = mContext.getContentResolver().insert( ProgramGuideChunkConstants.CONTENT_URI_UPSERT, values );
+		if( null != upserted ) {
+			updated = 1;
+		}
+		Log.v( TAG, "save : updated=" + updated );
+		
+		Log.d( TAG, "save : exit" );
+		return updated;
+	}
+	
+	/**
+	 * @param date
+	 * @return
+	 */
+	public int deleteEndingBefore( DateTime date ) {
+		Log.d( TAG, "deleteEndingBefore : enter" );
+		
+		String selection = ProgramGuideChunkConstants.FIELD_END_TIME + " <= ?";
+		String[] selectionArgs = new String[] { String.valueOf( date.getMillis() ) };
+		
+		selection = appendLocationHostname( selection, ProgramGuideChunkConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
+
+		int deleted = mContext.getContentResolver().delete( ProgramGuideChunkConstants.CONTENT_URI, selection, selectionArgs );
+		Log.v( TAG, "deleteEndingBefore : deleted=" + deleted );
+		
+		Log.d( TAG, "deleteEndingBefore : exit" );
+		return deleted;
+	}
+	
+	/**
+	 * @param cursor
+	 * @return
+	 */
+	public ProgramGuideChunk convertCursorToProgramGuideChunk( Cursor cursor ) {
+		
+		ProgramGuideChunk chunk = new ProgramGuideChunk();
+		
+		if( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_START_TIME ) != -1 ) {
+			chunk.setStartTime( new DateTime( cursor.getLong( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_START_TIME ) ) ) );
+		}
+		
+		if( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_END_TIME ) != -1 ) {
+			chunk.setEndTime( new DateTime( cursor.getLong( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_END_TIME ) ) ) );
+		}
+		
+		if( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_ETAG ) != -1 ) {
+			chunk.setEtag( cursor.getString( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_ETAG ) ) );
+		}
+		
+		if( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_PROGRAMS ) != -1 ) {
+			chunk.setPrograms( cursor.getInt( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_PROGRAMS ) ) );
+		}
+		
+		if( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_BYTES ) != -1 ) {
+			chunk.setBytes( cursor.getLong( cursor.getColumnIndex( ProgramGuideChunkConstants.FIELD_BYTES ) ) );
+		}
+		
+		return chunk;
+	}
+	
+	// internal helpers
+	
+	private ContentValues convertProgramGuideChunkToContentValues( final ProgramGuideChunk chunk ) {
+		
+		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
+		
+		ContentValues values = new ContentValues();
+		values.put( ProgramGuideChunkConstants.FIELD_START_TIME, chunk.getStartTime().getMillis() );
+		values.put( ProgramGuideChunkConstants.FIELD_END_TIME, chunk.getEndTime().getMillis() );
+		values.put( ProgramGuideChunkConstants.FIELD_ETAG, chunk.getEtag() );
+		values.put( ProgramGuideChunkConstants.FIELD_PROGRAMS, chunk.getPrograms() );
+		values.put( ProgramGuideChunkConstants.FIELD_BYTES, chunk.getBytes() );
+		values.put( ProgramGuideChunkConstants.FIELD_DATE, ( new DateTime() ).getMillis() );
+		values.put( ProgramGuideChunkConstants.FIELD_HOSTNAME, mLocationProfile.getHostname() );
+		
+		return values;
+	}
+	
+}
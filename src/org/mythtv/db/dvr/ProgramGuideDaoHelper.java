@@ -18,21 +18,16 @@
  */
 package org.mythtv.db.dvr;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.joda.time.DateTime;
 import org.mythtv.db.dvr.programGroup.ProgramGroupConstants;
-import org.mythtv.provider.MythtvProvider;
 import org.mythtv.services.api.dvr.Program;
 
-import android.content.ContentProviderOperation;
-import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
 import android.content.OperationApplicationException;
-import android.database.Cursor;
 import android.os.RemoteException;
 import android.util.Log;
 
@@ -57,7 +52,7 @@ public class ProgramGuideDaoHelper extends ProgramDaoHelper {
 		
 		String selection = appendLocationHostname( "", ProgramGroupConstants.TABLE_NAME );
 
-		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_PROGRAM, null, selection, null, null );
+		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_PROGRAM, null, selection, appendLocationHostnameArgs( null ), null );
 		
 		Log.d( TAG, "findAll : exit" );
 		return programs;
@@ -74,6 +69,7 @@ public class ProgramGuideDaoHelper extends ProgramDaoHelper {
 		String[] selectionArgs = new String[] { title };
 
 		selection = appendLocationHostname( selection, ProgramGroupConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_PROGRAM, null, selection, selectionArgs, null );
 		if( null != programs && !programs.isEmpty() ) {
@@ -114,6 +110,7 @@ public class ProgramGuideDaoHelper extends ProgramDaoHelper {
 		String[] selectionArgs = new String[] { String.valueOf( channelId ), String.valueOf( startTime.getMillis() ) };
 
 		selection = appendLocationHostname( selection, ProgramGroupConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		Program program = findOne( ProgramConstants.CONTENT_URI_PROGRAM, null, selection, selectionArgs, null );
 		if( null != program ) {
@@ -165,6 +162,23 @@ public class ProgramGuideDaoHelper extends ProgramDaoHelper {
 		return deleted;
 	}
 
+	/**
+	 * Removes the listings that ended before today, called once per guide sync before the first chunk is loaded.
+	 * 
+	 * @return
+	 */
+	public int deleteEnded() {
+		Log.d( TAG, "deleteEnded : enter" );
+		
+		DateTime startDate = new DateTime().withTimeAtStartOfDay();
+		
+		int deleted = mContext.getContentResolver().delete( ProgramConstants.CONTENT_URI_PROGRAM, ProgramConstants.FIELD_END_TIME + " <= ?", new String[] { String.valueOf( startDate.getMillis() ) } );
+		Log.v( TAG, "deleteEnded : deleted=" + deleted );
+		
+		Log.d( TAG, "deleteEnded : exit" );
+		return deleted;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.mythtv.db.dvr.ProgramDaoHelper#load(java.util.List)
 	 */
@@ -172,62 +186,30 @@ public class ProgramGuideDaoHelper extends ProgramDaoHelper {
 	public int load( List<Program> programs ) throws RemoteException, OperationApplicationException {
 //		Log.d( TAG, "load : enter" );
 
-		int loaded = -1;
-		ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
-
-		DateTime startDate = new DateTime().withTimeAtStartOfDay();
+		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
 		
-//		Log.d( TAG, "load : deleting old" );
-		ops.add(  
-				ContentProviderOperation.newDelete( ProgramConstants.CONTENT_URI_PROGRAM )
-				.withSelection( ProgramConstants.FIELD_END_TIME + " <= ?", new String[] { String.valueOf( startDate.getMillis() ) } )
-				.build()
-			);
-
-		String[] programProjection = new String[] { ProgramConstants._ID };
-		String programSelection = ProgramConstants.FIELD_CHANNEL_ID + " = ? AND " + ProgramConstants.FIELD_START_TIME + " = ?";
+		if( null == programs || programs.isEmpty() ) {
+			return -1;
+		}
 		
-		programSelection = appendLocationHostname( programSelection, ProgramGroupConstants.TABLE_NAME );
+		// limit the existing key scan to the time slots being loaded, other channels and hours are left untouched
+		long windowStart = Long.MAX_VALUE, windowEnd = Long.MIN_VALUE;
 		
-		for( Program program : programs ) {
-
-			DateTime startTime = new DateTime( program.getStartTime() );
+		ContentValues[] contentValuesArray = new ContentValues[ programs.size() ];
+		for( int i = 0; i < programs.size(); i++ ) {
+			ContentValues programValues = convertProgramToContentValues( programs.get( i ) );
 			
-			ContentValues programValues = convertProgramToContentValues( program );
-			Cursor programCursor = mContext.getContentResolver().query( ProgramConstants.CONTENT_URI_PROGRAM, programProjection, programSelection, new String[] { String.valueOf( program.getChannelInfo().getChannelId() ), String.valueOf( startTime.getMillis() ) }, null );
-			if( programCursor.moveToFirst() ) {
-//				Log.v( TAG, "load : UPDATE channel=" + program.getChannelInfo().getChannelNumber() + ", startTime=" + DateUtils.dateTimeFormatterPretty.print( startTime ) );
-
-				Long id = programCursor.getLong( programCursor.getColumnIndexOrThrow( ProgramConstants._ID ) );
-				ops.add( 
-						ContentProviderOperation.newUpdate( ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_PROGRAM, id ) )
-							.withValues( programValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-				
-			} else {
-//				Log.v( TAG, "load : INSERT channel=" + program.getChannelInfo().getChannelNumber() + ", startTime=" + DateUtils.dateTimeFormatterPretty.print( startTime ) );
-
-				ops.add(  
-						ContentProviderOperation.newInsert( ProgramConstants.CONTENT_URI_PROGRAM )
-							.withValues( programValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-			}
-			programCursor.close();
-
-		}
-		
-		if( !ops.isEmpty() ) {
+			// guide listings are stored per location profile, keep the hostname in line with the sync scope
+			programValues.put( ProgramConstants.FIELD_HOSTNAME, mLocationProfile.getHostname() );
 			
-			ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-//			for( ContentProviderResult result : results ) {
-//				Log.i( TAG, "load : result=" + result.toString() );
-//			}
-			loaded = results.length;
+			long startTime = programValues.getAsLong( ProgramConstants.FIELD_START_TIME );
+			windowStart = Math.min( windowStart, startTime );
+			windowEnd = Math.max( windowEnd, startTime );
+			
+			contentValuesArray[ i ] = programValues;
 		}
+		
+		int loaded = mContext.getContentResolver().bulkInsert( buildSyncUri( ProgramConstants.CONTENT_URI_PROGRAM, false, new DateTime( windowStart ), new DateTime( windowEnd ) ), contentValuesArray );
 
 //		Log.d( TAG, "load : exit" );
 		return loaded;
@@ -0,0 +1,160 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db.dvr;
+
+import org.mythtv.db.AbstractBaseConstants;
+import org.mythtv.provider.MythtvProvider;
+
+import android.net.Uri;
+
+/**
+ * Full text index over the titles, subtitles, descriptions and categories of the program, recorded
+ * and upcoming tables.
+ * 
+ * Rows are keyed by the source row's _ID times {@link #SOURCE_COUNT} plus the source's code, so one index
+ * serves all three tables and a match leads straight back to its row. Triggers on the source tables
+ * keep the index current with every write, including the incremental syncs.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramSearchConstants extends AbstractBaseConstants {
+
+	public static final String TABLE_NAME = "program_search";
+
+	public static final Uri CONTENT_URI = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME );
+
+	/**
+	 * The text to search for, each word is matched as a prefix
+	 */
+	public static final String QUERY_PARAMETER_QUERY = "q";
+	
+	/**
+	 * Limits the matches to one backend
+	 */
+	public static final String QUERY_PARAMETER_HOSTNAME = "hostname";
+	
+	/**
+	 * The maximum number of matches to return, {@link #DEFAULT_LIMIT} when not given
+	 */
+	public static final String QUERY_PARAMETER_LIMIT = "limit";
+	
+	public static final int DEFAULT_LIMIT = 100;
+	
+	public static final int SOURCE_COUNT = 4;
+	public static final int SOURCE_PROGRAM = 1;
+	public static final int SOURCE_RECORDED = 2;
+	public static final int SOURCE_UPCOMING = 3;
+	
+	public static final String[] SOURCE_TABLES = new String[] { ProgramConstants.TABLE_NAME_PROGRAM, ProgramConstants.TABLE_NAME_RECORDED, ProgramConstants.TABLE_NAME_UPCOMING };
+	public static final int[] SOURCE_CODES = new int[] { SOURCE_PROGRAM, SOURCE_RECORDED, SOURCE_UPCOMING };
+	
+	public static final String[] INDEXED_FIELDS = new String[] { ProgramConstants.FIELD_TITLE, ProgramConstants.FIELD_SUB_TITLE, ProgramConstants.FIELD_DESCRIPTION, ProgramConstants.FIELD_CATEGORY };
+
+	// result columns, besides the program columns of the matched row
+
+	/**
+	 * The table the match came from, one of {@link #SOURCE_TABLES}
+	 */
+	public static final String FIELD_SOURCE = "SOURCE";
+	
+	/**
+	 * The _ID of the matched row in its source table
+	 */
+	public static final String FIELD_SOURCE_ID = "SOURCE_ID";
+	
+	/**
+	 * 0 when the title starts with the query, 1 when the title contains it, 2 when the subtitle contains it, 3 otherwise
+	 */
+	public static final String FIELD_RANK = "RANK";
+	
+	/**
+	 * @param query
+	 * @param hostname
+	 * @return the uri searching every source table for the query
+	 */
+	public static Uri buildSearchUri( String query, String hostname ) {
+		return buildSearchUri( null, query, hostname );
+	}
+	
+	/**
+	 * @param table one of {@link #SOURCE_TABLES}, or null to search them all
+	 * @param query
+	 * @param hostname
+	 * @return the uri searching the table for the query
+	 */
+	public static Uri buildSearchUri( String table, String query, String hostname ) {
+		
+		Uri.Builder builder = CONTENT_URI.buildUpon();
+		if( null != table ) {
+			builder.appendPath( table );
+		}
+		builder.appendQueryParameter( QUERY_PARAMETER_QUERY, query );
+		
+		if( null != hostname ) {
+			builder.appendQueryParameter( QUERY_PARAMETER_HOSTNAME, hostname );
+		}
+		
+		return builder.build();
+	}
+	
+	/**
+	 * Turns free text into an FTS query matching every word as a prefix.
+	 * 
+	 * @param query
+	 * @return the match expression, or null when the query has no words
+	 */
+	public static String buildMatchExpression( String query ) {
+		
+		if( null == query ) {
+			return null;
+		}
+		
+		StringBuilder match = new StringBuilder();
+		for( String term : query.toLowerCase().split( "[^\\p{L}\\p{N}]+" ) ) {
+			
+			if( term.length() == 0 ) {
+				continue;
+			}
+			
+			if( match.length() > 0 ) {
+				match.append( ' ' );
+			}
+			match.append( term ).append( '*' );
+		}
+		
+		return match.length() > 0 ? match.toString() : null;
+	}
+	
+	/**
+	 * @param table one of {@link #SOURCE_TABLES}
+	 * @return the code of that table in the index
+	 */
+	public static int getSourceCode( String table ) {
+		
+		for( int i = 0; i < SOURCE_TABLES.length; i++ ) {
+			if( SOURCE_TABLES[ i ].equals( table ) ) {
+				return SOURCE_CODES[ i ];
+			}
+		}
+		
+		throw new IllegalArgumentException( "Unknown search source " + table );
+	}
+	
+}
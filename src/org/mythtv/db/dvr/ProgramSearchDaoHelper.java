@@ -0,0 +1,68 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db.dvr;
+
+import org.mythtv.db.AbstractDaoHelper;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.util.Log;
+
+/**
+ * @author Daniel Frey
+ *
+ */
+public class ProgramSearchDaoHelper extends AbstractDaoHelper {
+
+	private static final String TAG = ProgramSearchDaoHelper.class.getSimpleName();
+	
+	/**
+	 * @param context
+	 */
+	public ProgramSearchDaoHelper( Context context ) {
+		super( context );
+	}
+
+	/**
+	 * @param query
+	 * @return the guide, recorded and upcoming programs of the connected backend matching the query, best matches first
+	 */
+	public Cursor search( String query ) {
+		return search( null, query );
+	}
+	
+	/**
+	 * @param table one of {@link ProgramSearchConstants#SOURCE_TABLES}, or null to search them all
+	 * @param query
+	 * @return the programs in the table of the connected backend matching the query, best matches first
+	 */
+	public Cursor search( String table, String query ) {
+		Log.d( TAG, "search : enter" );
+		
+		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
+		
+		Uri uri = ProgramSearchConstants.buildSearchUri( table, query, mLocationProfile.getHostname() );
+		Cursor cursor = mContext.getContentResolver().query( uri, null, null, null, null );
+		
+		Log.d( TAG, "search : exit" );
+		return cursor;
+	}
+	
+}
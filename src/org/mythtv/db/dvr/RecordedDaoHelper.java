@@ -18,15 +18,17 @@
  */
 package org.mythtv.db.dvr;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.joda.time.DateTime;
-import org.mythtv.db.dvr.programGroup.ProgramGroupDaoHelper;
 import org.mythtv.services.api.dvr.Program;
 
 import android.content.ContentUris;
 import android.content.Context;
 import android.content.OperationApplicationException;
+import android.database.Cursor;
 import android.os.RemoteException;
 import android.util.Log;
 
@@ -38,12 +40,8 @@ public class RecordedDaoHelper extends ProgramDaoHelper {
 
 	private static final String TAG = RecordedDaoHelper.class.getSimpleName();
 	
-	private ProgramGroupDaoHelper mProgramGroupDaoHelper;
-	
 	public RecordedDaoHelper( Context context ) {
 		super( context );
-		
-		mProgramGroupDaoHelper = new ProgramGroupDaoHelper( context );
 	}
 
 	/* (non-Javadoc)
@@ -56,7 +54,7 @@ public class RecordedDaoHelper extends ProgramDaoHelper {
 		String selection = appendLocationHostname( "", ProgramConstants.TABLE_NAME_RECORDED );
 		Log.d( TAG, "findAll : selection=" + selection );
 		
-		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_RECORDED, null, selection, null, null );
+		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_RECORDED, null, selection, appendLocationHostnameArgs( null ), null );
 		
 		Log.d( TAG, "findAll : exit" );
 		return programs;
@@ -74,6 +72,7 @@ public class RecordedDaoHelper extends ProgramDaoHelper {
 		Log.d( TAG, "findAllByTitle : title=" + title );
 		
 		selection = appendLocationHostname( selection, ProgramConstants.TABLE_NAME_RECORDED );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_RECORDED, null, selection, selectionArgs, null );
 		if( null != programs && !programs.isEmpty() ) {
@@ -86,6 +85,36 @@ public class RecordedDaoHelper extends ProgramDaoHelper {
 		return programs;
 	}
 
+	/**
+	 * Reads only the title and inetref of the recordings, one query for the whole library.
+	 * 
+	 * @return the inetref of each recorded title, titles without an inetref are left out
+	 */
+	public Map<String, String> findAllInetrefs() {
+		Log.d( TAG, "findAllInetrefs : enter" );
+		
+		Map<String, String> inetrefs = new LinkedHashMap<String, String>();
+		
+		String[] projection = new String[] { ProgramConstants.TABLE_NAME_RECORDED + "." + ProgramConstants.FIELD_TITLE, ProgramConstants.TABLE_NAME_RECORDED + "." + ProgramConstants.FIELD_INETREF };
+		String selection = ProgramConstants.TABLE_NAME_RECORDED + "." + ProgramConstants.FIELD_INETREF + " IS NOT NULL AND " + ProgramConstants.TABLE_NAME_RECORDED + "." + ProgramConstants.FIELD_INETREF + " != ''";
+		
+		selection = appendLocationHostname( selection, ProgramConstants.TABLE_NAME_RECORDED );
+		
+		Cursor cursor = mContext.getContentResolver().query( ProgramConstants.CONTENT_URI_RECORDED, projection, selection, appendLocationHostnameArgs( null ), null );
+		while( cursor.moveToNext() ) {
+			String title = cursor.getString( 0 );
+			
+			if( null != title && !inetrefs.containsKey( title ) ) {
+				inetrefs.put( title, cursor.getString( 1 ) );
+			}
+		}
+		cursor.close();
+		Log.d( TAG, "findAllInetrefs : titles=" + inetrefs.size() );
+		
+		Log.d( TAG, "findAllInetrefs : exit" );
+		return inetrefs;
+	}
+
 	/**
 	 * @param id
 	 * @return
@@ -114,6 +143,7 @@ public class RecordedDaoHelper extends ProgramDaoHelper {
 		String[] selectionArgs = new String[] { String.valueOf( channelId ), String.valueOf( startTime.getMillis() ) };
 
 		selection = appendLocationHostname( selection, ProgramConstants.TABLE_NAME_RECORDED );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		Program program = findOne( ProgramConstants.CONTENT_URI_RECORDED, null, selection, selectionArgs, null );
 		if( null != program ) {
@@ -172,13 +202,43 @@ public class RecordedDaoHelper extends ProgramDaoHelper {
 	public int load( List<Program> programs ) throws RemoteException, OperationApplicationException {
 		Log.d( TAG, "load : enter" );
 
+		// the program groups are refreshed by the provider in the same transaction
 		int loaded = load( ProgramConstants.CONTENT_URI_RECORDED, programs, ProgramConstants.TABLE_NAME_RECORDED );
-		Log.d( TAG, "load : loaded=" + loaded );
-		
-		mProgramGroupDaoHelper.load( programs );
+		Log.d( TAG, "load : changed=" + loaded );
 		
 		Log.d( TAG, "load : exit" );
 		return loaded;
 	}
 
+	/**
+	 * Writes a batch of recordings as the response is parsed, see {@link #finishSync()}.
+	 * 
+	 * @param programs
+	 * @return
+	 */
+	public int loadBatch( List<Program> programs ) {
+		Log.d( TAG, "loadBatch : enter" );
+
+		int loaded = loadBatch( ProgramConstants.CONTENT_URI_RECORDED, programs, ProgramConstants.TABLE_NAME_RECORDED );
+		Log.d( TAG, "loadBatch : loaded=" + loaded );
+		
+		Log.d( TAG, "loadBatch : exit" );
+		return loaded;
+	}
+
+	/**
+	 * Removes the recordings that were not part of any batch.
+	 * 
+	 * @return
+	 */
+	public int finishSync() {
+		Log.d( TAG, "finishSync : enter" );
+
+		int deleted = finishSync( ProgramConstants.CONTENT_URI_RECORDED, ProgramConstants.TABLE_NAME_RECORDED );
+		Log.d( TAG, "finishSync : deleted=" + deleted );
+		
+		Log.d( TAG, "finishSync : exit" );
+		return deleted;
+	}
+
 }
@@ -32,6 +32,7 @@ public class RecordingConstants  extends AbstractBaseConstants {
 	public static final String TABLE_NAME = "recording";
 	
 	public static final Uri CONTENT_URI = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME );
+	public static final Uri CONTENT_URI_UPSERT = Uri.withAppendedPath( CONTENT_URI, UPSERT_PATH );
 
 	public static final String INSERT_ROW, UPDATE_ROW;
 
@@ -86,6 +87,14 @@ public class RecordingConstants  extends AbstractBaseConstants {
 		FIELD_STORAGE_GROUP, FIELD_REC_TYPE, FIELD_DUP_IN_TYPE, FIELD_DUP_METHOD, FIELD_ENCODER_ID, FIELD_PROFILE, FIELD_PROGRAM_ID, FIELD_START_TIME
 	};
 
+	/**
+	 * Column order bound by INSERT_ROW and UPDATE_ROW, the update statement takes the row _ID as its final argument
+	 */
+	public static final String[] ROW_COLUMNS = {
+		FIELD_STATUS, FIELD_PRIORITY, FIELD_START_TS, FIELD_END_TS, FIELD_RECORD_ID, FIELD_REC_GROUP, FIELD_PLAY_GROUP, 
+		FIELD_STORAGE_GROUP, FIELD_REC_TYPE, FIELD_DUP_IN_TYPE, FIELD_DUP_METHOD, FIELD_ENCODER_ID, FIELD_PROFILE, FIELD_PROGRAM_ID, FIELD_START_TIME, FIELD_HOSTNAME
+	};
+
 	static {
 		
 		StringBuilder insert = new StringBuilder();
@@ -111,7 +120,7 @@ public class RecordingConstants  extends AbstractBaseConstants {
 		values.append( "VALUES( ?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,? )" );
 		
 		StringBuilder insertRecording = new StringBuilder();
-		insertRecording.append( "INSERT INTO " ).append( TABLE_NAME ).append( " ( " );
+		insertRecording.append( "INSERT OR REPLACE INTO " ).append( TABLE_NAME ).append( " ( " );
 		insertRecording.append( insert.toString() );
 		insertRecording.append( values.toString() );
 		INSERT_ROW = insertRecording.toString();
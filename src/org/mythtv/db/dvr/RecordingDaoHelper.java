@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.joda.time.DateTime;
 import org.mythtv.db.AbstractDaoHelper;
+import org.mythtv.db.CursorColumnIndex;
 import org.mythtv.services.api.dvr.Recording;
 
 import android.content.ContentUris;
@@ -40,6 +41,37 @@ import android.util.Log;
 public class RecordingDaoHelper extends AbstractDaoHelper {
 
 	private static final String TAG = RecordingDaoHelper.class.getSimpleName();
+
+	private static final String[] RECORDING_COLUMNS = new String[] {
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_STATUS,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PRIORITY,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_START_TS,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_END_TS,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_RECORD_ID,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_REC_GROUP,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PLAY_GROUP,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_STORAGE_GROUP,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_REC_TYPE,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_DUP_IN_TYPE,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_DUP_METHOD,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_ENCODER_ID,
+		RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PROFILE
+	};
+	private static final int COLUMN_STATUS = 0;
+	private static final int COLUMN_PRIORITY = 1;
+	private static final int COLUMN_START_TS = 2;
+	private static final int COLUMN_END_TS = 3;
+	private static final int COLUMN_RECORD_ID = 4;
+	private static final int COLUMN_REC_GROUP = 5;
+	private static final int COLUMN_PLAY_GROUP = 6;
+	private static final int COLUMN_STORAGE_GROUP = 7;
+	private static final int COLUMN_REC_TYPE = 8;
+	private static final int COLUMN_DUP_IN_TYPE = 9;
+	private static final int COLUMN_DUP_METHOD = 10;
+	private static final int COLUMN_ENCODER_ID = 11;
+	private static final int COLUMN_PROFILE = 12;
+
+	private final CursorColumnIndex mRecordingColumnIndex = new CursorColumnIndex( RECORDING_COLUMNS );
 	
 	/**
 	 * @param context
@@ -206,66 +238,79 @@ public class RecordingDaoHelper extends AbstractDaoHelper {
 	 * @return
 	 */
 	public Recording convertCursorToRecording( Cursor cursor ) {
+		return convertCursorToRecording( cursor, null );
+	}
+
+	/**
+	 * Reads the current row by the column positions resolved for this cursor.
+	 * 
+	 * @param cursor
+	 * @param recycled filled in and returned instead of a new instance, when not null
+	 * @return
+	 */
+	public Recording convertCursorToRecording( Cursor cursor, Recording recycled ) {
 //		Log.v( TAG, "convertCursorToRecording : enter" );
 
+		int[] index = mRecordingColumnIndex.resolve( cursor );
+
 		int recordId = -1, status = -1, priority = -1, recordingType = -1, duplicateInType = -1, duplicateMethod = -1, encoderId = -1;
 		String recordingGroup = "", playGroup = "", storageGroup = "", profile = "";
 		DateTime startTimestamp = null, endTimestamp = null;
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_STATUS ) != -1 ) {
-			status = cursor.getInt( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_STATUS ) );
+		if( index[ COLUMN_STATUS ] != -1 ) {
+			status = cursor.getInt( index[ COLUMN_STATUS ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PRIORITY ) != -1 ) {
-			priority = cursor.getInt( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PRIORITY ) );
+		if( index[ COLUMN_PRIORITY ] != -1 ) {
+			priority = cursor.getInt( index[ COLUMN_PRIORITY ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_START_TS ) != -1 ) {
-			startTimestamp = new DateTime( cursor.getLong( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_START_TS ) ) );
+		if( index[ COLUMN_START_TS ] != -1 ) {
+			startTimestamp = new DateTime( cursor.getLong( index[ COLUMN_START_TS ] ) );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_END_TS ) != -1 ) {
-			endTimestamp = new DateTime( cursor.getLong( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_END_TS ) ) );
+		if( index[ COLUMN_END_TS ] != -1 ) {
+			endTimestamp = new DateTime( cursor.getLong( index[ COLUMN_END_TS ] ) );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_RECORD_ID ) != -1 ) {
-			recordId = cursor.getInt( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_RECORD_ID ) );
+		if( index[ COLUMN_RECORD_ID ] != -1 ) {
+			recordId = cursor.getInt( index[ COLUMN_RECORD_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_REC_GROUP ) != -1 ) {
-			recordingGroup = cursor.getString( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_REC_GROUP ) );
+		if( index[ COLUMN_REC_GROUP ] != -1 ) {
+			recordingGroup = cursor.getString( index[ COLUMN_REC_GROUP ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PLAY_GROUP ) != -1 ) {
-			playGroup = cursor.getString( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PLAY_GROUP ) );
+		if( index[ COLUMN_PLAY_GROUP ] != -1 ) {
+			playGroup = cursor.getString( index[ COLUMN_PLAY_GROUP ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_STORAGE_GROUP ) != -1 ) {
-			storageGroup = cursor.getString( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_STORAGE_GROUP ) );
+		if( index[ COLUMN_STORAGE_GROUP ] != -1 ) {
+			storageGroup = cursor.getString( index[ COLUMN_STORAGE_GROUP ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_REC_TYPE ) != -1 ) {
-			recordingType = cursor.getInt( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_REC_TYPE ) );
+		if( index[ COLUMN_REC_TYPE ] != -1 ) {
+			recordingType = cursor.getInt( index[ COLUMN_REC_TYPE ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_DUP_IN_TYPE ) != -1 ) {
-			duplicateInType = cursor.getInt( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_DUP_IN_TYPE ) );
+		if( index[ COLUMN_DUP_IN_TYPE ] != -1 ) {
+			duplicateInType = cursor.getInt( index[ COLUMN_DUP_IN_TYPE ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_DUP_METHOD ) != -1 ) {
-			duplicateMethod = cursor.getInt( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_DUP_METHOD ) );
+		if( index[ COLUMN_DUP_METHOD ] != -1 ) {
+			duplicateMethod = cursor.getInt( index[ COLUMN_DUP_METHOD ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_ENCODER_ID ) != -1 ) {
-			encoderId = cursor.getInt( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_ENCODER_ID ) );
+		if( index[ COLUMN_ENCODER_ID ] != -1 ) {
+			encoderId = cursor.getInt( index[ COLUMN_ENCODER_ID ] );
 		}
 		
-		if( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PROFILE ) != -1 ) {
-			profile = cursor.getString( cursor.getColumnIndex( RecordingConstants.TABLE_NAME + "_" + RecordingConstants.FIELD_PROFILE ) );
+		if( index[ COLUMN_PROFILE ] != -1 ) {
+			profile = cursor.getString( index[ COLUMN_PROFILE ] );
 		}
 		
 
-		Recording recording = new Recording();
+		Recording recording = null != recycled ? recycled : new Recording();
 		recording.setStatus( status );
 		recording.setPriority( priority );
 		recording.setStartTimestamp( startTimestamp );
@@ -289,6 +334,20 @@ public class RecordingDaoHelper extends AbstractDaoHelper {
 	 * @return
 	 */
 	public ContentValues convertRecordingToContentValues( final Recording recording, final DateTime startTime ) {
+		return convertRecordingToContentValues( recording, startTime, new ContentValues(), "" );
+	}
+
+	/**
+	 * Adds the recording columns to an existing set of values with each key prefixed, so the recording
+	 * can travel in the same row as its program.
+	 * 
+	 * @param recording
+	 * @param startTime
+	 * @param values
+	 * @param prefix
+	 * @return
+	 */
+	public ContentValues convertRecordingToContentValues( final Recording recording, final DateTime startTime, final ContentValues values, final String prefix ) {
 //		Log.v( TAG, "convertRecordingToContentValues : enter" );
 		
 		DateTime startTimestamp = null;
@@ -302,22 +361,21 @@ public class RecordingDaoHelper extends AbstractDaoHelper {
 			endTimestamp = new DateTime( recording.getEndTimestamp().getMillis() );
 		}
 		
-		ContentValues values = new ContentValues();
-		values.put( RecordingConstants.FIELD_STATUS, recording.getStatus() );
-		values.put( RecordingConstants.FIELD_PRIORITY, recording.getPriority() );
-		values.put( RecordingConstants.FIELD_START_TS, null != startTimestamp ? startTimestamp.getMillis() : -1 );
-		values.put( RecordingConstants.FIELD_END_TS, null != endTimestamp ? endTimestamp.getMillis() : -1 );
-		values.put( RecordingConstants.FIELD_RECORD_ID, recording.getRecordId() );
-		values.put( RecordingConstants.FIELD_REC_GROUP, null != recording.getRecordingGroup() ? recording.getRecordingGroup() : "" );
-		values.put( RecordingConstants.FIELD_PLAY_GROUP, null != recording.getPlayGroup() ? recording.getPlayGroup() : "" );
-		values.put( RecordingConstants.FIELD_STORAGE_GROUP, null != recording.getStorageGroup() ? recording.getStorageGroup() : "" );
-		values.put( RecordingConstants.FIELD_REC_TYPE, recording.getRecordingType() );
-		values.put( RecordingConstants.FIELD_DUP_IN_TYPE, recording.getDuplicateInType() );
-		values.put( RecordingConstants.FIELD_DUP_METHOD, recording.getDuplicateMethod() );
-		values.put( RecordingConstants.FIELD_ENCODER_ID, recording.getEncoderId() );
-		values.put( RecordingConstants.FIELD_PROFILE, null != recording.getProfile() ? recording.getProfile() : "" );
-		values.put( RecordingConstants.FIELD_START_TIME, startTime.getMillis() );
-		values.put( RecordingConstants.FIELD_HOSTNAME, mLocationProfile.getHostname() );
+		values.put( prefix + RecordingConstants.FIELD_STATUS, recording.getStatus() );
+		values.put( prefix + RecordingConstants.FIELD_PRIORITY, recording.getPriority() );
+		values.put( prefix + RecordingConstants.FIELD_START_TS, null != startTimestamp ? startTimestamp.getMillis() : -1 );
+		values.put( prefix + RecordingConstants.FIELD_END_TS, null != endTimestamp ? endTimestamp.getMillis() : -1 );
+		values.put( prefix + RecordingConstants.FIELD_RECORD_ID, recording.getRecordId() );
+		values.put( prefix + RecordingConstants.FIELD_REC_GROUP, null != recording.getRecordingGroup() ? recording.getRecordingGroup() : "" );
+		values.put( prefix + RecordingConstants.FIELD_PLAY_GROUP, null != recording.getPlayGroup() ? recording.getPlayGroup() : "" );
+		values.put( prefix + RecordingConstants.FIELD_STORAGE_GROUP, null != recording.getStorageGroup() ? recording.getStorageGroup() : "" );
+		values.put( prefix + RecordingConstants.FIELD_REC_TYPE, recording.getRecordingType() );
+		values.put( prefix + RecordingConstants.FIELD_DUP_IN_TYPE, recording.getDuplicateInType() );
+		values.put( prefix + RecordingConstants.FIELD_DUP_METHOD, recording.getDuplicateMethod() );
+		values.put( prefix + RecordingConstants.FIELD_ENCODER_ID, recording.getEncoderId() );
+		values.put( prefix + RecordingConstants.FIELD_PROFILE, null != recording.getProfile() ? recording.getProfile() : "" );
+		values.put( prefix + RecordingConstants.FIELD_START_TIME, startTime.getMillis() );
+		values.put( prefix + RecordingConstants.FIELD_HOSTNAME, mLocationProfile.getHostname() );
 		
 //		Log.v( TAG, "convertRecordingToContentValues : exit" );
 		return values;
@@ -50,7 +50,7 @@ public class UpcomingDaoHelper extends ProgramDaoHelper {
 		
 		String selection = appendLocationHostname( "", ProgramConstants.TABLE_NAME_UPCOMING );
 
-		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_UPCOMING, null, selection, null, null );
+		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_UPCOMING, null, selection, appendLocationHostnameArgs( null ), null );
 		
 		Log.d( TAG, "findAll : exit" );
 		return programs;
@@ -67,6 +67,7 @@ public class UpcomingDaoHelper extends ProgramDaoHelper {
 		String[] selectionArgs = new String[] { title };
 
 		selection = appendLocationHostname( selection, ProgramConstants.TABLE_NAME_UPCOMING );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		List<Program> programs = findAll( ProgramConstants.CONTENT_URI_UPCOMING, null, selection, selectionArgs, null );
 		if( null != programs && !programs.isEmpty() ) {
@@ -107,6 +108,7 @@ public class UpcomingDaoHelper extends ProgramDaoHelper {
 		String[] selectionArgs = new String[] { String.valueOf( channelId ), String.valueOf( startTime.getMillis() ) };
 
 		selection = appendLocationHostname( selection, ProgramConstants.TABLE_NAME_UPCOMING );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		Program program = findOne( ProgramConstants.CONTENT_URI_UPCOMING, null, selection, selectionArgs, null );
 		if( null != program ) {
@@ -172,4 +174,35 @@ public class UpcomingDaoHelper extends ProgramDaoHelper {
 		return loaded;
 	}
 
+	/**
+	 * Writes a batch of upcoming programs as the response is parsed, see {@link #finishSync()}.
+	 * 
+	 * @param programs
+	 * @return
+	 */
+	public int loadBatch( List<Program> programs ) {
+		Log.d( TAG, "loadBatch : enter" );
+
+		int loaded = loadBatch( ProgramConstants.CONTENT_URI_UPCOMING, programs, ProgramConstants.TABLE_NAME_UPCOMING );
+		Log.d( TAG, "loadBatch : loaded=" + loaded );
+		
+		Log.d( TAG, "loadBatch : exit" );
+		return loaded;
+	}
+
+	/**
+	 * Removes the upcoming programs that were not part of any batch.
+	 * 
+	 * @return
+	 */
+	public int finishSync() {
+		Log.d( TAG, "finishSync : enter" );
+
+		int deleted = finishSync( ProgramConstants.CONTENT_URI_UPCOMING, ProgramConstants.TABLE_NAME_UPCOMING );
+		Log.d( TAG, "finishSync : deleted=" + deleted );
+		
+		Log.d( TAG, "finishSync : exit" );
+		return deleted;
+	}
+
 }
@@ -29,6 +29,8 @@ public class ProgramGroup {
 	private String title;
 	private String category;
 	private String inetref;
+	private int episodeCount;
+	private long lastRecorded;
 	
 	public ProgramGroup() { }
 
@@ -110,6 +112,34 @@ public class ProgramGroup {
 		this.inetref = inetref;
 	}
 
+	/**
+	 * @return the number of recordings in the group
+	 */
+	public int getEpisodeCount() {
+		return episodeCount;
+	}
+
+	/**
+	 * @param episodeCount the episodeCount to set
+	 */
+	public void setEpisodeCount( int episodeCount ) {
+		this.episodeCount = episodeCount;
+	}
+
+	/**
+	 * @return the start time of the group's most recent recording, in millis
+	 */
+	public long getLastRecorded() {
+		return lastRecorded;
+	}
+
+	/**
+	 * @param lastRecorded the lastRecorded to set
+	 */
+	public void setLastRecorded( long lastRecorded ) {
+		this.lastRecorded = lastRecorded;
+	}
+
 	/* (non-Javadoc)
 	 * @see java.lang.Object#toString()
 	 */
@@ -140,7 +170,13 @@ public class ProgramGroup {
 		if( inetref != null ) {
 			builder.append( "inetref=" );
 			builder.append( inetref );
+			builder.append( ", " );
 		}
+		builder.append( "episodeCount=" );
+		builder.append( episodeCount );
+		builder.append( ", " );
+		builder.append( "lastRecorded=" );
+		builder.append( lastRecorded );
 		builder.append( "]" );
 		return builder.toString();
 	}
@@ -47,6 +47,14 @@ public class ProgramGroupConstants extends AbstractBaseConstants {
 	public static final String FIELD_INETREF = "INETREF";
 	public static final String FIELD_INETREF_DATA_TYPE = "TEXT";
 
+	public static final String FIELD_EPISODE_COUNT = "EPISODE_COUNT";
+	public static final String FIELD_EPISODE_COUNT_DATA_TYPE = "INTEGER";
+	public static final String FIELD_EPISODE_COUNT_DEFAULT = "0";
+	
+	// START_TIME of the group's most recent recording
+	public static final String FIELD_LAST_RECORDED = "LAST_RECORDED";
+	public static final String FIELD_LAST_RECORDED_DATA_TYPE = "INTEGER";
+
 	static {
 		StringBuilder insert = new StringBuilder();
 		insert.append( FIELD_PROGRAM_GROUP ).append( "," );
@@ -19,25 +19,17 @@
 package org.mythtv.db.dvr.programGroup;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 import org.mythtv.db.AbstractDaoHelper;
-import org.mythtv.provider.MythtvProvider;
-import org.mythtv.services.api.dvr.Program;
+import org.mythtv.db.CursorColumnIndex;
 import org.mythtv.services.utils.ArticleCleaner;
 
-import android.content.ContentProviderOperation;
-import android.content.ContentProviderResult;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.Context;
-import android.content.OperationApplicationException;
 import android.database.Cursor;
 import android.net.Uri;
-import android.os.RemoteException;
 import android.util.Log;
 
 /**
@@ -47,6 +39,27 @@ import android.util.Log;
 public class ProgramGroupDaoHelper extends AbstractDaoHelper {
 
 	private static final String TAG = ProgramGroupDaoHelper.class.getSimpleName();
+
+	private static final String[] PROGRAM_GROUP_COLUMNS = new String[] {
+		ProgramGroupConstants._ID,
+		ProgramGroupConstants.FIELD_PROGRAM_GROUP,
+		ProgramGroupConstants.FIELD_TITLE,
+		ProgramGroupConstants.FIELD_CATEGORY,
+		ProgramGroupConstants.FIELD_INETREF,
+		ProgramGroupConstants.FIELD_HOSTNAME,
+		ProgramGroupConstants.FIELD_EPISODE_COUNT,
+		ProgramGroupConstants.FIELD_LAST_RECORDED
+	};
+	private static final int COLUMN_ID = 0;
+	private static final int COLUMN_PROGRAM_GROUP = 1;
+	private static final int COLUMN_TITLE = 2;
+	private static final int COLUMN_CATEGORY = 3;
+	private static final int COLUMN_INETREF = 4;
+	private static final int COLUMN_HOSTNAME = 5;
+	private static final int COLUMN_EPISODE_COUNT = 6;
+	private static final int COLUMN_LAST_RECORDED = 7;
+
+	private final CursorColumnIndex mProgramGroupColumnIndex = new CursorColumnIndex( PROGRAM_GROUP_COLUMNS );
 	
 	public ProgramGroupDaoHelper( Context context ) {
 		super( context );
@@ -62,6 +75,7 @@ public class ProgramGroupDaoHelper extends AbstractDaoHelper {
 		String[] selectionArgs = null;
 
 		selection = appendLocationHostname( selection, null );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		List<ProgramGroup> programGroups = new ArrayList<ProgramGroup>();
 		
@@ -102,6 +116,7 @@ public class ProgramGroupDaoHelper extends AbstractDaoHelper {
 		String[] selectionArgs = new String[] { title };
 
 		selection = appendLocationHostname( selection, null );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		
 		ProgramGroup programGroup = null;
 		
@@ -129,6 +144,7 @@ public class ProgramGroupDaoHelper extends AbstractDaoHelper {
 		String[] selectionArgs = new String[] { programGroup.getProgramGroup() };
 		
 		selection = appendLocationHostname( selection, null );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 
 		int updated = -1;
 		Cursor cursor = mContext.getContentResolver().query( ProgramGroupConstants.CONTENT_URI, projection, selection, selectionArgs, null );
@@ -161,7 +177,7 @@ public class ProgramGroupDaoHelper extends AbstractDaoHelper {
 		
 		selection = appendLocationHostname( selection, null );
 		
-		int deleted = mContext.getContentResolver().delete( ProgramGroupConstants.CONTENT_URI, selection, null );
+		int deleted = mContext.getContentResolver().delete( ProgramGroupConstants.CONTENT_URI, selection, appendLocationHostnameArgs( null ) );
 		Log.v( TAG, "deleteAll : deleted=" + deleted );
 		
 		Log.v( TAG, "deleteAll : exit" );
@@ -182,189 +198,71 @@ public class ProgramGroupDaoHelper extends AbstractDaoHelper {
 		return deleted;
 	}
 
-	public int load( List<Program> programs ) throws RemoteException, OperationApplicationException {
-		Log.v( TAG, "load : enter" );
-		
-		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
-		
-		Log.v( TAG, "load : find all existing recordings" );
-		Map<String, ProgramGroup> existing = new HashMap<String, ProgramGroup>();
-		for( ProgramGroup programGroup : findAll() ) {
-			existing.put( programGroup.getProgramGroup(), programGroup );
-		}
-
-		Map<String, ProgramGroup> programGroups = new TreeMap<String, ProgramGroup>();
-		for( Program program : programs ) {
-			
-			if( null != program.getRecording() ) {
-				
-				if( null != program.getRecording().getRecordingGroup() && !"livetv".equalsIgnoreCase( program.getRecording().getRecordingGroup() ) ) {
-					
-					String cleaned = ArticleCleaner.clean( program.getTitle() );
-					if( !programGroups.containsKey( cleaned ) ) {
-						
-						ProgramGroup programGroup = new ProgramGroup();
-						programGroup.setTitle( program.getTitle() );
-						programGroup.setCategory( program.getCategory() );
-						programGroup.setInetref( program.getInetref() );
-						
-						programGroups.put( cleaned, programGroup );
-						existing.remove( cleaned );
-					}
-
-				}
-				
-			}
-			
-		}
-		
-		int loaded = -1;
-		int count = 0;
-
-		ArrayList<ContentProviderOperation> ops = new ArrayList<ContentProviderOperation>();
-		
-		String[] programGroupProjection = new String[] { ProgramGroupConstants._ID };
-		String programGroupSelection = ProgramGroupConstants.FIELD_PROGRAM_GROUP + " = ?";
-
-		programGroupSelection = appendLocationHostname( programGroupSelection, null );
-
-		for( String key : programGroups.keySet() ) {
-			ProgramGroup programGroup = programGroups.get( key );
-			
-			ContentValues programValues = convertProgramGroupToContentValues( programGroup );
-			Cursor programGroupCursor = mContext.getContentResolver().query( ProgramGroupConstants.CONTENT_URI, programGroupProjection, programGroupSelection, new String[] { key }, null );
-			if( programGroupCursor.moveToFirst() ) {
-
-				Long id = programGroupCursor.getLong( programGroupCursor.getColumnIndexOrThrow( ProgramGroupConstants._ID ) );
-				ops.add( 
-						ContentProviderOperation.newUpdate( ContentUris.withAppendedId( ProgramGroupConstants.CONTENT_URI, id ) )
-							.withValues( programValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-				
-			} else {
-
-				ops.add(  
-						ContentProviderOperation.newInsert( ProgramGroupConstants.CONTENT_URI )
-							.withValues( programValues )
-							.withYieldAllowed( true )
-							.build()
-					);
-			}
-			programGroupCursor.close();
-			count++;
-
-			if( count > 100 ) {
-				Log.v( TAG, "process : applying batch for '" + count + "' transactions" );
-				
-				if( !ops.isEmpty() ) {
-					
-					ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-					loaded += results.length;
-					
-					if( results.length > 0 ) {
-						ops.clear();
-					}
-				}
-
-				count = -1;
-			}
-
-		}
-
-		Log.v( TAG, "process : applying final batch for '" + count + "' transactions" );
-		
-		if( !ops.isEmpty() ) {
-
-			ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-			loaded += results.length;
-
-			if( results.length > 0 ) {
-				ops.clear();
-			}
-		}
-
-		Log.v( TAG, "load : remove deleted program groups" );
-		for( String key : existing.keySet() ) {
-
-			ops.add(  
-				ContentProviderOperation.newDelete( ProgramGroupConstants.CONTENT_URI )
-				.withSelection( programGroupSelection, new String[] { key } )
-				.withYieldAllowed( true )
-				.build()
-			);
-			
-			if( count > 100 ) {
-				Log.v( TAG, "process : applying batch for '" + count + "' transactions" );
-				
-				if( !ops.isEmpty() ) {
-					
-					ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-					loaded += results.length;
-					
-					if( results.length > 0 ) {
-						ops.clear();
-					}
-
-				}
-
-				count = -1;
-			}
-
-		}
-
-		if( !ops.isEmpty() ) {
-			Log.v( TAG, "process : applying final batch for '" + count + "' transactions" );
-			
-			ContentProviderResult[] results = mContext.getContentResolver().applyBatch( MythtvProvider.AUTHORITY, ops );
-			loaded += results.length;
-		}
-
-		Log.v( TAG, "load : exit" );
-		return loaded;
+	/**
+	 * @param cursor
+	 * @return
+	 */
+	public ProgramGroup convertCursorToProgramGroup( Cursor cursor ) {
+		return convertCursorToProgramGroup( cursor, null );
 	}
 
 	/**
+	 * Reads the current row by the column positions resolved for this cursor.
+	 * 
 	 * @param cursor
+	 * @param recycled filled in and returned instead of a new instance, when not null
 	 * @return
 	 */
-	public ProgramGroup convertCursorToProgramGroup( Cursor cursor ) {
+	public ProgramGroup convertCursorToProgramGroup( Cursor cursor, ProgramGroup recycled ) {
 		Log.v( TAG, "convertCursorToProgramGroup : enter" );
 
+		int[] index = mProgramGroupColumnIndex.resolve( cursor );
+
 		Long id = null;
 		String programGroup = "", title = "", category = "", inetref = "";
+		int episodeCount = 0;
+		long lastRecorded = 0;
 		
-		if( cursor.getColumnIndex( ProgramGroupConstants._ID ) != -1 ) {
-			id = cursor.getLong( cursor.getColumnIndex( ProgramGroupConstants._ID ) );
+		if( index[ COLUMN_ID ] != -1 ) {
+			id = cursor.getLong( index[ COLUMN_ID ] );
 		}
 
-		if( cursor.getColumnIndex( ProgramGroupConstants.FIELD_PROGRAM_GROUP ) != -1 ) {
-			programGroup = cursor.getString( cursor.getColumnIndex( ProgramGroupConstants.FIELD_PROGRAM_GROUP ) );
+		if( index[ COLUMN_PROGRAM_GROUP ] != -1 ) {
+			programGroup = cursor.getString( index[ COLUMN_PROGRAM_GROUP ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramGroupConstants.FIELD_TITLE ) != -1 ) {
-			title = cursor.getString( cursor.getColumnIndex( ProgramGroupConstants.FIELD_TITLE ) );
+		if( index[ COLUMN_TITLE ] != -1 ) {
+			title = cursor.getString( index[ COLUMN_TITLE ] );
 		}
 		
-		if( cursor.getColumnIndex( ProgramGroupConstants.FIELD_CATEGORY ) != -1 ) {
-			category = cursor.getString( cursor.getColumnIndex( ProgramGroupConstants.FIELD_CATEGORY ) );
+		if( index[ COLUMN_CATEGORY ] != -1 ) {
+			category = cursor.getString( index[ COLUMN_CATEGORY ] );
+		}
+
+		if( index[ COLUMN_INETREF ] != -1 ) {
+			inetref = cursor.getString( index[ COLUMN_INETREF ] );
+		}
+
+		if( index[ COLUMN_HOSTNAME ] != -1 ) {
+			Log.v( TAG, "convertCursorToProgramGroup : hostname=" + cursor.getString( index[ COLUMN_HOSTNAME ] ) );
 		}
 
-		if( cursor.getColumnIndex( ProgramGroupConstants.FIELD_INETREF ) != -1 ) {
-			inetref = cursor.getString( cursor.getColumnIndex( ProgramGroupConstants.FIELD_INETREF ) );
+		if( index[ COLUMN_EPISODE_COUNT ] != -1 ) {
+			episodeCount = cursor.getInt( index[ COLUMN_EPISODE_COUNT ] );
 		}
 
-		if( cursor.getColumnIndex( ProgramGroupConstants.FIELD_HOSTNAME ) != -1 ) {
-			Log.v( TAG, "convertCursorToProgramGroup : hostname=" + cursor.getString( cursor.getColumnIndex( ProgramGroupConstants.FIELD_HOSTNAME ) ) );
+		if( index[ COLUMN_LAST_RECORDED ] != -1 ) {
+			lastRecorded = cursor.getLong( index[ COLUMN_LAST_RECORDED ] );
 		}
 
-		ProgramGroup group = new ProgramGroup();
+		ProgramGroup group = null != recycled ? recycled : new ProgramGroup();
 		group.setId( id );
 		group.setProgramGroup( programGroup );
 		group.setTitle( title );
 		group.setCategory( category );
 		group.setInetref( inetref );
+		group.setEpisodeCount( episodeCount );
+		group.setLastRecorded( lastRecorded );
 		
 		Log.v( TAG, "convertCursorToProgramGroup : exit" );
 		return group;
@@ -0,0 +1,52 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db.frontends;
+
+import org.mythtv.db.AbstractBaseConstants;
+import org.mythtv.provider.MythtvProvider;
+
+import android.net.Uri;
+
+/**
+ * @author Daniel Frey
+ *
+ */
+public class FrontendConstants extends AbstractBaseConstants {
+
+	public static final String TABLE_NAME = "frontends";
+
+	public static final Uri CONTENT_URI = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME );
+	public static final Uri CONTENT_URI_UPSERT = Uri.withAppendedPath( CONTENT_URI, UPSERT_PATH );
+
+	/**
+	 * Frontends not seen for this long are forgotten
+	 */
+	public static final long TTL = 1000 * 60 * 60 * 24 * 14L;
+	
+	// db fields
+	public static final String FIELD_NAME = "NAME";
+	public static final String FIELD_NAME_DATA_TYPE = "TEXT NOT NULL";
+
+	public static final String FIELD_URL = "URL";
+	public static final String FIELD_URL_DATA_TYPE = "TEXT NOT NULL";
+
+	public static final String FIELD_LAST_SEEN = "LAST_SEEN";
+	public static final String FIELD_LAST_SEEN_DATA_TYPE = "INTEGER";
+	
+}
@@ -0,0 +1,124 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db.frontends;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mythtv.client.ui.frontends.Frontend;
+import org.mythtv.db.AbstractDaoHelper;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+/**
+ * @author Daniel Frey
+ *
+ */
+public class FrontendDaoHelper extends AbstractDaoHelper {
+
+	private static final String TAG = FrontendDaoHelper.class.getSimpleName();
+	
+	/**
+	 * @param context
+	 */
+	public FrontendDaoHelper( Context context ) {
+		super( context );
+	}
+
+	/**
+	 * @return the frontends seen within their time to live, most recently seen first
+	 */
+	public List<Frontend> findAll() {
+		Log.d( TAG, "findAll : enter" );
+		
+		List<Frontend> frontends = new ArrayList<Frontend>();
+		
+		String selection = FrontendConstants.FIELD_LAST_SEEN + " > ?";
+		String[] selectionArgs = new String[] { String.valueOf( System.currentTimeMillis() - FrontendConstants.TTL ) };
+		
+		Cursor cursor = mContext.getContentResolver().query( FrontendConstants.CONTENT_URI, null, selection, selectionArgs, FrontendConstants.FIELD_LAST_SEEN + " DESC" );
+		while( cursor.moveToNext() ) {
+			Frontend frontend = convertCursorToFrontend( cursor );
+			frontends.add( frontend );
+		}
+		cursor.close();
+
+		Log.d( TAG, "findAll : exit" );
+		return frontends;
+	}
+	
+	/**
+	 * Records the frontend as seen now.
+	 * 
+	 * @param frontend
+	 * @return
+	 */
+	public int save( final Frontend frontend ) {
+		Log.d( TAG, "save : enter" );
+
+		ContentValues values = new ContentValues();
+		values.put( FrontendConstants.FIELD_NAME, frontend.getName() );
+		values.put( FrontendConstants.FIELD_URL, frontend.getUrl() );
+		values.put( FrontendConstants.FIELD_LAST_SEEN, System.currentTimeMillis() );
+
+		int updated = -1;
+		if( null != mContext.getContentResolver().insert( FrontendConstants.CONTENT_URI_UPSERT, values ) ) {
+			updated = 1;
+		}
+		Log.v( TAG, "save : updated=" + updated );
+
+		Log.d( TAG, "save : exit" );
+		return updated;
+	}
+
+	/**
+	 * Forgets the frontends that have not been seen within their time to live.
+	 * 
+	 * @return
+	 */
+	public int deleteExpired() {
+		Log.d( TAG, "deleteExpired : enter" );
+		
+		String selection = FrontendConstants.FIELD_LAST_SEEN + " <= ?";
+		String[] selectionArgs = new String[] { String.valueOf( System.currentTimeMillis() - FrontendConstants.TTL ) };
+		
+		int deleted = mContext.getContentResolver().delete( FrontendConstants.CONTENT_URI, selection, selectionArgs );
+		Log.v( TAG, "deleteExpired : deleted=" + deleted );
+		
+		Log.d( TAG, "deleteExpired : exit" );
+		return deleted;
+	}
+
+	/**
+	 * @param cursor
+	 * @return
+	 */
+	public Frontend convertCursorToFrontend( Cursor cursor ) {
+		
+		Frontend frontend = new Frontend();
+		frontend.setName( cursor.getString( cursor.getColumnIndexOrThrow( FrontendConstants.FIELD_NAME ) ) );
+		frontend.setUrl( cursor.getString( cursor.getColumnIndexOrThrow( FrontendConstants.FIELD_URL ) ) );
+		
+		return frontend;
+	}
+
+}
@@ -32,6 +32,7 @@ public class EtagConstants extends AbstractBaseConstants {
 	public static final String TABLE_NAME = "etag";
 
 	public static final Uri CONTENT_URI = Uri.parse( "content://" + MythtvProvider.AUTHORITY + "/" + TABLE_NAME );
+	public static final Uri CONTENT_URI_UPSERT = Uri.withAppendedPath( CONTENT_URI, UPSERT_PATH );
 
 	public static final String INSERT_ETAG_ROW, UPDATE_ETAG_ROW;
 	
@@ -52,6 +53,7 @@ public class EtagConstants extends AbstractBaseConstants {
 
 	static {
 		StringBuilder insert = new StringBuilder();
+		insert.append( FIELD_ENDPOINT ).append( "," );
 		insert.append( FIELD_VALUE ).append( "," );
 		insert.append( FIELD_DATA_ID ).append( "," );
 		insert.append( FIELD_DATE ).append( "," );
@@ -59,10 +61,10 @@ public class EtagConstants extends AbstractBaseConstants {
 		
 		StringBuilder values = new StringBuilder();
 		values.append( " ) " );
-		values.append( "VALUES( ?,?,?,? )" );
+		values.append( "VALUES( ?,?,?,?,? )" );
 		
 		StringBuilder insertEtag = new StringBuilder();
-		insertEtag.append( "INSERT INTO " ).append( TABLE_NAME ).append( " ( " );
+		insertEtag.append( "INSERT OR REPLACE INTO " ).append( TABLE_NAME ).append( " ( " );
 		insertEtag.append( insert.toString() );
 		insertEtag.append( values.toString() );
 		INSERT_ETAG_ROW = insertEtag.toString();
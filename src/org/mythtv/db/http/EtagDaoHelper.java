@@ -62,6 +62,7 @@ public class EtagDaoHelper extends AbstractDaoHelper {
 		List<ETagInfo> etagInfos = new ArrayList<ETagInfo>();
 		
 		selection = appendLocationHostname( selection, EtagConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 
 		Cursor cursor = mContext.getContentResolver().query( EtagConstants.CONTENT_URI, projection, selection, selectionArgs, sortOrder );
 		while( cursor.moveToNext() ) {
@@ -105,6 +106,7 @@ public class EtagDaoHelper extends AbstractDaoHelper {
 		}
 		
 		selection = appendLocationHostname( selection, EtagConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 		Log.i( TAG, "findOne : selection=" + selection );
 		
 		Cursor cursor = mContext.getContentResolver().query( uri, projection, selection, selectionArgs, sortOrder );
@@ -168,6 +170,7 @@ public class EtagDaoHelper extends AbstractDaoHelper {
 		}
 		
 		selection = appendLocationHostname( selection, EtagConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 
 		DateTime etag = null;
 		Cursor cursor = mContext.getContentResolver().query( EtagConstants.CONTENT_URI, new String[] { EtagConstants.FIELD_DATE }, selection, selectionArgs, null );
@@ -189,32 +192,11 @@ public class EtagDaoHelper extends AbstractDaoHelper {
 
 		ContentValues values = convertETagInfoToContentValues( etagInfo, endpoint, dataId );
 
-		String selection = EtagConstants.FIELD_ENDPOINT + " = ?";
-		if( null != dataId && !"".equals( dataId ) ) {
-			selection += " AND " + EtagConstants.FIELD_DATA_ID + " = ?";
-		}
-		
-		String[] selectionArgs = new String[] { endpoint };
-		if( null != dataId && !"".equals( dataId ) ) {
-			selectionArgs = new String[] { endpoint, dataId };
-		}
-		
-		selection = appendLocationHostname( selection, EtagConstants.TABLE_NAME );
-
 		int updated = -1;
-		Cursor cursor = mContext.getContentResolver().query( EtagConstants.CONTENT_URI, new String[] { EtagConstants._ID }, selection, selectionArgs, null );
-		if( cursor.moveToFirst() ) {
-			Log.v( TAG, "save : updating existing etag info" );
-			Long id = cursor.getLong( cursor.getColumnIndexOrThrow( EtagConstants._ID ) );
-
-			updated = mContext.getContentResolver().update( ContentUris.withAppendedId( EtagConstants.CONTENT_URI, id ), values, null, null );
-		} else {
-			Uri inserted = mContext.getContentResolver().insert( EtagConstants.CONTENT_URI, values );
-			if( null != inserted ) {
-				updated = 1;
-			}
+		Uri upserted = mContext.getContentResolver().insert( EtagConstants.CONTENT_URI_UPSERT, values );
+		if( null != upserted ) {
+			updated = 1;
 		}
-		cursor.close();
 		Log.v( TAG, "save : updated=" + updated );
 
 		Log.d( TAG, "save : exit" );
@@ -252,6 +234,7 @@ public class EtagDaoHelper extends AbstractDaoHelper {
 		}
 		
 		selection = appendLocationHostname( selection, EtagConstants.TABLE_NAME );
+		selectionArgs = appendLocationHostnameArgs( selectionArgs );
 
 		int deleted = mContext.getContentResolver().delete( EtagConstants.CONTENT_URI, selection, selectionArgs );
 		Log.v( TAG, "delete : deleted=" + deleted );
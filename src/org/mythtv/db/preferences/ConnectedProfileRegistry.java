@@ -0,0 +1,166 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db.preferences;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.mythtv.client.ui.preferences.LocationProfile;
+
+import android.content.Context;
+import android.database.ContentObserver;
+import android.util.Log;
+
+/**
+ * Holds the connected location profile in memory for the whole application.
+ * 
+ * Reads are served from a volatile snapshot without touching the database. The snapshot is
+ * dropped whenever the location profile table changes, either through {@link LocationProfileDaoHelper}
+ * or any other writer to the provider, and is reloaded by the next read.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ConnectedProfileRegistry {
+
+	private static final String TAG = ConnectedProfileRegistry.class.getSimpleName();
+	
+	private static ConnectedProfileRegistry sInstance;
+	
+	private final Context mContext;
+	private final LocationProfileDaoHelper mLocationProfileDaoHelper;
+	
+	private final CopyOnWriteArrayList<ConnectedProfileListener> listeners = new CopyOnWriteArrayList<ConnectedProfileListener>();
+	
+	private volatile Snapshot snapshot;
+	private int generation = 0;
+	
+	/**
+	 * Notified after the connected profile snapshot has been dropped.
+	 */
+	public interface ConnectedProfileListener {
+		
+		public void connectedProfileChanged();
+		
+	}
+	
+	public static synchronized ConnectedProfileRegistry getInstance( Context context ) {
+		
+		if( null == sInstance ) {
+			sInstance = new ConnectedProfileRegistry( context.getApplicationContext() );
+		}
+		
+		return sInstance;
+	}
+	
+	private ConnectedProfileRegistry( Context context ) {
+		this.mContext = context;
+		this.mLocationProfileDaoHelper = new LocationProfileDaoHelper( mContext );
+		
+		mContext.getContentResolver().registerContentObserver( LocationProfileConstants.CONTENT_URI, true, new ContentObserver( null ) {
+
+			/* (non-Javadoc)
+			 * @see android.database.ContentObserver#onChange(boolean)
+			 */
+			@Override
+			public void onChange( boolean selfChange ) {
+				invalidate();
+			}
+			
+		});
+		
+	}
+	
+	/**
+	 * @return the connected profile, or null when no profile is connected
+	 */
+	public LocationProfile getConnectedProfile() {
+		
+		Snapshot current = snapshot;
+		if( null != current ) {
+			return current.profile;
+		}
+		
+		int loading;
+		synchronized( this ) {
+			loading = generation;
+		}
+		
+		LocationProfile profile = mLocationProfileDaoHelper.queryConnectedProfile();
+		
+		synchronized( this ) {
+			
+			// a change that arrived while querying wins, the next read loads it
+			if( loading == generation ) {
+				snapshot = new Snapshot( profile );
+			}
+			
+		}
+		
+		return profile;
+	}
+
+	/**
+	 * @return the connected profile's hostname, or null when no profile is connected
+	 */
+	public String getConnectedHostname() {
+		
+		LocationProfile profile = getConnectedProfile();
+		
+		return null != profile ? profile.getHostname() : null;
+	}
+	
+	/**
+	 * Drops the snapshot, the next read queries the connected profile again.
+	 */
+	public void invalidate() {
+		Log.v( TAG, "invalidate : enter" );
+		
+		synchronized( this ) {
+			generation++;
+			snapshot = null;
+		}
+		
+		for( ConnectedProfileListener listener : listeners ) {
+			listener.connectedProfileChanged();
+		}
+		
+		Log.v( TAG, "invalidate : exit" );
+	}
+	
+	public void addListener( ConnectedProfileListener listener ) {
+		listeners.addIfAbsent( listener );
+	}
+	
+	public void removeListener( ConnectedProfileListener listener ) {
+		listeners.remove( listener );
+	}
+	
+	// internal helpers
+	
+	private static class Snapshot {
+		
+		final LocationProfile profile;
+		
+		Snapshot( LocationProfile profile ) {
+			this.profile = profile;
+		}
+		
+	}
+	
+}
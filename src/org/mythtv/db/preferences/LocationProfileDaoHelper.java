@@ -139,6 +139,8 @@ public class LocationProfileDaoHelper {
 				profiles.close();
 			}
 
+			invalidateConnectedProfile();
+			
 			return ret;
 		}
 		
@@ -170,6 +172,8 @@ public class LocationProfileDaoHelper {
 		}
 		cursor.close();
 
+		invalidateConnectedProfile();
+		
 		Log.d( TAG, "save : exit" );
 		return ret;
 	}
@@ -186,6 +190,8 @@ public class LocationProfileDaoHelper {
 		int deleted = mContext.getContentResolver().delete( ContentUris.withAppendedId( LocationProfileConstants.CONTENT_URI, id ), null, null );
 		if( deleted > 0 ) {
 			ret = true;
+			
+			invalidateConnectedProfile();
 		}
 		
 		Log.d( TAG, "delete : exit" );
@@ -312,7 +318,18 @@ public class LocationProfileDaoHelper {
 	 * @return
 	 */
 	public LocationProfile findConnectedProfile() {
-		Log.d( TAG, "findConnectedProfile : enter" );
+		
+		return ConnectedProfileRegistry.getInstance( mContext ).getConnectedProfile();
+	}
+
+	/**
+	 * Reads the connected profile from the database, callers go through {@link #findConnectedProfile()}
+	 * which serves it from memory.
+	 * 
+	 * @return
+	 */
+	LocationProfile queryConnectedProfile() {
+		Log.d( TAG, "queryConnectedProfile : enter" );
 		
 		LocationProfile profile = null;
 		
@@ -322,7 +339,7 @@ public class LocationProfileDaoHelper {
 		}
 		cursor.close();
 		
-		Log.d( TAG, "findConnectedProfile : exit" );
+		Log.d( TAG, "queryConnectedProfile : exit" );
 		return profile;
 	}
 
@@ -455,6 +472,14 @@ public class LocationProfileDaoHelper {
 		return ret;
 	}
 
+	/*
+	 * The provider observer catches these changes too, but only asynchronously; dropping the
+	 * snapshot here means the writer's own next read already sees the change.
+	 */
+	private void invalidateConnectedProfile() {
+		ConnectedProfileRegistry.getInstance( mContext ).invalidate();
+	}
+
 	private boolean resetConnectedProfiles() {
 		Log.d( TAG, "resetConnectedProfiles : enter" );
 
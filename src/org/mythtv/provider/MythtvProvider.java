@@ -20,14 +20,22 @@ package org.mythtv.provider;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.mythtv.db.AbstractBaseConstants;
 import org.mythtv.db.DatabaseHelper;
 import org.mythtv.db.channel.ChannelConstants;
 import org.mythtv.db.content.LiveStreamConstants;
 import org.mythtv.db.dvr.ProgramConstants;
+import org.mythtv.db.dvr.ProgramGuideChunkConstants;
+import org.mythtv.db.dvr.ProgramSearchConstants;
 import org.mythtv.db.dvr.RecordingConstants;
 import org.mythtv.db.dvr.programGroup.ProgramGroupConstants;
+import org.mythtv.db.frontends.FrontendConstants;
 import org.mythtv.db.http.EtagConstants;
 import org.mythtv.db.preferences.LocationProfileConstants;
 import org.mythtv.db.preferences.PlaybackProfileConstants;
@@ -36,16 +44,19 @@ import org.mythtv.db.status.StatusConstants;
 import android.annotation.TargetApi;
 import android.content.ContentProviderOperation;
 import android.content.ContentProviderResult;
+import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.ContentValues;
 import android.content.OperationApplicationException;
 import android.content.UriMatcher;
 import android.database.Cursor;
+import android.database.MatrixCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteQueryBuilder;
 import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 import android.os.Build;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -65,16 +76,22 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 	private static final String RECORDED_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.recorded";
 	private static final int RECORDED 					= 100;
 	private static final int RECORDED_ID 				= 101;
+	private static final int RECORDED_SYNC 				= 102;
+	private static final int RECORDED_UPSERT 			= 103;
 	
 	private static final String UPCOMING_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.upcoming";
 	private static final String UPCOMING_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.upcoming";
 	private static final int UPCOMING 					= 110;
 	private static final int UPCOMING_ID 				= 111;
+	private static final int UPCOMING_SYNC 				= 112;
+	private static final int UPCOMING_UPSERT 			= 113;
 
 	private static final String PROGRAM_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.program";
 	private static final String PROGRAM_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.program";
 	private static final int PROGRAM 					= 120;
 	private static final int PROGRAM_ID 				= 121;
+	private static final int PROGRAM_SYNC 				= 122;
+	private static final int PROGRAM_UPSERT 			= 123;
 
 	private static final String PROGRAM_GROUP_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.programGroup";
 	private static final String PROGRAM_GROUP_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.programGroup";
@@ -85,22 +102,49 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 	private static final String RECORDING_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.recording";
 	private static final int RECORDING 					= 140;
 	private static final int RECORDING_ID				= 141;
+	private static final int RECORDING_UPSERT			= 142;
 
 	private static final String LIVE_STREAM_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.liveStream";
 	private static final String LIVE_STREAM_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.liveStream";
 	private static final int LIVE_STREAM 				= 150;
 	private static final int LIVE_STREAM_ID				= 151;
 
+	private static final String PROGRAM_GUIDE_CHUNK_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.programGuideChunk";
+	private static final String PROGRAM_GUIDE_CHUNK_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.programGuideChunk";
+	private static final int PROGRAM_GUIDE_CHUNK 		= 160;
+	private static final int PROGRAM_GUIDE_CHUNK_ID		= 161;
+	private static final int PROGRAM_GUIDE_CHUNK_UPSERT	= 162;
+
+	private static final String PROGRAM_SEARCH_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.programSearch";
+	private static final int PROGRAM_SEARCH 			= 170;
+	private static final int PROGRAM_SEARCH_SOURCE		= 171;
+	private static final String[] SEARCH_PROGRAM_COLUMNS = new String[] { 
+		ProgramConstants.FIELD_TITLE, ProgramConstants.FIELD_SUB_TITLE, ProgramConstants.FIELD_CATEGORY, ProgramConstants.FIELD_DESCRIPTION, 
+		ProgramConstants.FIELD_START_TIME, ProgramConstants.FIELD_END_TIME, ProgramConstants.FIELD_CHANNEL_ID, ProgramConstants.FIELD_HOSTNAME };
+	private static final String[] SEARCH_COLUMNS = new String[] { 
+		ProgramSearchConstants._ID, ProgramSearchConstants.FIELD_SOURCE, ProgramSearchConstants.FIELD_SOURCE_ID, 
+		ProgramConstants.FIELD_TITLE, ProgramConstants.FIELD_SUB_TITLE, ProgramConstants.FIELD_CATEGORY, ProgramConstants.FIELD_DESCRIPTION, 
+		ProgramConstants.FIELD_START_TIME, ProgramConstants.FIELD_END_TIME, ProgramConstants.FIELD_CHANNEL_ID, ProgramConstants.FIELD_HOSTNAME, 
+		ProgramSearchConstants.FIELD_RANK };
+
 	private static final String CHANNEL_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.channel";
 	private static final String CHANNEL_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.channel";
 	private static final int CHANNELS 					= 200;
 	private static final int CHANNEL_ID 				= 201;
+	private static final int CHANNEL_UPSERT 			= 202;
 
 	private static final String ETAG_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.etag";
 	private static final String ETAG_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.etag";
 	private static final int ETAGS 					= 1000;
 	private static final int ETAG_ID 				= 1001;
 	private static final int ETAG_ENDPOINT	 		= 1002;
+	private static final int ETAG_UPSERT	 		= 1003;
+
+	private static final String FRONTEND_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.frontend";
+	private static final String FRONTEND_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.frontend";
+	private static final int FRONTENDS 				= 1200;
+	private static final int FRONTEND_ID 			= 1201;
+	private static final int FRONTEND_UPSERT 		= 1202;
 
 	private static final String STATUS_CONTENT_TYPE = "vnd.mythtv.cursor.dir/org.mythtv.status";
 	private static final String STATUS_CONTENT_ITEM_TYPE = "vnd.mythtv.cursor.item/org.mythtv.status";
@@ -117,34 +161,104 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 	private static final int PLAYBACK_PROFILE 		= 2100;
 	private static final int PLAYBACK_PROFILE_ID 	= 2101;
 
+	public static final String NOTIFICATIONS_PATH = "notifications";
+	public static final Uri CONTENT_URI_DEFER_NOTIFICATIONS = Uri.parse( "content://" + AUTHORITY + "/" + NOTIFICATIONS_PATH + "/defer" );
+	public static final Uri CONTENT_URI_RESUME_NOTIFICATIONS = Uri.parse( "content://" + AUTHORITY + "/" + NOTIFICATIONS_PATH + "/resume" );
+	private static final int NOTIFICATIONS_DEFER 	= 3000;
+	private static final int NOTIFICATIONS_RESUME 	= 3001;
+	
+	// the tables a deferral covers, comma separated
+	private static final String PARAMETER_TABLES = "tables";
+	
+	// a deferral left open by a writer that died is dropped after this long
+	private static final long DEFERRAL_TIMEOUT = 5 * 60 * 1000;
+
 	static {
 		URI_MATCHER = new UriMatcher( UriMatcher.NO_MATCH );
 		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_RECORDED, RECORDED );
 		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_RECORDED + "/#", RECORDED_ID );
+		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_RECORDED + "/" + ProgramConstants.SYNC_PATH, RECORDED_SYNC );
+		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_RECORDED + "/" + ProgramConstants.UPSERT_PATH, RECORDED_UPSERT );
 		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_UPCOMING, UPCOMING );
 		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_UPCOMING + "/#", UPCOMING_ID );
+		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_UPCOMING + "/" + ProgramConstants.SYNC_PATH, UPCOMING_SYNC );
+		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_UPCOMING + "/" + ProgramConstants.UPSERT_PATH, UPCOMING_UPSERT );
 		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_PROGRAM, PROGRAM );
 		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_PROGRAM + "/#", PROGRAM_ID );
+		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_PROGRAM + "/" + ProgramConstants.SYNC_PATH, PROGRAM_SYNC );
+		URI_MATCHER.addURI( AUTHORITY, ProgramConstants.TABLE_NAME_PROGRAM + "/" + ProgramConstants.UPSERT_PATH, PROGRAM_UPSERT );
 		URI_MATCHER.addURI( AUTHORITY, ProgramGroupConstants.TABLE_NAME, PROGRAM_GROUP );
 		URI_MATCHER.addURI( AUTHORITY, ProgramGroupConstants.TABLE_NAME + "/#", PROGRAM_GROUP_ID );
 		URI_MATCHER.addURI( AUTHORITY, RecordingConstants.TABLE_NAME, RECORDING );
 		URI_MATCHER.addURI( AUTHORITY, RecordingConstants.TABLE_NAME + "/#", RECORDING_ID );
+		URI_MATCHER.addURI( AUTHORITY, RecordingConstants.TABLE_NAME + "/" + RecordingConstants.UPSERT_PATH, RECORDING_UPSERT );
 		URI_MATCHER.addURI( AUTHORITY, LiveStreamConstants.TABLE_NAME, LIVE_STREAM );
 		URI_MATCHER.addURI( AUTHORITY, LiveStreamConstants.TABLE_NAME + "/#", LIVE_STREAM_ID );
+		URI_MATCHER.addURI( AUTHORITY, ProgramGuideChunkConstants.TABLE_NAME, PROGRAM_GUIDE_CHUNK );
+		URI_MATCHER.addURI( AUTHORITY, ProgramGuideChunkConstants.TABLE_NAME + "/#", PROGRAM_GUIDE_CHUNK_ID );
+		URI_MATCHER.addURI( AUTHORITY, ProgramGuideChunkConstants.TABLE_NAME + "/" + ProgramGuideChunkConstants.UPSERT_PATH, PROGRAM_GUIDE_CHUNK_UPSERT );
+		URI_MATCHER.addURI( AUTHORITY, ProgramSearchConstants.TABLE_NAME, PROGRAM_SEARCH );
+		URI_MATCHER.addURI( AUTHORITY, ProgramSearchConstants.TABLE_NAME + "/*", PROGRAM_SEARCH_SOURCE );
 		URI_MATCHER.addURI( AUTHORITY, ChannelConstants.TABLE_NAME, CHANNELS );
 		URI_MATCHER.addURI( AUTHORITY, ChannelConstants.TABLE_NAME + "/#", CHANNEL_ID );
+		URI_MATCHER.addURI( AUTHORITY, ChannelConstants.TABLE_NAME + "/" + ChannelConstants.UPSERT_PATH, CHANNEL_UPSERT );
 		URI_MATCHER.addURI( AUTHORITY, EtagConstants.TABLE_NAME, ETAGS );
 		URI_MATCHER.addURI( AUTHORITY, EtagConstants.TABLE_NAME + "/#", ETAG_ID );
 		URI_MATCHER.addURI( AUTHORITY, EtagConstants.TABLE_NAME + "/endpoint", ETAG_ENDPOINT );
+		URI_MATCHER.addURI( AUTHORITY, EtagConstants.TABLE_NAME + "/" + EtagConstants.UPSERT_PATH, ETAG_UPSERT );
+		URI_MATCHER.addURI( AUTHORITY, FrontendConstants.TABLE_NAME, FRONTENDS );
+		URI_MATCHER.addURI( AUTHORITY, FrontendConstants.TABLE_NAME + "/#", FRONTEND_ID );
+		URI_MATCHER.addURI( AUTHORITY, FrontendConstants.TABLE_NAME + "/" + FrontendConstants.UPSERT_PATH, FRONTEND_UPSERT );
 		URI_MATCHER.addURI( AUTHORITY, StatusConstants.TABLE_NAME, STATUS );
 		URI_MATCHER.addURI( AUTHORITY, StatusConstants.TABLE_NAME + "/#", STATUS_ID );
 		URI_MATCHER.addURI( AUTHORITY, LocationProfileConstants.TABLE_NAME, LOCATION_PROFILE );
 		URI_MATCHER.addURI( AUTHORITY, LocationProfileConstants.TABLE_NAME + "/#", LOCATION_PROFILE_ID );
 		URI_MATCHER.addURI( AUTHORITY, PlaybackProfileConstants.TABLE_NAME, PLAYBACK_PROFILE );
 		URI_MATCHER.addURI( AUTHORITY, PlaybackProfileConstants.TABLE_NAME + "/#", PLAYBACK_PROFILE_ID );
+		URI_MATCHER.addURI( AUTHORITY, NOTIFICATIONS_PATH + "/defer", NOTIFICATIONS_DEFER );
+		URI_MATCHER.addURI( AUTHORITY, NOTIFICATIONS_PATH + "/resume", NOTIFICATIONS_RESUME );
 	}
 
 	private DatabaseHelper database = null;
+	
+	/*
+	 * Changes made inside applyBatch or bulkInsert are collected per thread and sent once the transaction
+	 * has committed. Changes to a table a writer has deferred notifications for are held until it resumes
+	 * them, the other tables are notified as usual.
+	 */
+	private final ThreadLocal<Set<Uri>> batchNotifications = new ThreadLocal<Set<Uri>>();
+	private final Set<Uri> deferredNotifications = new LinkedHashSet<Uri>();
+	private final Map<String, Deferral> deferrals = new HashMap<String, Deferral>();
+
+	private static class Deferral {
+		
+		private int count;
+		private long deferredAt;
+		
+	}
+	
+	/**
+	 * Holds back the change notifications of the tables until {@link #resumeNotifications(ContentResolver, String...)}
+	 * is called with the same tables, so screens requery once after a sync instead of after each of its writes.
+	 * Only the tables the sync writes should be named, calls can be nested.
+	 * 
+	 * @param resolver
+	 * @param tables
+	 */
+	public static void deferNotifications( ContentResolver resolver, String... tables ) {
+		resolver.update( buildNotificationsUri( CONTENT_URI_DEFER_NOTIFICATIONS, tables ), new ContentValues(), null, null );
+	}
+	
+	/**
+	 * Ends a deferral started by {@link #deferNotifications(ContentResolver, String...)}, sending the changes
+	 * held back for each table once its last deferral has ended.
+	 * 
+	 * @param resolver
+	 * @param tables
+	 */
+	public static void resumeNotifications( ContentResolver resolver, String... tables ) {
+		resolver.update( buildNotificationsUri( CONTENT_URI_RESUME_NOTIFICATIONS, tables ), new ContentValues(), null, null );
+	}
 
 	/* (non-Javadoc)
 	 * @see android.content.ContentProvider#onCreate()
@@ -168,18 +282,24 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 		
 		switch( URI_MATCHER.match( uri ) ) {
 			case RECORDED:
+			case RECORDED_SYNC:
+			case RECORDED_UPSERT:
 				return RECORDED_CONTENT_TYPE;
 			
 			case RECORDED_ID:
 				return RECORDED_CONTENT_ITEM_TYPE;
 			
 			case UPCOMING:
+			case UPCOMING_SYNC:
+			case UPCOMING_UPSERT:
 				return UPCOMING_CONTENT_TYPE;
 			
 			case UPCOMING_ID:
 				return UPCOMING_CONTENT_ITEM_TYPE;
 			
 			case PROGRAM:
+			case PROGRAM_SYNC:
+			case PROGRAM_UPSERT:
 				return PROGRAM_CONTENT_TYPE;
 			
 			case PROGRAM_ID:
@@ -192,6 +312,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 				return PROGRAM_GROUP_CONTENT_ITEM_TYPE;
 			
 			case RECORDING:
+			case RECORDING_UPSERT:
 				return RECORDING_CONTENT_TYPE;
 			
 			case RECORDING_ID:
@@ -203,13 +324,26 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 			case LIVE_STREAM_ID:
 				return LIVE_STREAM_CONTENT_ITEM_TYPE;
 			
+			case PROGRAM_GUIDE_CHUNK:
+			case PROGRAM_GUIDE_CHUNK_UPSERT:
+				return PROGRAM_GUIDE_CHUNK_CONTENT_TYPE;
+			
+			case PROGRAM_GUIDE_CHUNK_ID:
+				return PROGRAM_GUIDE_CHUNK_CONTENT_ITEM_TYPE;
+			
+			case PROGRAM_SEARCH:
+			case PROGRAM_SEARCH_SOURCE:
+				return PROGRAM_SEARCH_CONTENT_TYPE;
+			
 			case CHANNELS:
+			case CHANNEL_UPSERT:
 				return CHANNEL_CONTENT_TYPE;
 			
 			case CHANNEL_ID:
 				return CHANNEL_CONTENT_ITEM_TYPE;
 			
 			case ETAGS:
+			case ETAG_UPSERT:
 				return ETAG_CONTENT_TYPE;
 			
 			case ETAG_ID:
@@ -218,6 +352,13 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 			case ETAG_ENDPOINT:
 				return ETAG_CONTENT_ITEM_TYPE;
 			
+			case FRONTENDS:
+			case FRONTEND_UPSERT:
+				return FRONTEND_CONTENT_TYPE;
+			
+			case FRONTEND_ID:
+				return FRONTEND_CONTENT_ITEM_TYPE;
+			
 			case STATUS:
 				return STATUS_CONTENT_TYPE;
 			
@@ -258,7 +399,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( ProgramConstants.TABLE_NAME_RECORDED, selection, selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -269,7 +410,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -277,7 +418,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 				
 				deleted = db.delete( ProgramConstants.TABLE_NAME_UPCOMING, selection, selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 		
 				return deleted;
 
@@ -288,7 +429,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -296,7 +437,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 				
 				deleted = db.delete( ProgramConstants.TABLE_NAME_PROGRAM, selection, selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 		
 				return deleted;
 
@@ -307,7 +448,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -315,7 +456,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 				
 				deleted = db.delete( ProgramGroupConstants.TABLE_NAME, selection, selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 		
 				return deleted;
 
@@ -326,7 +467,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -334,7 +475,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( RecordingConstants.TABLE_NAME, selection, selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -345,7 +486,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -353,7 +494,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( LiveStreamConstants.TABLE_NAME, selection, selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -364,7 +505,26 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
+				
+				return deleted;
+
+			case PROGRAM_GUIDE_CHUNK:
+
+				deleted = db.delete( ProgramGuideChunkConstants.TABLE_NAME, selection, selectionArgs );
+		
+				notifyChange( uri );
+				
+				return deleted;
+			
+			case PROGRAM_GUIDE_CHUNK_ID:
+
+				deleted = db.delete( ProgramGuideChunkConstants.TABLE_NAME, ProgramGuideChunkConstants._ID
+						+ "="
+						+ Long.toString( ContentUris.parseId( uri ) )
+						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
+		
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -372,7 +532,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( ChannelConstants.TABLE_NAME, selection, selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -383,7 +543,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -391,7 +551,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( EtagConstants.TABLE_NAME, selection, selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 			
@@ -402,7 +562,26 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
+				
+				return deleted;
+
+			case FRONTENDS:
+
+				deleted = db.delete( FrontendConstants.TABLE_NAME, selection, selectionArgs );
+		
+				notifyChange( uri );
+				
+				return deleted;
+			
+			case FRONTEND_ID:
+
+				deleted = db.delete( FrontendConstants.TABLE_NAME, FrontendConstants._ID
+						+ "="
+						+ Long.toString( ContentUris.parseId( uri ) )
+						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
+		
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -410,7 +589,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( StatusConstants.TABLE_NAME, selection, selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 			
@@ -421,7 +600,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -429,7 +608,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( LocationProfileConstants.TABLE_NAME, selection, selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 			
@@ -440,7 +619,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -448,7 +627,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				deleted = db.delete( PlaybackProfileConstants.TABLE_NAME, selection, selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 			
@@ -459,7 +638,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 						+ Long.toString( ContentUris.parseId( uri ) )
 						+ ( !TextUtils.isEmpty( selection ) ? " AND (" + selection + ')' : "" ), selectionArgs );
 		
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return deleted;
 
@@ -486,28 +665,49 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 				
 				newUri = ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_RECORDED, db.insertWithOnConflict( ProgramConstants.TABLE_NAME_RECORDED, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case RECORDED_UPSERT:
+				newUri = ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_RECORDED, db.insertWithOnConflict( ProgramConstants.TABLE_NAME_RECORDED, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case UPCOMING:
 				newUri = ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_UPCOMING, db.insertWithOnConflict( ProgramConstants.TABLE_NAME_UPCOMING, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case UPCOMING_UPSERT:
+				newUri = ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_UPCOMING, db.insertWithOnConflict( ProgramConstants.TABLE_NAME_UPCOMING, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case PROGRAM:
 				newUri = ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_PROGRAM, db.insertWithOnConflict( ProgramConstants.TABLE_NAME_PROGRAM, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case PROGRAM_UPSERT:
+				newUri = ContentUris.withAppendedId( ProgramConstants.CONTENT_URI_PROGRAM, db.insertWithOnConflict( ProgramConstants.TABLE_NAME_PROGRAM, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case PROGRAM_GROUP:
 				newUri = ContentUris.withAppendedId( ProgramGroupConstants.CONTENT_URI, db.insertWithOnConflict( ProgramGroupConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
 				
 				return newUri;
 	
@@ -516,7 +716,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				newUri = ContentUris.withAppendedId( RecordingConstants.CONTENT_URI, db.insertWithOnConflict( RecordingConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case RECORDING_UPSERT:
+				newUri = ContentUris.withAppendedId( RecordingConstants.CONTENT_URI, db.insertWithOnConflict( RecordingConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
 				
 				return newUri;
 	
@@ -524,42 +731,84 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				newUri = ContentUris.withAppendedId( LiveStreamConstants.CONTENT_URI, db.insertWithOnConflict( LiveStreamConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case PROGRAM_GUIDE_CHUNK:
+				newUri = ContentUris.withAppendedId( ProgramGuideChunkConstants.CONTENT_URI, db.insertWithOnConflict( ProgramGuideChunkConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
+				
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case PROGRAM_GUIDE_CHUNK_UPSERT:
+				newUri = ContentUris.withAppendedId( ProgramGuideChunkConstants.CONTENT_URI, db.insertWithOnConflict( ProgramGuideChunkConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case CHANNELS:
 				newUri = ContentUris.withAppendedId( ChannelConstants.CONTENT_URI, db.insertWithOnConflict( ChannelConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case CHANNEL_UPSERT:
+				newUri = ContentUris.withAppendedId( ChannelConstants.CONTENT_URI, db.insertWithOnConflict( ChannelConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case ETAGS:
 				newUri = ContentUris.withAppendedId( EtagConstants.CONTENT_URI, db.insertWithOnConflict( EtagConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case ETAG_UPSERT:
+				newUri = ContentUris.withAppendedId( EtagConstants.CONTENT_URI, db.insertWithOnConflict( EtagConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case FRONTENDS:
+				newUri = ContentUris.withAppendedId( FrontendConstants.CONTENT_URI, db.insertWithOnConflict( FrontendConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
+				
+				notifyChange( newUri );
+				
+				return newUri;
+	
+			case FRONTEND_UPSERT:
+				newUri = ContentUris.withAppendedId( FrontendConstants.CONTENT_URI, db.insertWithOnConflict( FrontendConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_REPLACE ) );
+				
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case STATUS:
 				newUri = ContentUris.withAppendedId( StatusConstants.CONTENT_URI, db.insertWithOnConflict( StatusConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case LOCATION_PROFILE:
 				newUri = ContentUris.withAppendedId( LocationProfileConstants.CONTENT_URI, db.insertWithOnConflict( LocationProfileConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
 				
 				return newUri;
 	
 			case PLAYBACK_PROFILE:
 				newUri = ContentUris.withAppendedId( PlaybackProfileConstants.CONTENT_URI, db.insertWithOnConflict( PlaybackProfileConstants.TABLE_NAME, null, values, SQLiteDatabase.CONFLICT_IGNORE ) );
 				
-				getContext().getContentResolver().notifyChange( newUri, null );
+				notifyChange( newUri );
 				
 				return newUri;
 	
@@ -949,6 +1198,35 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 				
 				return cursor;
 	
+			case PROGRAM_GUIDE_CHUNK:
+				
+				cursor = db.query( ProgramGuideChunkConstants.TABLE_NAME, projection, selection, selectionArgs, null, null, sortOrder );
+				cursor.setNotificationUri( getContext().getContentResolver(), uri );
+				
+				return cursor;
+	
+			case PROGRAM_GUIDE_CHUNK_ID:
+				selection = appendRowId( selection, Long.parseLong( uri.getPathSegments().get( 1 ) ) );
+
+				cursor = db.query( ProgramGuideChunkConstants.TABLE_NAME, projection, selection, selectionArgs, null, null, sortOrder );
+				cursor.setNotificationUri( getContext().getContentResolver(), uri );
+				
+				return cursor;
+	
+			case PROGRAM_SEARCH:
+				
+				cursor = searchPrograms( db, uri, ProgramSearchConstants.SOURCE_TABLES );
+				cursor.setNotificationUri( getContext().getContentResolver(), uri );
+				
+				return cursor;
+	
+			case PROGRAM_SEARCH_SOURCE:
+				
+				cursor = searchPrograms( db, uri, new String[] { uri.getLastPathSegment() } );
+				cursor.setNotificationUri( getContext().getContentResolver(), uri );
+				
+				return cursor;
+	
 			case CHANNELS:
 				
 				sb.append( ChannelConstants.TABLE_NAME );
@@ -1000,6 +1278,21 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 				cursor.setNotificationUri( getContext().getContentResolver(), uri );
 				
 				return cursor;
+	
+			case FRONTENDS:
+				
+				cursor = db.query( FrontendConstants.TABLE_NAME, projection, selection, selectionArgs, null, null, sortOrder );
+				cursor.setNotificationUri( getContext().getContentResolver(), uri );
+				
+				return cursor;
+	
+			case FRONTEND_ID:
+				selection = appendRowId( selection, Long.parseLong( uri.getPathSegments().get( 1 ) ) );
+
+				cursor = db.query( FrontendConstants.TABLE_NAME, projection, selection, selectionArgs, null, null, sortOrder );
+				cursor.setNotificationUri( getContext().getContentResolver(), uri );
+				
+				return cursor;
 
 			case STATUS:
 				
@@ -1064,10 +1357,22 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 		int affected = 0;
 		
 		switch( URI_MATCHER.match( uri ) ) {
+			case NOTIFICATIONS_DEFER:
+				
+				deferNotifications( getTables( uri ) );
+				
+				return 0;
+				
+			case NOTIFICATIONS_RESUME:
+				
+				resumeNotifications( getTables( uri ) );
+				
+				return 0;
+				
 			case RECORDED:
 				affected = db.update( ProgramConstants.TABLE_NAME_RECORDED, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1076,14 +1381,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( ProgramConstants.TABLE_NAME_RECORDED, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case UPCOMING:
 				affected = db.update( ProgramConstants.TABLE_NAME_UPCOMING, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1092,14 +1397,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( ProgramConstants.TABLE_NAME_UPCOMING, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case PROGRAM:
 				affected = db.update( ProgramConstants.TABLE_NAME_PROGRAM, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1108,14 +1413,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( ProgramConstants.TABLE_NAME_PROGRAM, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case PROGRAM_GROUP:
 				affected = db.update( ProgramGroupConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1124,14 +1429,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( ProgramGroupConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case RECORDING:
 				affected = db.update( RecordingConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1140,14 +1445,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( RecordingConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case LIVE_STREAM:
 				affected = db.update( LiveStreamConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1156,14 +1461,30 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( LiveStreamConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
+				
+				return affected;
+
+			case PROGRAM_GUIDE_CHUNK:
+				affected = db.update( ProgramGuideChunkConstants.TABLE_NAME, values, selection , selectionArgs );
+				
+				notifyChange( uri );
+				
+				return affected;
+
+			case PROGRAM_GUIDE_CHUNK_ID:
+				selection = appendRowId( selection, Long.parseLong( uri.getPathSegments().get( 1 ) ) );
+
+				affected = db.update( ProgramGuideChunkConstants.TABLE_NAME, values, selection , selectionArgs );
+
+				notifyChange( uri );
 				
 				return affected;
 
 			case CHANNELS:
 				affected = db.update( ChannelConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1172,14 +1493,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( ChannelConstants.TABLE_NAME, values, selection , selectionArgs );
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case ETAGS:
 				affected = db.update( EtagConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1188,14 +1509,30 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( EtagConstants.TABLE_NAME, values, selection , selectionArgs );
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
+				
+				return affected;
+
+			case FRONTENDS:
+				affected = db.update( FrontendConstants.TABLE_NAME, values, selection , selectionArgs );
+				
+				notifyChange( uri );
+				
+				return affected;
+
+			case FRONTEND_ID:
+				selection = appendRowId( selection, Long.parseLong( uri.getPathSegments().get( 1 ) ) );
+
+				affected = db.update( FrontendConstants.TABLE_NAME, values, selection , selectionArgs );
+
+				notifyChange( uri );
 				
 				return affected;
 
 			case STATUS:
 				affected = db.update( StatusConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1204,14 +1541,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( StatusConstants.TABLE_NAME, values, selection , selectionArgs );
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case LOCATION_PROFILE:
 				affected = db.update( LocationProfileConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1220,14 +1557,14 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( LocationProfileConstants.TABLE_NAME, values, selection , selectionArgs );
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
 			case PLAYBACK_PROFILE:
 				affected = db.update( PlaybackProfileConstants.TABLE_NAME, values, selection , selectionArgs );
 				
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1236,7 +1573,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 				affected = db.update( PlaybackProfileConstants.TABLE_NAME, values, selection , selectionArgs );
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 				
 				return affected;
 
@@ -1253,11 +1590,61 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 	public int bulkInsert( Uri uri, ContentValues[] values ) {
 		Log.v( TAG, "bulkInsert : enter" );
 		
+		boolean outermost = beginBatch();
+		boolean committed = false;
+		try {
+			int numInserted = bulkInsertRows( uri, values );
+			
+			committed = true;
+			
+			Log.v( TAG, "bulkInsert : exit" );
+			return numInserted;
+		} finally {
+			endBatch( outermost, committed );
+		}
+		
+	}
+
+	/* (non-Javadoc)
+	 * @see android.content.ContentProvider#applyBatch(java.util.ArrayList)
+	 */
+	@Override
+	public ContentProviderResult[] applyBatch( ArrayList<ContentProviderOperation> operations )	throws OperationApplicationException {
+		//Log.v( TAG, "applyBatch : enter" );
+
+		boolean outermost = beginBatch();
+		boolean committed = false;
+		
+		final SQLiteDatabase db = database.getWritableDatabase();
+		db.beginTransaction();
+		try {
+			final int numOperations = operations.size();
+			final ContentProviderResult[] results = new ContentProviderResult[ numOperations ];
+			for( int i = 0; i < numOperations; i++ ) {
+				results[ i ] = operations.get( i ).apply( this, results, i );
+			}
+			db.setTransactionSuccessful();
+			
+			committed = true;
+			return results;
+		} finally {
+			db.endTransaction();
+			
+			endBatch( outermost, committed );
+		}
+
+	}
+
+	// internal helpers
+	
+	private int bulkInsertRows( Uri uri, ContentValues[] values ) {
+		
 		final SQLiteDatabase db = database.getWritableDatabase();
 
 		int numInserted = 0;
 
 		switch( URI_MATCHER.match( uri ) ) {
+			case RECORDED_UPSERT:
 			case RECORDED:
 				Log.v( TAG, "bulkInsert : inserting recorded programs" );
 			
@@ -1274,10 +1661,11 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					db.endTransaction();
 				}
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( ProgramConstants.CONTENT_URI_RECORDED );
 
 				return numInserted;
 			
+			case UPCOMING_UPSERT:
 			case UPCOMING:
 				Log.v( TAG, "bulkInsert : inserting upcoming programs" );
 			
@@ -1294,10 +1682,11 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					db.endTransaction();
 				}
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( ProgramConstants.CONTENT_URI_UPCOMING );
 
 				return numInserted;
 			
+			case PROGRAM_UPSERT:
 			case PROGRAM:
 				Log.v( TAG, "bulkInsert : inserting programs" );
 			
@@ -1314,10 +1703,41 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					db.endTransaction();
 				}
 
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( ProgramConstants.CONTENT_URI_PROGRAM );
 
 				return numInserted;
 			
+			case RECORDED_SYNC:
+				Log.v( TAG, "bulkInsert : syncing recorded programs" );
+
+				numInserted = syncPrograms( db, uri, ProgramConstants.TABLE_NAME_RECORDED, ProgramConstants.INSERT_RECORDED_ROW, ProgramConstants.UPDATE_RECORDED_ROW, values );
+
+				notifyChange( ProgramConstants.CONTENT_URI_RECORDED );
+				notifyChange( RecordingConstants.CONTENT_URI );
+				notifyChange( ProgramGroupConstants.CONTENT_URI );
+
+				return numInserted;
+
+			case UPCOMING_SYNC:
+				Log.v( TAG, "bulkInsert : syncing upcoming programs" );
+
+				numInserted = syncPrograms( db, uri, ProgramConstants.TABLE_NAME_UPCOMING, ProgramConstants.INSERT_UPCOMING_ROW, ProgramConstants.UPDATE_UPCOMING_ROW, values );
+
+				notifyChange( ProgramConstants.CONTENT_URI_UPCOMING );
+				notifyChange( RecordingConstants.CONTENT_URI );
+
+				return numInserted;
+
+			case PROGRAM_SYNC:
+				Log.v( TAG, "bulkInsert : syncing programs" );
+
+				numInserted = syncPrograms( db, uri, ProgramConstants.TABLE_NAME_PROGRAM, ProgramConstants.INSERT_PROGRAM_ROW, ProgramConstants.UPDATE_PROGRAM_ROW, values );
+
+				notifyChange( ProgramConstants.CONTENT_URI_PROGRAM );
+				notifyChange( RecordingConstants.CONTENT_URI );
+
+				return numInserted;
+
 			case PROGRAM_GROUP:
 				
 				db.beginTransaction();
@@ -1340,10 +1760,11 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					db.endTransaction();
 				}
 			
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( uri );
 
 				return numInserted;
 
+			case RECORDING_UPSERT:
 			case RECORDING:
 				
 				db.beginTransaction();
@@ -1352,21 +1773,8 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					SQLiteStatement insert = db.compileStatement( RecordingConstants.INSERT_ROW );
 				
 					for( ContentValues value : values ) {
-						insert.bindLong( 1, value.getAsLong( RecordingConstants._ID ) );
-						insert.bindLong( 2, value.getAsInteger( RecordingConstants.FIELD_STATUS ) );
-						insert.bindLong( 3, value.getAsInteger( RecordingConstants.FIELD_PRIORITY ) );
-						insert.bindLong( 4, value.getAsInteger( RecordingConstants.FIELD_START_TS ) );
-						insert.bindLong( 5, value.getAsInteger( RecordingConstants.FIELD_END_TS ) );
-						insert.bindString( 6, value.getAsString( RecordingConstants.FIELD_REC_GROUP ) );
-						insert.bindString( 7, value.getAsString( RecordingConstants.FIELD_PLAY_GROUP ) );
-						insert.bindString( 8, value.getAsString( RecordingConstants.FIELD_STORAGE_GROUP ) );
-						insert.bindLong( 9, value.getAsInteger( RecordingConstants.FIELD_REC_TYPE ) );
-						insert.bindLong( 10, value.getAsInteger( RecordingConstants.FIELD_DUP_IN_TYPE ) );
-						insert.bindLong( 11, value.getAsInteger( RecordingConstants.FIELD_DUP_METHOD ) );
-						insert.bindLong( 12, value.getAsInteger( RecordingConstants.FIELD_ENCODER_ID ) );
-						insert.bindString( 13, value.getAsString( RecordingConstants.FIELD_PROFILE ) );
-						insert.bindString( 14, value.getAsString( RecordingConstants.FIELD_START_TIME ) );
-						insert.bindString( 15, value.getAsString( RecordingConstants.FIELD_HOSTNAME ) );
+						bindRow( insert, RecordingConstants.ROW_COLUMNS, "", value );
+						
 						insert.execute();
 					}
 					db.setTransactionSuccessful();
@@ -1376,10 +1784,11 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					db.endTransaction();
 				}
 			
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( RecordingConstants.CONTENT_URI );
 
 				return numInserted;
 
+			case CHANNEL_UPSERT:
 			case CHANNELS:
 			
 				db.beginTransaction();
@@ -1388,33 +1797,8 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					SQLiteStatement insert = db.compileStatement( ChannelConstants.INSERT_ROW );
 				
 					for( ContentValues value : values ) {
-						insert.bindString( 1, value.getAsString( ChannelConstants.FIELD_CHAN_ID ) );
-						insert.bindString( 2, value.getAsString( ChannelConstants.FIELD_CHAN_NUM ) );
-						insert.bindString( 3, value.getAsString( ChannelConstants.FIELD_CALLSIGN ) );
-						insert.bindString( 4, value.getAsString( ChannelConstants.FIELD_ICON_URL ) );
-						insert.bindString( 5, value.getAsString( ChannelConstants.FIELD_CHANNEL_NAME ) );
-						insert.bindLong( 6, value.getAsInteger( ChannelConstants.FIELD_MPLEX_ID ) );
-						insert.bindLong( 7, value.getAsInteger( ChannelConstants.FIELD_TRANSPORT_ID ) );
-						insert.bindLong( 8, value.getAsInteger( ChannelConstants.FIELD_SERVICE_ID ) );
-						insert.bindLong( 9, value.getAsInteger( ChannelConstants.FIELD_NETWORK_ID ) );
-						insert.bindLong( 10, value.getAsInteger( ChannelConstants.FIELD_ATSC_MAJOR_CHAN ) );
-						insert.bindLong( 11, value.getAsInteger( ChannelConstants.FIELD_ATSC_MINOR_CHAN ) );
-						insert.bindString( 12, value.getAsString( ChannelConstants.FIELD_FORMAT ) );
-						insert.bindString( 13, value.getAsString( ChannelConstants.FIELD_MODULATION ) );
-						insert.bindLong( 14, value.getAsInteger( ChannelConstants.FIELD_FREQUENCY ) );
-						insert.bindString( 15, value.getAsString( ChannelConstants.FIELD_FREQUENCY_ID ) );
-						insert.bindString( 16, value.getAsString( ChannelConstants.FIELD_FREQUENCY_TABLE ) );
-						insert.bindLong( 17, value.getAsInteger( ChannelConstants.FIELD_FINE_TUNE ) );
-						insert.bindString( 18, value.getAsString( ChannelConstants.FIELD_SIS_STANDARD ) );
-						insert.bindString( 19, value.getAsString( ChannelConstants.FIELD_CHAN_FILTERS ) );
-						insert.bindLong( 20, value.getAsInteger( ChannelConstants.FIELD_SOURCE_ID ) );
-						insert.bindLong( 21, value.getAsInteger( ChannelConstants.FIELD_INPUT_ID ) );
-						insert.bindLong( 22, value.getAsInteger( ChannelConstants.FIELD_COMM_FREE ) );
-						insert.bindLong( 23, value.getAsInteger( ChannelConstants.FIELD_USE_EIT ) );
-						insert.bindLong( 24, value.getAsInteger( ChannelConstants.FIELD_VISIBLE ) );
-						insert.bindString( 25, value.getAsString( ChannelConstants.FIELD_XMLTV_ID ) );
-						insert.bindString( 26, value.getAsString( ChannelConstants.FIELD_DEFAULT_AUTH ) );
-						insert.bindString( 27, value.getAsString( ChannelConstants.FIELD_HOSTNAME ) );
+						bindRow( insert, ChannelConstants.ROW_COLUMNS, "", value );
+						
 						insert.execute();
 					}
 					db.setTransactionSuccessful();
@@ -1424,7 +1808,7 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 					db.endTransaction();
 				}
 			
-				getContext().getContentResolver().notifyChange( uri, null );
+				notifyChange( ChannelConstants.CONTENT_URI );
 
 				return numInserted;
 
@@ -1435,64 +1819,446 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 
 	}
 
-	/* (non-Javadoc)
-	 * @see android.content.ContentProvider#applyBatch(java.util.ArrayList)
+	/*
+	 * One FTS match per source table joined back to its rows by _ID, title hits rank ahead of subtitle
+	 * and description hits, then the earliest airing first.
 	 */
-	@Override
-	public ContentProviderResult[] applyBatch( ArrayList<ContentProviderOperation> operations )	throws OperationApplicationException {
-		//Log.v( TAG, "applyBatch : enter" );
+	private Cursor searchPrograms( SQLiteDatabase db, Uri uri, String[] tables ) {
+		
+		String query = uri.getQueryParameter( ProgramSearchConstants.QUERY_PARAMETER_QUERY );
+		String match = ProgramSearchConstants.buildMatchExpression( query );
+		if( null == match ) {
+			return new MatrixCursor( SEARCH_COLUMNS );
+		}
+		
+		String hostname = uri.getQueryParameter( ProgramSearchConstants.QUERY_PARAMETER_HOSTNAME );
+		
+		int limit = ProgramSearchConstants.DEFAULT_LIMIT;
+		String limitParameter = uri.getQueryParameter( ProgramSearchConstants.QUERY_PARAMETER_LIMIT );
+		if( null != limitParameter ) {
+			try {
+				limit = Integer.parseInt( limitParameter );
+			} catch( NumberFormatException e ) {
+				Log.w( TAG, "searchPrograms : invalid limit '" + limitParameter + "'" );
+			}
+		}
+		
+		String phrase = query.trim();
+		
+		StringBuilder sql = new StringBuilder();
+		List<String> args = new ArrayList<String>();
+		for( String table : tables ) {
+			int code = ProgramSearchConstants.getSourceCode( table );
+			
+			if( sql.length() > 0 ) {
+				sql.append( " UNION ALL " );
+			}
+			
+			sql.append( "SELECT " );
+			sql.append( ProgramSearchConstants.TABLE_NAME ).append( ".docid AS " ).append( ProgramSearchConstants._ID ).append( ", " );
+			sql.append( "'" ).append( table ).append( "' AS " ).append( ProgramSearchConstants.FIELD_SOURCE ).append( ", " );
+			sql.append( table ).append( "." ).append( ProgramConstants._ID ).append( " AS " ).append( ProgramSearchConstants.FIELD_SOURCE_ID );
+			for( String column : SEARCH_PROGRAM_COLUMNS ) {
+				sql.append( ", " ).append( table ).append( "." ).append( column );
+			}
+			sql.append( ", CASE" );
+			sql.append( " WHEN " ).append( table ).append( "." ).append( ProgramConstants.FIELD_TITLE ).append( " LIKE ? THEN 0" );
+			sql.append( " WHEN " ).append( table ).append( "." ).append( ProgramConstants.FIELD_TITLE ).append( " LIKE ? THEN 1" );
+			sql.append( " WHEN " ).append( table ).append( "." ).append( ProgramConstants.FIELD_SUB_TITLE ).append( " LIKE ? THEN 2" );
+			sql.append( " ELSE 3 END AS " ).append( ProgramSearchConstants.FIELD_RANK );
+			sql.append( " FROM " ).append( ProgramSearchConstants.TABLE_NAME );
+			sql.append( " JOIN " ).append( table ).append( " ON " ).append( table ).append( "." ).append( ProgramConstants._ID );
+			sql.append( " = " ).append( ProgramSearchConstants.TABLE_NAME ).append( ".docid / " ).append( ProgramSearchConstants.SOURCE_COUNT );
+			sql.append( " WHERE " ).append( ProgramSearchConstants.TABLE_NAME ).append( " MATCH ?" );
+			sql.append( " AND " ).append( ProgramSearchConstants.TABLE_NAME ).append( ".docid % " ).append( ProgramSearchConstants.SOURCE_COUNT ).append( " = " ).append( code );
+			
+			args.add( phrase + "%" );
+			args.add( "%" + phrase + "%" );
+			args.add( "%" + phrase + "%" );
+			args.add( match );
+			
+			if( null != hostname ) {
+				sql.append( " AND " ).append( table ).append( "." ).append( ProgramConstants.FIELD_HOSTNAME ).append( " = ?" );
+				
+				args.add( hostname );
+			}
+			
+		}
+		sql.append( " ORDER BY " ).append( ProgramSearchConstants.FIELD_RANK ).append( ", " ).append( ProgramConstants.FIELD_START_TIME );
+		sql.append( " LIMIT " ).append( limit );
+		
+		long start = SystemClock.elapsedRealtime();
+		
+		Cursor cursor = db.rawQuery( sql.toString(), args.toArray( new String[ args.size() ] ) );
+		
+		// filling the window runs the query, the loader would do the same on its first access
+		int count = cursor.getCount();
+		Log.d( TAG, "searchPrograms : '" + match + "' matched " + count + " programs in " + ( SystemClock.elapsedRealtime() - start ) + "ms" );
+		
+		return cursor;
+	}
+	
+	private void notifyChange( Uri uri ) {
+		
+		// observers of a table are told about any of its rows, one notification for the table covers them all
+		Set<Uri> batch = batchNotifications.get();
+		if( null != batch ) {
+			batch.add( getTableUri( uri ) );
+			
+			return;
+		}
+		
+		List<Uri> expired = null;
+		synchronized( deferredNotifications ) {
+			
+			String table = getTable( uri );
+			
+			Deferral deferral = deferrals.get( table );
+			if( null != deferral ) {
+				
+				if( System.currentTimeMillis() - deferral.deferredAt < DEFERRAL_TIMEOUT ) {
+					deferredNotifications.add( getTableUri( uri ) );
+					
+					return;
+				}
+				
+				Log.w( TAG, "notifyChange : notifications for " + table + " deferred for too long, sending them" );
+				
+				deferrals.remove( table );
+				expired = releaseNotifications();
+			}
+			
+		}
+		
+		if( null != expired ) {
+			for( Uri deferred : expired ) {
+				getContext().getContentResolver().notifyChange( deferred, null );
+			}
+		}
+		
+		getContext().getContentResolver().notifyChange( uri, null );
+	}
+	
+	private boolean beginBatch() {
+		
+		if( null != batchNotifications.get() ) {
+			return false;
+		}
+		
+		batchNotifications.set( new LinkedHashSet<Uri>() );
+		
+		return true;
+	}
+	
+	private void endBatch( boolean outermost, boolean committed ) {
+		
+		if( !outermost ) {
+			return;
+		}
+		
+		Set<Uri> batch = batchNotifications.get();
+		batchNotifications.remove();
+		
+		// nothing changed when the transaction rolled back
+		if( committed ) {
+			
+			for( Uri uri : batch ) {
+				notifyChange( uri );
+			}
+			
+		}
+		
+	}
+	
+	private void deferNotifications( String[] tables ) {
+		
+		synchronized( deferredNotifications ) {
+			
+			for( String table : tables ) {
+				
+				Deferral deferral = deferrals.get( table );
+				if( null == deferral ) {
+					deferral = new Deferral();
+					deferrals.put( table, deferral );
+				}
+				
+				deferral.count++;
+				deferral.deferredAt = System.currentTimeMillis();
+			}
+			
+		}
+		
+	}
+	
+	private void resumeNotifications( String[] tables ) {
+		
+		List<Uri> deferred;
+		synchronized( deferredNotifications ) {
+			
+			for( String table : tables ) {
+				
+				Deferral deferral = deferrals.get( table );
+				if( null != deferral && --deferral.count <= 0 ) {
+					deferrals.remove( table );
+				}
+				
+			}
+			
+			deferred = releaseNotifications();
+		}
+		Log.v( TAG, "resumeNotifications : sending " + deferred.size() + " deferred notifications" );
+		
+		for( Uri uri : deferred ) {
+			getContext().getContentResolver().notifyChange( uri, null );
+		}
+		
+	}
+	
+	/*
+	 * Removes the held notifications of the tables no longer deferred, called holding deferredNotifications.
+	 */
+	private List<Uri> releaseNotifications() {
+		
+		List<Uri> released = new ArrayList<Uri>();
+		
+		Iterator<Uri> it = deferredNotifications.iterator();
+		while( it.hasNext() ) {
+			Uri uri = it.next();
+			
+			if( !deferrals.containsKey( getTable( uri ) ) ) {
+				released.add( uri );
+				
+				it.remove();
+			}
+			
+		}
+		
+		return released;
+	}
+	
+	private static Uri buildNotificationsUri( Uri uri, String[] tables ) {
+		return uri.buildUpon().appendQueryParameter( PARAMETER_TABLES, TextUtils.join( ",", tables ) ).build();
+	}
+	
+	private static String[] getTables( Uri uri ) {
+		
+		String tables = uri.getQueryParameter( PARAMETER_TABLES );
+		if( TextUtils.isEmpty( tables ) ) {
+			return new String[ 0 ];
+		}
+		
+		return tables.split( "," );
+	}
+	
+	private static String getTable( Uri uri ) {
+		
+		List<String> segments = uri.getPathSegments();
+		
+		return segments.isEmpty() ? "" : segments.get( 0 );
+	}
+	
+	private static Uri getTableUri( Uri uri ) {
+		
+		List<String> segments = uri.getPathSegments();
+		if( segments.size() > 1 && TextUtils.isDigitsOnly( segments.get( segments.size() - 1 ) ) ) {
+			
+			Uri.Builder builder = new Uri.Builder().scheme( uri.getScheme() ).authority( uri.getAuthority() );
+			for( int i = 0; i < segments.size() - 1; i++ ) {
+				builder.appendPath( segments.get( i ) );
+			}
+			
+			return builder.build();
+		}
+		
+		return uri;
+	}
+	
+	private void bulkInsertPrograms( SQLiteStatement insert, ContentValues[] values ) {
+		
+		for( ContentValues value : values ) {
+			bindRow( insert, ProgramConstants.ROW_COLUMNS, "", value );
+			
+			insert.execute();
+		}
 
-		final SQLiteDatabase db = database.getWritableDatabase();
+	}
+	
+	/**
+	 * Reconciles the supplied programs against the rows already stored in the table. The existing natural keys
+	 * (CHANNEL_ID, START_TIME) for the hostname, and optionally a START_TIME window, are read once into a
+	 * {@link ProgramKeyIndex}, then every row is inserted or updated by _ID through compiled statements. When
+	 * the prune parameter is set, rows in the scope that were not supplied are deleted along with their recording.
+	 * 
+	 * Recording details travel in the same values, keyed the way the provider aliases joined recording columns
+	 * ("recording_" + column), and are reconciled on (RECORD_ID, START_TIME) in the same transaction.
+	 * 
+	 * When the incremental parameter is set, an existing row whose LAST_MODIFIED and FILE_SIZE match the supplied
+	 * values is left untouched, so the writes scale with the number of changed programs rather than the library.
+	 * The returned count only includes inserted, updated and deleted rows.
+	 * 
+	 * A sync streamed in several batches writes each batch without pruning, then closes with the keys only
+	 * parameter: the values carry just the natural keys of every batch, nothing is written, the rows in scope
+	 * that were not supplied are pruned and the program groups are refreshed once.
+	 */
+	private int syncPrograms( SQLiteDatabase db, Uri uri, String table, String insertSql, String updateSql, ContentValues[] values ) {
+		Log.v( TAG, "syncPrograms : enter" );
+		
+		String hostname = uri.getQueryParameter( ProgramConstants.PARAMETER_HOSTNAME );
+		if( TextUtils.isEmpty( hostname ) ) {
+			throw new IllegalArgumentException( "Sync URI requires a hostname: " + uri );
+		}
+		
+		boolean prune = Boolean.parseBoolean( uri.getQueryParameter( ProgramConstants.PARAMETER_PRUNE ) );
+		String windowStart = uri.getQueryParameter( ProgramConstants.PARAMETER_WINDOW_START );
+		String windowEnd = uri.getQueryParameter( ProgramConstants.PARAMETER_WINDOW_END );
+		boolean incremental = Boolean.parseBoolean( uri.getQueryParameter( ProgramConstants.PARAMETER_INCREMENTAL ) );
+		boolean keysOnly = Boolean.parseBoolean( uri.getQueryParameter( ProgramConstants.PARAMETER_KEYS_ONLY ) );
+		
+		StringBuilder selection = new StringBuilder();
+		selection.append( AbstractBaseConstants.FIELD_HOSTNAME ).append( " = ?" );
+		
+		List<String> selectionArgs = new ArrayList<String>();
+		selectionArgs.add( hostname );
+		
+		if( !TextUtils.isEmpty( windowStart ) ) {
+			selection.append( " AND " ).append( ProgramConstants.FIELD_START_TIME ).append( " >= ?" );
+			selectionArgs.add( windowStart );
+		}
+		
+		if( !TextUtils.isEmpty( windowEnd ) ) {
+			selection.append( " AND " ).append( ProgramConstants.FIELD_START_TIME ).append( " <= ?" );
+			selectionArgs.add( windowEnd );
+		}
+		
+		String[] args = selectionArgs.toArray( new String[ selectionArgs.size() ] );
+		String recordingPrefix = RecordingConstants.TABLE_NAME + "_";
+		
+		int inserted = 0, updated = 0, unchanged = 0, deleted = 0;
+		
 		db.beginTransaction();
 		try {
-			final int numOperations = operations.size();
-			final ContentProviderResult[] results = new ContentProviderResult[ numOperations ];
-			for( int i = 0; i < numOperations; i++ ) {
-				results[ i ] = operations.get( i ).apply( this, results, i );
+			ProgramKeyIndex programs = ProgramKeyIndex.load( db, table, ProgramConstants.FIELD_CHANNEL_ID, ProgramConstants.FIELD_RECORD_ID, incremental && !keysOnly ? ProgramConstants.FINGERPRINT_EXPRESSION : null, selection.toString(), args );
+			ProgramKeyIndex recordings = ProgramKeyIndex.load( db, RecordingConstants.TABLE_NAME, RecordingConstants.FIELD_RECORD_ID, null, null, selection.toString(), args );
+			Log.v( TAG, "syncPrograms : existing programs=" + programs.size() + ", existing recordings=" + recordings.size() );
+
+			SQLiteStatement insert = db.compileStatement( insertSql );
+			SQLiteStatement update = db.compileStatement( updateSql );
+			SQLiteStatement insertRecording = db.compileStatement( RecordingConstants.INSERT_ROW );
+			SQLiteStatement updateRecording = db.compileStatement( RecordingConstants.UPDATE_ROW );
+			
+			for( ContentValues value : values ) {
+				
+				long startTime = value.getAsLong( ProgramConstants.FIELD_START_TIME );
+				
+				int position = programs.indexOf( value.getAsInteger( ProgramConstants.FIELD_CHANNEL_ID ), startTime );
+				if( keysOnly ) {
+					
+					if( position >= 0 ) {
+						programs.markSeen( position );
+					}
+					
+					continue;
+				}
+				
+				if( position < 0 ) {
+					bindRow( insert, ProgramConstants.ROW_COLUMNS, "", value );
+					insert.executeInsert();
+					
+					inserted++;
+				} else {
+					programs.markSeen( position );
+
+					if( incremental && programs.hasFingerprint( position, value.getAsString( ProgramConstants.FIELD_LAST_MODIFIED ) + "|" + value.getAsString( ProgramConstants.FIELD_FILE_SIZE ) ) ) {
+						unchanged++;
+						
+						continue;
+					}
+					
+					bindRow( update, ProgramConstants.ROW_COLUMNS, "", value );
+					update.bindLong( ProgramConstants.ROW_COLUMNS.length + 1, programs.getId( position ) );
+					update.execute();
+					
+					updated++;
+				}
+				
+				if( value.containsKey( recordingPrefix + RecordingConstants.FIELD_RECORD_ID ) ) {
+					
+					position = recordings.indexOf( value.getAsInteger( recordingPrefix + RecordingConstants.FIELD_RECORD_ID ), startTime );
+					if( position < 0 ) {
+						bindRow( insertRecording, RecordingConstants.ROW_COLUMNS, recordingPrefix, value );
+						insertRecording.executeInsert();
+					} else {
+						recordings.markSeen( position );
+
+						bindRow( updateRecording, RecordingConstants.ROW_COLUMNS, recordingPrefix, value );
+						updateRecording.bindLong( RecordingConstants.ROW_COLUMNS.length + 1, recordings.getId( position ) );
+						updateRecording.execute();
+					}
+					
+				}
+				
+			}
+			
+			if( prune ) {
+				
+				SQLiteStatement delete = db.compileStatement( "DELETE FROM " + table + " WHERE " + ProgramConstants._ID + " = ?" );
+				SQLiteStatement deleteRecording = db.compileStatement( "DELETE FROM " + RecordingConstants.TABLE_NAME + " WHERE " + RecordingConstants.FIELD_RECORD_ID + " = ? AND " + RecordingConstants.FIELD_START_TIME + " = ? AND " + RecordingConstants.FIELD_HOSTNAME + " = ?" );
+				
+				for( int i = 0; i < programs.size(); i++ ) {
+					if( programs.isSeen( i ) ) {
+						continue;
+					}
+					
+					delete.bindLong( 1, programs.getId( i ) );
+					delete.execute();
+					
+					if( programs.getPayload( i ) > 0 ) {
+						deleteRecording.bindLong( 1, programs.getPayload( i ) );
+						deleteRecording.bindLong( 2, programs.getStartTime( i ) );
+						deleteRecording.bindString( 3, hostname );
+						deleteRecording.execute();
+					}
+					
+					deleted++;
+				}
+				
+			}
+			
+			// the groups are derived from the recordings, they can only differ when a recording did, batches leave it to the closing call
+			if( ProgramConstants.TABLE_NAME_RECORDED.equals( table ) && ( keysOnly || ( prune && ( inserted + updated + deleted ) > 0 ) ) ) {
+				DatabaseHelper.refreshProgramGroups( db, hostname );
 			}
+			
 			db.setTransactionSuccessful();
-			return results;
 		} finally {
 			db.endTransaction();
 		}
-
+		Log.v( TAG, "syncPrograms : table=" + table + ", inserted=" + inserted + ", updated=" + updated + ", unchanged=" + unchanged + ", deleted=" + deleted );
+		
+		Log.v( TAG, "syncPrograms : exit" );
+		return inserted + updated + deleted;
 	}
-
-	// internal helpers
 	
-	private void bulkInsertPrograms( SQLiteStatement insert, ContentValues[] values ) {
+	private static void bindRow( SQLiteStatement statement, String[] columns, String prefix, ContentValues values ) {
 		
-		for( ContentValues value : values ) {
-			insert.bindLong( 1, value.getAsLong( ProgramConstants.FIELD_START_TIME ) );
-			insert.bindLong( 2, value.getAsLong( ProgramConstants.FIELD_END_TIME ) );
-			insert.bindString( 3, value.getAsString( ProgramConstants.FIELD_TITLE ) );
-			insert.bindString( 4, value.getAsString( ProgramConstants.FIELD_SUB_TITLE ) );
-			insert.bindString( 5, value.getAsString( ProgramConstants.FIELD_CATEGORY ) );
-			insert.bindString( 6, value.getAsString( ProgramConstants.FIELD_CATEGORY_TYPE ) );
-			insert.bindLong( 7, value.getAsInteger( ProgramConstants.FIELD_REPEAT ) );
-			insert.bindLong( 8, value.getAsInteger( ProgramConstants.FIELD_VIDEO_PROPS ) );
-			insert.bindLong( 9, value.getAsInteger( ProgramConstants.FIELD_AUDIO_PROPS ) );
-			insert.bindLong( 10, value.getAsInteger( ProgramConstants.FIELD_SUB_PROPS ) );
-			insert.bindString( 11, value.getAsString( ProgramConstants.FIELD_SERIES_ID ) );
-			insert.bindString( 12, value.getAsString( ProgramConstants.FIELD_PROGRAM_ID ) );
-			insert.bindDouble( 13, value.getAsFloat( ProgramConstants.FIELD_STARS ) );
-			insert.bindString( 14, value.getAsString( ProgramConstants.FIELD_FILE_SIZE ) );
-			insert.bindString( 15, value.getAsString( ProgramConstants.FIELD_LAST_MODIFIED ) );
-			insert.bindString( 16, value.getAsString( ProgramConstants.FIELD_PROGRAM_FLAGS ) );
-			insert.bindString( 17, value.getAsString( ProgramConstants.FIELD_HOSTNAME ) );
-			insert.bindString( 18, value.getAsString( ProgramConstants.FIELD_FILENAME ) );
-			insert.bindString( 19, value.getAsString( ProgramConstants.FIELD_AIR_DATE ) );
-			insert.bindString( 20, value.getAsString( ProgramConstants.FIELD_DESCRIPTION ) );
-			insert.bindString( 21, value.getAsString( ProgramConstants.FIELD_INETREF ) );
-			insert.bindString( 22, value.getAsString( ProgramConstants.FIELD_SEASON ) );
-			insert.bindString( 23, value.getAsString( ProgramConstants.FIELD_EPISODE ) );
-			insert.bindLong( 24, value.getAsInteger( ProgramConstants.FIELD_CHANNEL_ID ) );
-			insert.bindLong( 25, value.getAsInteger( ProgramConstants.FIELD_RECORD_ID ) );
-			insert.bindLong( 26, value.getAsInteger( ProgramConstants.FIELD_IN_ERROR ) );
+		for( int i = 0; i < columns.length; i++ ) {
+			int index = i + 1;
+			
+			Object value = values.get( prefix + columns[ i ] );
+			if( null == value ) {
+				statement.bindNull( index );
+			} else if( value instanceof Float || value instanceof Double ) {
+				statement.bindDouble( index, ( (Number) value ).doubleValue() );
+			} else if( value instanceof Number ) {
+				statement.bindLong( index, ( (Number) value ).longValue() );
+			} else if( value instanceof Boolean ) {
+				statement.bindLong( index, ( (Boolean) value ) ? 1 : 0 );
+			} else {
+				statement.bindString( index, value.toString() );
+			}
 			
-			insert.execute();
 		}
-
+		
 	}
 	
 	private static final Map<String, String> mRecordedColumnMap = buildRecordedColumnMap();
@@ -1613,4 +2379,113 @@ public class MythtvProvider extends AbstractMythtvContentProvider {
 		return columnMap;
 	}
 
+	/**
+	 * Sorted, primitive snapshot of the (key, START_TIME) pairs already stored in a program or recording table, read
+	 * with a single ordered scan so a sync can resolve the _ID of an existing row with a binary search.
+	 */
+	private static class ProgramKeyIndex {
+		
+		private final int[] keys;
+		private final long[] startTimes;
+		private final long[] ids;
+		private final long[] payloads;
+		private final String[] fingerprints;
+		private final boolean[] seen;
+		
+		private ProgramKeyIndex( int size, boolean fingerprinted ) {
+			keys = new int[ size ];
+			startTimes = new long[ size ];
+			ids = new long[ size ];
+			payloads = new long[ size ];
+			fingerprints = fingerprinted ? new String[ size ] : null;
+			seen = new boolean[ size ];
+		}
+		
+		static ProgramKeyIndex load( SQLiteDatabase db, String table, String keyColumn, String payloadColumn, String fingerprintExpression, String selection, String[] selectionArgs ) {
+			
+			List<String> projection = new ArrayList<String>();
+			projection.add( AbstractBaseConstants._ID );
+			projection.add( keyColumn );
+			projection.add( ProgramConstants.FIELD_START_TIME );
+			projection.add( null == payloadColumn ? "0" : payloadColumn );
+			if( null != fingerprintExpression ) {
+				projection.add( fingerprintExpression );
+			}
+			
+			Cursor cursor = db.query( table, projection.toArray( new String[ projection.size() ] ), selection, selectionArgs, null, null, keyColumn + ", " + ProgramConstants.FIELD_START_TIME );
+			try {
+				ProgramKeyIndex index = new ProgramKeyIndex( cursor.getCount(), null != fingerprintExpression );
+				
+				int i = 0;
+				while( cursor.moveToNext() ) {
+					index.ids[ i ] = cursor.getLong( 0 );
+					index.keys[ i ] = cursor.getInt( 1 );
+					index.startTimes[ i ] = cursor.getLong( 2 );
+					index.payloads[ i ] = cursor.isNull( 3 ) ? 0 : cursor.getLong( 3 );
+					if( null != index.fingerprints ) {
+						index.fingerprints[ i ] = cursor.getString( 4 );
+					}
+					i++;
+				}
+				
+				return index;
+			} finally {
+				cursor.close();
+			}
+			
+		}
+		
+		int size() {
+			return ids.length;
+		}
+		
+		int indexOf( int key, long startTime ) {
+			
+			int low = 0, high = ids.length - 1;
+			while( low <= high ) {
+				int mid = ( low + high ) >>> 1;
+				
+				int compare = keys[ mid ] < key ? -1 : ( keys[ mid ] > key ? 1 : 0 );
+				if( compare == 0 ) {
+					compare = startTimes[ mid ] < startTime ? -1 : ( startTimes[ mid ] > startTime ? 1 : 0 );
+				}
+				
+				if( compare < 0 ) {
+					low = mid + 1;
+				} else if( compare > 0 ) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			
+			return -1;
+		}
+		
+		long getId( int position ) {
+			return ids[ position ];
+		}
+		
+		long getStartTime( int position ) {
+			return startTimes[ position ];
+		}
+		
+		long getPayload( int position ) {
+			return payloads[ position ];
+		}
+		
+		boolean hasFingerprint( int position, String fingerprint ) {
+			return null != fingerprints && null != fingerprints[ position ] && fingerprints[ position ].equals( fingerprint );
+		}
+		
+		void markSeen( int position ) {
+			seen[ position ] = true;
+		}
+		
+		boolean isSeen( int position ) {
+			return seen[ position ];
+		}
+		
+	}
+
 }
@@ -45,6 +45,9 @@ public class MythtvService extends IntentService {
 
     public static final String EXTRA_COMPLETE = "COMPLETE";
     public static final String EXTRA_COMPLETE_ONLINE = "COMPLETE_ONLINE";
+    
+    // sent with the ACTION_COMPLETE of every download service, false whenever the run did not refresh its data
+    public static final String EXTRA_COMPLETE_PASSED = "COMPLETE_PASSED";
 
 	public MythtvService() {
 		super( "MythtvService" );
@@ -0,0 +1,409 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.mythtv.db.preferences.ConnectedProfileRegistry;
+import org.mythtv.service.channel.ChannelDownloadService;
+import org.mythtv.service.dvr.ArtworkDownloadService;
+import org.mythtv.service.dvr.RecordedDownloadService;
+import org.mythtv.service.dvr.UpcomingDownloadService;
+import org.mythtv.service.guide.ProgramGuideCleanupService;
+import org.mythtv.service.guide.ProgramGuideDownloadServiceNew;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.util.Log;
+
+/**
+ * Owns the launches of the background download services so screens ask for data instead of starting
+ * services themselves.
+ * 
+ * Every dataset remembers when it was last refreshed for the connected backend and is not refreshed
+ * again before its minimum interval has passed. Requests for a dataset that is already queued or
+ * running are folded into the existing one, keeping the higher priority. Only one service runs at a
+ * time and the next one is picked by priority, so a refresh for the visible screen or one asked for by
+ * the user is started before background work. Every queue change is broadcast as {@link #ACTION_SYNC_STATE}.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class SyncScheduler {
+
+	private static final String TAG = SyncScheduler.class.getSimpleName();
+	
+	public static final String ACTION_SYNC_STATE = "org.mythtv.background.sync.ACTION_SYNC_STATE";
+	
+	public static final String EXTRA_DATASET = "DATASET";
+	public static final String EXTRA_STATE = "STATE";
+	public static final String EXTRA_PENDING = "PENDING";
+	
+	public static final String STATE_QUEUED = "QUEUED";
+	public static final String STATE_STARTED = "STARTED";
+	public static final String STATE_COMPLETED = "COMPLETED";
+	public static final String STATE_FAILED = "FAILED";
+	public static final String STATE_SKIPPED = "SKIPPED";
+	
+	/*
+	 * Retry interval after a run that failed, each dataset has its own time after which a service that
+	 * never reported back is treated as finished.
+	 */
+	private static final long RETRY_INTERVAL = 5 * 60 * 1000;
+	
+	private static final String PREFERENCES_NAME = "sync_scheduler";
+	private static final String PREF_SUCCESS = "success_";
+	private static final String PREF_ATTEMPT = "attempt_";
+	
+	public enum Dataset {
+		CHANNELS( ChannelDownloadService.ACTION_DOWNLOAD, ChannelDownloadService.ACTION_COMPLETE, 6 * 60 * 60 * 1000, 15 * 60 * 1000 ),
+		GUIDE_CLEANUP( ProgramGuideCleanupService.ACTION_CLEANUP, ProgramGuideCleanupService.ACTION_COMPLETE, 60 * 60 * 1000, 15 * 60 * 1000 ),
+		
+		// two weeks of listings from a slow backend can take well over the other datasets
+		GUIDE( ProgramGuideDownloadServiceNew.ACTION_DOWNLOAD, ProgramGuideDownloadServiceNew.ACTION_COMPLETE, 60 * 60 * 1000, 2 * 60 * 60 * 1000 ),
+		RECORDED( RecordedDownloadService.ACTION_DOWNLOAD, RecordedDownloadService.ACTION_COMPLETE, 60 * 60 * 1000, 15 * 60 * 1000 ),
+		UPCOMING( UpcomingDownloadService.ACTION_DOWNLOAD, UpcomingDownloadService.ACTION_COMPLETE, 2 * 60 * 60 * 1000, 15 * 60 * 1000 ),
+		
+		// only requested after recordings changed, the service itself skips images already on disk
+		ARTWORK( ArtworkDownloadService.ACTION_DOWNLOAD, ArtworkDownloadService.ACTION_COMPLETE, 0, 60 * 60 * 1000 );
+		
+		private final String action;
+		private final String completeAction;
+		private final long minimumInterval;
+		private final long runningTimeout;
+		
+		private Dataset( String action, String completeAction, long minimumInterval, long runningTimeout ) {
+			this.action = action;
+			this.completeAction = completeAction;
+			this.minimumInterval = minimumInterval;
+			this.runningTimeout = runningTimeout;
+		}
+
+		public String getAction() {
+			return action;
+		}
+
+		public String getCompleteAction() {
+			return completeAction;
+		}
+
+		public long getMinimumInterval() {
+			return minimumInterval;
+		}
+
+		public long getRunningTimeout() {
+			return runningTimeout;
+		}
+		
+	}
+	
+	/*
+	 * BACKGROUND and VISIBLE requests are dropped while the dataset is fresh, REFRESH always runs.
+	 */
+	public enum Priority {
+		BACKGROUND,
+		VISIBLE,
+		REFRESH;
+	}
+	
+	private static SyncScheduler sInstance;
+	
+	private final Context mContext;
+	private final SharedPreferences mPreferences;
+	private final Handler mHandler;
+	
+	private final Map<Dataset, Request> pending = new EnumMap<Dataset, Request>( Dataset.class );
+	private Request running;
+	private long sequence = 0;
+	
+	private static class Request {
+		
+		private final Dataset dataset;
+		private final String hostname;
+		private Priority priority;
+		private long sequence;
+		private long started;
+		
+		private Request( Dataset dataset, String hostname, Priority priority, long sequence ) {
+			this.dataset = dataset;
+			this.hostname = hostname;
+			this.priority = priority;
+			this.sequence = sequence;
+		}
+		
+		/*
+		 * Higher priority first, then the order the requests came in.
+		 */
+		private boolean before( Request other ) {
+			if( priority != other.priority ) {
+				return priority.compareTo( other.priority ) > 0;
+			}
+			
+			return sequence < other.sequence;
+		}
+		
+	}
+	
+	public static synchronized SyncScheduler getInstance( Context context ) {
+		
+		if( null == sInstance ) {
+			sInstance = new SyncScheduler( context.getApplicationContext() );
+		}
+		
+		return sInstance;
+	}
+	
+	private SyncScheduler( Context context ) {
+		mContext = context;
+		mPreferences = context.getSharedPreferences( PREFERENCES_NAME, Context.MODE_PRIVATE );
+		mHandler = new Handler( context.getMainLooper() );
+		
+		IntentFilter filter = new IntentFilter();
+		for( Dataset dataset : Dataset.values() ) {
+			filter.addAction( dataset.getCompleteAction() );
+		}
+		mContext.registerReceiver( new CompleteReceiver(), filter );
+	}
+	
+	/**
+	 * Asks for the dataset of the connected backend to be refreshed.
+	 * 
+	 * @param dataset
+	 * @param priority
+	 * @return true when a download was queued or is already queued or running
+	 */
+	public synchronized boolean request( Dataset dataset, Priority priority ) {
+		Log.v( TAG, "request : enter" );
+		
+		String hostname = ConnectedProfileRegistry.getInstance( mContext ).getConnectedHostname();
+		if( null == hostname ) {
+			Log.v( TAG, "request : exit, no connected profile" );
+			return false;
+		}
+		
+		if( null != running && running.dataset == dataset && running.hostname.equals( hostname ) ) {
+			Log.v( TAG, "request : exit, " + dataset + " already running" );
+			return true;
+		}
+		
+		Request request = pending.get( dataset );
+		if( null != request && request.hostname.equals( hostname ) ) {
+			if( priority.compareTo( request.priority ) > 0 ) {
+				request.priority = priority;
+				request.sequence = sequence++;
+			}
+			
+			Log.v( TAG, "request : exit, " + dataset + " already queued" );
+			return true;
+		}
+		
+		if( priority != Priority.REFRESH && isFresh( dataset, hostname ) ) {
+			broadcast( dataset, STATE_SKIPPED );
+			
+			Log.v( TAG, "request : exit, " + dataset + " is fresh" );
+			return false;
+		}
+		
+		pending.put( dataset, new Request( dataset, hostname, priority, sequence++ ) );
+		broadcast( dataset, STATE_QUEUED );
+		
+		dispatch();
+		
+		Log.v( TAG, "request : exit" );
+		return true;
+	}
+	
+	/**
+	 * @param dataset
+	 * @return true when the dataset is queued or its download is running
+	 */
+	public synchronized boolean isPending( Dataset dataset ) {
+		return pending.containsKey( dataset ) || ( null != running && running.dataset == dataset );
+	}
+	
+	/**
+	 * @param dataset
+	 * @return the time of the last successful refresh of the dataset for the connected backend, 0 if there was none
+	 */
+	public long getLastRefreshed( Dataset dataset ) {
+		
+		String hostname = ConnectedProfileRegistry.getInstance( mContext ).getConnectedHostname();
+		if( null == hostname ) {
+			return 0;
+		}
+		
+		return mPreferences.getLong( PREF_SUCCESS + hostname + "_" + dataset.name(), 0 );
+	}
+	
+	/**
+	 * Forgets the refresh times of the dataset for every backend, the next request downloads it again.
+	 * 
+	 * @param dataset
+	 */
+	public void invalidate( Dataset dataset ) {
+		Log.v( TAG, "invalidate : enter" );
+		
+		SharedPreferences.Editor editor = mPreferences.edit();
+		for( String key : mPreferences.getAll().keySet() ) {
+			if( key.endsWith( "_" + dataset.name() ) ) {
+				editor.remove( key );
+			}
+		}
+		editor.commit();
+		
+		Log.v( TAG, "invalidate : exit" );
+	}
+	
+	// internal helpers
+	
+	private boolean isFresh( Dataset dataset, String hostname ) {
+		
+		long now = System.currentTimeMillis();
+		
+		long success = mPreferences.getLong( PREF_SUCCESS + hostname + "_" + dataset.name(), 0 );
+		if( now - success < dataset.getMinimumInterval() ) {
+			return true;
+		}
+		
+		long attempt = mPreferences.getLong( PREF_ATTEMPT + hostname + "_" + dataset.name(), 0 );
+		return attempt > success && now - attempt < RETRY_INTERVAL;
+	}
+	
+	private synchronized void dispatch() {
+		Log.v( TAG, "dispatch : enter" );
+		
+		if( null != running ) {
+			
+			if( System.currentTimeMillis() - running.started < running.dataset.getRunningTimeout() ) {
+				Log.v( TAG, "dispatch : exit, " + running.dataset + " is running" );
+				return;
+			}
+			
+			Log.w( TAG, "dispatch : " + running.dataset + " did not complete, releasing it" );
+			finished( running.dataset, false );
+		}
+		
+		Request next = null;
+		for( Request request : pending.values() ) {
+			if( null == next || request.before( next ) ) {
+				next = request;
+			}
+		}
+		
+		if( null == next ) {
+			Log.v( TAG, "dispatch : exit, nothing queued" );
+			return;
+		}
+		
+		pending.remove( next.dataset );
+		
+		next.started = System.currentTimeMillis();
+		running = next;
+		
+		mPreferences.edit().putLong( PREF_ATTEMPT + next.hostname + "_" + next.dataset.name(), next.started ).commit();
+		
+		mContext.startService( new Intent( next.dataset.getAction() ) );
+		broadcast( next.dataset, STATE_STARTED );
+		
+		final Request watched = next;
+		mHandler.postDelayed( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				synchronized( SyncScheduler.this ) {
+					if( running == watched ) {
+						dispatch();
+					}
+				}
+				
+			}
+			
+		}, next.dataset.getRunningTimeout() );
+		
+		Log.v( TAG, "dispatch : exit, started " + next.dataset + " for " + next.priority );
+	}
+	
+	private synchronized void finished( Dataset dataset, boolean succeeded ) {
+		Log.v( TAG, "finished : enter" );
+		
+		String hostname = null;
+		if( null != running && running.dataset == dataset ) {
+			hostname = running.hostname;
+			running = null;
+		} else {
+			
+			// the service was started outside of the scheduler
+			hostname = ConnectedProfileRegistry.getInstance( mContext ).getConnectedHostname();
+		}
+		
+		if( succeeded && null != hostname ) {
+			mPreferences.edit().putLong( PREF_SUCCESS + hostname + "_" + dataset.name(), System.currentTimeMillis() ).commit();
+		}
+		
+		broadcast( dataset, succeeded ? STATE_COMPLETED : STATE_FAILED );
+		
+		Log.v( TAG, "finished : exit" );
+	}
+	
+	private void broadcast( Dataset dataset, String state ) {
+		
+		Intent intent = new Intent( ACTION_SYNC_STATE );
+		intent.putExtra( EXTRA_DATASET, dataset.name() );
+		intent.putExtra( EXTRA_STATE, state );
+		intent.putExtra( EXTRA_PENDING, pending.size() + ( null != running ? 1 : 0 ) );
+		mContext.sendBroadcast( intent );
+		
+	}
+	
+	private class CompleteReceiver extends BroadcastReceiver {
+
+		@Override
+		public void onReceive( Context context, Intent intent ) {
+			
+			for( Dataset dataset : Dataset.values() ) {
+				if( dataset.getCompleteAction().equals( intent.getAction() ) ) {
+					Log.i( TAG, "CompleteReceiver.onReceive : " + dataset + " complete" );
+					
+					// a service that does not say it passed, or says nothing, did not refresh the dataset
+					boolean succeeded = intent.getBooleanExtra( MythtvService.EXTRA_COMPLETE_PASSED, false );
+					finished( dataset, succeeded );
+					
+					// new recordings may be missing their artwork, fetch it all in one pass once the list is stored
+					if( dataset == Dataset.RECORDED && succeeded &&
+							( intent.getIntExtra( RecordedDownloadService.EXTRA_COMPLETE_CHANGED, 0 ) > 0 || getLastRefreshed( Dataset.ARTWORK ) == 0 ) ) {
+						request( Dataset.ARTWORK, Priority.BACKGROUND );
+					}
+					
+					dispatch();
+					
+					break;
+				}
+			}
+			
+		}
+		
+	}
+	
+}
@@ -19,9 +19,9 @@
 package org.mythtv.service.channel;
 
 import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.mythtv.R;
 import org.mythtv.client.ui.preferences.LocationProfile;
@@ -29,9 +29,10 @@ import org.mythtv.db.channel.ChannelDaoHelper;
 import org.mythtv.db.http.EtagDaoHelper;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
 import org.mythtv.service.MythtvService;
+import org.mythtv.service.util.JsonStreamHelper;
+import org.mythtv.service.util.JsonStreamHelper.BatchHandler;
 import org.mythtv.services.api.ETagInfo;
-import org.mythtv.services.api.channel.ChannelInfoList;
-import org.mythtv.services.api.channel.ChannelInfos;
+import org.mythtv.services.api.channel.ChannelInfo;
 import org.mythtv.services.api.channel.VideoSource;
 import org.mythtv.services.api.channel.VideoSourceList;
 import org.mythtv.services.api.channel.impl.ChannelTemplate.Endpoint;
@@ -43,13 +44,8 @@ import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.content.OperationApplicationException;
-import android.os.RemoteException;
 import android.util.Log;
 
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-
 /**
  * @author Daniel Frey
  *
@@ -61,6 +57,9 @@ public class ChannelDownloadService extends MythtvService {
 	private static final String CHANNELS_FILE_PREFIX = "channels_";
 	private static final String CHANNELS_FILE_EXT = ".json";
 	
+	private static final String CHANNEL_INFO_LIST_QUERY = "StartIndex=0&Count=-1&SourceID=";
+	private static final String CHANNEL_INFOS_FIELD = "ChannelInfos";
+	
     public static final String ACTION_DOWNLOAD = "org.mythtv.background.channelDownload.ACTION_DOWNLOAD";
     public static final String ACTION_PROGRESS = "org.mythtv.background.channelDownload.ACTION_PROGRESS";
     public static final String ACTION_COMPLETE = "org.mythtv.background.channelDownload.ACTION_COMPLETE";
@@ -70,6 +69,7 @@ public class ChannelDownloadService extends MythtvService {
     public static final String EXTRA_PROGRESS_ERROR = "PROGRESS_ERROR";
     public static final String EXTRA_COMPLETE = "COMPLETE";
     public static final String EXTRA_COMPLETE_UPTODATE = "COMPLETE_UPTODATE";
+    public static final String EXTRA_COMPLETE_OFFLINE = "COMPLETE_OFFLINE";
 
 	private NotificationManager mNotificationManager;
 	private int notificationId;
@@ -78,6 +78,7 @@ public class ChannelDownloadService extends MythtvService {
 	private ChannelDaoHelper mChannelDaoHelper;
 	private LocationProfileDaoHelper mLocationProfileDaoHelper;
 	private EtagDaoHelper mEtagDaoHelper;
+	private JsonStreamHelper mJsonStreamHelper;
 	
 	public ChannelDownloadService() {
 		super( "ChannelDownloadService" );
@@ -94,11 +95,13 @@ public class ChannelDownloadService extends MythtvService {
 		mChannelDaoHelper = new ChannelDaoHelper( this );
 		mLocationProfileDaoHelper = new LocationProfileDaoHelper( this );
 		mEtagDaoHelper = new EtagDaoHelper( this );
+		mJsonStreamHelper = JsonStreamHelper.newInstance( mMainApplication.getObjectMapper() );
 		
 		channelDirectory = mFileHelper.getChannelDataDirectory();
 		if( null == channelDirectory || !channelDirectory.exists() ) {
 			Intent completeIntent = new Intent( ACTION_COMPLETE );
 			completeIntent.putExtra( EXTRA_COMPLETE, "Channel location can not be found" );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
 			sendBroadcast( completeIntent );
 
 			Log.d( TAG, "onHandleIntent : exit, channelDirectory does not exist" );
@@ -108,6 +111,8 @@ public class ChannelDownloadService extends MythtvService {
 		if( !mNetworkHelper.isMasterBackendConnected() ) {
 			Intent completeIntent = new Intent( ACTION_COMPLETE );
 			completeIntent.putExtra( EXTRA_COMPLETE, "Master Backend unreachable" );
+			completeIntent.putExtra( EXTRA_COMPLETE_OFFLINE, Boolean.TRUE );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
 			sendBroadcast( completeIntent );
 
 			Log.d( TAG, "onHandleIntent : exit, Master Backend unreachable" );
@@ -137,23 +142,16 @@ public class ChannelDownloadService extends MythtvService {
 					
 					if( null != videoSourceList ) {
 
-						// holder for all downloaded channel lists
-						List<ChannelInfos> allChannelLists = new ArrayList<ChannelInfos>();
+						// the channels are written as they are parsed, only their ids are kept to remove the stale ones
+						Set<Integer> allChannelIds = new HashSet<Integer>();
 						
 						int nap = 1000; // 500ms & 1ms fail
 						for( VideoSource videoSource : videoSourceList.getVideoSources().getVideoSources() ) {
 							Log.i( TAG, "onHandleIntent : videoSourceId = '" + videoSource.getId() + "'" );
 							
-							// Download the channel listing, return list
+							// Download the channel listing, the file is saved locally as it is read
 							Log.i( TAG, "onHandleIntent : downloading channels" );
-							ChannelInfos channelInfos = download( videoSource.getId() );
-							if( null != channelInfos ) {
-								allChannelLists.add( channelInfos );
-
-								// Save the file locally
-								Log.i( TAG, "onHandleIntent : save the file locally" );
-								process( videoSource.getId(), channelInfos  );
-							}
+							download( videoSource.getId(), allChannelIds );
 							
 							// wait a second before downloading the next one (if there are more than one video source)
 							if(  videoSourceList.getVideoSources().getVideoSources().size() > 1 ) {
@@ -162,12 +160,12 @@ public class ChannelDownloadService extends MythtvService {
 							}
 						}
 
-						// Process the combined lists of downloaded channels
-						if( null != allChannelLists && !allChannelLists.isEmpty() ) {
-							Log.i( TAG, "onHandleIntent : process all channels" );
+						// Remove the channels missing from the combined lists of downloaded channels
+						if( !allChannelIds.isEmpty() ) {
+							Log.i( TAG, "onHandleIntent : remove stale channels" );
 
-							int channelsProcessed = mChannelDaoHelper.load( allChannelLists );
-							Log.v( TAG, "process : channelsProcessed=" + channelsProcessed );
+							int channelsDeleted = mChannelDaoHelper.deleteAllExcept( allChannelIds );
+							Log.v( TAG, "onHandleIntent : channelsDeleted=" + channelsDeleted );
 							
 						}
 						
@@ -185,6 +183,7 @@ public class ChannelDownloadService extends MythtvService {
     			Intent completeIntent = new Intent( ACTION_COMPLETE );
     			completeIntent.putExtra( EXTRA_COMPLETE, "Channels Download Service Finished" );
    				completeIntent.putExtra( EXTRA_COMPLETE_UPTODATE, passed );
+   				completeIntent.putExtra( EXTRA_COMPLETE_PASSED, passed );
     			
     			sendBroadcast( completeIntent );
     		}
@@ -196,7 +195,7 @@ public class ChannelDownloadService extends MythtvService {
 
 	// internal helpers
 	
-	private ChannelInfos download( int sourceId ) throws Exception {
+	private void download( int sourceId, final Set<Integer> allChannelIds ) throws Exception {
 		Log.v( TAG, "download : enter" );
 
 		LocationProfile locationProfile = mLocationProfileDaoHelper.findConnectedProfile();
@@ -208,50 +207,43 @@ public class ChannelDownloadService extends MythtvService {
 //			etag = ETagInfo.createEmptyETag();
 //		}
 		
-		ResponseEntity<ChannelInfoList> responseEntity = mMainApplication.getMythServicesApi( locationProfile ).channelOperations().getChannelInfoList( sourceId, 0, -1, etag );
-
-		if( responseEntity.getStatusCode().equals( HttpStatus.OK ) ) {
-			Log.i( TAG, "download : " + Endpoint.GET_CHANNEL_INFO_LIST.getEndpoint() + " returned 200 OK" );
-
-			ChannelInfoList channelInfoList = responseEntity.getBody();
-			if( null != channelInfoList ) {
-
-				if( null != etag.getETag() ) {
-					Log.i( TAG, "download : " + Endpoint.GET_CHANNEL_INFO_LIST.getEndpoint() + " returned 200 OK" );
+		File channels = new File( channelDirectory, CHANNELS_FILE_PREFIX + sourceId + "_" + locationProfile.getHostname() + CHANNELS_FILE_EXT );
+		String url = JsonStreamHelper.buildUrl( locationProfile.getUrl(), JsonStreamHelper.CHANNEL_SERVICE, Endpoint.GET_CHANNEL_INFO_LIST.getEndpoint(), CHANNEL_INFO_LIST_QUERY + sourceId );
+		
+		BatchHandler<ChannelInfo> handler = new BatchHandler<ChannelInfo>( JsonStreamHelper.DEFAULT_BATCH_SIZE ) {
 
-					mEtagDaoHelper.save( etag, Endpoint.GET_CHANNEL_INFO_LIST.name(), String.valueOf( sourceId ) );
+			@Override
+			protected void batch( List<ChannelInfo> batch ) {
+				
+				for( ChannelInfo channel : batch ) {
+					allChannelIds.add( channel.getChannelId() );
 				}
+				
+				mChannelDaoHelper.upsert( batch );
+			}
+			
+		};
+		
+		int streamed = mJsonStreamHelper.download( url, etag, channels, CHANNEL_INFOS_FIELD, ChannelInfo.class, handler );
+		handler.flush();
 
-				if( null != channelInfoList.getChannelInfos() ) {
-					Log.v( TAG, "download : exit, returning channelInfos" );
-
-					return channelInfoList.getChannelInfos();
-				}
+		if( streamed != JsonStreamHelper.NOT_MODIFIED ) {
+			Log.i( TAG, "download : " + Endpoint.GET_CHANNEL_INFO_LIST.getEndpoint() + " returned 200 OK, channels=" + streamed );
+			Log.v( TAG, "download : saved channels to " + channels.getAbsolutePath() );
 
+			if( null != etag.getETag() ) {
+				mEtagDaoHelper.save( etag, Endpoint.GET_CHANNEL_INFO_LIST.name(), String.valueOf( sourceId ) );
 			}
 
 		}
 
-//		if( responseEntity.getStatusCode().equals( HttpStatus.NOT_MODIFIED ) ) {
+//		if( streamed == JsonStreamHelper.NOT_MODIFIED ) {
 //			Log.i( TAG, "download : " + Endpoint.GET_CHANNEL_INFO_LIST.getEndpoint() + " returned 304 Not Modified" );
 //
 //			mEtagDaoHelper.save( etag, Endpoint.GET_CHANNEL_INFO_LIST.name(), String.valueOf( sourceId ) );
 //		}
 			
 		Log.v( TAG, "download : exit" );
-		return null;
-	}
-
-	private void process( int videoSourceId, ChannelInfos channelInfos ) throws JsonGenerationException, JsonMappingException, IOException, RemoteException, OperationApplicationException {
-		Log.v( TAG, "process : enter" );
-		
-		LocationProfile locationProfile = mLocationProfileDaoHelper.findConnectedProfile();
-		Log.v( TAG, "process : saving recorded for host [" + locationProfile.getHostname() + ":" + locationProfile.getUrl() + "]" );
-
-		mMainApplication.getObjectMapper().writeValue( new File( channelDirectory, CHANNELS_FILE_PREFIX + videoSourceId + "_" + locationProfile.getHostname() + CHANNELS_FILE_EXT ), channelInfos );
-		Log.v( TAG, "process : saved channels to " + channelDirectory.getAbsolutePath() );
-
-		Log.v( TAG, "process : exit" );
 	}
 
 	// internal helpers
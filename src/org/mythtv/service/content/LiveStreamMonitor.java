@@ -0,0 +1,310 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.content;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.mythtv.client.MainApplication;
+import org.mythtv.db.content.LiveStreamDaoHelper;
+import org.mythtv.services.api.ETagInfo;
+import org.mythtv.services.api.content.LiveStreamInfo;
+import org.mythtv.services.api.content.LiveStreamInfoWrapper;
+import org.mythtv.services.api.dvr.Program;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * Follows the encoding of the live streams screens are waiting on, all of them polled from one
+ * background thread instead of a sleeping task per screen.
+ * 
+ * A stream is polled quickly until its first segments can be played, then at a steadier pace while
+ * it encodes, backing off while its status does not change. Requests carry the last ETag so an
+ * unchanged status is answered with 304. Every change is saved and handed to the listeners of the
+ * stream on the main thread. Polling stops once the stream has finished encoding or nobody is
+ * watching it any more.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class LiveStreamMonitor {
+
+	private static final String TAG = LiveStreamMonitor.class.getSimpleName();
+	
+	private static final long STARTING_INTERVAL = 2 * 1000;
+	private static final long ENCODING_INTERVAL = 5 * 1000;
+	private static final long MAX_INTERVAL = 30 * 1000;
+	
+	// status values from the backend, a stream is running once it reaches this
+	private static final int STATUS_RUNNING = 2;
+	private static final int READY_SEGMENTS = 2;
+	
+	/**
+	 * Receives the updates of a watched stream, always on the main thread.
+	 */
+	public interface LiveStreamListener {
+		
+		void liveStreamUpdated( LiveStreamInfo liveStreamInfo );
+		
+		void liveStreamError( LiveStreamInfo liveStreamInfo, Exception e );
+		
+	}
+	
+	private static LiveStreamMonitor sInstance;
+	
+	private final MainApplication mMainApplication;
+	private final LiveStreamDaoHelper mLiveStreamDaoHelper;
+	private final Handler mHandler;
+	private final ScheduledExecutorService executor;
+	
+	private final ConcurrentMap<Integer, Watch> watches = new ConcurrentHashMap<Integer, Watch>();
+	
+	private class Watch implements Runnable {
+		
+		private final Program program;
+		private final List<LiveStreamListener> listeners = new CopyOnWriteArrayList<LiveStreamListener>();
+		private final ETagInfo etag = ETagInfo.createEmptyETag();
+		
+		private volatile LiveStreamInfo liveStreamInfo;
+		private long interval = STARTING_INTERVAL;
+		private ScheduledFuture<?> future;
+		
+		private Watch( LiveStreamInfo liveStreamInfo, Program program ) {
+			this.liveStreamInfo = liveStreamInfo;
+			this.program = program;
+		}
+
+		@Override
+		public void run() {
+			
+			if( stopIfUnwatched( this ) ) {
+				return;
+			}
+			
+			try {
+				ResponseEntity<LiveStreamInfoWrapper> responseEntity = mMainApplication.getMythServicesApi().contentOperations().getLiveStream( liveStreamInfo.getId(), etag );
+				
+				if( responseEntity.getStatusCode().equals( HttpStatus.OK ) ) {
+					LiveStreamInfo updated = responseEntity.getBody().getLiveStreamInfo();
+					
+					interval = isReady( updated ) ? ENCODING_INTERVAL : STARTING_INTERVAL;
+					
+					liveStreamInfo = updated;
+					mLiveStreamDaoHelper.save( updated, program );
+					
+					notifyUpdated( this, updated );
+					
+					if( updated.getPercentComplete() >= 100 ) {
+						Log.v( TAG, "Watch.run : live stream " + updated.getId() + " finished encoding" );
+						
+						stop( this );
+						return;
+					}
+					
+				} else {
+					
+					// not modified, check again later
+					interval = Math.min( interval * 2, MAX_INTERVAL );
+				}
+				
+			} catch( Exception e ) {
+				Log.w( TAG, "Watch.run : error updating live stream " + liveStreamInfo.getId(), e );
+				
+				interval = Math.min( interval * 2, MAX_INTERVAL );
+				notifyError( this, e );
+			}
+			
+			schedule( this, interval );
+		}
+		
+	}
+	
+	public static synchronized LiveStreamMonitor getInstance( Context context ) {
+		
+		if( null == sInstance ) {
+			sInstance = new LiveStreamMonitor( context.getApplicationContext() );
+		}
+		
+		return sInstance;
+	}
+	
+	private LiveStreamMonitor( Context context ) {
+		mMainApplication = (MainApplication) context;
+		mLiveStreamDaoHelper = new LiveStreamDaoHelper( context );
+		mHandler = new Handler( Looper.getMainLooper() );
+		
+		this.executor = Executors.newSingleThreadScheduledExecutor( new ThreadFactory() {
+
+			@Override
+			public Thread newThread( Runnable r ) {
+				
+				Thread thread = new Thread( r, "LiveStreamMonitor" );
+				thread.setDaemon( true );
+				
+				return thread;
+			}
+			
+		});
+		
+	}
+	
+	/**
+	 * @param liveStreamInfo
+	 * @return true once the stream has enough segments to start playback
+	 */
+	public static boolean isReady( LiveStreamInfo liveStreamInfo ) {
+		return liveStreamInfo.getStatusInt() >= STATUS_RUNNING && liveStreamInfo.getCurrentSegment() > READY_SEGMENTS;
+	}
+	
+	/**
+	 * Starts following the stream, if it is not already, and adds the listener to it. The lookup and the listener
+	 * are handled under the lock stop() takes, so the listener is never added to a watch that is being stopped.
+	 * 
+	 * @param liveStreamInfo the last known state of the stream
+	 * @param program the recording the stream belongs to
+	 * @param listener
+	 */
+	public synchronized void watch( LiveStreamInfo liveStreamInfo, Program program, LiveStreamListener listener ) {
+		Log.v( TAG, "watch : enter" );
+		
+		Watch watch = watches.get( liveStreamInfo.getId() );
+		if( null == watch ) {
+			Log.v( TAG, "watch : following live stream " + liveStreamInfo.getId() );
+			
+			watch = new Watch( liveStreamInfo, program );
+			watch.listeners.add( listener );
+			
+			watches.put( liveStreamInfo.getId(), watch );
+			schedule( watch, 0 );
+		} else if( !watch.listeners.contains( listener ) ) {
+			watch.listeners.add( listener );
+		}
+		
+		Log.v( TAG, "watch : exit" );
+	}
+	
+	/**
+	 * Removes the listener, the stream is no longer polled once it has none left.
+	 * 
+	 * @param liveStreamId
+	 * @param listener
+	 */
+	public synchronized void unwatch( int liveStreamId, LiveStreamListener listener ) {
+		Log.v( TAG, "unwatch : enter" );
+		
+		Watch watch = watches.get( liveStreamId );
+		if( null != watch ) {
+			watch.listeners.remove( listener );
+			
+			stopIfUnwatched( watch );
+		}
+		
+		Log.v( TAG, "unwatch : exit" );
+	}
+	
+	/**
+	 * @param liveStreamId
+	 * @return true while the stream is being polled
+	 */
+	public boolean isWatching( int liveStreamId ) {
+		return watches.containsKey( liveStreamId );
+	}
+	
+	// internal helpers
+	
+	private synchronized void schedule( Watch watch, long delay ) {
+		
+		if( watches.get( watch.liveStreamInfo.getId() ) == watch ) {
+			watch.future = executor.schedule( watch, delay, TimeUnit.MILLISECONDS );
+		}
+		
+	}
+	
+	private synchronized void stop( Watch watch ) {
+		
+		if( watches.remove( watch.liveStreamInfo.getId(), watch ) ) {
+			Log.v( TAG, "stop : no longer following live stream " + watch.liveStreamInfo.getId() );
+			
+			if( null != watch.future ) {
+				watch.future.cancel( false );
+			}
+		}
+		
+	}
+	
+	private synchronized boolean stopIfUnwatched( Watch watch ) {
+		
+		if( !watch.listeners.isEmpty() ) {
+			return false;
+		}
+		
+		stop( watch );
+		
+		return true;
+	}
+	
+	private void notifyUpdated( final Watch watch, final LiveStreamInfo liveStreamInfo ) {
+		
+		mHandler.post( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				for( LiveStreamListener listener : watch.listeners ) {
+					listener.liveStreamUpdated( liveStreamInfo );
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+	private void notifyError( final Watch watch, final Exception e ) {
+		
+		final LiveStreamInfo liveStreamInfo = watch.liveStreamInfo;
+		
+		mHandler.post( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				for( LiveStreamListener listener : watch.listeners ) {
+					listener.liveStreamError( liveStreamInfo, e );
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+}
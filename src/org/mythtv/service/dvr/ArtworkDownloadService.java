@@ -0,0 +1,323 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.dvr;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.mythtv.client.ui.preferences.LocationProfile;
+import org.mythtv.db.dvr.RecordedDaoHelper;
+import org.mythtv.db.preferences.LocationProfileDaoHelper;
+import org.mythtv.service.MythtvService;
+
+import android.content.Intent;
+import android.util.Log;
+
+/**
+ * Downloads the banner and cover art of every recorded title in one pass.
+ * 
+ * The titles are read in a single query and every image that is neither on disk nor marked as not
+ * available by its <code>.na</code> file is fetched by a small pool of workers. Responses are streamed
+ * to disk, a title the backend has no image for gets a <code>.na</code> file so it is not asked for again.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ArtworkDownloadService extends MythtvService {
+
+	private static final String TAG = ArtworkDownloadService.class.getSimpleName();
+
+	public static final String BANNER_FILE = "banner.png";
+	public static final String BANNER_FILE_NA = "banner.na";
+	public static final String COVERART_FILE = "coverart.png";
+	public static final String COVERART_FILE_NA = "coverart.na";
+	
+	public static final int DEFAULT_FETCH_WORKERS = 4;
+	
+	private static final int CONNECT_TIMEOUT = 1000 * 10;
+	private static final int READ_TIMEOUT = 1000 * 30;
+	private static final long DOWNLOAD_TIMEOUT = 10;
+	
+	private static final String ARTWORK_PATH = "Content/GetRecordingArtwork";
+	private static final String TEMP_EXT = ".tmp";
+	
+    public static final String ACTION_DOWNLOAD = "org.mythtv.background.artworkDownload.ACTION_DOWNLOAD";
+    public static final String ACTION_COMPLETE = "org.mythtv.background.artworkDownload.ACTION_COMPLETE";
+
+    public static final String EXTRA_FETCH_WORKERS = "FETCH_WORKERS";
+    public static final String EXTRA_COMPLETE = "COMPLETE";
+    public static final String EXTRA_COMPLETE_DOWNLOADED = "COMPLETE_DOWNLOADED";
+    public static final String EXTRA_COMPLETE_NOT_AVAILABLE = "COMPLETE_NOT_AVAILABLE";
+    public static final String EXTRA_COMPLETE_OFFLINE = "COMPLETE_OFFLINE";
+
+    public enum ArtworkType {
+    	BANNER( "Banner", BANNER_FILE, BANNER_FILE_NA ),
+    	COVERART( "Coverart", COVERART_FILE, COVERART_FILE_NA );
+    	
+    	private final String type;
+    	private final String filename;
+    	private final String notAvailableFilename;
+    	
+    	private ArtworkType( String type, String filename, String notAvailableFilename ) {
+    		this.type = type;
+    		this.filename = filename;
+    		this.notAvailableFilename = notAvailableFilename;
+    	}
+
+		public String getType() {
+			return type;
+		}
+
+		public String getFilename() {
+			return filename;
+		}
+
+		public String getNotAvailableFilename() {
+			return notAvailableFilename;
+		}
+    	
+    }
+    
+	private RecordedDaoHelper mRecordedDaoHelper;
+	private LocationProfileDaoHelper mLocationProfileDaoHelper;
+	
+	private final AtomicInteger downloaded = new AtomicInteger();
+	private final AtomicInteger notAvailable = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	private final AtomicBoolean offline = new AtomicBoolean();
+	
+	public ArtworkDownloadService() {
+		super( "ArtworkDownloadService" );
+	}
+	
+	/* (non-Javadoc)
+	 * @see android.app.IntentService#onHandleIntent(android.content.Intent)
+	 */
+	@Override
+	protected void onHandleIntent( Intent intent ) {
+		Log.d( TAG, "onHandleIntent : enter" );
+		super.onHandleIntent( intent );
+		
+		mRecordedDaoHelper = new RecordedDaoHelper( this );
+		mLocationProfileDaoHelper = new LocationProfileDaoHelper( this );
+		
+		File programGroupsDirectory = mFileHelper.getProgramGroupsDataDirectory();
+		if( null == programGroupsDirectory || !programGroupsDirectory.exists() ) {
+			Intent completeIntent = new Intent( ACTION_COMPLETE );
+			completeIntent.putExtra( EXTRA_COMPLETE, "Program group location can not be found" );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
+			sendBroadcast( completeIntent );
+
+			Log.d( TAG, "onHandleIntent : exit, programGroupsDirectory does not exist" );
+			return;
+		}
+
+		if( !mNetworkHelper.isMasterBackendConnected() ) {
+			Intent completeIntent = new Intent( ACTION_COMPLETE );
+			completeIntent.putExtra( EXTRA_COMPLETE, "Master Backend unreachable" );
+			completeIntent.putExtra( EXTRA_COMPLETE_OFFLINE, Boolean.TRUE );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
+			sendBroadcast( completeIntent );
+
+			Log.d( TAG, "onHandleIntent : exit, Master Backend unreachable" );
+			return;
+		}
+
+		if ( intent.getAction().equals( ACTION_DOWNLOAD ) ) {
+    		Log.i( TAG, "onHandleIntent : DOWNLOAD action selected" );
+
+    		downloaded.set( 0 );
+    		notAvailable.set( 0 );
+    		failed.set( 0 );
+    		offline.set( false );
+    		
+    		boolean passed = false;
+    		try {
+    			int workers = Math.max( 1, intent.getIntExtra( EXTRA_FETCH_WORKERS, DEFAULT_FETCH_WORKERS ) );
+    			
+    			download( workers );
+    			
+    			// images skipped after an error are requested again by the next run, which should not wait for the interval
+    			passed = !offline.get() && failed.get() == 0;
+    		} catch( Exception e ) {
+    			Log.e( TAG, "onHandleIntent : error", e );
+    		} finally {
+    			Log.i( TAG, "onHandleIntent : downloaded=" + downloaded.get() + ", notAvailable=" + notAvailable.get() + ", failed=" + failed.get() + ", offline=" + offline.get() );
+    			
+    			Intent completeIntent = new Intent( ACTION_COMPLETE );
+    			completeIntent.putExtra( EXTRA_COMPLETE, "Artwork Download Service Finished" );
+    			completeIntent.putExtra( EXTRA_COMPLETE_DOWNLOADED, downloaded.get() );
+    			completeIntent.putExtra( EXTRA_COMPLETE_NOT_AVAILABLE, notAvailable.get() );
+    			if( offline.get() ) {
+    				completeIntent.putExtra( EXTRA_COMPLETE_OFFLINE, Boolean.TRUE );
+    			}
+    			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, passed );
+    			sendBroadcast( completeIntent );
+    		}
+		}
+		
+		Log.d( TAG, "onHandleIntent : exit" );
+	}
+
+	// internal helpers
+	
+	private void download( int workers ) throws InterruptedException, UnsupportedEncodingException {
+		Log.v( TAG, "download : enter" );
+		
+		LocationProfile locationProfile = mLocationProfileDaoHelper.findConnectedProfile();
+		
+		List<Fetch> fetches = new ArrayList<Fetch>();
+		for( Map.Entry<String, String> entry : mRecordedDaoHelper.findAllInetrefs().entrySet() ) {
+			
+			File programGroupDirectory = mFileHelper.getProgramGroupDirectory( entry.getKey() );
+			if( null == programGroupDirectory ) {
+				continue;
+			}
+			
+			for( ArtworkType type : ArtworkType.values() ) {
+				
+				File artwork = new File( programGroupDirectory, type.getFilename() );
+				File artworkNA = new File( programGroupDirectory, type.getNotAvailableFilename() );
+				if( !artwork.exists() && !artworkNA.exists() ) {
+					String url = locationProfile.getUrl() + ARTWORK_PATH + "?Type=" + type.getType() + "&Inetref=" + URLEncoder.encode( entry.getValue(), "UTF-8" );
+					
+					fetches.add( new Fetch( url, artwork, artworkNA ) );
+				}
+				
+			}
+			
+		}
+		
+		if( fetches.isEmpty() ) {
+			Log.v( TAG, "download : exit, no artwork missing" );
+			return;
+		}
+		
+		workers = Math.min( workers, fetches.size() );
+		Log.v( TAG, "download : fetching " + fetches.size() + " images with " + workers + " workers" );
+		
+		ExecutorService fetchers = Executors.newFixedThreadPool( workers );
+		for( Fetch fetch : fetches ) {
+			fetchers.execute( fetch );
+		}
+		fetchers.shutdown();
+		
+		if( !fetchers.awaitTermination( DOWNLOAD_TIMEOUT, TimeUnit.MINUTES ) ) {
+			Log.w( TAG, "download : artwork downloads did not finish in time" );
+			
+			fetchers.shutdownNow();
+		}
+		
+		Log.v( TAG, "download : exit" );
+	}
+	
+	private class Fetch implements Runnable {
+		
+		private final String url;
+		private final File artwork;
+		private final File artworkNA;
+		
+		private Fetch( String url, File artwork, File artworkNA ) {
+			this.url = url;
+			this.artwork = artwork;
+			this.artworkNA = artworkNA;
+		}
+
+		@Override
+		public void run() {
+			
+			// once the backend stops answering, the remaining images are left for the next run
+			if( offline.get() || Thread.currentThread().isInterrupted() ) {
+				return;
+			}
+			
+			HttpURLConnection connection = null;
+			InputStream in = null;
+			try {
+				connection = (HttpURLConnection) new URL( url ).openConnection();
+				connection.setConnectTimeout( CONNECT_TIMEOUT );
+				connection.setReadTimeout( READ_TIMEOUT );
+				
+				int status = connection.getResponseCode();
+				if( status != HttpURLConnection.HTTP_OK ) {
+					in = connection.getErrorStream();
+					
+					// only a missing image is remembered, any other error is left for the next run to retry
+					if( status == HttpURLConnection.HTTP_NOT_FOUND ) {
+						Log.v( TAG, "Fetch.run : " + artwork.getParentFile().getName() + "/" + artwork.getName() + " not available" );
+						
+						artworkNA.createNewFile();
+						notAvailable.incrementAndGet();
+					} else {
+						Log.w( TAG, "Fetch.run : " + artwork.getParentFile().getName() + "/" + artwork.getName() + " skipped, response=" + status );
+						
+						failed.incrementAndGet();
+					}
+					
+					return;
+				}
+				
+				in = connection.getInputStream();
+				
+				File temp = new File( artwork.getPath() + TEMP_EXT );
+				OutputStream out = new BufferedOutputStream( new FileOutputStream( temp ) );
+				try {
+					IOUtils.copy( in, out );
+				} finally {
+					IOUtils.closeQuietly( out );
+				}
+				
+				if( temp.length() > 0 && temp.renameTo( artwork ) ) {
+					downloaded.incrementAndGet();
+				} else {
+					temp.delete();
+				}
+				
+			} catch( IOException e ) {
+				Log.w( TAG, "Fetch.run : error downloading " + url, e );
+				
+				offline.set( true );
+			} finally {
+				
+				// closing the stream rather than disconnecting hands the connection back for the next image
+				IOUtils.closeQuietly( in );
+			}
+			
+		}
+		
+	}
+	
+}
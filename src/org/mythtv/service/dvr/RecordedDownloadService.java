@@ -20,33 +20,32 @@ package org.mythtv.service.dvr;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.commons.io.FileUtils;
 import org.mythtv.R;
 import org.mythtv.client.ui.preferences.LocationProfile;
+import org.mythtv.db.dvr.ProgramConstants;
 import org.mythtv.db.dvr.RecordedDaoHelper;
+import org.mythtv.db.dvr.RecordingConstants;
+import org.mythtv.db.dvr.programGroup.ProgramGroupConstants;
 import org.mythtv.db.http.EtagDaoHelper;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
+import org.mythtv.provider.MythtvProvider;
 import org.mythtv.service.MythtvService;
+import org.mythtv.service.util.JsonStreamHelper;
+import org.mythtv.service.util.JsonStreamHelper.BatchHandler;
 import org.mythtv.services.api.ETagInfo;
-import org.mythtv.services.api.dvr.ProgramList;
-import org.mythtv.services.api.dvr.Programs;
+import org.mythtv.services.api.dvr.Program;
 import org.mythtv.services.api.dvr.impl.DvrTemplate.Endpoint;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 
 import android.app.Notification;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.content.OperationApplicationException;
-import android.os.RemoteException;
 import android.util.Log;
 
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-
 /**
  * @author Daniel Frey
  *
@@ -58,6 +57,11 @@ public class RecordedDownloadService extends MythtvService {
 	private static final String RECORDED_FILE_PREFIX = "recorded_";
 	private static final String RECORDED_FILE_EXT = ".json";
 	
+	private static final String PROGRAMS_FIELD = "Programs";
+	
+	// the tables the sync writes, their screens requery once it is done
+	private static final String[] NOTIFIED_TABLES = new String[] { ProgramConstants.TABLE_NAME_RECORDED, RecordingConstants.TABLE_NAME, ProgramGroupConstants.TABLE_NAME };
+	
     public static final String ACTION_DOWNLOAD = "org.mythtv.background.recordedDownload.ACTION_DOWNLOAD";
     public static final String ACTION_PROGRESS = "org.mythtv.background.recordedDownload.ACTION_PROGRESS";
     public static final String ACTION_COMPLETE = "org.mythtv.background.recordedDownload.ACTION_COMPLETE";
@@ -68,6 +72,7 @@ public class RecordedDownloadService extends MythtvService {
     public static final String EXTRA_COMPLETE = "COMPLETE";
     public static final String EXTRA_COMPLETE_UPTODATE = "COMPLETE_UPTODATE";
     public static final String EXTRA_COMPLETE_OFFLINE = "COMPLETE_OFFLINE";
+    public static final String EXTRA_COMPLETE_CHANGED = "COMPLETE_CHANGED";
     
 	private NotificationManager mNotificationManager;
 	private int notificationId;
@@ -76,6 +81,7 @@ public class RecordedDownloadService extends MythtvService {
 	private RecordedDaoHelper mRecordedDaoHelper;
 	private EtagDaoHelper mEtagDaoHelper;
 	private LocationProfileDaoHelper mLocationProfileDaoHelper;
+	private JsonStreamHelper mJsonStreamHelper;
 	
 	public RecordedDownloadService() {
 		super( "RecordedDownloadService" );
@@ -90,15 +96,18 @@ public class RecordedDownloadService extends MythtvService {
 		super.onHandleIntent( intent );
 		
 		boolean passed = true;
+		int changed = 0;
 		
 		mRecordedDaoHelper = new RecordedDaoHelper( this );
 		mEtagDaoHelper = new EtagDaoHelper( this );
 		mLocationProfileDaoHelper = new LocationProfileDaoHelper( this );
+		mJsonStreamHelper = JsonStreamHelper.newInstance( mMainApplication.getObjectMapper() );
 		
 		recordedDirectory = mFileHelper.getProgramRecordedDataDirectory();
 		if( null == recordedDirectory || !recordedDirectory.exists() ) {
 			Intent completeIntent = new Intent( ACTION_COMPLETE );
 			completeIntent.putExtra( EXTRA_COMPLETE, "Program Recorded location can not be found" );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
 			sendBroadcast( completeIntent );
 
 			Log.d( TAG, "onHandleIntent : exit, programCache does not exist" );
@@ -109,6 +118,7 @@ public class RecordedDownloadService extends MythtvService {
 			Intent completeIntent = new Intent( ACTION_COMPLETE );
 			completeIntent.putExtra( EXTRA_COMPLETE, "Master Backend unreachable" );
 			completeIntent.putExtra( EXTRA_COMPLETE_OFFLINE, Boolean.TRUE );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
 			sendBroadcast( completeIntent );
 
 			Log.d( TAG, "onHandleIntent : exit, Master Backend unreachable" );
@@ -120,11 +130,10 @@ public class RecordedDownloadService extends MythtvService {
 		if ( intent.getAction().equals( ACTION_DOWNLOAD ) ) {
     		Log.i( TAG, "onHandleIntent : DOWNLOAD action selected" );
 
-    		Programs programs = null;
     		try {
     			sendNotification();
 
-    			download();
+    			changed = download();
 
 			} catch( Exception e ) {
 				Log.e( TAG, "onHandleIntent : error", e );
@@ -135,9 +144,9 @@ public class RecordedDownloadService extends MythtvService {
 
     			Intent completeIntent = new Intent( ACTION_COMPLETE );
     			completeIntent.putExtra( EXTRA_COMPLETE, "Recorded Programs Download Service Finished" );
-    			if( null == programs ) {
-    				completeIntent.putExtra( EXTRA_COMPLETE_UPTODATE, passed );
-    			}
+   				completeIntent.putExtra( EXTRA_COMPLETE_UPTODATE, passed );
+   				completeIntent.putExtra( EXTRA_COMPLETE_PASSED, passed );
+   				completeIntent.putExtra( EXTRA_COMPLETE_CHANGED, changed );
     			
     			sendBroadcast( completeIntent );
     		}
@@ -149,48 +158,67 @@ public class RecordedDownloadService extends MythtvService {
 
 	// internal helpers
 	
-	private void download() throws Exception {
+	/*
+	 * Returns the number of recordings inserted, updated or deleted, unchanged recordings are not written.
+	 */
+	private int download() throws Exception {
 		Log.v( TAG, "download : enter" );
 
+		int changed = 0;
+
 		LocationProfile locationProfile = mLocationProfileDaoHelper.findConnectedProfile();
 		Log.v( TAG, "download : get recorded for host [" + locationProfile.getHostname() + ":" + locationProfile.getUrl() + "]" );
 
 		ETagInfo etag = mEtagDaoHelper.findByEndpointAndDataId( Endpoint.GET_RECORDED_LIST.name(), "" );
 		
-		ResponseEntity<ProgramList> responseEntity = mMainApplication.getMythServicesApi( locationProfile ).dvrOperations().getRecordedList( etag );
-
-		if( responseEntity.getStatusCode().equals( HttpStatus.OK ) ) {
-			Log.i( TAG, "download : " + Endpoint.GET_RECORDED_LIST.getEndpoint() + " returned 200 OK" );
-			ProgramList programList = responseEntity.getBody();
+		String url = JsonStreamHelper.buildUrl( locationProfile.getUrl(), JsonStreamHelper.DVR_SERVICE, Endpoint.GET_RECORDED_LIST.getEndpoint(), null );
+		
+		// the response is copied to the cache file as it is parsed, each batch of programs is written as soon as it is complete
+		final int[] loaded = new int[ 1 ];
+		BatchHandler<Program> handler = new BatchHandler<Program>( JsonStreamHelper.DEFAULT_BATCH_SIZE ) {
 
-//			Log.v( TAG, "download : loaded local file" );
-//			File recorded = new File( mFileHelper.getProgramRecordedDataDirectory(), "GetRecordedList.json" );
-//			programList = mMainApplication.getObjectMapper().readValue( recorded, ProgramList.class );
+			@Override
+			protected void batch( List<Program> programs ) {
+				loaded[ 0 ] += mRecordedDaoHelper.loadBatch( programs );
+			}
 			
-			if( null != programList.getPrograms() ) {
-				//cleanup();
+		};
+		
+		// the recordings and their program groups are written in several batches, screens requery once when all are done
+		File recorded = new File( recordedDirectory, RECORDED_FILE_PREFIX + locationProfile.getHostname() + RECORDED_FILE_EXT );
+		MythtvProvider.deferNotifications( getContentResolver(), NOTIFIED_TABLES );
+		try {
+			int streamed = mJsonStreamHelper.download( url, etag, recorded, PROGRAMS_FIELD, Program.class, handler );
+
+			if( streamed != JsonStreamHelper.NOT_MODIFIED ) {
+				Log.i( TAG, "download : " + Endpoint.GET_RECORDED_LIST.getEndpoint() + " returned 200 OK" );
+				Log.v( TAG, "download : saved recorded to " + recorded.getAbsolutePath() );
 
-				process( programList.getPrograms() );	
+				// only reached once the whole array was read, download throws on a missing or cut off one so nothing is pruned
+				handler.flush();
+				changed = loaded[ 0 ] + mRecordedDaoHelper.finishSync();
+				Log.v( TAG, "download : recordings=" + streamed + ", changed=" + changed );
 
 				if( null != etag.getETag() ) {
 					Log.i( TAG, "download : saving etag: " + etag.getETag() );
 					mEtagDaoHelper.save( etag, Endpoint.GET_RECORDED_LIST.name(), "" );
 				}
 
-			}
-
-		}
+			} else {
+				Log.i( TAG, "download : " + Endpoint.GET_RECORDED_LIST.getEndpoint() + " returned 304 Not Modified" );
 
-		if( responseEntity.getStatusCode().equals( HttpStatus.NOT_MODIFIED ) ) {
-			Log.i( TAG, "download : " + Endpoint.GET_RECORDED_LIST.getEndpoint() + " returned 304 Not Modified" );
+				if( null != etag.getETag() ) {
+					mEtagDaoHelper.save( etag, Endpoint.GET_RECORDED_LIST.name(), "" );
+				}
 
-			if( null != etag.getETag() ) {
-				mEtagDaoHelper.save( etag, Endpoint.GET_RECORDED_LIST.name(), "" );
 			}
-
+			
+		} finally {
+			MythtvProvider.resumeNotifications( getContentResolver(), NOTIFIED_TABLES );
 		}
 			
 		Log.v( TAG, "download : exit" );
+		return changed;
 	}
 
 	private void cleanup() throws IOException {
@@ -201,21 +229,6 @@ public class RecordedDownloadService extends MythtvService {
 		Log.v( TAG, "cleanup : exit" );
 	}
 
-	private void process( Programs programs ) throws JsonGenerationException, JsonMappingException, IOException, RemoteException, OperationApplicationException {
-		Log.v( TAG, "process : enter" );
-		
-		LocationProfile locationProfile = mLocationProfileDaoHelper.findConnectedProfile();
-		Log.v( TAG, "process : saving recorded for host [" + locationProfile.getHostname() + ":" + locationProfile.getUrl() + "]" );
-		
-		mMainApplication.getObjectMapper().writeValue( new File( recordedDirectory, RECORDED_FILE_PREFIX + locationProfile.getHostname() + RECORDED_FILE_EXT ), programs );
-		Log.v( TAG, "process : saved recorded to " + recordedDirectory.getAbsolutePath() );
-
-		int programsAdded = mRecordedDaoHelper.load( programs.getPrograms() );
-		Log.v( TAG, "process : programsAdded=" + programsAdded );
-		
-		Log.v( TAG, "process : exit" );
-	}
-
 	// internal helpers
 	
 	@SuppressWarnings( "deprecation" )
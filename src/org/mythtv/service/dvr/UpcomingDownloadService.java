@@ -21,33 +21,31 @@ package org.mythtv.service.dvr;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.List;
 
 import org.apache.commons.io.FileUtils;
 import org.mythtv.R;
 import org.mythtv.client.ui.preferences.LocationProfile;
+import org.mythtv.db.dvr.ProgramConstants;
+import org.mythtv.db.dvr.RecordingConstants;
 import org.mythtv.db.dvr.UpcomingDaoHelper;
 import org.mythtv.db.http.EtagDaoHelper;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
+import org.mythtv.provider.MythtvProvider;
 import org.mythtv.service.MythtvService;
+import org.mythtv.service.util.JsonStreamHelper;
+import org.mythtv.service.util.JsonStreamHelper.BatchHandler;
 import org.mythtv.services.api.ETagInfo;
-import org.mythtv.services.api.dvr.ProgramList;
-import org.mythtv.services.api.dvr.Programs;
+import org.mythtv.services.api.dvr.Program;
 import org.mythtv.services.api.dvr.impl.DvrTemplate.Endpoint;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 
 import android.app.Notification;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
-import android.content.OperationApplicationException;
-import android.os.RemoteException;
 import android.util.Log;
 
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-
 /**
  * @author Daniel Frey
  *
@@ -60,6 +58,12 @@ public class UpcomingDownloadService extends MythtvService {
 	private static final String UPCOMING_FILE_PREFIX = "upcoming_";
 	private static final String UPCOMING_FILE_EXT = ".json";
 	
+	private static final String UPCOMING_LIST_QUERY = "StartIndex=-1&Count=-1&ShowAll=false";
+	private static final String PROGRAMS_FIELD = "Programs";
+	
+	// the tables the sync writes, their screens requery once it is done
+	private static final String[] NOTIFIED_TABLES = new String[] { ProgramConstants.TABLE_NAME_UPCOMING, RecordingConstants.TABLE_NAME };
+	
     public static final String ACTION_DOWNLOAD = "org.mythtv.background.upcomingDownload.ACTION_DOWNLOAD";
     public static final String ACTION_PROGRESS = "org.mythtv.background.upcomingDownload.ACTION_PROGRESS";
     public static final String ACTION_COMPLETE = "org.mythtv.background.upcomingDownload.ACTION_COMPLETE";
@@ -81,6 +85,7 @@ public class UpcomingDownloadService extends MythtvService {
 	private UpcomingDaoHelper mUpcomingDaoHelper;
 	private EtagDaoHelper mEtagDaoHelper;
 	private LocationProfileDaoHelper mLocationProfileDaoHelper;
+	private JsonStreamHelper mJsonStreamHelper;
 
 	public UpcomingDownloadService() {
 		super( "UpcomingDownloadService" );
@@ -97,11 +102,13 @@ public class UpcomingDownloadService extends MythtvService {
 		mUpcomingDaoHelper = new UpcomingDaoHelper( this );
 		mEtagDaoHelper = new EtagDaoHelper( this );
 		mLocationProfileDaoHelper = new LocationProfileDaoHelper( this );
+		mJsonStreamHelper = JsonStreamHelper.newInstance( mMainApplication.getObjectMapper() );
 		
 		upcomingDirectory = mFileHelper.getProgramUpcomingDataDirectory();
 		if( null == upcomingDirectory || !upcomingDirectory.exists() ) {
 			Intent completeIntent = new Intent( ACTION_COMPLETE );
 			completeIntent.putExtra( EXTRA_COMPLETE, "Program Upcoming location can not be found" );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
 			sendBroadcast( completeIntent );
 
 			Log.d( TAG, "onHandleIntent : exit, upcomingDirectory does not exist" );
@@ -112,6 +119,7 @@ public class UpcomingDownloadService extends MythtvService {
 			Intent completeIntent = new Intent( ACTION_COMPLETE );
 			completeIntent.putExtra( EXTRA_COMPLETE, "Master Backend unreachable" );
 			completeIntent.putExtra( EXTRA_COMPLETE_OFFLINE, Boolean.TRUE );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
 			sendBroadcast( completeIntent );
 
 			Log.d( TAG, "onHandleIntent : exit, programCache does not exist" );
@@ -141,6 +149,7 @@ public class UpcomingDownloadService extends MythtvService {
     			completeIntent.putExtra( EXTRA_COMPLETE, "Upcoming Programs Download Service Finished" );
     			completeIntent.putExtra( EXTRA_COMPLETE, "Recorded Programs Download Service Finished" );
    				completeIntent.putExtra( EXTRA_COMPLETE_UPTODATE, passed );
+   				completeIntent.putExtra( EXTRA_COMPLETE_PASSED, passed );
     			
     			sendBroadcast( completeIntent );
     		}
@@ -161,36 +170,48 @@ public class UpcomingDownloadService extends MythtvService {
 		ETagInfo etag = mEtagDaoHelper.findByEndpointAndDataId( Endpoint.GET_UPCOMING_LIST.name(), "" );
 		etag = ETagInfo.createEmptyETag();
 		
-		ResponseEntity<ProgramList> responseEntity = mMainApplication.getMythServicesApi().dvrOperations().getUpcomingList( -1, -1, false, etag );
-		if( responseEntity.getStatusCode().equals( HttpStatus.OK ) ) {
-			Log.i( TAG, "download : " + Endpoint.GET_UPCOMING_LIST.getEndpoint() + " returned 200 OK" );
+		String url = JsonStreamHelper.buildUrl( locationProfile.getUrl(), JsonStreamHelper.DVR_SERVICE, Endpoint.GET_UPCOMING_LIST.getEndpoint(), UPCOMING_LIST_QUERY );
+		
+		// the response is copied to the cache file as it is parsed, each batch of programs is written as soon as it is complete
+		final int[] loaded = new int[ 1 ];
+		BatchHandler<Program> handler = new BatchHandler<Program>( JsonStreamHelper.DEFAULT_BATCH_SIZE ) {
+
+			@Override
+			protected void batch( List<Program> programs ) {
+				loaded[ 0 ] += mUpcomingDaoHelper.loadBatch( programs );
+			}
+			
+		};
+
+		File upcoming = new File( upcomingDirectory, UPCOMING_FILE_PREFIX + locationProfile.getHostname() + UPCOMING_FILE_EXT );
+		MythtvProvider.deferNotifications( getContentResolver(), NOTIFIED_TABLES );
+		try {
+			int streamed = mJsonStreamHelper.download( url, etag, upcoming, PROGRAMS_FIELD, Program.class, handler );
+		
+			if( streamed != JsonStreamHelper.NOT_MODIFIED ) {
+				Log.i( TAG, "download : " + Endpoint.GET_UPCOMING_LIST.getEndpoint() + " returned 200 OK" );
+				Log.v( TAG, "download : saved upcoming to " + upcoming.getAbsolutePath() );
 	
-			ProgramList programList = responseEntity.getBody();
-			if( null != programList ) {
-				
-				if( null != programList.getPrograms() ) {
-					
-//					cleanup();
+				// only reached once the whole array was read, download throws on a missing or cut off one so nothing is pruned
+				handler.flush();
+				int programsAdded = loaded[ 0 ] + mUpcomingDaoHelper.finishSync();
+				Log.v( TAG, "download : programsAdded=" + programsAdded );
 				
-					process( programList.getPrograms() );
-				
-					if( null != etag.getETag() ) {
-						mEtagDaoHelper.save( etag, Endpoint.GET_UPCOMING_LIST.name(), "" );
-					}
-						
+				if( null != etag.getETag() ) {
+					mEtagDaoHelper.save( etag, Endpoint.GET_UPCOMING_LIST.name(), "" );
 				}
+						
+			} else {
+				Log.i( TAG, "download : " + Endpoint.GET_UPCOMING_LIST.getEndpoint() + " returned 304 Not Modified" );
 			
-			}
-
-		}
-		
-		if( responseEntity.getStatusCode().equals( HttpStatus.NOT_MODIFIED ) ) {
-			Log.i( TAG, "download : " + Endpoint.GET_UPCOMING_LIST.getEndpoint() + " returned 304 Not Modified" );
+				if( null != etag.getETag() ) {
+					mEtagDaoHelper.save( etag, Endpoint.GET_UPCOMING_LIST.name(), "" );
+				}
 			
-			if( null != etag.getETag() ) {
-				mEtagDaoHelper.save( etag, Endpoint.GET_UPCOMING_LIST.name(), "" );
 			}
 			
+		} finally {
+			MythtvProvider.resumeNotifications( getContentResolver(), NOTIFIED_TABLES );
 		}
 		
 		Log.v( TAG, "download : exit" );
@@ -204,21 +225,6 @@ public class UpcomingDownloadService extends MythtvService {
 		Log.v( TAG, "cleanup : exit" );
 	}
 	
-	private void process( Programs programs ) throws JsonGenerationException, JsonMappingException, IOException, RemoteException, OperationApplicationException {
-		Log.v( TAG, "process : enter" );
-		
-		LocationProfile locationProfile = mLocationProfileDaoHelper.findConnectedProfile();
-		Log.v( TAG, "process : saving upcoming for host [" + locationProfile.getHostname() + ":" + locationProfile.getUrl() + "]" );
-
-		mMainApplication.getObjectMapper().writeValue( new File( upcomingDirectory, UPCOMING_FILE_PREFIX + locationProfile.getHostname() + UPCOMING_FILE_EXT ), programs );
-		Log.v( TAG, "process : saved upcoming to " + upcomingDirectory.getAbsolutePath() );
-		
-		int programsAdded = mUpcomingDaoHelper.load( programs.getPrograms() );
-		Log.v( TAG, "process : programsAdded=" + programsAdded );
-
-		Log.v( TAG, "process : exit" );
-	}
-
 	// internal helpers
 	
 	@SuppressWarnings( "deprecation" )
@@ -0,0 +1,322 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.dvr.cache;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mythtv.service.dvr.ArtworkDownloadService.ArtworkType;
+import org.mythtv.service.util.FileHelper;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.os.AsyncTask;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+/**
+ * Holds the decoded banners and cover art of the program groups, sized by the bytes of the bitmaps
+ * rather than the number of entries.
+ * 
+ * Screens read the images with {@link #loadArtwork(ArtworkType, String, ArtworkListener)}, which decodes off the UI
+ * thread. Images are downsampled to the size set for their type with {@link #setTargetSize(ArtworkType, int, int)}.
+ * The bounds and the pixels are read from the same stream and all decodes share one temp buffer. Evicted bitmaps
+ * are not decoded into again, screens may still be showing them.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ArtworkLruMemoryCache extends LruCache<String, BitmapDrawable> {
+
+	private static final String TAG = ArtworkLruMemoryCache.class.getSimpleName();
+	
+	private static final String KEY_SEPARATOR = "/";
+	private static final int DECODE_BUFFER_SIZE = 16 * 1024;
+	
+	/**
+	 * Receives an image read by {@link ArtworkLruMemoryCache#loadArtwork(ArtworkType, String, ArtworkListener)}.
+	 */
+	public interface ArtworkListener {
+		
+		/**
+		 * Called on the UI thread.
+		 * 
+		 * @param artwork the image, null when it has not been downloaded
+		 */
+		void onArtwork( BitmapDrawable artwork );
+		
+	}
+	
+	private final Context mContext;
+	private final Resources mResources;
+
+    private FileHelper mFileHelper;
+	
+	private final Map<ArtworkType, int[]> targetSizes = new EnumMap<ArtworkType, int[]>( ArtworkType.class );
+	
+	// guarded by itself, only one decode uses it at a time
+	private final byte[] decodeBuffer = new byte[ DECODE_BUFFER_SIZE ];
+	
+	private final AtomicInteger decodeCount = new AtomicInteger();
+	private final AtomicLong decodedBytes = new AtomicLong();
+	private final AtomicLong decodeTime = new AtomicLong();
+	
+	/**
+	 * @param context
+	 * @param maxSize the size of the cache in bytes
+	 */
+	public ArtworkLruMemoryCache( Context context, int maxSize ) {
+		super( maxSize );
+		Log.v( TAG, "initialize : enter" );
+
+		mContext = context;
+		mFileHelper = FileHelper.newInstance( mContext );
+		
+		mResources = mContext.getResources();
+		
+		Log.v( TAG, "initialize : exit" );
+	}
+
+	/**
+	 * @param type
+	 * @param title the program group title
+	 * @return the cache key of the image
+	 */
+	public static String getKey( ArtworkType type, String title ) {
+		return type.name() + KEY_SEPARATOR + title;
+	}
+	
+	/**
+	 * @param type
+	 * @param title the program group title
+	 * @return the image, null when it has not been downloaded
+	 */
+	public BitmapDrawable getArtwork( ArtworkType type, String title ) {
+		return get( getKey( type, title ) );
+	}
+	
+	/**
+	 * Reads the image in the background, an image that is not in memory is decoded from the program group directory.
+	 * Must be called on the UI thread.
+	 * 
+	 * @param type
+	 * @param title the program group title
+	 * @param listener
+	 */
+	public void loadArtwork( final ArtworkType type, final String title, final ArtworkListener listener ) {
+		
+		new AsyncTask<Void, Void, BitmapDrawable>() {
+
+			@Override
+			protected BitmapDrawable doInBackground( Void... params ) {
+				return getArtwork( type, title );
+			}
+
+			@Override
+			protected void onPostExecute( BitmapDrawable artwork ) {
+				listener.onArtwork( artwork );
+			}
+			
+		}.execute();
+		
+	}
+	
+	/**
+	 * Sets the size the images of the type are shown at, larger images are downsampled when they are decoded.
+	 * 
+	 * @param type
+	 * @param width
+	 * @param height
+	 */
+	public void setTargetSize( ArtworkType type, int width, int height ) {
+		
+		synchronized( targetSizes ) {
+			targetSizes.put( type, new int[] { width, height } );
+		}
+		
+	}
+	
+	/**
+	 * Drops every image, called when the system asks the application to release memory.
+	 * 
+	 * @param level
+	 */
+	public void trimMemory( int level ) {
+		Log.v( TAG, "trimMemory : level=" + level + ", " + getStats() );
+		
+		evictAll();
+		
+	}
+	
+	/**
+	 * @return the percentage of reads answered from memory
+	 */
+	public int getHitRate() {
+		
+		int hits = hitCount();
+		int requests = hits + missCount();
+		
+		return requests > 0 ? ( hits * 100 ) / requests : 0;
+	}
+	
+	/**
+	 * @return the total bytes of all the bitmaps decoded
+	 */
+	public long getDecodedBytes() {
+		return decodedBytes.get();
+	}
+	
+	/**
+	 * @return the cache counters, for tuning
+	 */
+	public String getStats() {
+		
+		int decodes = decodeCount.get();
+		
+		return "hits=" + hitCount() + ", misses=" + missCount() + ", hitRate=" + getHitRate() + "%"
+				+ ", decodes=" + decodes + ", decodedBytes=" + decodedBytes.get()
+				+ ", averageDecodeTime=" + ( decodes > 0 ? decodeTime.get() / decodes : 0 ) + "ms"
+				+ ", evicted=" + evictionCount() + ", size=" + size() + "/" + maxSize();
+	}
+	
+	/* (non-Javadoc)
+	 * @see android.support.v4.util.LruCache#create(java.lang.Object)
+	 */
+	@Override
+	protected BitmapDrawable create( String key ) {
+		Log.v( TAG, "create : enter" );
+
+		int separator = key.indexOf( KEY_SEPARATOR );
+		ArtworkType type = ArtworkType.valueOf( key.substring( 0, separator ) );
+		String title = key.substring( separator + 1 );
+		
+		File programGroupDirectory = mFileHelper.getProgramGroupDirectory( title );
+		if( null != programGroupDirectory ) {
+
+			File image = new File( programGroupDirectory, type.getFilename() );
+			if( image.exists() ) {
+				try {
+					Bitmap bitmap = decode( image, type );
+					if( null != bitmap ) {
+						
+						Log.v( TAG, "create : exit" );
+						return new BitmapDrawable( mResources, bitmap );
+					}
+					
+				} catch( IOException e ) {
+					Log.e( TAG, "create : error reading file", e );
+				}
+			}
+		}
+		
+		Log.v( TAG, "create : exit, no image" );
+		return super.create( key );
+	}
+
+	/* (non-Javadoc)
+	 * @see android.support.v4.util.LruCache#sizeOf(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	protected int sizeOf( String key, BitmapDrawable value ) {
+		
+		Bitmap bitmap = value.getBitmap();
+		
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	// internal helpers
+	
+	private Bitmap decode( File image, ArtworkType type ) throws IOException {
+		
+		long start = System.currentTimeMillis();
+		
+		InputStream is = new BufferedInputStream( new FileInputStream( image ), DECODE_BUFFER_SIZE );
+		try {
+			
+			// the bounds are read from the head of the file, resetting avoids opening it a second time
+			is.mark( (int) image.length() + 1 );
+			
+			synchronized( decodeBuffer ) {
+				
+				BitmapFactory.Options options = new BitmapFactory.Options();
+				options.inTempStorage = decodeBuffer;
+				options.inDither = false;
+				options.inJustDecodeBounds = true;
+				BitmapFactory.decodeStream( is, null, options );
+				
+				if( options.outWidth <= 0 || options.outHeight <= 0 ) {
+					return null;
+				}
+				
+				options.inSampleSize = getScale( options.outWidth, options.outHeight, getTargetSize( type ) );
+				options.inJustDecodeBounds = false;
+				
+				is.reset();
+				
+				Bitmap bitmap = BitmapFactory.decodeStream( is, null, options );
+				if( null != bitmap ) {
+					decodeCount.incrementAndGet();
+					decodedBytes.addAndGet( bitmap.getRowBytes() * bitmap.getHeight() );
+					decodeTime.addAndGet( System.currentTimeMillis() - start );
+				}
+				
+				return bitmap;
+			}
+			
+		} finally {
+			is.close();
+		}
+		
+	}
+	
+	private int[] getTargetSize( ArtworkType type ) {
+		
+		synchronized( targetSizes ) {
+			return targetSizes.get( type );
+		}
+		
+	}
+	
+	private static int getScale( int originalWidth, int originalHeight, int[] targetSize ) {
+		
+		int scale = 1;
+		
+		if( null == targetSize || targetSize[ 0 ] <= 0 || targetSize[ 1 ] <= 0 ) {
+			return scale;
+		}
+		
+		// the largest power of two that keeps both sides at least as big as the view
+		while( ( originalWidth / ( scale * 2 ) ) >= targetSize[ 0 ] && ( originalHeight / ( scale * 2 ) ) >= targetSize[ 1 ] ) {
+			scale *= 2;
+		}
+
+		return scale;
+	}
+
+}
@@ -0,0 +1,474 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.frontend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.jmdns.JmDNS;
+import javax.jmdns.ServiceEvent;
+import javax.jmdns.ServiceInfo;
+import javax.jmdns.ServiceListener;
+
+import org.mythtv.client.ui.frontends.Frontend;
+import org.mythtv.db.frontends.FrontendDaoHelper;
+
+import android.content.Context;
+import android.net.wifi.WifiInfo;
+import android.net.wifi.WifiManager;
+import android.net.wifi.WifiManager.MulticastLock;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * Keeps track of the frontends on the network for the remote control screens.
+ * 
+ * Frontends found before are remembered with the time they were last seen, so they are offered as soon as a screen
+ * asks, and each is then checked in the background with a quick status request. Frontends that do not answer are
+ * withdrawn. One mDNS browser is shared by every screen and closed again, with its multicast lock, once discovery has
+ * not been asked for in a while.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class FrontendDiscovery implements ServiceListener {
+
+	private static final String TAG = FrontendDiscovery.class.getSimpleName();
+	
+	private static final String MYTHTV_FRONTEND_TYPE = "_mythfrontend._tcp.local.";
+	private static final String HOSTNAME = "mythandroid";
+	
+	private static final String STATUS_PATH = "Frontend/GetStatus";
+	
+	private static final int CONNECT_TIMEOUT = 1000 * 2;
+	private static final int READ_TIMEOUT = 1000 * 3;
+	
+	// the mdns browser is closed this long after discovery was last started
+	private static final long BROWSE_TIMEOUT = 2 * 60 * 1000;
+	
+	// remembered frontends are checked again at most this often
+	private static final long REVALIDATE_INTERVAL = 60 * 1000;
+	
+	// remembered frontends are probed this many at a time
+	private static final int PROBE_THREADS = 4;
+	
+	/**
+	 * Told about frontends coming and going, always on the main thread.
+	 */
+	public interface FrontendDiscoveryListener {
+		
+		void frontendFound( Frontend frontend );
+		
+		void frontendLost( Frontend frontend );
+		
+		void discoveryFailed( Exception e );
+		
+	}
+	
+	private static FrontendDiscovery sInstance;
+	
+	private final Context mContext;
+	private final FrontendDaoHelper mFrontendDaoHelper;
+	private final Handler mHandler;
+	private final ScheduledExecutorService executor;
+	private final ExecutorService probes;
+	
+	private final List<FrontendDiscoveryListener> listeners = new CopyOnWriteArrayList<FrontendDiscoveryListener>();
+	private final ConcurrentMap<String, Frontend> frontends = new ConcurrentHashMap<String, Frontend>();
+	
+	// only touched on the executor thread
+	private JmDNS zeroConf;
+	private MulticastLock mLock;
+	private ScheduledFuture<?> closing;
+	private long revalidated;
+	
+	public static synchronized FrontendDiscovery getInstance( Context context ) {
+		
+		if( null == sInstance ) {
+			sInstance = new FrontendDiscovery( context.getApplicationContext() );
+		}
+		
+		return sInstance;
+	}
+	
+	private FrontendDiscovery( Context context ) {
+		mContext = context;
+		mFrontendDaoHelper = new FrontendDaoHelper( context );
+		mHandler = new Handler( Looper.getMainLooper() );
+		
+		this.executor = Executors.newSingleThreadScheduledExecutor( new DaemonThreadFactory( "FrontendDiscovery" ) );
+		this.probes = Executors.newFixedThreadPool( PROBE_THREADS, new DaemonThreadFactory( "FrontendProbe" ) );
+		
+	}
+	
+	/**
+	 * Hands the frontends already known to the listener, then looks for more.
+	 * 
+	 * @param listener
+	 */
+	public void start( final FrontendDiscoveryListener listener ) {
+		Log.v( TAG, "start : enter" );
+		
+		if( !listeners.contains( listener ) ) {
+			listeners.add( listener );
+		}
+		
+		for( Frontend frontend : frontends.values() ) {
+			listener.frontendFound( frontend );
+		}
+		
+		executor.execute( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				// the remembered frontends are offered before the mdns stack is brought up, they are only probed after
+				List<Frontend> cached = publishCached();
+				
+				try {
+					browse();
+				} catch( IOException e ) {
+					Log.w( TAG, "start : error starting mdns browser", e );
+					
+					notifyFailed( e );
+				}
+				
+				revalidate( cached );
+			}
+			
+		});
+		
+		Log.v( TAG, "start : exit" );
+	}
+	
+	/**
+	 * The listener is told nothing more, the browser is left open until it times out.
+	 * 
+	 * @param listener
+	 */
+	public void stop( FrontendDiscoveryListener listener ) {
+		Log.v( TAG, "stop : enter" );
+		
+		listeners.remove( listener );
+		
+		Log.v( TAG, "stop : exit" );
+	}
+	
+	/* (non-Javadoc)
+	 * @see javax.jmdns.ServiceListener#serviceAdded(javax.jmdns.ServiceEvent)
+	 */
+	@SuppressWarnings( "deprecation" )
+	@Override
+	public void serviceAdded( ServiceEvent event ) {
+		Log.v( TAG, "serviceAdded : enter" );
+		
+		ServiceInfo info = event.getDNS().getServiceInfo( event.getType(), event.getName() );
+		if( null == info || null == info.getInet4Address() ) {
+			Log.v( TAG, "serviceAdded : exit, " + event.getName() + " could not be resolved" );
+			
+			return;
+		}
+		
+		String url = "http://" + info.getInet4Address().getHostAddress() + ":" + info.getPort() + "/";
+		Log.v( TAG, "serviceAdded : frontend=" + url );
+		
+		final Frontend frontend = new Frontend( event.getName(), url );
+		executor.execute( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				mFrontendDaoHelper.save( frontend );
+				
+				found( frontend );
+			}
+			
+		});
+		
+		Log.v( TAG, "serviceAdded : exit" );
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.jmdns.ServiceListener#serviceRemoved(javax.jmdns.ServiceEvent)
+	 */
+	@Override
+	public void serviceRemoved( ServiceEvent event ) { }
+
+	/* (non-Javadoc)
+	 * @see javax.jmdns.ServiceListener#serviceResolved(javax.jmdns.ServiceEvent)
+	 */
+	@Override
+	public void serviceResolved( ServiceEvent event ) { }
+
+	// internal helpers
+	
+	/*
+	 * Offers the frontends remembered from earlier runs.
+	 */
+	private List<Frontend> publishCached() {
+		
+		mFrontendDaoHelper.deleteExpired();
+		
+		List<Frontend> cached = mFrontendDaoHelper.findAll();
+		Log.v( TAG, "publishCached : cached frontends=" + cached.size() );
+		
+		for( Frontend frontend : cached ) {
+			found( frontend );
+		}
+		
+		return cached;
+	}
+	
+	/*
+	 * Withdraws the remembered frontends that do not answer. The probes run on their own threads so a frontend that
+	 * is switched off does not hold up the browser or the other probes.
+	 */
+	private void revalidate( List<Frontend> cached ) {
+		
+		long now = System.currentTimeMillis();
+		if( now - revalidated < REVALIDATE_INTERVAL ) {
+			return;
+		}
+		revalidated = now;
+		
+		for( final Frontend frontend : cached ) {
+			
+			probes.execute( new Runnable() {
+
+				@Override
+				public void run() {
+					
+					if( probe( frontend ) ) {
+						mFrontendDaoHelper.save( frontend );
+					} else {
+						lost( frontend );
+					}
+					
+				}
+				
+			});
+			
+		}
+		
+	}
+	
+	private boolean probe( Frontend frontend ) {
+		
+		long start = System.currentTimeMillis();
+		
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) new URL( frontend.getUrl() + STATUS_PATH ).openConnection();
+			connection.setRequestProperty( "User-Agent", "Android Application:MythTV_Android_Frontent" );
+			connection.setConnectTimeout( CONNECT_TIMEOUT );
+			connection.setReadTimeout( READ_TIMEOUT );
+			
+			int status = connection.getResponseCode();
+			
+			InputStream in = connection.getInputStream();
+			in.close();
+			
+			Log.v( TAG, "probe : " + frontend.getUrl() + " answered " + status + " in " + ( System.currentTimeMillis() - start ) + "ms" );
+			return status == HttpURLConnection.HTTP_OK;
+		} catch( IOException e ) {
+			Log.v( TAG, "probe : " + frontend.getUrl() + " did not answer, " + e.getMessage() );
+			
+			return false;
+		} finally {
+			if( null != connection ) {
+				connection.disconnect();
+			}
+		}
+		
+	}
+	
+	/*
+	 * Opens the browser if it is not already, and puts off closing it.
+	 */
+	private void browse() throws IOException {
+		
+		if( null != closing ) {
+			closing.cancel( false );
+		}
+		
+		closing = executor.schedule( new Runnable() {
+
+			@Override
+			public void run() {
+				close();
+			}
+			
+		}, BROWSE_TIMEOUT, TimeUnit.MILLISECONDS );
+
+		if( null != zeroConf ) {
+			return;
+		}
+		
+		WifiManager wifi = (WifiManager) mContext.getSystemService( Context.WIFI_SERVICE );
+
+		WifiInfo wifiinfo = wifi.getConnectionInfo();
+		int intaddr = wifiinfo.getIpAddress();
+
+		byte[] byteaddr = new byte[] { 
+				(byte) ( intaddr & 0xff ),
+				(byte) ( intaddr >> 8 & 0xff ),
+				(byte) ( intaddr >> 16 & 0xff ),
+				(byte) ( intaddr >> 24 & 0xff ) };
+		InetAddress addr = InetAddress.getByAddress( byteaddr );
+		Log.d( TAG, "browse : wifi address=" + addr.toString() );
+
+		mLock = wifi.createMulticastLock( "mythtv_lock" );
+		mLock.setReferenceCounted( true );
+		mLock.acquire();
+
+		try {
+			zeroConf = JmDNS.create( addr, HOSTNAME );
+			zeroConf.addServiceListener( MYTHTV_FRONTEND_TYPE, this );
+		} catch( IOException e ) {
+			mLock.release();
+			mLock = null;
+			
+			throw e;
+		}
+		
+	}
+	
+	private void close() {
+		Log.v( TAG, "close : enter" );
+		
+		closing = null;
+		
+		if( null != zeroConf ) {
+			
+			zeroConf.removeServiceListener( MYTHTV_FRONTEND_TYPE, this );
+			
+			try {
+				zeroConf.close();
+			} catch( IOException e ) {
+				Log.w( TAG, "close : error closing mdns browser", e );
+			}
+			
+			zeroConf = null;
+		}
+		
+		if( null != mLock ) {
+			mLock.release();
+			mLock = null;
+		}
+		
+		Log.v( TAG, "close : exit" );
+	}
+	
+	private void found( final Frontend frontend ) {
+		
+		if( null != frontends.putIfAbsent( frontend.getUrl(), frontend ) ) {
+			return;
+		}
+		
+		mHandler.post( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				for( FrontendDiscoveryListener listener : listeners ) {
+					listener.frontendFound( frontend );
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+	private void lost( final Frontend frontend ) {
+		
+		final Frontend removed = frontends.remove( frontend.getUrl() );
+		if( null == removed ) {
+			return;
+		}
+		
+		mHandler.post( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				for( FrontendDiscoveryListener listener : listeners ) {
+					listener.frontendLost( removed );
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+	private void notifyFailed( final Exception e ) {
+		
+		mHandler.post( new Runnable() {
+
+			@Override
+			public void run() {
+				
+				for( FrontendDiscoveryListener listener : listeners ) {
+					listener.discoveryFailed( e );
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+	private static class DaemonThreadFactory implements ThreadFactory {
+		
+		private final String name;
+		
+		DaemonThreadFactory( String name ) {
+			this.name = name;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+		 */
+		@Override
+		public Thread newThread( Runnable r ) {
+			
+			Thread thread = new Thread( r, name );
+			thread.setDaemon( true );
+			
+			return thread;
+		}
+		
+	}
+	
+}
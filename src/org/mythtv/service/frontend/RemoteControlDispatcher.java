@@ -0,0 +1,322 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.frontend;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.mythtv.client.ui.frontends.Frontend;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * Sends remote control actions to one frontend, in the order they were pressed, from a single thread.
+ * 
+ * Requests reuse the kept-alive connection to the frontend instead of opening a new one for every key. While a
+ * request is in flight, further presses of the same navigation key are folded into the one already waiting, up to
+ * a few repeats, so holding an arrow down does not leave a backlog that keeps the frontend moving after the key has
+ * been let go. The round trip of every action is recorded.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class RemoteControlDispatcher {
+
+	private static final String TAG = RemoteControlDispatcher.class.getSimpleName();
+	
+	private static final String SEND_ACTION_PATH = "Frontend/SendAction";
+	
+	private static final int CONNECT_TIMEOUT = 1000 * 2;
+	private static final int READ_TIMEOUT = 1000 * 5;
+	
+	// the worker thread goes away when the remote has not been used for this long
+	private static final long IDLE_TIMEOUT = 30;
+	
+	// presses of a waiting navigation key beyond this are dropped
+	private static final int MAX_REPEATS = 3;
+	
+	private static final Set<String> REPEATABLE_ACTIONS = new HashSet<String>( Arrays.asList( "UP", "DOWN", "LEFT", "RIGHT", "VOLUMEUP", "VOLUMEDOWN", "CHANNELUP", "CHANNELDOWN" ) );
+	
+	/**
+	 * Told about actions the frontend could not be sent, always on the main thread.
+	 */
+	public interface RemoteControlListener {
+		
+		void actionFailed( String action, Exception e );
+		
+	}
+	
+	private static final Map<String, RemoteControlDispatcher> sInstances = new HashMap<String, RemoteControlDispatcher>();
+	
+	private final String mUrl;
+	private final Handler mHandler;
+	private final ExecutorService executor;
+	
+	private final LinkedList<Command> pending = new LinkedList<Command>();
+	private boolean draining = false;
+	
+	private long sent;
+	private long totalLatency;
+	private long lastLatency;
+	private long maxLatency;
+	
+	private class Command {
+		
+		private final String action;
+		private final RemoteControlListener listener;
+		private final long queued = System.currentTimeMillis();
+		
+		private int repeats = 1;
+		
+		private Command( String action, RemoteControlListener listener ) {
+			this.action = action;
+			this.listener = listener;
+		}
+		
+	}
+	
+	private final Runnable drain = new Runnable() {
+
+		@Override
+		public void run() {
+			
+			while( true ) {
+				
+				Command command;
+				synchronized( pending ) {
+					
+					command = pending.poll();
+					if( null == command ) {
+						draining = false;
+						
+						return;
+					}
+					
+				}
+				
+				try {
+					for( int i = 0; i < command.repeats; i++ ) {
+						send( command, i );
+					}
+				} catch( Exception e ) {
+					Log.w( TAG, "drain : error sending " + command.action + " to " + mUrl, e );
+					
+					// whatever was pressed after a failed action is not sent on its own
+					synchronized( pending ) {
+						pending.clear();
+					}
+					
+					notifyFailed( command, e );
+				}
+				
+			}
+			
+		}
+		
+	};
+	
+	/**
+	 * @param frontend
+	 * @return the dispatcher for the frontend, shared by every screen controlling it
+	 */
+	public static RemoteControlDispatcher getInstance( Frontend frontend ) {
+		
+		synchronized( sInstances ) {
+			
+			RemoteControlDispatcher dispatcher = sInstances.get( frontend.getUrl() );
+			if( null == dispatcher ) {
+				dispatcher = new RemoteControlDispatcher( frontend.getUrl() );
+				
+				sInstances.put( frontend.getUrl(), dispatcher );
+			}
+			
+			return dispatcher;
+		}
+		
+	}
+	
+	private RemoteControlDispatcher( final String url ) {
+		mUrl = url;
+		mHandler = new Handler( Looper.getMainLooper() );
+		
+		this.executor = new ThreadPoolExecutor( 0, 1, IDLE_TIMEOUT, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+			@Override
+			public Thread newThread( final Runnable r ) {
+				
+				Thread thread = new Thread( new Runnable() {
+
+					@Override
+					public void run() {
+						
+						// key presses should not wait behind background work
+						Process.setThreadPriority( Process.THREAD_PRIORITY_FOREGROUND );
+						
+						r.run();
+					}
+					
+				}, "RemoteControlDispatcher" );
+				thread.setDaemon( true );
+				
+				return thread;
+			}
+			
+		});
+		
+	}
+	
+	/**
+	 * Queues the action behind the ones not sent yet.
+	 * 
+	 * @param action the frontend action, i.e. UP or SELECT
+	 * @param listener told if the action could not be sent, may be null
+	 */
+	public void sendAction( String action, RemoteControlListener listener ) {
+		Log.v( TAG, "sendAction : enter" );
+		
+		synchronized( pending ) {
+			
+			Command last = pending.isEmpty() ? null : pending.getLast();
+			if( null != last && last.action.equals( action ) && REPEATABLE_ACTIONS.contains( action ) ) {
+				
+				if( last.repeats < MAX_REPEATS ) {
+					last.repeats++;
+				} else {
+					Log.v( TAG, "sendAction : dropped " + action + ", " + MAX_REPEATS + " already waiting" );
+				}
+				
+				Log.v( TAG, "sendAction : exit, coalesced" );
+				return;
+			}
+			
+			pending.add( new Command( action, listener ) );
+			
+			if( !draining ) {
+				draining = true;
+				
+				executor.execute( drain );
+			}
+			
+		}
+		
+		Log.v( TAG, "sendAction : exit" );
+	}
+	
+	/**
+	 * @return the round trip of the last action sent, in milliseconds
+	 */
+	public synchronized long getLastLatency() {
+		return lastLatency;
+	}
+	
+	/**
+	 * @return the average round trip of the actions sent, in milliseconds
+	 */
+	public synchronized long getAverageLatency() {
+		return sent > 0 ? totalLatency / sent : 0;
+	}
+	
+	/**
+	 * @return the slowest round trip of the actions sent, in milliseconds
+	 */
+	public synchronized long getMaxLatency() {
+		return maxLatency;
+	}
+	
+	// internal helpers
+	
+	private void send( Command command, int repeat ) throws IOException {
+		
+		long start = System.currentTimeMillis();
+		
+		HttpURLConnection connection = (HttpURLConnection) new URL( mUrl + SEND_ACTION_PATH + "?Action=" + URLEncoder.encode( command.action, "UTF-8" ) ).openConnection();
+		connection.setRequestProperty( "User-Agent", "Android Application:MythTV_Android_Frontent" );
+		connection.setConnectTimeout( CONNECT_TIMEOUT );
+		connection.setReadTimeout( READ_TIMEOUT );
+		connection.setRequestMethod( "POST" );
+		connection.setDoOutput( true );
+		connection.setFixedLengthStreamingMode( 0 );
+		
+		OutputStream out = connection.getOutputStream();
+		out.close();
+		
+		int status = connection.getResponseCode();
+		if( status != HttpURLConnection.HTTP_OK ) {
+			connection.disconnect();
+			
+			throw new IOException( "unexpected response " + status + " from " + mUrl );
+		}
+		
+		// the response is read to the end so the connection goes back to be kept alive
+		InputStream in = connection.getInputStream();
+		try {
+			byte[] buffer = new byte[ 256 ];
+			while( in.read( buffer ) != -1 ) { }
+		} finally {
+			in.close();
+		}
+		
+		long latency = System.currentTimeMillis() - start;
+		
+		synchronized( this ) {
+			sent++;
+			totalLatency += latency;
+			lastLatency = latency;
+			maxLatency = Math.max( maxLatency, latency );
+		}
+		
+		Log.d( TAG, "send : " + command.action + ( repeat > 0 ? " (repeat " + repeat + ")" : "" ) + " took " + latency + "ms, waited " + ( start - command.queued ) + "ms, average " + getAverageLatency() + "ms" );
+	}
+	
+	private void notifyFailed( final Command command, final Exception e ) {
+		
+		if( null == command.listener ) {
+			return;
+		}
+		
+		mHandler.post( new Runnable() {
+
+			@Override
+			public void run() {
+				command.listener.actionFailed( command.action, e );
+			}
+			
+		});
+		
+	}
+	
+}
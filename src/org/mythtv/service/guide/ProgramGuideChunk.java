@@ -0,0 +1,166 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.guide;
+
+import org.joda.time.DateTime;
+import org.joda.time.Hours;
+
+/**
+ * A range of whole hours of the program guide that is requested from the backend in one call, along with
+ * the ETag and size of the last response for that range.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideChunk {
+
+	private DateTime startTime;
+	private DateTime endTime;
+	private String etag;
+	private int programs = -1;
+	private long bytes = -1;
+	
+	public ProgramGuideChunk() { }
+	
+	/**
+	 * @param startTime
+	 * @param endTime
+	 */
+	public ProgramGuideChunk( DateTime startTime, DateTime endTime ) {
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+
+	/**
+	 * @return the startTime
+	 */
+	public DateTime getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @param startTime the startTime to set
+	 */
+	public void setStartTime( DateTime startTime ) {
+		this.startTime = startTime;
+	}
+
+	/**
+	 * @return the endTime, exclusive
+	 */
+	public DateTime getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * @param endTime the endTime to set
+	 */
+	public void setEndTime( DateTime endTime ) {
+		this.endTime = endTime;
+	}
+
+	/**
+	 * @return the etag
+	 */
+	public String getEtag() {
+		return etag;
+	}
+
+	/**
+	 * @param etag the etag to set
+	 */
+	public void setEtag( String etag ) {
+		this.etag = etag;
+	}
+
+	/**
+	 * @return the number of programs in the last response, -1 when not known
+	 */
+	public int getPrograms() {
+		return programs;
+	}
+
+	/**
+	 * @param programs the programs to set
+	 */
+	public void setPrograms( int programs ) {
+		this.programs = programs;
+	}
+
+	/**
+	 * @return the content length of the last response, -1 when not known
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @param bytes the bytes to set
+	 */
+	public void setBytes( long bytes ) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @return the number of hours covered by this chunk
+	 */
+	public int getHours() {
+		return Hours.hoursBetween( startTime, endTime ).getHours();
+	}
+	
+	/**
+	 * @return the two halves of this chunk, without an etag, the sizes are split evenly
+	 */
+	public ProgramGuideChunk[] split() {
+		
+		DateTime middle = startTime.plusHours( getHours() / 2 );
+		
+		ProgramGuideChunk first = new ProgramGuideChunk( startTime, middle );
+		ProgramGuideChunk second = new ProgramGuideChunk( middle, endTime );
+		
+		if( programs >= 0 ) {
+			first.setPrograms( programs / 2 );
+			second.setPrograms( programs - programs / 2 );
+		}
+		
+		if( bytes >= 0 ) {
+			first.setBytes( bytes / 2 );
+			second.setBytes( bytes - bytes / 2 );
+		}
+		
+		return new ProgramGuideChunk[] { first, second };
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append( "ProgramGuideChunk [" );
+		builder.append( "startTime=" ).append( startTime ).append( ", " );
+		builder.append( "endTime=" ).append( endTime ).append( ", " );
+		builder.append( "etag=" ).append( etag ).append( ", " );
+		builder.append( "programs=" ).append( programs ).append( ", " );
+		builder.append( "bytes=" ).append( bytes );
+		builder.append( "]" );
+		return builder.toString();
+	}
+
+}
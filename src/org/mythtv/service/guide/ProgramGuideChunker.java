@@ -0,0 +1,205 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.guide;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+
+import android.util.Log;
+
+/**
+ * Plans the chunks a program guide sync requests. Chunk boundaries recorded by the previous sync are reused so
+ * their ETags can be sent again, adjacent small chunks are merged and uncovered hours are filled with chunks sized
+ * from the programs per hour seen so far. Chunks that come back too large, or time out, are split in half.
+ * 
+ * The planner is shared by the fetch workers, all access to the pending chunks is synchronized.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideChunker {
+
+	private static final String TAG = ProgramGuideChunker.class.getSimpleName();
+	
+	public static final int DEFAULT_CHUNK_HOURS = 6;
+	public static final int MAX_CHUNK_HOURS = 12;
+	
+	/**
+	 * Number of programs a chunk is sized for, a response with more than twice this many is split
+	 */
+	public static final int TARGET_CHUNK_PROGRAMS = 2000;
+	
+	private final LinkedList<ProgramGuideChunk> pending = new LinkedList<ProgramGuideChunk>();
+	private int chunkCount;
+	
+	/**
+	 * @param start
+	 * @param end
+	 * @param recorded chunks recorded by the previous sync inside the window, ordered by start time
+	 */
+	public ProgramGuideChunker( DateTime start, DateTime end, List<ProgramGuideChunk> recorded ) {
+		Log.v( TAG, "initialize : enter" );
+		
+		int chunkHours = estimateChunkHours( recorded );
+		Log.v( TAG, "initialize : new chunks span " + chunkHours + " hours" );
+		
+		DateTime next = start;
+		
+		ProgramGuideChunk merged = null;
+		for( ProgramGuideChunk chunk : recorded ) {
+			
+			// a chunk starting before the covered range overlaps an earlier one, it is replaced when the range is stored
+			if( chunk.getStartTime().isBefore( next ) ) {
+				continue;
+			}
+			
+			if( null != merged && merged.getEndTime().isEqual( chunk.getStartTime() ) && canMerge( merged, chunk ) ) {
+				Log.v( TAG, "initialize : merging chunk at " + chunk.getStartTime() );
+				
+				ProgramGuideChunk combined = new ProgramGuideChunk( merged.getStartTime(), chunk.getEndTime() );
+				combined.setPrograms( merged.getPrograms() + chunk.getPrograms() );
+				combined.setBytes( merged.getBytes() >= 0 && chunk.getBytes() >= 0 ? merged.getBytes() + chunk.getBytes() : -1 );
+				
+				merged = combined;
+				next = chunk.getEndTime();
+				continue;
+			}
+			
+			if( null != merged ) {
+				pending.add( merged );
+			}
+			
+			fill( next, chunk.getStartTime(), chunkHours );
+			
+			merged = chunk;
+			next = chunk.getEndTime();
+		}
+		
+		if( null != merged ) {
+			pending.add( merged );
+		}
+		
+		fill( next, end, chunkHours );
+		
+		chunkCount = pending.size();
+		
+		Log.v( TAG, "initialize : exit, " + pending.size() + " chunks planned" );
+	}
+	
+	/**
+	 * @return the next chunk to request, or null when none are left
+	 */
+	public synchronized ProgramGuideChunk next() {
+		
+		if( pending.isEmpty() ) {
+			return null;
+		}
+		
+		return pending.removeFirst();
+	}
+	
+	/**
+	 * A split chunk is replaced by its halves, so the count grows by one with every split.
+	 * 
+	 * @return the number of chunks that will be handed out by the time the planner has none left
+	 */
+	public synchronized int getChunkCount() {
+		return chunkCount;
+	}
+	
+	/**
+	 * Requeues both halves of the chunk ahead of the remaining chunks.
+	 * 
+	 * @param chunk
+	 * @return false when the chunk is a single hour and can not be split
+	 */
+	public synchronized boolean split( ProgramGuideChunk chunk ) {
+		
+		if( chunk.getHours() < 2 ) {
+			return false;
+		}
+		
+		ProgramGuideChunk[] halves = chunk.split();
+		pending.addFirst( halves[ 1 ] );
+		pending.addFirst( halves[ 0 ] );
+		chunkCount++;
+		
+		return true;
+	}
+	
+	/**
+	 * @param chunk
+	 * @return true when the response for the chunk is too large and the chunk should be requested in halves
+	 */
+	public static boolean isTooLarge( ProgramGuideChunk chunk ) {
+		return chunk.getHours() > 1 && chunk.getPrograms() > TARGET_CHUNK_PROGRAMS * 2;
+	}
+	
+	// internal helpers
+	
+	private void fill( DateTime start, DateTime end, int chunkHours ) {
+		
+		DateTime next = start;
+		while( next.isBefore( end ) ) {
+			
+			DateTime chunkEnd = next.plusHours( chunkHours );
+			if( chunkEnd.isAfter( end ) ) {
+				chunkEnd = end;
+			}
+			
+			pending.add( new ProgramGuideChunk( next, chunkEnd ) );
+			
+			next = chunkEnd;
+		}
+		
+	}
+	
+	private boolean canMerge( ProgramGuideChunk first, ProgramGuideChunk second ) {
+		
+		if( first.getPrograms() < 0 || second.getPrograms() < 0 ) {
+			return false;
+		}
+		
+		return first.getHours() + second.getHours() <= MAX_CHUNK_HOURS && 
+				first.getPrograms() + second.getPrograms() <= TARGET_CHUNK_PROGRAMS;
+	}
+	
+	private int estimateChunkHours( List<ProgramGuideChunk> recorded ) {
+		
+		long programs = 0, hours = 0;
+		for( ProgramGuideChunk chunk : recorded ) {
+			
+			if( chunk.getPrograms() >= 0 ) {
+				programs += chunk.getPrograms();
+				hours += chunk.getHours();
+			}
+			
+		}
+		
+		if( programs == 0 || hours == 0 ) {
+			return DEFAULT_CHUNK_HOURS;
+		}
+		
+		long chunkHours = ( TARGET_CHUNK_PROGRAMS * hours ) / programs;
+		return (int) Math.max( 1, Math.min( MAX_CHUNK_HOURS, chunkHours ) );
+	}
+	
+}
@@ -28,6 +28,7 @@ import org.joda.time.DateTime;
 import org.mythtv.client.ui.preferences.LocationProfile;
 import org.mythtv.db.preferences.LocationProfileDaoHelper;
 import org.mythtv.service.MythtvService;
+import org.mythtv.service.guide.cache.ProgramGuideBinaryFormat;
 
 import android.content.Intent;
 import android.util.Log;
@@ -66,7 +67,23 @@ public class ProgramGuideCleanupService extends MythtvService {
         if ( intent.getAction().equals( ACTION_CLEANUP ) ) {
     		Log.i( TAG, "onHandleIntent : CLEANUP action selected" );
 
-    		cleanup();
+    		boolean passed = false;
+    		int count = 0;
+    		
+    		try {
+    			count = cleanup();
+    			
+    			passed = true;
+    		} catch( Exception e ) {
+    			Log.e( TAG, "onHandleIntent : error", e );
+    		} finally {
+    			Intent completeIntent = new Intent( ACTION_COMPLETE );
+    			completeIntent.putExtra( EXTRA_COMPLETE, "Program Guide Cleanup Service Finished" );
+    			completeIntent.putExtra( EXTRA_COMPLETE_COUNT, count );
+    			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, passed );
+    			sendBroadcast( completeIntent );
+    		}
+    		
         }
 		
 		Log.d( TAG, "onHandleIntent : exit" );
@@ -74,7 +91,7 @@ public class ProgramGuideCleanupService extends MythtvService {
 
 	// internal helpers
 	
-	private void cleanup() {
+	private int cleanup() {
 		Log.v( TAG, "cleanup : enter" );
 		
 		int count = 0;
@@ -92,7 +109,7 @@ public class ProgramGuideCleanupService extends MythtvService {
 			    
 				public boolean accept( File directory, String fileName ) {
 		            return fileName.startsWith( mLocationProfile.getHostname() + "_" ) &&
-		            		fileName.endsWith( FILENAME_EXT );
+		            		( fileName.endsWith( ProgramGuideBinaryFormat.FILENAME_EXT ) || fileName.endsWith( FILENAME_EXT ) );
 		        }
 				
 		    };
@@ -114,12 +131,8 @@ public class ProgramGuideCleanupService extends MythtvService {
 			}
 		}
 
-		Intent completeIntent = new Intent( ACTION_COMPLETE );
-		completeIntent.putExtra( EXTRA_COMPLETE, "Program Guide Cleanup Service Finished" );
-		completeIntent.putExtra( EXTRA_COMPLETE_COUNT, count );
-		sendBroadcast( completeIntent );
-		
 		Log.v( TAG, "cleanup : exit" );
+		return count;
 	}
 	
 }
@@ -18,37 +18,57 @@
  */
 package org.mythtv.service.guide;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
 import java.text.DecimalFormat;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
 import org.joda.time.DateTime;
+import org.joda.time.Hours;
 import org.mythtv.R;
+import org.mythtv.client.ui.preferences.LocationProfile;
+import org.mythtv.db.dvr.ProgramGuideChunkDaoHelper;
 import org.mythtv.db.dvr.ProgramGuideDaoHelper;
-import org.mythtv.db.http.EtagConstants;
+import org.mythtv.db.preferences.LocationProfileDaoHelper;
 import org.mythtv.service.MythtvService;
+import org.mythtv.service.guide.cache.ProgramGuideBinaryFormat;
+import org.mythtv.service.guide.cache.ProgramGuideBinaryWriter;
+import org.mythtv.service.guide.cache.ProgramGuideLruMemoryCache;
 import org.mythtv.service.util.DateUtils;
+import org.mythtv.service.util.JsonStreamHelper;
+import org.mythtv.service.util.JsonStreamHelper.ElementHandler;
 import org.mythtv.services.api.ETagInfo;
 import org.mythtv.services.api.channel.ChannelInfo;
 import org.mythtv.services.api.dvr.Program;
-import org.mythtv.services.api.guide.ProgramGuide;
-import org.mythtv.services.api.guide.ProgramGuideWrapper;
 import org.mythtv.services.api.guide.impl.GuideTemplate.Endpoint;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 
 import android.app.Notification;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
-import android.content.ContentUris;
-import android.content.ContentValues;
 import android.content.Context;
 import android.content.Intent;
 import android.content.OperationApplicationException;
-import android.database.Cursor;
-import android.net.Uri;
 import android.os.RemoteException;
 import android.util.Log;
 
 /**
+ * Downloads the program guide in multi-hour chunks planned by a {@link ProgramGuideChunker}. A bounded pool of
+ * fetch workers requests the chunks from the backend, spools each response to a file and hands it to the service thread
+ * through a bounded queue. The service thread is the only writer to the database, it streams each spooled response in
+ * one channel at a time and adds each channel to the hour files the guide screen reads as soon as it is parsed.
+ * Workers block when the queue is full, so the download never runs further ahead of the database than the queue allows.
+ * 
  * @author Daniel Frey
  *
  */
@@ -59,16 +79,30 @@ public class ProgramGuideDownloadServiceNew extends MythtvService {
 	
 	public static final Integer MAX_HOURS = 288; //288
 
+	public static final int DEFAULT_FETCH_WORKERS = 4;
+	private static final int MAX_RETRIES = 3;
+	private static final long RETRY_DELAY = 1000;
+	
+	private static final String PROGRAM_GUIDE_QUERY = "StartChanId=1&NumChannels=-1&Details=false";
+	private static final String CHANNELS_FIELD = "Channels";
+	private static final String SPOOL_FILE_PREFIX = "spool_";
+	
     public static final String ACTION_DOWNLOAD = "org.mythtv.background.programGuideDownloadNew.ACTION_DOWNLOAD";
     public static final String ACTION_PROGRESS = "org.mythtv.background.programGuideDownloadNew.ACTION_PROGRESS";
     public static final String ACTION_COMPLETE = "org.mythtv.background.programGuideDownloadNew.ACTION_COMPLETE";
+    public static final String ACTION_HOURS_UPDATED = "org.mythtv.background.programGuideDownloadNew.ACTION_HOURS_UPDATED";
 
+    public static final String EXTRA_FETCH_WORKERS = "FETCH_WORKERS";
     public static final String EXTRA_PROGRESS = "PROGRESS";
     public static final String EXTRA_PROGRESS_DATE = "PROGRESS_DATE";
     public static final String EXTRA_PROGRESS_ERROR = "PROGRESS_ERROR";
+    public static final String EXTRA_HOURS_UPDATED_KEYS = "HOURS_UPDATED_KEYS";
     public static final String EXTRA_COMPLETE = "COMPLETE";
     public static final String EXTRA_COMPLETE_DOWNLOADED = "COMPLETE_DOWNLOADED";
     public static final String EXTRA_COMPLETE_OFFLINE = "COMPLETE_OFFLINE";
+    public static final String EXTRA_COMPLETE_REQUESTS = "COMPLETE_REQUESTS";
+    public static final String EXTRA_COMPLETE_BYTES = "COMPLETE_BYTES";
+    public static final String EXTRA_COMPLETE_ELAPSED = "COMPLETE_ELAPSED";
 
 	private NotificationManager mNotificationManager;
 	private Notification mNotification = null;
@@ -76,6 +110,14 @@ public class ProgramGuideDownloadServiceNew extends MythtvService {
 	private int notificationId = 1001;
 
 	private ProgramGuideDaoHelper mProgramGuideDaoHelper; 
+	private ProgramGuideChunkDaoHelper mProgramGuideChunkDaoHelper;
+	private LocationProfileDaoHelper mLocationProfileDaoHelper;
+	private LocationProfile mLocationProfile;
+	private JsonStreamHelper mJsonStreamHelper;
+	
+	private File programGuideCache = null;
+	
+	private volatile boolean cancelled;
 	
 	public ProgramGuideDownloadServiceNew() {
 		super( "ProgamGuideDownloadServiceNew" );
@@ -90,13 +132,29 @@ public class ProgramGuideDownloadServiceNew extends MythtvService {
 		super.onHandleIntent( intent );
 
 		mProgramGuideDaoHelper = new ProgramGuideDaoHelper( this );
+		mProgramGuideChunkDaoHelper = new ProgramGuideChunkDaoHelper( this );
+		mLocationProfileDaoHelper = new LocationProfileDaoHelper( this );
+		mLocationProfile = mLocationProfileDaoHelper.findConnectedProfile();
+		mJsonStreamHelper = JsonStreamHelper.newInstance( mMainApplication.getObjectMapper() );
 
 		mNotificationManager = (NotificationManager) getSystemService( Context.NOTIFICATION_SERVICE );
 		
+		programGuideCache = mFileHelper.getProgramGuideDataDirectory();
+		if( null == programGuideCache || !programGuideCache.exists() ) {
+			Intent completeIntent = new Intent( ACTION_COMPLETE );
+			completeIntent.putExtra( EXTRA_COMPLETE, "Program Guide Cache location can not be found" );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
+			sendBroadcast( completeIntent );
+
+			Log.d( TAG, "onHandleIntent : exit, programCache does not exist" );
+			return;
+		}
+
 		if( !mNetworkHelper.isMasterBackendConnected() ) {
 			Intent completeIntent = new Intent( ACTION_COMPLETE );
 			completeIntent.putExtra( EXTRA_COMPLETE, "Master Backend unreachable" );
 			completeIntent.putExtra( EXTRA_COMPLETE_OFFLINE, Boolean.TRUE );
+			completeIntent.putExtra( EXTRA_COMPLETE_PASSED, false );
 			sendBroadcast( completeIntent );
 
 			Log.d( TAG, "onHandleIntent : exit, Master Backend unreachable" );
@@ -108,27 +166,94 @@ public class ProgramGuideDownloadServiceNew extends MythtvService {
 			sendNotification();
 			
 			boolean newDataDownloaded = false;
+			boolean passed = false;
 			
 			DateTime start = new DateTime().withTimeAtStartOfDay();
+			DateTime end = start.plusHours( MAX_HOURS );
 
-			try {
-				for( int i = 1; i <= MAX_HOURS; i++ ) {
+			mProgramGuideChunkDaoHelper.deleteEndingBefore( start );
+			mProgramGuideDaoHelper.deleteEnded();
+			ProgramGuideChunker chunker = new ProgramGuideChunker( start, end, mProgramGuideChunkDaoHelper.findAll( start, end ) );
+			ProgramGuideSyncStats stats = new ProgramGuideSyncStats();
+			
+			int workers = Math.max( 1, intent.getIntExtra( EXTRA_FETCH_WORKERS, DEFAULT_FETCH_WORKERS ) );
+			Log.v( TAG, "onHandleIntent : downloading with " + workers + " fetch workers" );
+			
+			cancelled = false;
 
-					newDataDownloaded = download( start );
+			BlockingQueue<GuideChunk> downloaded = new ArrayBlockingQueue<GuideChunk>( workers * 2 );
+			
+			ExecutorService fetchers = Executors.newFixedThreadPool( workers );
+			for( int i = 0; i < workers; i++ ) {
+				fetchers.execute( new FetchWorker( chunker, downloaded, stats ) );
+			}
+			
+			// chunks arrive in any order, progress only advances over the hours stored without a gap
+			boolean[] stored = new boolean[ MAX_HOURS ];
+			int storedThrough = 0;
 
-					start = start.plusHours( 1 );
+			try {
+				
+				// every chunk handed out comes back once, failed ones included, split ones are replaced by their halves
+				int completed = 0;
+				while( completed < chunker.getChunkCount() ) {
 
-					double percentage = ( (float) i / (float) MAX_HOURS ) * 100;
-					progressUpdate( percentage );
+					GuideChunk downloadedChunk = downloaded.take();
+					completed++;
+					
+					if( store( downloadedChunk, stats ) ) {
+						newDataDownloaded = true;
+					}
 
+					// hours of failed chunks are counted off as well, the next sync requests them again
+					int first = Hours.hoursBetween( start, downloadedChunk.chunk.getStartTime() ).getHours();
+					for( int hour = Math.max( 0, first ); hour < Math.min( MAX_HOURS, first + downloadedChunk.chunk.getHours() ); hour++ ) {
+						stored[ hour ] = true;
+					}
+					
+					if( first <= storedThrough ) {
+						
+						while( storedThrough < MAX_HOURS && stored[ storedThrough ] ) {
+							storedThrough++;
+						}
+
+						double percentage = ( (float) storedThrough / (float) MAX_HOURS ) * 100;
+						progressUpdate( percentage, start.plusHours( storedThrough ) );
+					}
+					
 				}
+				
+				// chunks that failed are requested again by the next sync, which should not wait for the minimum interval
+				passed = stats.getFailures() == 0;
+			} catch( InterruptedException e ) {
+				Log.w( TAG, "onHandleIntent : interrupted waiting on program guide downloads" );
+				
+				Thread.currentThread().interrupt();
 			} finally {
 			
+				cancelled = true;
+				fetchers.shutdownNow();
+				
+				GuideChunk pending;
+				while( null != ( pending = downloaded.poll() ) ) {
+					
+					if( null != pending.spool ) {
+						pending.spool.delete();
+					}
+					
+				}
+				
 				completed();
 
+				Log.i( TAG, "onHandleIntent : " + stats );
+				
 				Intent completeIntent = new Intent( ACTION_COMPLETE );
 				completeIntent.putExtra( EXTRA_COMPLETE, "Program Guide Download Service Finished" );
 				completeIntent.putExtra( EXTRA_COMPLETE_DOWNLOADED, newDataDownloaded );
+				completeIntent.putExtra( EXTRA_COMPLETE_REQUESTS, stats.getRequests() );
+				completeIntent.putExtra( EXTRA_COMPLETE_BYTES, stats.getBytes() );
+				completeIntent.putExtra( EXTRA_COMPLETE_ELAPSED, stats.getElapsed() );
+				completeIntent.putExtra( EXTRA_COMPLETE_PASSED, passed );
 				sendBroadcast( completeIntent );
 			
 			}
@@ -140,109 +265,253 @@ public class ProgramGuideDownloadServiceNew extends MythtvService {
 
 	// internal helpers
 	
-	private boolean download( DateTime start ) {
+	/*
+	 * Returns null when the chunk timed out and was split, its halves are requested in its place. The response is
+	 * spooled to a file rather than parsed here, the writer streams it into the database one channel at a time.
+	 */
+	private GuideChunk download( ProgramGuideChunk chunk, ProgramGuideChunker chunker, ProgramGuideSyncStats stats ) {
 		Log.v( TAG, "download : enter" );
 		
-		boolean newDataDownloaded = false;
-		
-		DateTime end = new DateTime( start );
-		end = end.withTime( start.getHourOfDay(), 59, 59, 999 );
+		DateTime start = chunk.getStartTime();
+		DateTime end = chunk.getEndTime().minusMillis( 1 );
 		Log.i( TAG, "download : starting download for " + DateUtils.dateTimeFormatter.print( start ) + ", end time=" + DateUtils.dateTimeFormatter.print( end ) );
 
-		String endpoint = Endpoint.GET_PROGRAM_GUIDE.name() + "_" + DateUtils.dateFormatter.print( start );
+		String query = "StartTime=" + DateUtils.dateTimeFormatter.print( DateUtils.convertUtc( start ) )
+				+ "&EndTime=" + DateUtils.dateTimeFormatter.print( DateUtils.convertUtc( end ) )
+				+ "&" + PROGRAM_GUIDE_QUERY;
+		String url = JsonStreamHelper.buildUrl( mLocationProfile.getUrl(), JsonStreamHelper.GUIDE_SERVICE, Endpoint.GET_PROGRAM_GUIDE.getEndpoint(), query );
+		
+		GuideChunk downloadedChunk = new GuideChunk( chunk );
 		
-		Long id = null;
-		ETagInfo etag = ETagInfo.createEmptyETag();
-		Cursor etagCursor = getContentResolver().query( Uri.withAppendedPath( EtagConstants.CONTENT_URI, "endpoint" ), null, EtagConstants.FIELD_ENDPOINT + " = ?" ,new String[] { endpoint }, null );
-		if( etagCursor.moveToFirst() ) {
-			id = etagCursor.getLong( etagCursor.getColumnIndexOrThrow( EtagConstants._ID ) );
-			String value = etagCursor.getString( etagCursor.getColumnIndexOrThrow( EtagConstants.FIELD_VALUE ) );
+		for( int attempt = 1; attempt <= MAX_RETRIES && !cancelled; attempt++ ) {
 			
-			etag.setETag( value );
-			Log.v( TAG, "download : etag=" + etag.getETag() );
-		}
-		etagCursor.close();
-
-		ResponseEntity<ProgramGuideWrapper> responseEntity = mMainApplication.getMythServicesApi().guideOperations().getProgramGuide( start, end, 1, -1, false, etag );
-
-		try {
-
-			if( responseEntity.getStatusCode().equals( HttpStatus.OK ) ) {
-				ProgramGuideWrapper programGuide = responseEntity.getBody();
+			File spool = new File( programGuideCache, SPOOL_FILE_PREFIX + mLocationProfile.getHostname() + "_" + DateUtils.fileDateTimeFormatter.print( start ) + FILENAME_EXT );
+			
+			try {
+				ETagInfo etag = ETagInfo.createEmptyETag();
+				
+				// an unchanged chunk is only skipped while the guide screen still has its hours on disk
+				if( hasHours( chunk ) ) {
+					etag.setETag( chunk.getEtag() );
+				}
 				
-				if( null != programGuide ) {
+				stats.request();
+				long bytes = mJsonStreamHelper.fetch( url, etag, spool );
 
-					if( null != programGuide.getProgramGuide() ) {
-						newDataDownloaded = process( programGuide.getProgramGuide() );
-					}
+				if( bytes != JsonStreamHelper.NOT_MODIFIED ) {
+					downloadedChunk.status = HttpStatus.OK;
+					downloadedChunk.spool = spool;
+					
+					chunk.setBytes( bytes );
+				} else {
+					downloadedChunk.status = HttpStatus.NOT_MODIFIED;
 					
+					stats.notModified();
 				}
+				
+				chunk.setEtag( etag.getETag() );
+				
+				Log.v( TAG, "download : exit" );
+				return downloadedChunk;
+			} catch( Exception e ) {
+				Log.w( TAG, "download : error downloading program guide for " + chunk + ", attempt " + attempt + " of " + MAX_RETRIES, e );
+				
+				spool.delete();
+				
+				if( isTimeout( e ) && chunker.split( chunk ) ) {
+					Log.v( TAG, "download : exit, chunk timed out and was split" );
+					
+					stats.split();
+					return null;
+				}
+				
+				if( attempt < MAX_RETRIES ) {
 
-				if( null != etag.getETag() ) {
-					ContentValues values = new ContentValues();
-					values.put( EtagConstants.FIELD_ENDPOINT, endpoint );
-					values.put( EtagConstants.FIELD_VALUE, etag.getETag() );
-					values.put( EtagConstants.FIELD_DATE, ( new DateTime() ).getMillis() );
-
-					if( null == id ) {
-						Log.v( TAG, "download : adding new etag" );
-
-						getContentResolver().insert( EtagConstants.CONTENT_URI, values );
-					} else {
-						Log.v( TAG, "download : updating existing etag" );
+					try {
+						Thread.sleep( RETRY_DELAY * attempt );
+					} catch( InterruptedException ie ) {
+						Thread.currentThread().interrupt();
 
-						getContentResolver().update( ContentUris.withAppendedId( EtagConstants.CONTENT_URI, id ), values, null, null );
+						break;
 					}
-				}
 
-				Log.v( TAG, "download : exit" );
-				return newDataDownloaded;
+				}
+				
 			}
 			
-			if( responseEntity.getStatusCode().equals( HttpStatus.NOT_MODIFIED ) ) {
-				
-				if( null != etag.getETag() ) {
-					ContentValues values = new ContentValues();
-					values.put( EtagConstants.FIELD_ENDPOINT, endpoint );
-					values.put( EtagConstants.FIELD_VALUE, etag.getETag() );
-					values.put( EtagConstants.FIELD_DATE, ( new DateTime() ).getMillis() );
+		}
+			
+		Log.e( TAG, "download : giving up on program guide for " + chunk );
+		stats.failure();
+		
+		Log.v( TAG, "download : exit" );
+		return downloadedChunk;
+	}
+
+	private boolean store( GuideChunk downloadedChunk, ProgramGuideSyncStats stats ) {
+		Log.v( TAG, "store : enter" );
+		
+		ProgramGuideChunk chunk = downloadedChunk.chunk;
+		
+		if( null == downloadedChunk.status ) {
+			Log.v( TAG, "store : exit, " + chunk + " was not downloaded" );
+			return false;
+		}
+		
+		boolean newDataDownloaded = false;
 
-					Log.v( TAG, "download : updating existing etag" );
+		try {
 
-					getContentResolver().update( ContentUris.withAppendedId( EtagConstants.CONTENT_URI, id ), values, null, null );
-				}
+			if( downloadedChunk.status.equals( HttpStatus.OK ) && null != downloadedChunk.spool ) {
+				int programs = process( chunk, downloadedChunk.spool );
+				
+				chunk.setPrograms( programs );
+				stats.received( programs, chunk.getBytes() );
+				
+				newDataDownloaded = true;
+			}
 
+			if( downloadedChunk.status.equals( HttpStatus.OK ) || downloadedChunk.status.equals( HttpStatus.NOT_MODIFIED ) ) {
+				
+				if( ProgramGuideChunker.isTooLarge( chunk ) ) {
+					Log.v( TAG, "store : " + chunk + " is too large, the next sync requests it in halves" );
+					
+					for( ProgramGuideChunk half : chunk.split() ) {
+						mProgramGuideChunkDaoHelper.save( half );
+					}
+					
+				} else {
+					mProgramGuideChunkDaoHelper.save( chunk );
+				}
+				
 			}
 			
 		} catch( Exception e ) {
-			Log.e( TAG, "download : error downloading program guide" );
-		}
+			Log.e( TAG, "store : error storing program guide for " + chunk, e );
 			
-		Log.v( TAG, "download : exit" );
+			// the chunk is not saved, so the next sync requests it again and should not wait for the interval
+			stats.failure();
+		} finally {
+			
+			if( null != downloadedChunk.spool ) {
+				downloadedChunk.spool.delete();
+			}
+			
+		}
+		
+		Log.v( TAG, "store : exit" );
 		return newDataDownloaded;
 	}
-
-	private boolean process( ProgramGuide programGuide ) throws RemoteException, OperationApplicationException {
+	
+	/*
+	 * Streams the spooled guide into the database one channel at a time. Each channel is added to the hour files
+	 * of the chunk as soon as it is parsed, only the encoded records of the hours are held until they are written.
+	 */
+	private int process( ProgramGuideChunk chunk, File spool ) throws IOException, RemoteException, OperationApplicationException {
 		Log.v( TAG, "process : enter" );
 
-		for( ChannelInfo channel : programGuide.getChannels() ) {
+		final List<DateTime> hours = new ArrayList<DateTime>();
+		final List<ProgramGuideBinaryWriter> writers = new ArrayList<ProgramGuideBinaryWriter>();
+		for( DateTime hour = chunk.getStartTime(); hour.isBefore( chunk.getEndTime() ); hour = hour.plusHours( 1 ) ) {
+			hours.add( hour );
+			writers.add( ProgramGuideBinaryWriter.newInstance( hour.getMillis() ) );
+		}
+		
+		final int[] programs = new int[ 1 ];
+		
+		InputStream in = new BufferedInputStream( new FileInputStream( spool ) );
+		try {
+			
+			mJsonStreamHelper.stream( in, CHANNELS_FIELD, ChannelInfo.class, new ElementHandler<ChannelInfo>() {
 
-			if( null != channel.getPrograms() && !channel.getPrograms().isEmpty() ) {
-				
-				for( Program program : channel.getPrograms() ) {
-					program.setChannelInfo( channel );
+				@Override
+				public void element( ChannelInfo channel ) throws IOException, RemoteException, OperationApplicationException {
+					
+					if( null != channel.getPrograms() && !channel.getPrograms().isEmpty() ) {
+						
+						for( Program program : channel.getPrograms() ) {
+							program.setChannelInfo( channel );
+						}
+						
+						mProgramGuideDaoHelper.load( channel.getPrograms() );
+
+						programs[ 0 ] += channel.getPrograms().size();
+					}
+					
+					for( int i = 0; i < hours.size(); i++ ) {
+						DateTime hour = hours.get( i );
+						
+						writers.get( i ).add( channel, hour.getMillis(), hour.plusHours( 1 ).getMillis() );
+					}
+					
 				}
 				
-				mProgramGuideDaoHelper.load( channel.getPrograms() );
-
-			}
+			});
 			
+		} finally {
+			IOUtils.closeQuietly( in );
 		}
+		
+		writeHours( hours, writers );
 	
 		Log.v( TAG, "process : exit" );
+		return programs[ 0 ];
+	}
+	
+	/*
+	 * Writes one guide file per hour of the chunk, each holding every channel with the programs airing in that hour.
+	 * The cache keys of the rewritten hours are broadcast, so a guide screen drops the hours it already holds.
+	 */
+	private void writeHours( List<DateTime> hours, List<ProgramGuideBinaryWriter> writers ) throws IOException {
+		Log.v( TAG, "writeHours : enter" );
+		
+		String[] keys = new String[ hours.size() ];
+		
+		for( int i = 0; i < hours.size(); i++ ) {
+			DateTime hour = hours.get( i );
+			
+			writers.get( i ).write( getHourFile( hour ) );
+			keys[ i ] = ProgramGuideLruMemoryCache.getKey( mLocationProfile.getHostname(), hour );
+		}
+		
+		Intent updatedIntent = new Intent( ACTION_HOURS_UPDATED );
+		updatedIntent.putExtra( EXTRA_HOURS_UPDATED_KEYS, keys );
+		sendBroadcast( updatedIntent );
+		
+		Log.v( TAG, "writeHours : exit" );
+	}
+	
+	private File getHourFile( DateTime hour ) {
+		return new File( programGuideCache, ProgramGuideLruMemoryCache.getKey( mLocationProfile.getHostname(), hour ) + ProgramGuideBinaryFormat.FILENAME_EXT );
+	}
+	
+	private boolean hasHours( ProgramGuideChunk chunk ) {
+		
+		for( DateTime hour = chunk.getStartTime(); hour.isBefore( chunk.getEndTime() ); hour = hour.plusHours( 1 ) ) {
+			
+			File file = getHourFile( hour );
+			if( !file.exists() || file.length() == 0 ) {
+				return false;
+			}
+			
+		}
+		
 		return true;
 	}
 
+	private boolean isTimeout( Throwable e ) {
+		
+		for( Throwable cause = e; null != cause; cause = cause.getCause() ) {
+			
+			if( cause instanceof SocketTimeoutException ) {
+				return true;
+			}
+			
+		}
+		
+		return false;
+	}
+	
 	@SuppressWarnings( "deprecation" )
 	private void sendNotification() {
 
@@ -262,12 +531,18 @@ public class ProgramGuideDownloadServiceNew extends MythtvService {
 	}
 	
     @SuppressWarnings( "deprecation" )
-	private void progressUpdate( double percentageComplete ) {
+	private void progressUpdate( double percentageComplete, DateTime storedThrough ) {
 
     	CharSequence contentText = formatter.format( percentageComplete ) + "% complete";
 
     	mNotification.setLatestEventInfo( this, getResources().getString( R.string.notification_sync_program_guide ), contentText, mContentIntent );
     	mNotificationManager.notify( notificationId, mNotification );
+    	
+		Intent progressIntent = new Intent( ACTION_PROGRESS );
+		progressIntent.putExtra( EXTRA_PROGRESS, contentText.toString() );
+		progressIntent.putExtra( EXTRA_PROGRESS_DATE, DateUtils.dateTimeFormatter.print( storedThrough ) );
+		sendBroadcast( progressIntent );
+
     }
 
     private void completed()    {
@@ -278,4 +553,66 @@ public class ProgramGuideDownloadServiceNew extends MythtvService {
     	
     }
 	
+    /*
+     * Requests chunks until the planner has none left. Each chunk is queued whether or not the download
+     * succeeded, so the writer can count it off, unless it was split and replaced by its halves.
+     */
+    private class FetchWorker implements Runnable {
+    	
+    	private final ProgramGuideChunker chunker;
+    	private final BlockingQueue<GuideChunk> downloaded;
+    	private final ProgramGuideSyncStats stats;
+    	
+    	FetchWorker( ProgramGuideChunker chunker, BlockingQueue<GuideChunk> downloaded, ProgramGuideSyncStats stats ) {
+    		this.chunker = chunker;
+    		this.downloaded = downloaded;
+    		this.stats = stats;
+    	}
+    	
+		@Override
+		public void run() {
+			
+			try {
+				
+				ProgramGuideChunk chunk;
+				while( !cancelled && null != ( chunk = chunker.next() ) ) {
+					
+					GuideChunk downloadedChunk;
+					try {
+						downloadedChunk = download( chunk, chunker, stats );
+					} catch( RuntimeException e ) {
+						Log.e( TAG, "FetchWorker.run : error downloading program guide for " + chunk, e );
+						
+						// queued without a status, so the writer still counts the chunk off
+						stats.failure();
+						downloadedChunk = new GuideChunk( chunk );
+					}
+					
+					if( null != downloadedChunk ) {
+						downloaded.put( downloadedChunk );
+					}
+					
+				}
+				
+			} catch( InterruptedException e ) {
+				Log.v( TAG, "FetchWorker.run : interrupted" );
+			}
+			
+		}
+    	
+    }
+    
+    private static class GuideChunk {
+    	
+    	final ProgramGuideChunk chunk;
+    	
+    	HttpStatus status;
+    	File spool;
+    	
+    	GuideChunk( ProgramGuideChunk chunk ) {
+    		this.chunk = chunk;
+    	}
+    	
+    }
+    
 }
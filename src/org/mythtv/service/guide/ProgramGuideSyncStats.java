@@ -0,0 +1,118 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.guide;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for a single program guide sync, updated from the fetch workers and the writer.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideSyncStats {
+
+	private final long started = System.currentTimeMillis();
+	
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+	private final AtomicInteger failures = new AtomicInteger();
+	private final AtomicInteger splits = new AtomicInteger();
+	private final AtomicLong bytes = new AtomicLong();
+	private final AtomicLong programs = new AtomicLong();
+	
+	public void request() {
+		requests.incrementAndGet();
+	}
+	
+	public void notModified() {
+		notModified.incrementAndGet();
+	}
+	
+	public void failure() {
+		failures.incrementAndGet();
+	}
+	
+	public void split() {
+		splits.incrementAndGet();
+	}
+	
+	/**
+	 * @param count
+	 * @param length the response content length, ignored when not known
+	 */
+	public void received( int count, long length ) {
+		programs.addAndGet( count );
+		
+		if( length > 0 ) {
+			bytes.addAndGet( length );
+		}
+	}
+	
+	public int getRequests() {
+		return requests.get();
+	}
+	
+	public int getNotModified() {
+		return notModified.get();
+	}
+	
+	public int getFailures() {
+		return failures.get();
+	}
+	
+	public int getSplits() {
+		return splits.get();
+	}
+	
+	public long getBytes() {
+		return bytes.get();
+	}
+	
+	public long getPrograms() {
+		return programs.get();
+	}
+	
+	/**
+	 * @return milliseconds since the sync started
+	 */
+	public long getElapsed() {
+		return System.currentTimeMillis() - started;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append( "ProgramGuideSyncStats [" );
+		builder.append( "requests=" ).append( requests ).append( ", " );
+		builder.append( "notModified=" ).append( notModified ).append( ", " );
+		builder.append( "failures=" ).append( failures ).append( ", " );
+		builder.append( "splits=" ).append( splits ).append( ", " );
+		builder.append( "programs=" ).append( programs ).append( ", " );
+		builder.append( "bytes=" ).append( bytes ).append( ", " );
+		builder.append( "elapsed=" ).append( getElapsed() ).append( "ms" );
+		builder.append( "]" );
+		return builder.toString();
+	}
+	
+}
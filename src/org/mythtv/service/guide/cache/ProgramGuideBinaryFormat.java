@@ -0,0 +1,80 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.guide.cache;
+
+/**
+ * Layout of the binary program guide cache file. All values are big endian.
+ * 
+ * <pre>
+ * header          magic, version, reserved, base time and the counts and offsets of the sections below
+ * channel table   fixed width channel records, in guide order
+ * program table   fixed width program records, grouped by channel
+ * string index    offset of each string into the string data
+ * string data     length prefixed UTF-8 strings, each title, category and call sign is stored once
+ * </pre>
+ * 
+ * Program times are stored in seconds relative to the base time of the file, so a record can be read at any position
+ * without decoding the records before it.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideBinaryFormat {
+
+	public static final String FILENAME_EXT = ".guide";
+	
+	public static final int MAGIC = 0x4D544731; // MTG1
+	public static final short VERSION = 1;
+	
+	public static final int NO_STRING = -1;
+	public static final int NO_RECORDING = Integer.MIN_VALUE;
+
+	// header
+	public static final int HEADER_MAGIC = 0;
+	public static final int HEADER_VERSION = 4;
+	public static final int HEADER_BASE_TIME = 8;
+	public static final int HEADER_STRING_COUNT = 16;
+	public static final int HEADER_CHANNEL_COUNT = 20;
+	public static final int HEADER_PROGRAM_COUNT = 24;
+	public static final int HEADER_CHANNEL_OFFSET = 28;
+	public static final int HEADER_PROGRAM_OFFSET = 32;
+	public static final int HEADER_STRING_INDEX_OFFSET = 36;
+	public static final int HEADER_STRING_DATA_OFFSET = 40;
+	public static final int HEADER_SIZE = 44;
+	
+	// channel record
+	public static final int CHANNEL_ID = 0;
+	public static final int CHANNEL_NUMBER = 4;
+	public static final int CHANNEL_CALLSIGN = 8;
+	public static final int CHANNEL_FIRST_PROGRAM = 12;
+	public static final int CHANNEL_PROGRAM_COUNT = 16;
+	public static final int CHANNEL_RECORD_SIZE = 20;
+	
+	// program record
+	public static final int PROGRAM_START = 0;
+	public static final int PROGRAM_DURATION = 4;
+	public static final int PROGRAM_TITLE = 8;
+	public static final int PROGRAM_SUB_TITLE = 12;
+	public static final int PROGRAM_CATEGORY = 16;
+	public static final int PROGRAM_RECORDING_STATUS = 20;
+	public static final int PROGRAM_RECORD_SIZE = 24;
+	
+	private ProgramGuideBinaryFormat() { }
+	
+}
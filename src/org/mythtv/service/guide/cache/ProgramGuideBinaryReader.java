@@ -0,0 +1,307 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.guide.cache;
+
+import static org.mythtv.service.guide.cache.ProgramGuideBinaryFormat.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.mythtv.services.api.channel.ChannelInfo;
+import org.mythtv.services.api.dvr.Program;
+import org.mythtv.services.api.dvr.Recording;
+import org.mythtv.services.api.guide.ProgramGuide;
+
+/**
+ * Reads a file in the {@link ProgramGuideBinaryFormat} through a memory mapped buffer. Opening a file only checks its
+ * header, channels and strings are decoded when they are asked for.
+ * 
+ * The record accessors read single fields straight from the buffer, strings come from the decoded string table, so
+ * nothing is allocated by them once {@link #decodeStrings()} has run.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideBinaryReader {
+
+	// rough sizes of the reader itself and of a String with its char array, excluding the characters
+	private static final int READER_OVERHEAD = 96;
+	private static final int STRING_OVERHEAD = 56;
+	
+	private final ByteBuffer buffer;
+	
+	private final long baseTime;
+	private final int channelCount;
+	private final int programCount;
+	private final int channelOffset;
+	private final int programOffset;
+	private final int stringIndexOffset;
+	private final int stringDataOffset;
+	
+	private final String[] strings;
+	
+	/**
+	 * @param file
+	 * @return
+	 * @throws IOException when the file can not be read or is not in the binary format
+	 */
+	public static ProgramGuideBinaryReader open( File file ) throws IOException {
+		
+		RandomAccessFile raf = new RandomAccessFile( file, "r" );
+		try {
+			FileChannel channel = raf.getChannel();
+			
+			// the mapping stays valid after the file is closed
+			return new ProgramGuideBinaryReader( channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+		} finally {
+			raf.close();
+		}
+		
+	}
+	
+	protected ProgramGuideBinaryReader( ByteBuffer buffer ) throws IOException {
+		this.buffer = buffer;
+		
+		if( buffer.capacity() < HEADER_SIZE || buffer.getInt( HEADER_MAGIC ) != MAGIC ) {
+			throw new IOException( "not a program guide file" );
+		}
+		
+		if( buffer.getShort( HEADER_VERSION ) != VERSION ) {
+			throw new IOException( "unsupported program guide file version " + buffer.getShort( HEADER_VERSION ) );
+		}
+		
+		baseTime = buffer.getLong( HEADER_BASE_TIME );
+		channelCount = buffer.getInt( HEADER_CHANNEL_COUNT );
+		programCount = buffer.getInt( HEADER_PROGRAM_COUNT );
+		channelOffset = buffer.getInt( HEADER_CHANNEL_OFFSET );
+		programOffset = buffer.getInt( HEADER_PROGRAM_OFFSET );
+		stringIndexOffset = buffer.getInt( HEADER_STRING_INDEX_OFFSET );
+		stringDataOffset = buffer.getInt( HEADER_STRING_DATA_OFFSET );
+		
+		strings = new String[ buffer.getInt( HEADER_STRING_COUNT ) ];
+	}
+	
+	/**
+	 * @return the number of channels in the file
+	 */
+	public int getChannelCount() {
+		return channelCount;
+	}
+	
+	/**
+	 * @return the number of programs in the file
+	 */
+	public int getProgramCount() {
+		return programCount;
+	}
+	
+	/**
+	 * @return the size of the mapped file in bytes
+	 */
+	public int getSize() {
+		return buffer.capacity();
+	}
+	
+	/**
+	 * The mapped file lives outside the heap, what the reader retains is its string table once the strings have been
+	 * decoded. Decoded channels are not retained.
+	 * 
+	 * @return the estimated heap retained by the reader in bytes
+	 */
+	public int getEstimatedHeapSize() {
+		return READER_OVERHEAD + strings.length * ( STRING_OVERHEAD + 4 ) + ( buffer.capacity() - stringDataOffset - strings.length * 4 ) * 2;
+	}
+	
+	/**
+	 * Decodes the channel at the position along with its programs.
+	 * 
+	 * @param position
+	 * @return
+	 */
+	public ChannelInfo getChannel( int position ) {
+		
+		int record = channelOffset + position * CHANNEL_RECORD_SIZE;
+		
+		ChannelInfo channel = new ChannelInfo();
+		channel.setChannelId( buffer.getInt( record + CHANNEL_ID ) );
+		channel.setChannelNumber( getChannelNumber( position ) );
+		channel.setCallSign( getString( buffer.getInt( record + CHANNEL_CALLSIGN ) ) );
+		
+		int firstProgram = getFirstProgram( position );
+		int count = getChannelProgramCount( position );
+		
+		List<Program> programs = new ArrayList<Program>( count );
+		for( int i = firstProgram; i < firstProgram + count; i++ ) {
+			programs.add( getProgram( i ) );
+		}
+		channel.setPrograms( programs );
+		
+		return channel;
+	}
+	
+	/**
+	 * @param position
+	 * @return the channel number of the channel at the position
+	 */
+	public String getChannelNumber( int position ) {
+		return getString( buffer.getInt( channelOffset + position * CHANNEL_RECORD_SIZE + CHANNEL_NUMBER ) );
+	}
+	
+	/**
+	 * @param position
+	 * @return the index of the first program of the channel at the position
+	 */
+	public int getFirstProgram( int position ) {
+		return buffer.getInt( channelOffset + position * CHANNEL_RECORD_SIZE + CHANNEL_FIRST_PROGRAM );
+	}
+	
+	/**
+	 * @param position
+	 * @return the number of programs of the channel at the position
+	 */
+	public int getChannelProgramCount( int position ) {
+		return buffer.getInt( channelOffset + position * CHANNEL_RECORD_SIZE + CHANNEL_PROGRAM_COUNT );
+	}
+	
+	/**
+	 * @param index
+	 * @return the start of the program in milliseconds
+	 */
+	public long getProgramStart( int index ) {
+		return baseTime + buffer.getInt( programOffset + index * PROGRAM_RECORD_SIZE + PROGRAM_START ) * 1000L;
+	}
+	
+	/**
+	 * @param index
+	 * @return the end of the program in milliseconds
+	 */
+	public long getProgramEnd( int index ) {
+		return getProgramStart( index ) + buffer.getInt( programOffset + index * PROGRAM_RECORD_SIZE + PROGRAM_DURATION ) * 1000L;
+	}
+	
+	public String getProgramTitle( int index ) {
+		return getString( buffer.getInt( programOffset + index * PROGRAM_RECORD_SIZE + PROGRAM_TITLE ) );
+	}
+	
+	public String getProgramSubTitle( int index ) {
+		return getString( buffer.getInt( programOffset + index * PROGRAM_RECORD_SIZE + PROGRAM_SUB_TITLE ) );
+	}
+	
+	public String getProgramCategory( int index ) {
+		return getString( buffer.getInt( programOffset + index * PROGRAM_RECORD_SIZE + PROGRAM_CATEGORY ) );
+	}
+	
+	/**
+	 * @param index
+	 * @return the recording status of the program, {@link ProgramGuideBinaryFormat#NO_RECORDING} when it has none
+	 */
+	public int getProgramRecordingStatus( int index ) {
+		return buffer.getInt( programOffset + index * PROGRAM_RECORD_SIZE + PROGRAM_RECORDING_STATUS );
+	}
+	
+	/**
+	 * Decodes the whole string table ahead of the channels being asked for, so the guide only has to read the fixed
+	 * size records when it shows the hour. Strings decoded concurrently by the guide are at worst decoded twice.
+	 */
+	public void decodeStrings() {
+		
+		for( int i = 0; i < strings.length; i++ ) {
+			getString( i );
+		}
+		
+	}
+	
+	/**
+	 * Decodes the whole file.
+	 * 
+	 * @return
+	 */
+	public ProgramGuide toProgramGuide() {
+		
+		List<ChannelInfo> channels = new ArrayList<ChannelInfo>( channelCount );
+		for( int i = 0; i < channelCount; i++ ) {
+			channels.add( getChannel( i ) );
+		}
+		
+		ProgramGuide programGuide = new ProgramGuide();
+		programGuide.setChannels( channels );
+		
+		return programGuide;
+	}
+	
+	// internal helpers
+	
+	private Program getProgram( int index ) {
+		
+		Program program = new Program();
+		program.setStartTime( new DateTime( getProgramStart( index ), DateTimeZone.UTC ) );
+		program.setEndTime( new DateTime( getProgramEnd( index ), DateTimeZone.UTC ) );
+		program.setTitle( getProgramTitle( index ) );
+		program.setSubTitle( getProgramSubTitle( index ) );
+		program.setCategory( getProgramCategory( index ) );
+		
+		int status = getProgramRecordingStatus( index );
+		if( status != NO_RECORDING ) {
+			Recording recording = new Recording();
+			recording.setStatus( status );
+			
+			program.setRecording( recording );
+		}
+		
+		return program;
+	}
+	
+	private String getString( int index ) {
+		
+		if( index == NO_STRING ) {
+			return null;
+		}
+		
+		String value = strings[ index ];
+		if( null == value ) {
+			int offset = stringDataOffset + buffer.getInt( stringIndexOffset + index * 4 );
+			int length = buffer.getInt( offset );
+			
+			byte[] bytes = new byte[ length ];
+			
+			ByteBuffer data = buffer.duplicate();
+			data.position( offset + 4 );
+			data.get( bytes );
+			
+			try {
+				value = new String( bytes, "UTF-8" );
+			} catch( UnsupportedEncodingException e ) {
+				throw new IllegalStateException( e );
+			}
+			
+			strings[ index ] = value;
+		}
+		
+		return value;
+	}
+	
+}
@@ -0,0 +1,279 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.guide.cache;
+
+import static org.mythtv.service.guide.cache.ProgramGuideBinaryFormat.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.mythtv.services.api.channel.ChannelInfo;
+import org.mythtv.services.api.dvr.Program;
+import org.mythtv.services.api.guide.ProgramGuide;
+
+import android.util.Log;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a {@link ProgramGuide} in the {@link ProgramGuideBinaryFormat}.
+ * 
+ * Channels can also be added one at a time with {@link #add(ChannelInfo, long, long)}, only their encoded records are
+ * kept until the file is written, so a guide can be written while it is still being parsed.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideBinaryWriter {
+
+	private static final String TAG = ProgramGuideBinaryWriter.class.getSimpleName();
+	
+	private static final String TEMP_EXT = ".tmp";
+	
+	private final long baseTime;
+	
+	private final Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+	private final List<String> strings = new ArrayList<String>();
+	
+	private final ByteArrayOutputStream channelTable = new ByteArrayOutputStream();
+	private final ByteArrayOutputStream programTable = new ByteArrayOutputStream();
+	private final DataOutputStream channelOut = new DataOutputStream( channelTable );
+	private final DataOutputStream programOut = new DataOutputStream( programTable );
+	
+	private int channelCount = 0;
+	private int programCount = 0;
+	
+	/**
+	 * @param baseTime the program times are stored relative to it, programs starting before it are stored as well
+	 * @return
+	 */
+	public static ProgramGuideBinaryWriter newInstance( long baseTime ) {
+		return new ProgramGuideBinaryWriter( baseTime );
+	}
+	
+	protected ProgramGuideBinaryWriter( long baseTime ) {
+		this.baseTime = baseTime;
+	}
+	
+	/**
+	 * Writes the guide to the file, the file is only replaced once it has been written completely.
+	 * 
+	 * @param programGuide
+	 * @param file
+	 * @throws IOException
+	 */
+	public static void write( ProgramGuide programGuide, File file ) throws IOException {
+		
+		List<ChannelInfo> channels = null != programGuide.getChannels() ? programGuide.getChannels() : new ArrayList<ChannelInfo>();
+		
+		long baseTime = Long.MAX_VALUE;
+		for( ChannelInfo channel : channels ) {
+			
+			if( null != channel.getPrograms() ) {
+				
+				for( Program program : channel.getPrograms() ) {
+					
+					if( null != program.getStartTime() ) {
+						baseTime = Math.min( baseTime, program.getStartTime().getMillis() );
+					}
+					
+				}
+				
+			}
+			
+		}
+		
+		ProgramGuideBinaryWriter writer = newInstance( baseTime != Long.MAX_VALUE ? baseTime : 0 );
+		for( ChannelInfo channel : channels ) {
+			writer.add( channel, Long.MIN_VALUE, Long.MAX_VALUE );
+		}
+		
+		writer.write( file );
+	}
+	
+	/**
+	 * Adds the channel with its programs airing between the two times, the channel is added even when none do.
+	 * Programs without a start time are left out.
+	 * 
+	 * @param channel
+	 * @param from
+	 * @param to
+	 * @throws IOException
+	 */
+	public void add( ChannelInfo channel, long from, long to ) throws IOException {
+		
+		int count = 0;
+		
+		if( null != channel.getPrograms() ) {
+			
+			for( Program program : channel.getPrograms() ) {
+				
+				if( null == program.getStartTime() ) {
+					continue;
+				}
+				
+				long start = program.getStartTime().getMillis();
+				long end = null != program.getEndTime() ? program.getEndTime().getMillis() : start;
+				if( start >= to || end <= from ) {
+					continue;
+				}
+				
+				programOut.writeInt( (int) ( ( start - baseTime ) / 1000 ) );
+				programOut.writeInt( (int) ( ( end - start ) / 1000 ) );
+				programOut.writeInt( intern( program.getTitle() ) );
+				programOut.writeInt( intern( program.getSubTitle() ) );
+				programOut.writeInt( intern( program.getCategory() ) );
+				programOut.writeInt( null != program.getRecording() ? program.getRecording().getStatus() : NO_RECORDING );
+				
+				count++;
+			}
+			
+		}
+		
+		channelOut.writeInt( channel.getChannelId() );
+		channelOut.writeInt( intern( channel.getChannelNumber() ) );
+		channelOut.writeInt( intern( channel.getCallSign() ) );
+		channelOut.writeInt( programCount );
+		channelOut.writeInt( count );
+		
+		channelCount++;
+		programCount += count;
+	}
+	
+	/**
+	 * Writes the channels added so far to the file, the file is only replaced once it has been written completely.
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void write( File file ) throws IOException {
+		Log.v( TAG, "write : enter" );
+		
+		ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+		DataOutputStream stringOut = new DataOutputStream( stringData );
+		int[] stringOffsets = new int[ strings.size() ];
+		for( int i = 0; i < strings.size(); i++ ) {
+			byte[] bytes = strings.get( i ).getBytes( "UTF-8" );
+			
+			stringOffsets[ i ] = stringOut.size();
+			stringOut.writeInt( bytes.length );
+			stringOut.write( bytes );
+		}
+		
+		int channelOffset = HEADER_SIZE;
+		int programOffset = channelOffset + channelTable.size();
+		int stringIndexOffset = programOffset + programTable.size();
+		int stringDataOffset = stringIndexOffset + strings.size() * 4;
+		
+		File temp = new File( file.getPath() + TEMP_EXT );
+		DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( temp ) ) );
+		try {
+			out.writeInt( MAGIC );
+			out.writeShort( VERSION );
+			out.writeShort( 0 );
+			out.writeLong( baseTime );
+			out.writeInt( strings.size() );
+			out.writeInt( channelCount );
+			out.writeInt( programCount );
+			out.writeInt( channelOffset );
+			out.writeInt( programOffset );
+			out.writeInt( stringIndexOffset );
+			out.writeInt( stringDataOffset );
+			
+			channelTable.writeTo( out );
+			programTable.writeTo( out );
+			
+			for( int stringOffset : stringOffsets ) {
+				out.writeInt( stringOffset );
+			}
+			
+			stringData.writeTo( out );
+		} finally {
+			out.close();
+		}
+		
+		if( !temp.renameTo( file ) ) {
+			temp.delete();
+			
+			throw new IOException( "could not replace " + file.getAbsolutePath() );
+		}
+		
+		Log.v( TAG, "write : exit, channels=" + channelCount + ", programs=" + programCount + ", strings=" + strings.size() + ", bytes=" + file.length() );
+	}
+	
+	/**
+	 * Converts a program guide hour written by the JSON cache into the binary format.
+	 * 
+	 * @param mapper
+	 * @param json
+	 * @param binary
+	 * @throws IOException
+	 */
+	public static void convert( ObjectMapper mapper, File json, File binary ) throws IOException {
+		Log.v( TAG, "convert : enter" );
+		
+		long start = System.currentTimeMillis();
+		
+		ProgramGuide programGuide;
+		
+		InputStream is = new BufferedInputStream( new FileInputStream( json ), 8192 );
+		try {
+			programGuide = mapper.readValue( is, ProgramGuide.class );
+		} finally {
+			IOUtils.closeQuietly( is );
+		}
+		
+		write( programGuide, binary );
+		
+		Log.i( TAG, "convert : " + json.getName() + " json bytes=" + json.length() + ", binary bytes=" + binary.length() + ", elapsed=" + ( System.currentTimeMillis() - start ) + "ms" );
+		Log.v( TAG, "convert : exit" );
+	}
+	
+	// internal helpers
+	
+	private int intern( String value ) {
+		
+		if( null == value ) {
+			return NO_STRING;
+		}
+		
+		Integer index = stringIndexes.get( value );
+		if( null == index ) {
+			index = strings.size();
+			
+			strings.add( value );
+			stringIndexes.put( value, index );
+		}
+		
+		return index;
+	}
+	
+}
@@ -18,45 +18,71 @@
  */
 package org.mythtv.service.guide.cache;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.joda.time.DateTime;
-import org.mythtv.service.guide.ProgramGuideDownloadService;
+import org.mythtv.service.MythtvService;
+import org.mythtv.service.guide.ProgramGuideDownloadServiceNew;
+import org.mythtv.service.util.DateUtils;
 import org.mythtv.service.util.FileHelper;
 import org.mythtv.services.api.channel.ChannelInfo;
 import org.mythtv.services.api.dvr.Program;
 import org.mythtv.services.api.guide.ProgramGuide;
 
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.support.v4.util.LruCache;
 import android.util.Log;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.joda.JodaModule;
 
 /**
+ * Application wide cache of program guide hours. Entries are sized by the heap they retain, the guide data itself stays
+ * in the mapped files. Entries are dropped when the system is low on memory, when the download service reports that it
+ * replaced their file, and reloaded once they are older than {@link #MAX_AGE}.
+ * 
  * @author Daniel Frey
  *
  */
-public class ProgramGuideLruMemoryCache extends LruCache<String, ProgramGuide> {
+public class ProgramGuideLruMemoryCache extends LruCache<String, ProgramGuideBinaryReader> {
 
 	private static final String TAG = ProgramGuideLruMemoryCache.class.getSimpleName();
 	
+	public static final long MAX_AGE = 1000 * 60 * 30;
+	public static final int PREFETCH_HOURS = 2;
+	
 	private final Context mContext;
     private final ObjectMapper mapper;
 
     private FileHelper mFileHelper;
 	
-	public ProgramGuideLruMemoryCache( Context context ) {
-		super( 12 * 1024 * 1024 );
+    private final Map<String, Long> loaded = new ConcurrentHashMap<String, Long>();
+    private final ExecutorService prefetcher;
+    
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private final AtomicLong loadTime = new AtomicLong();
+    private final AtomicInteger expiredCount = new AtomicInteger();
+    private final AtomicInteger prefetchCount = new AtomicInteger();
+    
+    /**
+     * @param context
+     * @param maxSize the estimated heap the cached entries may retain, in bytes
+     */
+	public ProgramGuideLruMemoryCache( Context context, int maxSize ) {
+		super( maxSize );
 		Log.v( TAG, "initialize : enter" );
 
 		mContext = context;
@@ -65,33 +91,179 @@ public class ProgramGuideLruMemoryCache extends LruCache<String, ProgramGuide> {
 		mapper = new ObjectMapper();
 		mapper.registerModule( new JodaModule() );
 		
+		// the download service runs in its own process, it names the hours it rewrote in a broadcast
+		mContext.registerReceiver( new HoursUpdatedReceiver(), new IntentFilter( ProgramGuideDownloadServiceNew.ACTION_HOURS_UPDATED ) );
+		
+		prefetcher = Executors.newSingleThreadExecutor( new ThreadFactory() {
+
+			@Override
+			public Thread newThread( Runnable r ) {
+				
+				Thread thread = new Thread( r, "ProgramGuidePrefetch" );
+				thread.setPriority( Thread.MIN_PRIORITY );
+				
+				return thread;
+			}
+			
+		});
+		
 		Log.v( TAG, "initialize : exit" );
 	}
 
+	/**
+	 * @param hostname
+	 * @param hour
+	 * @return the cache key of the hour
+	 */
+	public static String getKey( String hostname, DateTime hour ) {
+		return hostname + "_" + DateUtils.fileDateTimeFormatter.print( hour );
+	}
+	
+	/**
+	 * Returns the hour, reloading it when the cached entry has expired.
+	 * 
+	 * @param key
+	 * @return the hour, or null when it has not been downloaded
+	 */
+	public ProgramGuideBinaryReader getProgramGuide( String key ) {
+		
+		Long loadedAt = loaded.get( key );
+		if( null != loadedAt && System.currentTimeMillis() - loadedAt > MAX_AGE ) {
+			Log.v( TAG, "getProgramGuide : " + key + " expired" );
+			
+			expiredCount.incrementAndGet();
+			remove( key );
+		}
+		
+		return get( key );
+	}
+	
+	/**
+	 * Loads the hours around the hour being shown in the background, along with their string tables, so showing
+	 * one of them only decodes the fixed size records.
+	 * 
+	 * @param hostname
+	 * @param hour
+	 */
+	public void prefetch( final String hostname, final DateTime hour ) {
+		
+		for( int offset = 1; offset <= PREFETCH_HOURS; offset++ ) {
+			
+			for( final DateTime adjacent : new DateTime[] { hour.plusHours( offset ), hour.minusHours( offset ) } ) {
+				
+				prefetcher.execute( new Runnable() {
+
+					@Override
+					public void run() {
+						
+						String key = getKey( hostname, adjacent );
+						if( null == loaded.get( key ) ) {
+							prefetchCount.incrementAndGet();
+							
+							ProgramGuideBinaryReader reader = getProgramGuide( key );
+							if( null != reader ) {
+								reader.decodeStrings();
+							}
+							
+						}
+						
+					}
+					
+				});
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Drops the cached entries when the system asks the application to release memory.
+	 * 
+	 * @param level one of the ComponentCallbacks2 TRIM_MEMORY levels
+	 */
+	public void trimMemory( int level ) {
+		Log.v( TAG, "trimMemory : level=" + level + ", " + getStats() );
+		
+		evictAll();
+	}
+	
+	/**
+	 * @return the number of entries loaded from disk
+	 */
+	public int getLoadCount() {
+		return loadCount.get();
+	}
+	
+	/**
+	 * @return the total time spent loading entries from disk, in milliseconds
+	 */
+	public long getLoadTime() {
+		return loadTime.get();
+	}
+	
+	/**
+	 * @return the number of entries reloaded because they had expired or their file was replaced
+	 */
+	public int getExpiredCount() {
+		return expiredCount.get();
+	}
+	
+	/**
+	 * @return the number of adjacent hours requested ahead of being shown
+	 */
+	public int getPrefetchCount() {
+		return prefetchCount.get();
+	}
+	
+	/**
+	 * @return the cache counters, for tuning
+	 */
+	public String getStats() {
+		
+		int loads = loadCount.get();
+		
+		return "hits=" + hitCount() + ", misses=" + missCount() + ", loads=" + loads
+				+ ", averageLoadTime=" + ( loads > 0 ? loadTime.get() / loads : 0 ) + "ms"
+				+ ", expired=" + expiredCount.get() + ", prefetched=" + prefetchCount.get() + ", evicted=" + evictionCount()
+				+ ", size=" + size() + "/" + maxSize();
+	}
+	
 	/* (non-Javadoc)
 	 * @see android.support.v4.util.LruCache#create(java.lang.Object)
 	 */
 	@Override
-	protected ProgramGuide create( String key ) {
+	protected ProgramGuideBinaryReader create( String key ) {
 		Log.v( TAG, "create : enter" );
 
 		File programGuideCache = mFileHelper.getProgramGuideDataDirectory();
 		if( programGuideCache.exists() ) {
 
-			String filename = key + ProgramGuideDownloadService.FILENAME_EXT;
+			String filename = key + ProgramGuideBinaryFormat.FILENAME_EXT;
 			Log.v( TAG, "create : loading data from file " + filename );
 			
 			File file = new File( programGuideCache, filename );
+			if( !file.exists() ) {
+				convert( programGuideCache, key, file );
+			}
+			
 			if( file.exists() ) {
 				Log.v( TAG, "create : file exists " + filename );
 				
 				try {
-					InputStream is = new BufferedInputStream( new FileInputStream( file ), 8192 );
-					return mapper.readValue( is, ProgramGuide.class );
-				} catch( JsonParseException e ) {
-					Log.e( TAG, "create : JsonParseException - error opening file " + filename, e );
-				} catch( JsonMappingException e ) {
-					Log.e( TAG, "create : JsonMappingException - error opening file " + filename, e );
+					long start = System.currentTimeMillis();
+					
+					// channels are decoded from the mapped file as the guide asks for them
+					ProgramGuideBinaryReader reader = ProgramGuideBinaryReader.open( file );
+					
+					long elapsed = System.currentTimeMillis() - start;
+					loadCount.incrementAndGet();
+					loadTime.addAndGet( elapsed );
+					loaded.put( key, start );
+					
+					Log.v( TAG, "create : opened " + reader.getChannelCount() + " channels, " + reader.getProgramCount() + " programs from " + reader.getSize() + " bytes in " + elapsed + "ms" );
+					
+					return reader;
 				} catch( IOException e ) {
 					Log.e( TAG, "create : IOException - error opening file " + filename, e );
 				}
@@ -107,24 +279,66 @@ public class ProgramGuideLruMemoryCache extends LruCache<String, ProgramGuide> {
 	 * @see android.support.v4.util.LruCache#sizeOf(java.lang.Object, java.lang.Object)
 	 */
 	@Override
-	protected int sizeOf( String key, ProgramGuide value ) {
+	protected int sizeOf( String key, ProgramGuideBinaryReader value ) {
+		return value.getEstimatedHeapSize();
+	}
+
+	/* (non-Javadoc)
+	 * @see android.support.v4.util.LruCache#entryRemoved(boolean, java.lang.Object, java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	protected void entryRemoved( boolean evicted, String key, ProgramGuideBinaryReader oldValue, ProgramGuideBinaryReader newValue ) {
 		
-		File programGuideCache = mFileHelper.getProgramGuideDataDirectory();
-		if( programGuideCache.exists() ) {
+		if( null == newValue ) {
+			loaded.remove( key );
+		}
+		
+	}
 
-			String filename = key + ProgramGuideDownloadService.FILENAME_EXT;
+	// internal helpers
+	
+	private void convert( File programGuideCache, String key, File file ) {
+		
+		File legacy = new File( programGuideCache, key + MythtvService.FILENAME_EXT );
+		if( legacy.exists() ) {
+			Log.v( TAG, "convert : converting " + legacy.getName() );
 			
-			File file = new File( programGuideCache, filename );
-			if( file.exists() ) {
-				return (int) file.length();
+			try {
+				ProgramGuideBinaryWriter.convert( mapper, legacy, file );
+				
+				// the json hour is only dropped once the binary file has replaced it, a failed conversion is tried again
+				legacy.delete();
+			} catch( IOException e ) {
+				Log.e( TAG, "convert : IOException - error converting file " + legacy.getName(), e );
 			}
-		
+			
 		}
-
-		return super.sizeOf( key, value );    
+		
 	}
+	
+	private class HoursUpdatedReceiver extends BroadcastReceiver {
 
-	// internal helpers
+		@Override
+		public void onReceive( Context context, Intent intent ) {
+			
+			String[] keys = intent.getStringArrayExtra( ProgramGuideDownloadServiceNew.EXTRA_HOURS_UPDATED_KEYS );
+			if( null == keys ) {
+				return;
+			}
+			
+			for( String key : keys ) {
+				
+				if( null != remove( key ) ) {
+					Log.v( TAG, "HoursUpdatedReceiver : " + key + " replaced" );
+					
+					expiredCount.incrementAndGet();
+				}
+				
+			}
+			
+		}
+		
+	}
 	
 	public static ProgramGuide getDownloadingProgramGuide( DateTime key ) {
 		
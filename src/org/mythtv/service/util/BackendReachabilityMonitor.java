@@ -0,0 +1,396 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.mythtv.client.ui.preferences.LocationProfile;
+import org.mythtv.db.preferences.ConnectedProfileRegistry;
+import org.mythtv.db.preferences.ConnectedProfileRegistry.ConnectedProfileListener;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.util.Log;
+
+/**
+ * Tracks whether the connected master backend can be reached, so callers read a cached answer
+ * instead of blocking on their own probes.
+ * 
+ * A reachable backend is trusted for {@link #REACHABLE_TTL} before it is probed again. After a failed
+ * probe the next one is held back with an exponential backoff. Stale reads return the last known
+ * state and refresh it in the background; only the first read for a backend waits for a probe.
+ * The state is reset when connectivity or the connected profile changes, and every change in
+ * reachability is broadcast as {@link #ACTION_STATE_CHANGED}.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class BackendReachabilityMonitor {
+
+	private static final String TAG = BackendReachabilityMonitor.class.getSimpleName();
+	
+	public static final String ACTION_STATE_CHANGED = "org.mythtv.background.reachability.ACTION_STATE_CHANGED";
+	
+	public static final String EXTRA_REACHABLE = "REACHABLE";
+	public static final String EXTRA_LATENCY_P50 = "LATENCY_P50";
+	public static final String EXTRA_LATENCY_P90 = "LATENCY_P90";
+	public static final String EXTRA_LATENCY_P99 = "LATENCY_P99";
+	
+	public static final long REACHABLE_TTL = 60 * 1000;
+	public static final long BACKOFF_MIN = 5 * 1000;
+	public static final long BACKOFF_MAX = 5 * 60 * 1000;
+	
+	private static final int PROBE_TIMEOUT = 5 * 1000;
+	private static final int LATENCY_SAMPLES = 64;
+	
+	private static BackendReachabilityMonitor sInstance;
+	
+	private final Context mContext;
+	private final ConnectedProfileRegistry mConnectedProfileRegistry;
+	private final ScheduledExecutorService executor;
+	
+	private final AtomicBoolean probing = new AtomicBoolean();
+	private volatile State state;
+	private boolean started = false;
+	
+	private final long[] latencies = new long[ LATENCY_SAMPLES ];
+	private int latencyCount = 0;
+	
+	/**
+	 * An immutable view of the last probe of a backend.
+	 */
+	public static class State {
+		
+		private final String url;
+		private final boolean reachable;
+		private final long checked;
+		private final long expires;
+		private final int failures;
+		private final long latency;
+		
+		State( String url, boolean reachable, long checked, long expires, int failures, long latency ) {
+			this.url = url;
+			this.reachable = reachable;
+			this.checked = checked;
+			this.expires = expires;
+			this.failures = failures;
+			this.latency = latency;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public boolean isReachable() {
+			return reachable;
+		}
+
+		/**
+		 * @return when the backend was last probed, in milliseconds
+		 */
+		public long getChecked() {
+			return checked;
+		}
+
+		/**
+		 * @return when the state should be probed again, in milliseconds
+		 */
+		public long getExpires() {
+			return expires;
+		}
+
+		/**
+		 * @return the number of consecutive failed probes
+		 */
+		public int getFailures() {
+			return failures;
+		}
+
+		/**
+		 * @return the duration of the last probe, in milliseconds
+		 */
+		public long getLatency() {
+			return latency;
+		}
+
+		/* (non-Javadoc)
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return "State [url=" + url + ", reachable=" + reachable + ", failures=" + failures + ", latency=" + latency + "ms]";
+		}
+		
+	}
+	
+	public static synchronized BackendReachabilityMonitor getInstance( Context context ) {
+		
+		if( null == sInstance ) {
+			sInstance = new BackendReachabilityMonitor( context.getApplicationContext() );
+		}
+		
+		return sInstance;
+	}
+	
+	private BackendReachabilityMonitor( Context context ) {
+		this.mContext = context;
+		this.mConnectedProfileRegistry = ConnectedProfileRegistry.getInstance( mContext );
+		
+		this.executor = Executors.newSingleThreadScheduledExecutor( new ThreadFactory() {
+
+			@Override
+			public Thread newThread( Runnable r ) {
+				Thread thread = new Thread( r, "BackendReachability" );
+				thread.setPriority( Thread.MIN_PRIORITY );
+				thread.setDaemon( true );
+				
+				return thread;
+			}
+			
+		});
+		
+	}
+	
+	/**
+	 * Starts following connectivity and connected profile changes.
+	 */
+	public synchronized void start() {
+		Log.v( TAG, "start : enter" );
+		
+		if( !started ) {
+			mContext.registerReceiver( new ConnectivityReceiver(), new IntentFilter( ConnectivityManager.CONNECTIVITY_ACTION ) );
+			
+			mConnectedProfileRegistry.addListener( new ConnectedProfileListener() {
+
+				@Override
+				public void connectedProfileChanged() {
+					Log.v( TAG, "connectedProfileChanged : resetting backend state" );
+
+					state = null;
+				}
+				
+			});
+			
+			started = true;
+		}
+		
+		Log.v( TAG, "start : exit" );
+	}
+	
+	/**
+	 * @return true if the connected master backend answered its last probe
+	 */
+	public boolean isMasterBackendConnected() {
+		
+		LocationProfile profile = mConnectedProfileRegistry.getConnectedProfile();
+		if( null == profile ) {
+			Log.w( TAG, "isMasterBackendConnected : no backend selected" );
+			
+			return false;
+		}
+		
+		State current = state;
+		if( null == current || !current.url.equals( profile.getUrl() ) ) {
+			
+			// nothing is known about this backend yet, the answer has to come from a probe
+			current = probe( profile.getUrl() );
+		} else if( System.currentTimeMillis() >= current.expires ) {
+			requestProbe();
+		}
+		
+		return current.reachable;
+	}
+	
+	/**
+	 * @return the last known state, or null if the connected backend has not been probed
+	 */
+	public State getState() {
+		return state;
+	}
+	
+	/**
+	 * Probes the connected backend in the background unless a probe is already running.
+	 */
+	public void requestProbe() {
+		
+		if( probing.compareAndSet( false, true ) ) {
+			
+			executor.execute( new Runnable() {
+
+				@Override
+				public void run() {
+					
+					try {
+						LocationProfile profile = mConnectedProfileRegistry.getConnectedProfile();
+						if( null != profile ) {
+							probe( profile.getUrl() );
+						}
+					} finally {
+						probing.set( false );
+					}
+					
+				}
+				
+			});
+			
+		}
+		
+	}
+	
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the probe latency at the percentile over the recent probes, in milliseconds, or -1 before any probe
+	 */
+	public long getLatencyPercentile( int percentile ) {
+		
+		long[] sorted;
+		synchronized( latencies ) {
+			if( latencyCount == 0 ) {
+				return -1;
+			}
+			
+			sorted = new long[ Math.min( latencyCount, LATENCY_SAMPLES ) ];
+			System.arraycopy( latencies, 0, sorted, 0, sorted.length );
+		}
+		Arrays.sort( sorted );
+		
+		int index = (int) Math.ceil( ( percentile / 100.0 ) * sorted.length ) - 1;
+		
+		return sorted[ Math.max( 0, Math.min( index, sorted.length - 1 ) ) ];
+	}
+	
+	// internal helpers
+	
+	private synchronized State probe( String url ) {
+		
+		// another caller may have probed this backend while this one waited
+		State previous = state;
+		if( null != previous && previous.url.equals( url ) && System.currentTimeMillis() < previous.expires ) {
+			return previous;
+		}
+		
+		long start = System.currentTimeMillis();
+		boolean reachable = isNetworkConnected() && request( url );
+		long now = System.currentTimeMillis();
+		long latency = now - start;
+		
+		int failures = 0;
+		long expires = now + REACHABLE_TTL;
+		if( !reachable ) {
+			failures = ( null != previous && previous.url.equals( url ) ) ? previous.failures + 1 : 1;
+			expires = now + Math.min( BACKOFF_MAX, BACKOFF_MIN << Math.min( failures - 1, 16 ) );
+		}
+		
+		synchronized( latencies ) {
+			latencies[ latencyCount % LATENCY_SAMPLES ] = latency;
+			latencyCount++;
+		}
+		
+		State probed = new State( url, reachable, now, expires, failures, latency );
+		state = probed;
+		Log.v( TAG, "probe : " + probed );
+		
+		if( null == previous || previous.reachable != reachable || !previous.url.equals( url ) ) {
+			publish( probed );
+		}
+		
+		return probed;
+	}
+	
+	private boolean request( String url ) {
+		
+		HttpURLConnection connection = null;
+		try {
+			connection = (HttpURLConnection) new URL( url + "Myth/GetHostName" ).openConnection();
+			connection.setRequestProperty( "User-Agent", "Android Application:MythTV_Android_Frontent" );
+			connection.setConnectTimeout( PROBE_TIMEOUT );
+			connection.setReadTimeout( PROBE_TIMEOUT );
+			
+			if( connection.getResponseCode() == HttpURLConnection.HTTP_OK ) {
+				InputStream in = connection.getInputStream();
+				byte[] hostname = new byte[ 128 ];
+				while( in.read( hostname, 0, 128 ) > 0 );
+				in.close();
+				
+				return true;
+			}
+			
+		} catch( IOException e ) {
+			Log.w( TAG, "request : error, connecting to backend " + url, e );
+		} finally {
+			if( null != connection ) {
+				connection.disconnect();
+			}
+		}
+		
+		return false;
+	}
+	
+	private boolean isNetworkConnected() {
+		
+		ConnectivityManager cm = (ConnectivityManager) mContext.getSystemService( Context.CONNECTIVITY_SERVICE );
+		NetworkInfo networkInfo = cm.getActiveNetworkInfo();
+		
+		return null != networkInfo && networkInfo.isConnectedOrConnecting();
+	}
+	
+	private void publish( State published ) {
+		
+		Intent intent = new Intent( ACTION_STATE_CHANGED );
+		intent.putExtra( EXTRA_REACHABLE, published.reachable );
+		intent.putExtra( EXTRA_LATENCY_P50, getLatencyPercentile( 50 ) );
+		intent.putExtra( EXTRA_LATENCY_P90, getLatencyPercentile( 90 ) );
+		intent.putExtra( EXTRA_LATENCY_P99, getLatencyPercentile( 99 ) );
+		
+		mContext.sendBroadcast( intent );
+	}
+	
+	private class ConnectivityReceiver extends BroadcastReceiver {
+
+		@Override
+		public void onReceive( Context context, Intent intent ) {
+			Log.v( TAG, "ConnectivityReceiver.onReceive : network changed" );
+			
+			State current = state;
+			if( null != current ) {
+				
+				// a new network makes the backoff meaningless, the next read probes again
+				state = new State( current.url, current.reachable, current.checked, 0, 0, current.latency );
+				
+				requestProbe();
+			}
+			
+		}
+		
+	}
+	
+}
@@ -0,0 +1,345 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
+import org.mythtv.services.api.ETagInfo;
+
+import android.content.OperationApplicationException;
+import android.os.RemoteException;
+import android.util.Log;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads service responses as a stream of tokens instead of binding the whole document. Each element of the named
+ * array is bound on its own and handed to an {@link ElementHandler}, so only one element is held at a time no matter
+ * how large the response is. The raw response can be copied to a cache file as it is read.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class JsonStreamHelper {
+
+	private static final String TAG = JsonStreamHelper.class.getSimpleName();
+	
+	public static final int NOT_MODIFIED = -1;
+	
+	public static final String CHANNEL_SERVICE = "Channel";
+	public static final String DVR_SERVICE = "Dvr";
+	public static final String GUIDE_SERVICE = "Guide";
+	
+	public static final int DEFAULT_BATCH_SIZE = 100;
+	
+	private static final int CONNECT_TIMEOUT = 1000 * 10;
+	private static final int READ_TIMEOUT = 1000 * 60;
+	
+	private static final String TEMP_EXT = ".tmp";
+	
+	/**
+	 * Receives each array element as soon as it has been parsed.
+	 */
+	public interface ElementHandler<T> {
+		
+		void element( T element ) throws IOException, RemoteException, OperationApplicationException;
+		
+	}
+	
+	/**
+	 * Collects the elements into batches of a fixed size, so a consumer can write each batch while the rest of the
+	 * response is still being read. The last partial batch is only handed over by {@link #flush()}.
+	 */
+	public static abstract class BatchHandler<T> implements ElementHandler<T> {
+		
+		private final int mSize;
+		private final List<T> mBatch;
+		
+		public BatchHandler( int size ) {
+			this.mSize = size;
+			this.mBatch = new ArrayList<T>( size );
+		}
+		
+		/* (non-Javadoc)
+		 * @see org.mythtv.service.util.JsonStreamHelper.ElementHandler#element(java.lang.Object)
+		 */
+		@Override
+		public void element( T element ) throws RemoteException, OperationApplicationException {
+			
+			mBatch.add( element );
+			if( mBatch.size() >= mSize ) {
+				flush();
+			}
+			
+		}
+		
+		public void flush() throws RemoteException, OperationApplicationException {
+			
+			if( !mBatch.isEmpty() ) {
+				batch( mBatch );
+				
+				mBatch.clear();
+			}
+			
+		}
+		
+		/**
+		 * @param elements only valid for the duration of the call
+		 */
+		protected abstract void batch( List<T> elements ) throws RemoteException, OperationApplicationException;
+		
+	}
+	
+	private ObjectMapper mObjectMapper;
+	
+	/**
+	 * Builds the url of a services endpoint, the endpoint names are taken from the services API templates so they
+	 * match the requests the API client makes.
+	 * 
+	 * @param baseUrl the location profile url, ending with a slash
+	 * @param service the service name, e.g. DVR_SERVICE
+	 * @param endpoint the endpoint name, e.g. DvrTemplate.Endpoint.GET_RECORDED_LIST.getEndpoint()
+	 * @param query optional, the query string without the leading '?'
+	 * @return
+	 */
+	public static String buildUrl( String baseUrl, String service, String endpoint, String query ) {
+		
+		StringBuilder url = new StringBuilder( baseUrl );
+		url.append( service ).append( '/' ).append( endpoint );
+		
+		if( null != query && !"".equals( query ) ) {
+			url.append( '?' ).append( query );
+		}
+		
+		return url.toString();
+	}
+	
+	public static JsonStreamHelper newInstance( ObjectMapper objectMapper ) {
+		return new JsonStreamHelper( objectMapper );
+	}
+	
+	protected JsonStreamHelper( ObjectMapper objectMapper ) {
+		this.mObjectMapper = objectMapper;
+	}
+	
+	/**
+	 * Requests the url and streams the elements of the named array to the handler. The raw response is written to the
+	 * cache file while it is parsed, the file is only replaced once the whole response has been read.
+	 * 
+	 * @param url
+	 * @param etag sent as If-None-Match, updated from the response
+	 * @param cache optional, receives the raw response
+	 * @param arrayName the field name of the array to stream
+	 * @param type the element type
+	 * @param handler
+	 * @return the number of elements streamed, or NOT_MODIFIED
+	 * @throws IOException
+	 * @throws RemoteException
+	 * @throws OperationApplicationException
+	 */
+	public <T> int download( String url, ETagInfo etag, File cache, String arrayName, Class<T> type, ElementHandler<T> handler ) throws IOException, RemoteException, OperationApplicationException {
+		Log.v( TAG, "download : enter" );
+		
+		HttpURLConnection connection = connect( url, etag );
+		
+		File temp = null;
+		try {
+			
+			if( connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED ) {
+				Log.v( TAG, "download : exit, not modified" );
+				
+				return NOT_MODIFIED;
+			}
+			
+			InputStream in = new BufferedInputStream( connection.getInputStream() );
+			if( null != cache ) {
+				temp = new File( cache.getPath() + TEMP_EXT );
+				
+				in = new TeeInputStream( in, new BufferedOutputStream( new FileOutputStream( temp ) ), true );
+			}
+			
+			int count;
+			try {
+				count = stream( in, arrayName, type, handler );
+			} finally {
+				IOUtils.closeQuietly( in );
+			}
+			
+			if( null != temp ) {
+				
+				if( !temp.renameTo( cache ) ) {
+					Log.w( TAG, "download : could not replace " + cache.getAbsolutePath() );
+				}
+				
+				temp = null;
+			}
+			
+			Log.v( TAG, "download : exit" );
+			return count;
+		} finally {
+			
+			if( null != temp ) {
+				temp.delete();
+			}
+			
+			connection.disconnect();
+		}
+		
+	}
+	
+	/**
+	 * Requests the url and copies the raw response to the file without parsing it.
+	 * 
+	 * @param url
+	 * @param etag sent as If-None-Match, updated from the response
+	 * @param file
+	 * @return the number of bytes written, or NOT_MODIFIED
+	 * @throws IOException
+	 */
+	public long fetch( String url, ETagInfo etag, File file ) throws IOException {
+		Log.v( TAG, "fetch : enter" );
+		
+		HttpURLConnection connection = connect( url, etag );
+		try {
+
+			if( connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED ) {
+				Log.v( TAG, "fetch : exit, not modified" );
+				
+				return NOT_MODIFIED;
+			}
+			
+			InputStream in = connection.getInputStream();
+			OutputStream out = new BufferedOutputStream( new FileOutputStream( file ) );
+			try {
+				long bytes = IOUtils.copyLarge( in, out );
+				
+				Log.v( TAG, "fetch : exit" );
+				return bytes;
+			} finally {
+				IOUtils.closeQuietly( in );
+				IOUtils.closeQuietly( out );
+			}
+			
+		} finally {
+			connection.disconnect();
+		}
+		
+	}
+	
+	/**
+	 * Streams the elements of the first array with the given field name to the handler. The input is read to the end,
+	 * so a stream being copied elsewhere sees the whole document.
+	 * 
+	 * A document without the array, or with an array that does not end properly, is an error rather than an empty
+	 * list, callers go on to delete whatever the response did not contain.
+	 * 
+	 * @param in
+	 * @param arrayName the field name of the array to stream
+	 * @param type the element type
+	 * @param handler
+	 * @return the number of elements streamed
+	 * @throws IOException if the array is missing or incomplete
+	 * @throws RemoteException
+	 * @throws OperationApplicationException
+	 */
+	public <T> int stream( InputStream in, String arrayName, Class<T> type, ElementHandler<T> handler ) throws IOException, RemoteException, OperationApplicationException {
+		Log.v( TAG, "stream : enter" );
+		
+		JsonParser parser = mObjectMapper.getJsonFactory().createJsonParser( in );
+		
+		int count = 0;
+		try {
+			
+			boolean found = false;
+			
+			JsonToken token;
+			while( null != ( token = parser.nextToken() ) ) {
+				
+				if( !found && token == JsonToken.START_ARRAY && arrayName.equals( parser.getCurrentName() ) ) {
+					found = true;
+					
+					while( ( token = parser.nextToken() ) == JsonToken.START_OBJECT ) {
+						handler.element( mObjectMapper.readValue( parser, type ) );
+						count++;
+					}
+					
+					if( token != JsonToken.END_ARRAY ) {
+						throw new IOException( arrayName + " ended unexpectedly after " + count + " elements" );
+					}
+					
+				}
+				
+			}
+			
+			if( !found ) {
+				throw new IOException( "no " + arrayName + " in the response" );
+			}
+			
+		} finally {
+			parser.close();
+		}
+		
+		Log.v( TAG, "stream : exit, streamed " + count + " " + arrayName );
+		return count;
+	}
+	
+	// internal helpers
+	
+	private HttpURLConnection connect( String url, ETagInfo etag ) throws IOException {
+		Log.v( TAG, "connect : url=" + url );
+		
+		HttpURLConnection connection = (HttpURLConnection) new URL( url ).openConnection();
+		connection.setRequestProperty( "User-Agent", "Android Application:MythTV_Android_Frontent" );
+		connection.setRequestProperty( "Accept", "application/json" );
+		connection.setConnectTimeout( CONNECT_TIMEOUT );
+		connection.setReadTimeout( READ_TIMEOUT );
+		
+		if( null != etag && null != etag.getETag() && !"".equals( etag.getETag() ) ) {
+			connection.setRequestProperty( "If-None-Match", etag.getETag() );
+		}
+		
+		int status = connection.getResponseCode();
+		if( status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_NOT_MODIFIED ) {
+			connection.disconnect();
+			
+			throw new IOException( "unexpected response " + status + " from " + url );
+		}
+		
+		if( null != etag && null != connection.getHeaderField( "ETag" ) ) {
+			etag.setETag( connection.getHeaderField( "ETag" ) );
+		}
+		
+		return connection;
+	}
+	
+}
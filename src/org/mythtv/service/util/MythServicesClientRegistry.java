@@ -0,0 +1,211 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.mythtv.services.api.MythServices;
+import org.mythtv.services.connect.MythServicesServiceProvider;
+
+import android.os.Build;
+import android.util.Log;
+
+/**
+ * Keeps one services client per backend url for the life of the application.
+ * 
+ * The client's rest template, and the keep-alive connections pooled underneath it, are reused
+ * by every caller until the connected backend changes, instead of being built again for each
+ * request. Calls made through the returned api are timed so connection reuse can be measured.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class MythServicesClientRegistry {
+
+	private static final String TAG = MythServicesClientRegistry.class.getSimpleName();
+	
+	private static final int MAX_CONNECTIONS = 5;
+	
+	private final ConcurrentMap<String, MythServices> clients = new ConcurrentHashMap<String, MythServices>();
+	
+	private volatile String currentUrl;
+	
+	private final AtomicInteger hitCount = new AtomicInteger();
+	private final AtomicInteger createCount = new AtomicInteger();
+	private final AtomicLong createTime = new AtomicLong();
+	private final AtomicInteger requestCount = new AtomicInteger();
+	private final AtomicLong requestTime = new AtomicLong();
+	
+	public static MythServicesClientRegistry newInstance() {
+		return new MythServicesClientRegistry();
+	}
+	
+	protected MythServicesClientRegistry() {
+		
+		// HttpURLConnection keep-alive is unreliable before Gingerbread, the connections are only pooled after it
+		if( Build.VERSION.SDK_INT >= Build.VERSION_CODES.GINGERBREAD ) {
+			System.setProperty( "http.keepAlive", "true" );
+			System.setProperty( "http.maxConnections", String.valueOf( MAX_CONNECTIONS ) );
+		}
+		
+	}
+	
+	/**
+	 * Returns the client for the connected backend, dropping the previous backend's client when the
+	 * connection has moved to a different url.
+	 * 
+	 * @param url
+	 * @return
+	 */
+	public MythServices getConnected( String url ) {
+		
+		String previous = currentUrl;
+		if( null != previous && !previous.equals( url ) ) {
+			Log.i( TAG, "getConnected : connected backend changed from " + previous + " to " + url );
+			
+			clients.remove( previous );
+		}
+		currentUrl = url;
+		
+		return get( url );
+	}
+	
+	/**
+	 * Returns the client for any backend url, such as a profile being edited, without changing the connected one.
+	 * 
+	 * @param url
+	 * @return
+	 */
+	public MythServices get( String url ) {
+		
+		MythServices api = clients.get( url );
+		if( null != api ) {
+			hitCount.incrementAndGet();
+			
+			return api;
+		}
+		
+		long start = System.nanoTime();
+		
+		MythServicesServiceProvider provider = new MythServicesServiceProvider( url, Level.FINE );
+		MythServices created = (MythServices) timed( provider.getApi(), MythServices.class );
+		
+		long elapsed = System.nanoTime() - start;
+		createCount.incrementAndGet();
+		createTime.addAndGet( elapsed );
+		Log.v( TAG, "get : created client for " + url + " in " + ( elapsed / 1000000 ) + "ms" );
+		
+		api = clients.putIfAbsent( url, created );
+		
+		return null != api ? api : created;
+	}
+	
+	/**
+	 * Drops every client, the next call for each backend builds a new one.
+	 */
+	public void clear() {
+		Log.v( TAG, "clear : enter" );
+		
+		clients.clear();
+		currentUrl = null;
+		
+		Log.v( TAG, "clear : exit" );
+	}
+	
+	public int getHitCount() {
+		return hitCount.get();
+	}
+
+	public int getCreateCount() {
+		return createCount.get();
+	}
+
+	/**
+	 * @return total time spent building clients, in milliseconds
+	 */
+	public long getCreateTime() {
+		return createTime.get() / 1000000;
+	}
+
+	public int getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * @return total time spent in backend requests, in milliseconds
+	 */
+	public long getRequestTime() {
+		return requestTime.get() / 1000000;
+	}
+
+	public String getStats() {
+		int requests = requestCount.get();
+		
+		return "hits=" + hitCount.get() + ", created=" + createCount.get() + " (" + getCreateTime() + "ms)"
+				+ ", requests=" + requests + ", avgLatency=" + ( requests > 0 ? getRequestTime() / requests : 0 ) + "ms";
+	}
+	
+	// internal helpers
+	
+	/*
+	 * Wraps the api, and each of the *Operations it hands out, so that the calls into the backend are timed.
+	 */
+	private Object timed( final Object target, Class<?> type ) {
+		
+		return Proxy.newProxyInstance( type.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+
+			@Override
+			public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable {
+				
+				Class<?> returnType = method.getReturnType();
+				boolean operations = returnType.isInterface() && returnType.getSimpleName().endsWith( "Operations" );
+
+				long start = System.nanoTime();
+				try {
+					Object result = method.invoke( target, args );
+					
+					if( operations && null != result ) {
+						return timed( result, returnType );
+					}
+					
+					return result;
+				} catch( InvocationTargetException e ) {
+					throw e.getCause();
+				} finally {
+					if( !operations && method.getDeclaringClass() != Object.class ) {
+						requestCount.incrementAndGet();
+						requestTime.addAndGet( System.nanoTime() - start );
+					}
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+}
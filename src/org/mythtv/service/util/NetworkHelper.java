@@ -24,7 +24,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 
 import org.mythtv.client.ui.preferences.LocationProfile;
-import org.mythtv.db.preferences.LocationProfileDaoHelper;
 
 import android.content.Context;
 import android.net.ConnectivityManager;
@@ -42,7 +41,6 @@ public class NetworkHelper {
 	private static final String TAG = NetworkHelper.class.getSimpleName();
 	
 	private Context mContext;
-	private LocationProfileDaoHelper mLocationProfileDaoHelper;
 	
 	public static NetworkHelper newInstance( Context context ) {
 		return new NetworkHelper( context );
@@ -50,8 +48,6 @@ public class NetworkHelper {
 	
 	protected NetworkHelper( Context context ) {
 		this.mContext = context;
-		
-		this.mLocationProfileDaoHelper = new LocationProfileDaoHelper( mContext );
 	}
 	
 	public boolean isNetworkConnected() {
@@ -69,49 +65,18 @@ public class NetworkHelper {
 		return true;
 	}
 	
+	/**
+	 * Answers from the cached backend state, see {@link BackendReachabilityMonitor}
+	 * 
+	 * @return
+	 */
 	public boolean isMasterBackendConnected() {
 		Log.v( TAG, "isMasterBackendConnected : enter" );
 
-		if( null == mLocationProfileDaoHelper.findConnectedProfile() ) {
-			Log.e( TAG, "isMasterBackendConnected : exit, no backend selected" );
-			
-			return false;
-		}
-
-		if( !isNetworkConnected() )
-			return false;
-
-		int attempts = 0;
-		while( attempts++ < 3 ) {
-			Log.v( TAG, "isMasterBackendConnected : attempt = " + attempts );
-				
-			try {
-
-				URL url = new URL( mLocationProfileDaoHelper.findConnectedProfile().getUrl() + "Myth/GetHostName" );
-
-				HttpURLConnection urlc = (HttpURLConnection) url.openConnection();
-				urlc.setRequestProperty( "User-Agent", "Android Application:MythTV_Android_Frontent" );
-				urlc.setRequestProperty( "Connection", "close" );
-				urlc.setConnectTimeout( 1000 * 10 ); // mTimeout is in seconds
-				urlc.connect();
-				if( urlc.getResponseCode() == 200 ) {
-					InputStream in = new BufferedInputStream(urlc.getInputStream());
-					byte[] hostname = new byte[ 128 ];
-					while( in.read( hostname , 0, 128 ) > 0 );
-					Log.v( TAG, "isMasterBackendConnected : exit" );
-					
-					return true;
-				}
-			} catch( MalformedURLException e ) {
-				Log.w( TAG, "isMasterBackendConnected : error, connecting with backend url", e );
-			} catch( IOException e ) {
-				Log.w( TAG, "isMasterBackendConnected : error, connecting to backend", e );
-			}
-
-		}
+		boolean connected = BackendReachabilityMonitor.getInstance( mContext ).isMasterBackendConnected();
 		
-		Log.v( TAG, "isMasterBackendConnected : exit, master backend could not be reached" );
-		return false;
+		Log.v( TAG, "isMasterBackendConnected : exit, connected=" + connected );
+		return connected;
 	}
 	
 	public boolean isMasterBackendConnected( LocationProfile profile ) {
@@ -0,0 +1,76 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package android.util;
+
+/**
+ * Stands in for the platform logger in JVM unit tests. The android jar only holds stubs that throw, this class comes
+ * first on the test classpath so the code under test can log as it does on a device.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public final class Log {
+
+	private Log() { }
+	
+	public static int v( String tag, String msg ) {
+		return 0;
+	}
+	
+	public static int v( String tag, String msg, Throwable tr ) {
+		return 0;
+	}
+	
+	public static int d( String tag, String msg ) {
+		return 0;
+	}
+	
+	public static int d( String tag, String msg, Throwable tr ) {
+		return 0;
+	}
+	
+	public static int i( String tag, String msg ) {
+		return 0;
+	}
+	
+	public static int i( String tag, String msg, Throwable tr ) {
+		return 0;
+	}
+	
+	public static int w( String tag, String msg ) {
+		return 0;
+	}
+	
+	public static int w( String tag, Throwable tr ) {
+		return 0;
+	}
+	
+	public static int w( String tag, String msg, Throwable tr ) {
+		return 0;
+	}
+	
+	public static int e( String tag, String msg ) {
+		return 0;
+	}
+	
+	public static int e( String tag, String msg, Throwable tr ) {
+		return 0;
+	}
+	
+}
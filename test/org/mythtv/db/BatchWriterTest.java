@@ -0,0 +1,80 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks how the adaptive batch size follows the commit times.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class BatchWriterTest {
+
+	@Test
+	public void batchOnTargetKeepsItsSize() {
+		assertEquals( 100, BatchWriter.nextBatchSize( 100, 100, BatchWriter.TARGET_COMMIT_MILLIS ) );
+	}
+	
+	@Test
+	public void fastCommitGrowsTheBatch() {
+		
+		// twice as fast as the target, half way to twice the size
+		assertEquals( 150, BatchWriter.nextBatchSize( 100, 100, BatchWriter.TARGET_COMMIT_MILLIS / 2 ) );
+	}
+	
+	@Test
+	public void slowCommitShrinksTheBatch() {
+		
+		// twice as slow as the target, half way to half the size
+		assertEquals( 75, BatchWriter.nextBatchSize( 100, 100, BatchWriter.TARGET_COMMIT_MILLIS * 2 ) );
+	}
+	
+	@Test
+	public void unmeasurableCommitGrowsTowardsTheMaximum() {
+		
+		int next = BatchWriter.nextBatchSize( BatchWriter.INITIAL_BATCH_SIZE, BatchWriter.INITIAL_BATCH_SIZE, 0 );
+		
+		assertTrue( next > BatchWriter.INITIAL_BATCH_SIZE );
+		assertTrue( next <= BatchWriter.MAX_BATCH_SIZE );
+	}
+	
+	@Test
+	public void sizeStaysWithinBounds() {
+		
+		assertEquals( BatchWriter.MAX_BATCH_SIZE, BatchWriter.nextBatchSize( BatchWriter.MAX_BATCH_SIZE, BatchWriter.MAX_BATCH_SIZE, 1 ) );
+		assertEquals( BatchWriter.MIN_BATCH_SIZE, BatchWriter.nextBatchSize( BatchWriter.MIN_BATCH_SIZE, BatchWriter.MIN_BATCH_SIZE, 60 * 1000 ) );
+	}
+	
+	@Test
+	public void repeatedSlowCommitsSettleAtTheMinimum() {
+		
+		int size = BatchWriter.INITIAL_BATCH_SIZE;
+		for( int i = 0; i < 20; i++ ) {
+			size = BatchWriter.nextBatchSize( size, size, 60 * 1000 );
+		}
+		
+		assertEquals( BatchWriter.MIN_BATCH_SIZE, size );
+	}
+	
+}
@@ -0,0 +1,113 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.db;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import android.database.Cursor;
+
+/**
+ * Resolves columns against a cursor stand-in that only answers getColumnIndex.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class CursorColumnIndexTest {
+
+	@Test
+	public void indexesFollowTheGivenOrder() {
+		
+		CursorColumnIndex index = new CursorColumnIndex( "title", "_id", "start" );
+		
+		assertArrayEquals( new int[] { 2, 0, 1 }, index.resolve( cursor( "_id", "start", "title" ) ) );
+	}
+	
+	@Test
+	public void missingColumnResolvesToMinusOne() {
+		
+		CursorColumnIndex index = new CursorColumnIndex( "_id", "subtitle", "title" );
+		
+		assertArrayEquals( new int[] { 0, -1, 1 }, index.resolve( cursor( "_id", "title" ) ) );
+	}
+	
+	@Test
+	public void sameCursorIsResolvedOnce() {
+		
+		CursorColumnIndex index = new CursorColumnIndex( "_id", "title" );
+		Cursor cursor = cursor( "_id", "title" );
+		
+		int[] first = index.resolve( cursor );
+		
+		assertSame( first, index.resolve( cursor ) );
+	}
+	
+	@Test
+	public void otherCursorIsResolvedAgain() {
+		
+		CursorColumnIndex index = new CursorColumnIndex( "_id", "title" );
+		
+		int[] first = index.resolve( cursor( "_id", "title" ) );
+		int[] second = index.resolve( cursor( "title", "_id" ) );
+		
+		assertNotSame( first, second );
+		assertArrayEquals( new int[] { 1, 0 }, second );
+		assertEquals( 0, first[ 0 ] );
+	}
+	
+	// internal helpers
+	
+	private static Cursor cursor( String... columns ) {
+		
+		final List<String> projection = Arrays.asList( columns );
+		
+		return (Cursor) Proxy.newProxyInstance( Cursor.class.getClassLoader(), new Class<?>[] { Cursor.class }, new InvocationHandler() {
+
+			@Override
+			public Object invoke( Object proxy, Method method, Object[] args ) throws Throwable {
+				
+				if( "getColumnIndex".equals( method.getName() ) ) {
+					return projection.indexOf( args[ 0 ] );
+				}
+				
+				if( "hashCode".equals( method.getName() ) ) {
+					return System.identityHashCode( proxy );
+				}
+				
+				if( "equals".equals( method.getName() ) ) {
+					return proxy == args[ 0 ];
+				}
+				
+				throw new UnsupportedOperationException( method.getName() );
+			}
+			
+		} );
+	}
+	
+}
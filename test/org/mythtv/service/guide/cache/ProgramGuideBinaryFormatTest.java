@@ -0,0 +1,269 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.guide.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mythtv.services.api.channel.ChannelInfo;
+import org.mythtv.services.api.dvr.Program;
+import org.mythtv.services.api.dvr.Recording;
+import org.mythtv.services.api.guide.ProgramGuide;
+
+/**
+ * Writes guides with {@link ProgramGuideBinaryWriter} and reads them back with {@link ProgramGuideBinaryReader}.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class ProgramGuideBinaryFormatTest {
+
+	private static final DateTime HOUR = new DateTime( 2013, 3, 1, 20, 0, 0, 0, DateTimeZone.UTC );
+	
+	private File file;
+	
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile( "guide", ProgramGuideBinaryFormat.FILENAME_EXT );
+	}
+	
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+	
+	@Test
+	public void roundTrip() throws IOException {
+		
+		Program news = program( HOUR, HOUR.plusMinutes( 30 ), "News", null, "News", null );
+		Program movie = program( HOUR.plusMinutes( 30 ), HOUR.plusHours( 2 ), "The Movie", "Director's Cut", "Movie", -1 );
+		Program rerun = program( HOUR, HOUR.plusHours( 1 ), "News", "Late Edition", "News", 4 );
+		
+		ProgramGuide programGuide = new ProgramGuide();
+		programGuide.setChannels( Arrays.asList( channel( 1001, "1", "ABC", news, movie ), channel( 1002, "2", null, rerun ) ) );
+		
+		ProgramGuideBinaryWriter.write( programGuide, file );
+		ProgramGuideBinaryReader reader = ProgramGuideBinaryReader.open( file );
+		
+		assertEquals( 2, reader.getChannelCount() );
+		assertEquals( 3, reader.getProgramCount() );
+		
+		ChannelInfo first = reader.getChannel( 0 );
+		assertEquals( 1001, first.getChannelId() );
+		assertEquals( "1", first.getChannelNumber() );
+		assertEquals( "ABC", first.getCallSign() );
+		assertEquals( 2, first.getPrograms().size() );
+		assertProgram( news, first.getPrograms().get( 0 ) );
+		assertProgram( movie, first.getPrograms().get( 1 ) );
+		
+		ChannelInfo second = reader.getChannel( 1 );
+		assertEquals( 1002, second.getChannelId() );
+		assertNull( second.getCallSign() );
+		assertEquals( 1, second.getPrograms().size() );
+		assertProgram( rerun, second.getPrograms().get( 0 ) );
+		
+		// the record accessors read the same fields without decoding the channel
+		assertEquals( "2", reader.getChannelNumber( 1 ) );
+		assertEquals( 2, reader.getFirstProgram( 1 ) );
+		assertEquals( 1, reader.getChannelProgramCount( 1 ) );
+		assertEquals( rerun.getStartTime().getMillis(), reader.getProgramStart( 2 ) );
+		assertEquals( rerun.getEndTime().getMillis(), reader.getProgramEnd( 2 ) );
+		assertEquals( "Late Edition", reader.getProgramSubTitle( 2 ) );
+		assertEquals( 4, reader.getProgramRecordingStatus( 2 ) );
+		assertEquals( ProgramGuideBinaryFormat.NO_RECORDING, reader.getProgramRecordingStatus( 0 ) );
+		
+		assertEquals( 2, reader.toProgramGuide().getChannels().size() );
+	}
+	
+	@Test
+	public void sharedStringsAreStoredOnce() throws IOException {
+		
+		List<ChannelInfo> channels = new ArrayList<ChannelInfo>();
+		for( int i = 0; i < 10; i++ ) {
+			channels.add( channel( i, String.valueOf( i ), "CALL", program( HOUR, HOUR.plusHours( 1 ), "News", null, "News", null ) ) );
+		}
+		
+		ProgramGuide programGuide = new ProgramGuide();
+		programGuide.setChannels( channels );
+		
+		ProgramGuideBinaryWriter.write( programGuide, file );
+		ProgramGuideBinaryReader reader = ProgramGuideBinaryReader.open( file );
+		
+		reader.decodeStrings();
+		assertEquals( 10, reader.getChannelCount() );
+		assertEquals( "CALL", reader.getChannel( 9 ).getCallSign() );
+		assertEquals( "News", reader.getProgramTitle( 9 ) );
+		// "News" and "CALL" once each, plus the ten channel numbers
+		assertEquals( 12, readStringCount( file ) );
+	}
+	
+	@Test
+	public void addKeepsOnlyTheProgramsAiringInTheRange() throws IOException {
+		
+		DateTime hourEnd = HOUR.plusHours( 1 );
+		
+		Program before = program( HOUR.minusHours( 1 ), HOUR, "Before", null, null, null );
+		Program overlapping = program( HOUR.minusMinutes( 30 ), HOUR.plusMinutes( 30 ), "Overlapping", null, null, null );
+		Program inside = program( HOUR.plusMinutes( 30 ), hourEnd, "Inside", null, null, null );
+		Program after = program( hourEnd, hourEnd.plusHours( 1 ), "After", null, null, null );
+		Program noStart = program( null, null, "No Start", null, null, null );
+		
+		ProgramGuideBinaryWriter writer = ProgramGuideBinaryWriter.newInstance( HOUR.getMillis() );
+		writer.add( channel( 1, "1", "ONE", before, overlapping, inside, after, noStart ), HOUR.getMillis(), hourEnd.getMillis() );
+		writer.add( channel( 2, "2", "TWO" ), HOUR.getMillis(), hourEnd.getMillis() );
+		writer.write( file );
+		
+		ProgramGuideBinaryReader reader = ProgramGuideBinaryReader.open( file );
+		assertEquals( 2, reader.getChannelCount() );
+		assertEquals( 2, reader.getProgramCount() );
+		
+		assertEquals( 2, reader.getChannelProgramCount( 0 ) );
+		assertEquals( "Overlapping", reader.getProgramTitle( 0 ) );
+		assertEquals( "Inside", reader.getProgramTitle( 1 ) );
+		
+		// a program starting before the base time keeps its start
+		assertEquals( overlapping.getStartTime().getMillis(), reader.getProgramStart( 0 ) );
+		assertEquals( overlapping.getEndTime().getMillis(), reader.getProgramEnd( 0 ) );
+		
+		// a channel without programs in the range is still listed
+		assertEquals( 0, reader.getChannelProgramCount( 1 ) );
+		assertEquals( "TWO", reader.getChannel( 1 ).getCallSign() );
+	}
+	
+	@Test
+	public void emptyGuide() throws IOException {
+		
+		ProgramGuideBinaryWriter.write( new ProgramGuide(), file );
+		
+		ProgramGuideBinaryReader reader = ProgramGuideBinaryReader.open( file );
+		assertEquals( 0, reader.getChannelCount() );
+		assertEquals( 0, reader.getProgramCount() );
+		assertEquals( 0, reader.toProgramGuide().getChannels().size() );
+	}
+	
+	@Test
+	public void writeReplacesTheFileWithoutLeavingATempFile() throws IOException {
+		
+		ProgramGuide programGuide = new ProgramGuide();
+		programGuide.setChannels( Arrays.asList( channel( 1, "1", "ONE", program( HOUR, HOUR.plusHours( 1 ), "First", null, null, null ) ) ) );
+		ProgramGuideBinaryWriter.write( programGuide, file );
+		
+		programGuide.setChannels( Arrays.asList( channel( 1, "1", "ONE", program( HOUR, HOUR.plusHours( 1 ), "Second", null, null, null ) ) ) );
+		ProgramGuideBinaryWriter.write( programGuide, file );
+		
+		assertEquals( "Second", ProgramGuideBinaryReader.open( file ).getProgramTitle( 0 ) );
+		assertFalse( new File( file.getPath() + ".tmp" ).exists() );
+	}
+	
+	@Test
+	public void rejectsOtherFiles() throws IOException {
+		
+		FileOutputStream out = new FileOutputStream( file );
+		try {
+			out.write( "{\"ProgramGuide\":{}}".getBytes( "UTF-8" ) );
+		} finally {
+			out.close();
+		}
+		
+		try {
+			ProgramGuideBinaryReader.open( file );
+			
+			fail( "a json file was opened as a binary guide" );
+		} catch( IOException e ) {
+			// expected
+		}
+		
+	}
+	
+	// internal helpers
+	
+	private static Program program( DateTime start, DateTime end, String title, String subTitle, String category, Integer status ) {
+		
+		Program program = new Program();
+		program.setStartTime( start );
+		program.setEndTime( end );
+		program.setTitle( title );
+		program.setSubTitle( subTitle );
+		program.setCategory( category );
+		
+		if( null != status ) {
+			Recording recording = new Recording();
+			recording.setStatus( status );
+			
+			program.setRecording( recording );
+		}
+		
+		return program;
+	}
+	
+	private static ChannelInfo channel( int id, String number, String callSign, Program... programs ) {
+		
+		ChannelInfo channel = new ChannelInfo();
+		channel.setChannelId( id );
+		channel.setChannelNumber( number );
+		channel.setCallSign( callSign );
+		channel.setPrograms( new ArrayList<Program>( Arrays.asList( programs ) ) );
+		
+		return channel;
+	}
+	
+	private static void assertProgram( Program expected, Program actual ) {
+		assertEquals( expected.getStartTime().getMillis(), actual.getStartTime().getMillis() );
+		assertEquals( expected.getEndTime().getMillis(), actual.getEndTime().getMillis() );
+		assertEquals( expected.getTitle(), actual.getTitle() );
+		assertEquals( expected.getSubTitle(), actual.getSubTitle() );
+		assertEquals( expected.getCategory(), actual.getCategory() );
+		
+		if( null == expected.getRecording() ) {
+			assertNull( actual.getRecording() );
+		} else {
+			assertEquals( expected.getRecording().getStatus(), actual.getRecording().getStatus() );
+		}
+		
+	}
+	
+	private static int readStringCount( File file ) throws IOException {
+		
+		RandomAccessFile raf = new RandomAccessFile( file, "r" );
+		try {
+			raf.seek( ProgramGuideBinaryFormat.HEADER_STRING_COUNT );
+			
+			return raf.readInt();
+		} finally {
+			raf.close();
+		}
+		
+	}
+	
+}
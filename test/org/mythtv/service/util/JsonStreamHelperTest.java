@@ -0,0 +1,201 @@
+/**
+ * This file is part of MythTV Android Frontend
+ *
+ * MythTV Android Frontend is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * MythTV Android Frontend is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with MythTV Android Frontend.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * This software can be found at <https://github.com/MythTV-Clients/MythTV-Android-Frontend/>
+ */
+package org.mythtv.service.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mythtv.service.util.JsonStreamHelper.BatchHandler;
+import org.mythtv.service.util.JsonStreamHelper.ElementHandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams small documents through {@link JsonStreamHelper}, in particular the responses a sync must not prune from.
+ * 
+ * @author Daniel Frey
+ *
+ */
+public class JsonStreamHelperTest {
+
+	private static final String PROGRAMS_FIELD = "Programs";
+	
+	private JsonStreamHelper mJsonStreamHelper;
+	private List<Item> items;
+	private ElementHandler<Item> handler;
+	
+	public static class Item {
+		
+		private int id;
+		
+		public int getId() {
+			return id;
+		}
+		
+		public void setId( int id ) {
+			this.id = id;
+		}
+		
+	}
+	
+	@Before
+	public void setUp() {
+		mJsonStreamHelper = JsonStreamHelper.newInstance( new ObjectMapper() );
+		
+		items = new ArrayList<Item>();
+		handler = new ElementHandler<Item>() {
+
+			@Override
+			public void element( Item element ) {
+				items.add( element );
+			}
+			
+		};
+	}
+	
+	@Test
+	public void streamsEveryElement() throws Exception {
+		
+		int count = mJsonStreamHelper.stream( input( "{\"ProgramList\":{\"Count\":3,\"Programs\":[{\"id\":1},{\"id\":2},{\"id\":3}],\"Version\":\"0.26\"}}" ), PROGRAMS_FIELD, Item.class, handler );
+		
+		assertEquals( 3, count );
+		assertEquals( 3, items.size() );
+		assertEquals( 1, items.get( 0 ).getId() );
+		assertEquals( 3, items.get( 2 ).getId() );
+	}
+	
+	@Test
+	public void emptyArrayIsNotAnError() throws Exception {
+		
+		int count = mJsonStreamHelper.stream( input( "{\"ProgramList\":{\"Programs\":[]}}" ), PROGRAMS_FIELD, Item.class, handler );
+		
+		assertEquals( 0, count );
+		assertTrue( items.isEmpty() );
+	}
+	
+	@Test
+	public void missingArrayThrows() throws Exception {
+		
+		try {
+			mJsonStreamHelper.stream( input( "{\"error\":\"Invalid Action\"}" ), PROGRAMS_FIELD, Item.class, handler );
+			
+			fail( "a response without the array was streamed as an empty list" );
+		} catch( IOException e ) {
+			// expected
+		}
+		
+		assertTrue( items.isEmpty() );
+	}
+	
+	@Test
+	public void arrayUnderAnotherNameThrows() throws Exception {
+		
+		try {
+			mJsonStreamHelper.stream( input( "{\"ProgramList\":{\"Recordings\":[{\"id\":1}]}}" ), PROGRAMS_FIELD, Item.class, handler );
+			
+			fail( "an array of another name was streamed" );
+		} catch( IOException e ) {
+			// expected
+		}
+		
+		assertTrue( items.isEmpty() );
+	}
+	
+	@Test
+	public void truncatedArrayThrows() throws Exception {
+		
+		try {
+			mJsonStreamHelper.stream( input( "{\"ProgramList\":{\"Programs\":[{\"id\":1},{\"id\":2}" ), PROGRAMS_FIELD, Item.class, handler );
+			
+			fail( "a cut off array was streamed as complete" );
+		} catch( IOException e ) {
+			// expected
+		}
+		
+	}
+	
+	@Test
+	public void unexpectedElementThrows() throws Exception {
+		
+		try {
+			mJsonStreamHelper.stream( input( "{\"ProgramList\":{\"Programs\":[{\"id\":1},2,{\"id\":3}]}}" ), PROGRAMS_FIELD, Item.class, handler );
+			
+			fail( "the array was cut short by an element that is not an object" );
+		} catch( IOException e ) {
+			// expected
+		}
+		
+	}
+	
+	@Test
+	public void readsTheWholeInput() throws Exception {
+		
+		ByteArrayInputStream in = input( "{\"ProgramList\":{\"Programs\":[{\"id\":1}],\"AsOf\":\"2013-03-01T20:00:00\",\"Version\":\"0.26\"}}" );
+		mJsonStreamHelper.stream( in, PROGRAMS_FIELD, Item.class, handler );
+		
+		assertEquals( 0, in.available() );
+	}
+	
+	@Test
+	public void batchHandlerHandsOverFullBatchesThenTheRest() throws Exception {
+		
+		final List<Integer> sizes = new ArrayList<Integer>();
+		BatchHandler<Item> batchHandler = new BatchHandler<Item>( 2 ) {
+
+			@Override
+			protected void batch( List<Item> elements ) {
+				sizes.add( elements.size() );
+			}
+			
+		};
+		
+		mJsonStreamHelper.stream( input( "{\"Programs\":[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4},{\"id\":5}]}" ), PROGRAMS_FIELD, Item.class, batchHandler );
+		assertEquals( 2, sizes.size() );
+		
+		batchHandler.flush();
+		assertEquals( 3, sizes.size() );
+		assertEquals( Integer.valueOf( 1 ), sizes.get( 2 ) );
+		
+		// nothing is left to hand over
+		batchHandler.flush();
+		assertEquals( 3, sizes.size() );
+	}
+	
+	@Test
+	public void buildsServiceUrls() {
+		
+		assertEquals( "http://backend:6544/Dvr/GetRecordedList", JsonStreamHelper.buildUrl( "http://backend:6544/", JsonStreamHelper.DVR_SERVICE, "GetRecordedList", null ) );
+		assertEquals( "http://backend:6544/Guide/GetProgramGuide?StartChanId=1", JsonStreamHelper.buildUrl( "http://backend:6544/", JsonStreamHelper.GUIDE_SERVICE, "GetProgramGuide", "StartChanId=1" ) );
+	}
+	
+	// internal helpers
+	
+	private static ByteArrayInputStream input( String json ) throws IOException {
+		return new ByteArrayInputStream( json.getBytes( "UTF-8" ) );
+	}
+	
+}